@@ -0,0 +1,314 @@
+package com.adeem.stockflow.audit;
+
+import com.adeem.stockflow.config.ApplicationProperties;
+import com.adeem.stockflow.domain.AbstractAuditingEntity;
+import com.adeem.stockflow.domain.EntityAuditEvent;
+import com.adeem.stockflow.domain.enumeration.EntityAuditAction;
+import com.adeem.stockflow.repository.EntityAuditEventRepository;
+import com.adeem.stockflow.repository.projection.EntityAuditVersionProjection;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Entity Audit Event writer that queues the events and writes them in batches from a single thread.
+ * <p>
+ * Hibernate entity listeners only put the entity in a bounded buffer. The flusher thread drains it, serializes the
+ * entities and saves each batch in one transaction, so the rows go out as JDBC batches. Commit versions come from an
+ * in-memory counter per entity, seeded on first use with one query per entity type and batch.
+ * <p>
+ * When the buffer is full, callers wait up to the offer timeout and the event is then dropped; waits, drops and the
+ * buffer depth are published as {@code audit.events.*} metrics. The buffer is drained when the application stops.
+ * As before, commit versions are only consistent while a single node audits a given entity.
+ */
+@Component
+@Profile("!testdev & !testprod")
+public class BatchingEntityAuditEventWriter implements EntityAuditEventWriter, SmartLifecycle {
+
+    private final Logger log = LoggerFactory.getLogger(BatchingEntityAuditEventWriter.class);
+
+    private final EntityAuditEventRepository auditingEntityRepository;
+
+    private final ObjectMapper objectMapper; //Jackson object mapper
+
+    private final ConversionService conversionService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final BlockingQueue<QueuedEvent> buffer;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+
+    // Last commit version per entity, least recently used first, guarded by the writer
+    private final Map<VersionKey, Integer> commitVersions;
+
+    private final Counter writtenCounter;
+    private final Counter waitCounter;
+    private final Counter droppedCounter;
+    private final Timer flushTimer;
+
+    private volatile boolean accepting = true;
+    private volatile boolean running;
+    private Thread flusher;
+
+    public BatchingEntityAuditEventWriter(
+        EntityAuditEventRepository auditingEntityRepository,
+        ObjectMapper objectMapper,
+        ConversionService conversionService,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
+        this.auditingEntityRepository = auditingEntityRepository;
+        this.objectMapper = objectMapper;
+        this.conversionService = conversionService;
+
+        // Events can be written from a Hibernate flush callback, never join that transaction
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        ApplicationProperties.Audit audit = applicationProperties.getAudit();
+        this.buffer = new ArrayBlockingQueue<>(Math.max(1, audit.getBufferSize()));
+        this.batchSize = Math.max(1, audit.getBatchSize());
+        this.flushIntervalMs = Math.max(1, audit.getFlushIntervalMs());
+        this.offerTimeoutMs = Math.max(0, audit.getOfferTimeoutMs());
+        int versionCacheSize = Math.max(1, audit.getVersionCacheSize());
+        this.commitVersions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<VersionKey, Integer> eldest) {
+                return size() > versionCacheSize;
+            }
+        };
+
+        this.writtenCounter = Counter.builder("audit.events.written")
+            .description("Entity audit events saved to the database")
+            .register(meterRegistry);
+        this.waitCounter = Counter.builder("audit.events.waits")
+            .description("Entity audit events whose caller had to wait for room in the buffer")
+            .register(meterRegistry);
+        this.droppedCounter = Counter.builder("audit.events.dropped")
+            .description("Entity audit events dropped because the buffer stayed full")
+            .register(meterRegistry);
+        this.flushTimer = Timer.builder("audit.events.flush")
+            .description("Time spent writing one batch of audit events")
+            .register(meterRegistry);
+        Gauge.builder("audit.events.queued", buffer, BlockingQueue::size)
+            .description("Entity audit events waiting to be written")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Queues the audit event, it is written by the flusher thread
+     */
+    @Override
+    public void writeAuditEvent(Object target, EntityAuditAction action) {
+        log.debug("-------------- Post {} audit  --------------", action.value());
+        QueuedEvent event = new QueuedEvent(target, action);
+        if (!accepting) {
+            // Shutting down, nobody will drain the buffer anymore
+            writeBatch(List.of(event));
+            return;
+        }
+        if (buffer.offer(event)) {
+            return;
+        }
+
+        waitCounter.increment();
+        try {
+            if (buffer.offer(event, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        droppedCounter.increment();
+        log.warn("Audit buffer full, dropped {} event for {}", action.value(), target.getClass().getName());
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        flusher = new Thread(this::flushLoop, "audit-event-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @Override
+    public void stop() {
+        accepting = false;
+        running = false;
+        if (flusher != null) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        List<QueuedEvent> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            writeBatch(batch);
+            batch.clear();
+        }
+        log.debug("Audit event flusher stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stop after the web server and the executors it feeds, so their last events are still drained
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void flushLoop() {
+        List<QueuedEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                QueuedEvent first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    buffer.drainTo(batch, batchSize - 1);
+                    writeBatch(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Exception in the audit event flusher", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes one batch of audit events in its own transaction
+     */
+    private synchronized void writeBatch(List<QueuedEvent> batch) {
+        List<EntityAuditEvent> auditedEntities = new ArrayList<>(batch.size());
+        for (QueuedEvent event : batch) {
+            EntityAuditEvent auditedEntity = prepareAuditEntity(event.target(), event.action());
+            if (auditedEntity != null) {
+                auditedEntities.add(auditedEntity);
+            }
+        }
+        if (auditedEntities.isEmpty()) {
+            return;
+        }
+
+        flushTimer.record(() -> {
+            try {
+                assignCommitVersions(auditedEntities);
+                transactionTemplate.executeWithoutResult(status -> auditingEntityRepository.saveAll(auditedEntities));
+                writtenCounter.increment(auditedEntities.size());
+            } catch (RuntimeException e) {
+                log.error("Exception while persisting {} audit entities error: {}", auditedEntities.size(), e.getMessage(), e);
+                // The versions handed out were not saved, seed them again next time
+                auditedEntities.forEach(auditedEntity -> commitVersions.remove(VersionKey.of(auditedEntity)));
+            }
+        });
+    }
+
+    /**
+     * Method to prepare auditing entity
+     *
+     * @param entity
+     * @param action
+     * @return
+     */
+    private EntityAuditEvent prepareAuditEntity(final Object entity, EntityAuditAction action) {
+        if (!(entity instanceof AbstractAuditingEntity<?> abstractAuditEntity)) {
+            log.error("Cannot audit {}, it is not an auditing entity", entity.getClass().getName());
+            return null;
+        }
+
+        EntityAuditEvent auditedEntity = new EntityAuditEvent();
+        auditedEntity.setAction(action.value());
+        auditedEntity.setEntityType(entity.getClass().getName());
+        String entityData;
+        log.trace("Getting Entity Id and Content");
+        try {
+            entityData = objectMapper.writeValueAsString(entity);
+        } catch (JsonProcessingException e) {
+            log.error("Exception while getting entity ID and content", e);
+            // returning null as we don't want to raise an application exception here
+            return null;
+        }
+        auditedEntity.setEntityId(conversionService.convert(abstractAuditEntity.getId(), String.class));
+        auditedEntity.setEntityValue(entityData);
+        if (EntityAuditAction.CREATE.equals(action)) {
+            auditedEntity.setModifiedBy(abstractAuditEntity.getCreatedBy());
+            auditedEntity.setModifiedDate(abstractAuditEntity.getCreatedDate());
+        } else {
+            auditedEntity.setModifiedBy(abstractAuditEntity.getLastModifiedBy());
+            auditedEntity.setModifiedDate(abstractAuditEntity.getLastModifiedDate());
+        }
+        log.trace("Audit Entity --> {} ", auditedEntity.toString());
+        return auditedEntity;
+    }
+
+    /**
+     * Creations start at version 1, the other events follow the last known version of their entity
+     */
+    private void assignCommitVersions(List<EntityAuditEvent> auditedEntities) {
+        Map<String, Set<String>> unknownIdsByType = new HashMap<>();
+        for (EntityAuditEvent auditedEntity : auditedEntities) {
+            if (!isCreation(auditedEntity) && !commitVersions.containsKey(VersionKey.of(auditedEntity))) {
+                unknownIdsByType.computeIfAbsent(auditedEntity.getEntityType(), type -> new HashSet<>()).add(auditedEntity.getEntityId());
+            }
+        }
+        unknownIdsByType.forEach((type, entityIds) -> {
+            log.trace("Seeding the commit versions of {} {} entities", entityIds.size(), type);
+            for (EntityAuditVersionProjection version : auditingEntityRepository.findMaxCommitVersions(type, entityIds)) {
+                commitVersions.put(new VersionKey(type, version.getEntityId()), version.getCommitVersion());
+            }
+        });
+
+        for (EntityAuditEvent auditedEntity : auditedEntities) {
+            VersionKey key = VersionKey.of(auditedEntity);
+            Integer lastCommitVersion = commitVersions.get(key);
+            int commitVersion = isCreation(auditedEntity) || lastCommitVersion == null ? 1 : lastCommitVersion + 1;
+            auditedEntity.setCommitVersion(commitVersion);
+            commitVersions.put(key, commitVersion);
+        }
+    }
+
+    private static boolean isCreation(EntityAuditEvent auditedEntity) {
+        return EntityAuditAction.CREATE.value().equals(auditedEntity.getAction());
+    }
+
+    private record QueuedEvent(Object target, EntityAuditAction action) {}
+
+    private record VersionKey(String entityType, String entityId) {
+        static VersionKey of(EntityAuditEvent auditedEntity) {
+            return new VersionKey(auditedEntity.getEntityType(), auditedEntity.getEntityId());
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package com.adeem.stockflow.batch.listener;
 
 import com.adeem.stockflow.batch.reader.ExcelProductItemReader;
+import com.adeem.stockflow.batch.reader.ImportRowRangePartitioner;
+import com.adeem.stockflow.batch.writer.ProductImportJobStates;
 import com.adeem.stockflow.domain.enumeration.ImportStatus;
 import com.adeem.stockflow.repository.ProductImportJobRepository;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,9 +25,11 @@ public class ProductImportJobListener implements JobExecutionListener {
     private static final Logger LOG = LoggerFactory.getLogger(ProductImportJobListener.class);
 
     private final ProductImportJobRepository importJobRepository;
+    private final ProductImportJobStates jobStates;
 
-    public ProductImportJobListener(ProductImportJobRepository importJobRepository) {
+    public ProductImportJobListener(ProductImportJobRepository importJobRepository, ProductImportJobStates jobStates) {
         this.importJobRepository = importJobRepository;
+        this.jobStates = jobStates;
     }
 
     @Override
@@ -46,6 +53,8 @@ public class ProductImportJobListener implements JobExecutionListener {
     public void afterJob(JobExecution jobExecution) {
         Long importJobId = jobExecution.getJobParameters().getLong("importJobId");
         LOG.info("Completed product import job with ID: {} - Status: {}", importJobId, jobExecution.getStatus());
+        jobStates.remove(jobExecution.getId());
+        deleteSpilledRows(jobExecution);
 
         try {
             ImportStatus finalStatus;
@@ -79,6 +88,21 @@ public class ProductImportJobListener implements JobExecutionListener {
         }
     }
 
+    /**
+     * Delete the rows spilled for the partitions of the import, if it was partitioned.
+     */
+    private void deleteSpilledRows(JobExecution jobExecution) {
+        String rowsFile = jobExecution.getExecutionContext().getString(ImportRowRangePartitioner.ROWS_FILE, null);
+        if (rowsFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(Path.of(rowsFile));
+        } catch (IOException e) {
+            LOG.warn("Could not delete spilled import rows {}: {}", rowsFile, e.getMessage());
+        }
+    }
+
     /**
      * Extract failure reason from job execution.
      */
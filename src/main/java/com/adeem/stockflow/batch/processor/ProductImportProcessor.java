@@ -1,37 +1,26 @@
 package com.adeem.stockflow.batch.processor;
 
-import com.adeem.stockflow.domain.ClientAccount;
-import com.adeem.stockflow.domain.ProductFamily;
 import com.adeem.stockflow.domain.enumeration.ImportErrorType;
-import com.adeem.stockflow.domain.enumeration.InventoryStatus;
 import com.adeem.stockflow.domain.enumeration.ProductCategory;
-import com.adeem.stockflow.repository.ClientAccountRepository;
-import com.adeem.stockflow.repository.ProductFamilyRepository;
-import com.adeem.stockflow.repository.ProductRepository;
-import com.adeem.stockflow.service.InventoryService;
-import com.adeem.stockflow.service.ProductService;
-import com.adeem.stockflow.service.criteria.ProductSpecification;
 import com.adeem.stockflow.service.dto.*;
 import com.adeem.stockflow.service.dto.batch.ImportErrorDTO;
 import com.adeem.stockflow.service.dto.batch.ProductCreationResult;
 import com.adeem.stockflow.service.dto.batch.ProductImportRow;
-import com.adeem.stockflow.service.mapper.ProductFamilyMapper;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Spring Batch ItemProcessor for converting ProductImportRow to ProductCreationResult.
- * Handles validation, product family resolution, and product creation.
+ * Handles the row-level validation and builds the product; everything that needs the database
+ * (code uniqueness, product families, inserts) is done per chunk by {@link com.adeem.stockflow.batch.writer.ProductImportWriter}.
  */
 @Component
 @StepScope
@@ -39,34 +28,10 @@ public class ProductImportProcessor implements ItemProcessor<ProductImportRow, P
 
     private static final Logger LOG = LoggerFactory.getLogger(ProductImportProcessor.class);
 
-    private final ProductService productService;
-    private final InventoryService inventoryService;
-    private final ProductRepository productRepository;
-    private final ProductFamilyRepository productFamilyRepository;
-    private final ClientAccountRepository clientAccountRepository;
-    private final ProductFamilyMapper productFamilyMapper;
-
     @Value("#{jobParameters['clientAccountId']}")
     private Long clientAccountId;
 
-    public ProductImportProcessor(
-        ProductService productService,
-        InventoryService inventoryService,
-        ProductRepository productRepository,
-        ProductFamilyRepository productFamilyRepository,
-        ClientAccountRepository clientAccountRepository,
-        ProductFamilyMapper productFamilyMapper
-    ) {
-        this.productService = productService;
-        this.inventoryService = inventoryService;
-        this.productRepository = productRepository;
-        this.productFamilyRepository = productFamilyRepository;
-        this.clientAccountRepository = clientAccountRepository;
-        this.productFamilyMapper = productFamilyMapper;
-    }
-
     @Override
-    @Transactional
     public ProductCreationResult process(ProductImportRow item) throws Exception {
         LOG.debug("Processing import row {}: {}", item.getRowNumber(), item.getCode());
 
@@ -77,21 +42,7 @@ public class ProductImportProcessor implements ItemProcessor<ProductImportRow, P
         }
 
         try {
-            // Create the product
-            ProductDTO productDTO = createProductFromImportRow(item);
-            ProductDTO savedProduct = productService.save(productDTO);
-
-            // Create initial inventory
-            if (item.getQuantity() != null && item.getQuantity().compareTo(BigDecimal.ZERO) >= 0) {
-                createInitialInventory(savedProduct, item.getQuantity());
-            }
-
-            return ProductCreationResult.success(
-                item.getRowNumber(),
-                item.getDataRowNumber(),
-                savedProduct.getId(),
-                savedProduct.getCode()
-            );
+            return ProductCreationResult.validated(item, createProductFromImportRow(item));
         } catch (Exception e) {
             LOG.error("Error processing import row {}: {}", item.getRowNumber(), e.getMessage(), e);
 
@@ -138,21 +89,6 @@ public class ProductImportProcessor implements ItemProcessor<ProductImportRow, P
             );
         }
 
-        // Validate product code uniqueness
-        if (item.getCode() != null && !item.getCode().trim().isEmpty()) {
-            boolean codeExists = productRepository
-                .findOne(
-                    ProductSpecification.withCode(item.getCode().trim()).and(ProductSpecification.withClientAccountId(clientAccountId))
-                )
-                .isPresent();
-
-            if (codeExists) {
-                errors.add(
-                    createDuplicateError(item, "code", item.getCode().trim(), "Product code already exists", "Use a unique product code")
-                );
-            }
-        }
-
         // Validate numeric fields
         if (item.getPrice() != null && item.getPrice().compareTo(BigDecimal.ZERO) < 0) {
             errors.add(
@@ -251,63 +187,9 @@ public class ProductImportProcessor implements ItemProcessor<ProductImportRow, P
             productDTO.setIsVisibleToCustomers(true); // Default to visible
         }
 
-        // Handle product family
-        if (item.getFamily() != null && !item.getFamily().trim().isEmpty()) {
-            ProductFamilyDTO familyDTO = resolveOrCreateProductFamily(item.getFamily().trim());
-            productDTO.setProductFamily(familyDTO);
-        }
-
         return productDTO;
     }
 
-    /**
-     * Create initial inventory for the product.
-     */
-    private void createInitialInventory(ProductDTO product, BigDecimal quantity) {
-        InventoryDTO inventoryDTO = new InventoryDTO();
-        inventoryDTO.setProduct(product);
-        inventoryDTO.setQuantity(quantity);
-        inventoryDTO.setAvailableQuantity(quantity);
-        inventoryDTO.setStatus(quantity.compareTo(BigDecimal.ZERO) == 0 ? InventoryStatus.OUT_OF_STOCK : InventoryStatus.AVAILABLE);
-        inventoryDTO.setClientAccountId(clientAccountId);
-
-        inventoryService.create(inventoryDTO);
-    }
-
-    /**
-     * Resolve existing product family or create new one.
-     */
-    private ProductFamilyDTO resolveOrCreateProductFamily(String familyName) {
-        // Try to find existing family
-        Optional<ProductFamily> existingFamily = productFamilyRepository
-            .findByNameContainingIgnoreCaseAndClientAccountId(
-                familyName,
-                clientAccountId,
-                org.springframework.data.domain.PageRequest.of(0, 1)
-            )
-            .stream()
-            .findFirst();
-
-        return existingFamily
-            .map(productFamilyMapper::toDto)
-            .orElseGet(() -> {
-                // Create new family
-                ProductFamily newFamily = new ProductFamily();
-                newFamily.setName(familyName);
-
-                // Set client account
-                ClientAccount clientAccount = clientAccountRepository
-                    .findById(clientAccountId)
-                    .orElseThrow(() -> new IllegalStateException("Client account not found: " + clientAccountId));
-                newFamily.setClientAccount(clientAccount);
-
-                ProductFamily savedFamily = productFamilyRepository.save(newFamily);
-                LOG.debug("Created new product family: {} for client account: {}", familyName, clientAccountId);
-
-                return productFamilyMapper.toDto(savedFamily);
-            });
-    }
-
     /**
      * Check if the category string is valid.
      */
@@ -399,27 +281,6 @@ public class ProductImportProcessor implements ItemProcessor<ProductImportRow, P
         );
     }
 
-    /**
-     * Helper method to create duplicate error.
-     */
-    private ImportErrorDTO createDuplicateError(
-        ProductImportRow item,
-        String fieldName,
-        String fieldValue,
-        String errorMessage,
-        String suggestion
-    ) {
-        return new ImportErrorDTO(
-            item.getRowNumber(),
-            item.getDataRowNumber(),
-            fieldName,
-            fieldValue,
-            ImportErrorType.DUPLICATE,
-            errorMessage,
-            suggestion
-        );
-    }
-
     /**
      * Helper method to create business rule error.
      */
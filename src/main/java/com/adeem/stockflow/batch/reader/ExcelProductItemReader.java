@@ -1,27 +1,32 @@
 package com.adeem.stockflow.batch.reader;
 
+import com.adeem.stockflow.batch.writer.ProductImportJobStates;
+import com.adeem.stockflow.config.ApplicationProperties;
 import com.adeem.stockflow.service.batch.HeaderDetecterService;
+import com.adeem.stockflow.service.dto.batch.ExcelRow;
 import com.adeem.stockflow.service.dto.batch.ProductImportRow;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.InputStream;
 import java.math.BigDecimal;
-import java.nio.file.Files;
-import java.util.Iterator;
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import java.nio.file.Path;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
 /**
  * Spring Batch ItemReader for reading Excel files and converting rows to ProductImportRow objects.
  * Now properly configured as a Step-scoped component.
+ * <p>
+ * With {@code application.import.streaming-reader} (the default), .xlsx files are streamed row by row through
+ * {@link XlsxStreamingRowSource}; only the first rows are buffered, for header detection.
+ * <p>
+ * In a partitioned import every worker step gets its own reader, limited to the data rows assigned by
+ * {@link ImportRowRangePartitioner} and reading them from the partitioner's {@link ImportRowSpill} instead of the
+ * sheet. A single step import reads the sheet and gives each product code to the first row that carries it, as the
+ * partitioner does.
  */
 @Component
 @StepScope
@@ -30,6 +35,8 @@ public class ExcelProductItemReader extends AbstractItemCountingItemStreamItemRe
     private static final Logger LOG = LoggerFactory.getLogger(ExcelProductItemReader.class);
 
     private final HeaderDetecterService headerDetecterService;
+    private final ProductImportJobStates jobStates;
+    private final boolean streamingReader;
 
     @Value("#{jobParameters['fileName']}")
     private String fileName;
@@ -37,115 +44,118 @@ public class ExcelProductItemReader extends AbstractItemCountingItemStreamItemRe
     @Value("#{jobParameters['clientAccountId']}")
     private Long clientAccountId;
 
-    private Resource resource;
-    private Workbook workbook;
-    private Sheet sheet;
-    private Iterator<Row> rowIterator;
+    // Range of data rows of a partitioned import, unset when one step reads the whole sheet
+    @Value("#{stepExecutionContext['firstDataRow']}")
+    private Integer firstDataRow;
+
+    @Value("#{stepExecutionContext['lastDataRow']}")
+    private Integer lastDataRow;
+
+    @Value("#{stepExecutionContext['rowsFile']}")
+    private String rowsFile;
+
+    @Value("#{stepExecutionContext['rowsOffset']}")
+    private Long rowsOffset;
+
+    @Value("#{stepExecution}")
+    private StepExecution stepExecution;
+
+    private ImportSheet sheet;
+    private ImportRowSpill.Reader spilledRows;
     private HeaderDetecterService.HeaderDetectionResult headerResult;
+    private Map<String, Integer> columnMappings;
+    private ProductImportJobStates.JobState jobState;
     private int currentRowNumber = 0;
     private int dataRowNumber = 0;
 
-    public ExcelProductItemReader(HeaderDetecterService headerDetecterService) {
+    public ExcelProductItemReader(
+        HeaderDetecterService headerDetecterService,
+        ProductImportJobStates jobStates,
+        ApplicationProperties applicationProperties
+    ) {
         this.headerDetecterService = headerDetecterService;
+        this.jobStates = jobStates;
+        this.streamingReader = applicationProperties.getImport().isStreamingReader();
         setName("excelProductItemReader");
     }
 
     @Override
     protected void doOpen() throws Exception {
-        LOG.debug("Opening Excel file: {}", fileName);
-
-        if (fileName == null) {
-            throw new IllegalStateException("fileName not set from job parameters");
-        }
-
-        // Create resource from the temp file storage path
-        String tempDir = System.getProperty("java.io.tmpdir") + "/stockflow-imports";
-        java.nio.file.Path filePath = java.nio.file.Path.of(tempDir, fileName);
-
-        if (!java.nio.file.Files.exists(filePath)) {
-            throw new IllegalStateException("File not found: " + filePath);
-        }
-
-        LOG.debug("Reading file from: {}", filePath);
-
-        // Open the workbook based on file extension
-        try (InputStream fis = Files.newInputStream(filePath)) {
-            if (fileName.toLowerCase().endsWith(".xlsx")) {
-                workbook = new XSSFWorkbook(fis);
-            } else if (fileName.toLowerCase().endsWith(".xls")) {
-                workbook = new HSSFWorkbook(fis);
-            } else {
-                throw new IllegalArgumentException("Unsupported file format. Only .xlsx and .xls files are supported.");
-            }
-        } catch (IOException e) {
-            LOG.error("Error opening workbook", e);
-            throw e;
-        }
-
-        // Get the first sheet
-        sheet = workbook.getSheetAt(0);
-        if (sheet == null) {
-            throw new IllegalStateException("Excel file does not contain any sheets");
-        }
+        if (rowsFile != null) {
+            LOG.debug("Opening spilled rows of {} (data rows: {}-{})", fileName, firstDataRow, lastDataRow);
 
-        LOG.debug("Sheet found with {} rows", sheet.getPhysicalNumberOfRows());
-
-        // Detect headers
-        headerResult = headerDetecterService.detectHeaders(sheet);
-        if (!headerResult.isSuccessful()) {
-            throw new IllegalStateException("Failed to detect headers: " + headerResult.getErrorMessage());
+            spilledRows = ImportRowSpill.open(Path.of(rowsFile), rowsOffset != null ? rowsOffset : 0L);
+            columnMappings = spilledRows.getColumnMappings();
+            return;
         }
 
-        LOG.debug(
-            "Headers detected at row {} with {} columns",
-            headerResult.getHeaderRowNumber() + 1,
-            headerResult.getColumnMappings().size()
-        );
+        LOG.debug("Opening Excel file: {} (streaming: {})", fileName, streamingReader);
 
-        // Initialize row iterator starting from after the header row
-        rowIterator = sheet.iterator();
+        sheet = ImportSheet.open(fileName, streamingReader, headerDetecterService);
+        headerResult = sheet.getHeaderResult();
+        columnMappings = headerResult.getColumnMappings();
+        jobState = jobStates.get(stepExecution.getJobExecutionId());
 
-        // Skip rows up to and including the header row
-        for (int i = 0; i <= headerResult.getHeaderRowNumber() && rowIterator.hasNext(); i++) {
-            rowIterator.next();
-            currentRowNumber++;
-        }
+        LOG.debug("Headers detected at row {} with {} columns", headerResult.getHeaderRowNumber() + 1, columnMappings.size());
     }
 
     @Override
     protected ProductImportRow doRead() throws Exception {
-        if (rowIterator == null || !rowIterator.hasNext()) {
+        if (spilledRows != null) {
+            // Spilled rows are never empty, the ones after the range belong to another partition
+            ImportRowSpill.SpilledRow spilled = spilledRows.next();
+            if (spilled == null || (lastDataRow != null && spilled.dataRowNumber() > lastDataRow)) {
+                return null;
+            }
+            currentRowNumber = spilled.row().rowIndex() + 1;
+            dataRowNumber = spilled.dataRowNumber();
+            return convertRowToProductImportRow(spilled.row());
+        }
+        if (sheet == null) {
             return null;
         }
 
-        Row row = rowIterator.next();
-        currentRowNumber++;
-        dataRowNumber++;
+        ExcelRow row;
+        while ((row = sheet.nextDataRow()) != null) {
+            currentRowNumber = row.rowIndex() + 1;
+            dataRowNumber++;
 
-        // Skip empty rows
-        if (isRowEmpty(row)) {
-            return doRead(); // Recursively call to get the next non-empty row
+            // Skip empty rows
+            if (!row.isEmpty()) {
+                ProductImportRow importRow = convertRowToProductImportRow(row);
+                if (importRow.getCode() != null) {
+                    jobState.claimCode(importRow.getCode(), dataRowNumber);
+                }
+                return importRow;
+            }
         }
-
-        return convertRowToProductImportRow(row);
+        return null;
     }
 
     @Override
     protected void doClose() throws Exception {
         LOG.debug("Closing Excel file reader");
 
-        if (workbook != null) {
+        if (sheet != null) {
             try {
-                workbook.close();
-            } catch (IOException e) {
-                LOG.warn("Error closing workbook", e);
+                sheet.close();
+            } catch (Exception e) {
+                LOG.warn("Error closing Excel file", e);
+            }
+        }
+        if (spilledRows != null) {
+            try {
+                spilledRows.close();
+            } catch (Exception e) {
+                LOG.warn("Error closing spilled rows", e);
             }
         }
 
-        rowIterator = null;
         sheet = null;
-        workbook = null;
+        spilledRows = null;
         headerResult = null;
+        columnMappings = null;
+        jobState = null;
         currentRowNumber = 0;
         dataRowNumber = 0;
     }
@@ -153,17 +163,15 @@ public class ExcelProductItemReader extends AbstractItemCountingItemStreamItemRe
     /**
      * Convert an Excel row to ProductImportRow DTO.
      */
-    private ProductImportRow convertRowToProductImportRow(Row row) {
+    private ProductImportRow convertRowToProductImportRow(ExcelRow row) {
         ProductImportRow importRow = new ProductImportRow(currentRowNumber, dataRowNumber);
 
         // Map each detected column to the appropriate field
-        for (String columnType : headerResult.getDetectedColumnTypes()) {
-            Integer columnIndex = headerResult.getColumnIndex(columnType);
-            if (columnIndex != null) {
-                Cell cell = row.getCell(columnIndex);
-                String cellValue = getCellValueAsString(cell);
+        for (Map.Entry<String, Integer> column : columnMappings.entrySet()) {
+            if (column.getValue() != null) {
+                String cellValue = row.getCell(column.getValue());
 
-                setFieldValue(importRow, columnType, cellValue);
+                setFieldValue(importRow, column.getKey(), cellValue);
             }
         }
 
@@ -300,73 +308,7 @@ public class ExcelProductItemReader extends AbstractItemCountingItemStreamItemRe
     }
 
     /**
-     * Get cell value as string regardless of cell type.
-     */
-    private String getCellValueAsString(Cell cell) {
-        if (cell == null) {
-            return null;
-        }
-
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getDateCellValue().toString();
-                } else {
-                    double numericValue = cell.getNumericCellValue();
-                    // Return as integer if it's a whole number
-                    if (numericValue == Math.floor(numericValue)) {
-                        return String.valueOf((long) numericValue);
-                    } else {
-                        return String.valueOf(numericValue);
-                    }
-                }
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                try {
-                    return cell.getStringCellValue();
-                } catch (Exception e) {
-                    try {
-                        double numericValue = cell.getNumericCellValue();
-                        if (numericValue == Math.floor(numericValue)) {
-                            return String.valueOf((long) numericValue);
-                        } else {
-                            return String.valueOf(numericValue);
-                        }
-                    } catch (Exception e2) {
-                        return null;
-                    }
-                }
-            case BLANK:
-            case _NONE:
-            case ERROR:
-            default:
-                return null;
-        }
-    }
-
-    /**
-     * Check if a row is empty (all cells are null or blank).
-     */
-    private boolean isRowEmpty(Row row) {
-        if (row == null) {
-            return true;
-        }
-
-        for (int i = row.getFirstCellNum(); i < row.getLastCellNum(); i++) {
-            Cell cell = row.getCell(i);
-            String cellValue = getCellValueAsString(cell);
-            if (cellValue != null && !cellValue.trim().isEmpty()) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    /**
-     * Get the header detection result.
+     * Get the header detection result, {@code null} in a partition, which reads spilled rows.
      */
     public HeaderDetecterService.HeaderDetectionResult getHeaderResult() {
         return headerResult;
@@ -0,0 +1,37 @@
+package com.adeem.stockflow.batch.reader;
+
+import com.adeem.stockflow.service.dto.batch.ExcelRow;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Forward-only access to the rows of the first sheet of an Excel file.
+ */
+public interface ExcelRowSource extends Closeable {
+    /**
+     * Read the next row present in the sheet; rows missing from the file are skipped.
+     *
+     * @return the row, or {@code null} once the sheet is exhausted
+     */
+    ExcelRow nextRow() throws IOException;
+
+    /**
+     * Open a row source for the given file.
+     *
+     * @param file the .xlsx or .xls file
+     * @param streaming whether .xlsx files are streamed instead of loaded into a workbook; .xls files are always loaded
+     * @return the row source, positioned before the first row
+     */
+    static ExcelRowSource open(Path file, boolean streaming) throws IOException {
+        String fileName = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (fileName.endsWith(".xlsx")) {
+            return streaming ? XlsxStreamingRowSource.open(file) : WorkbookRowSource.open(file, true);
+        }
+        if (fileName.endsWith(".xls")) {
+            return WorkbookRowSource.open(file, false);
+        }
+        throw new IllegalArgumentException("Unsupported file format. Only .xlsx and .xls files are supported.");
+    }
+}
@@ -0,0 +1,115 @@
+package com.adeem.stockflow.batch.reader;
+
+import com.adeem.stockflow.batch.writer.ProductImportJobStates;
+import com.adeem.stockflow.config.ApplicationProperties;
+import com.adeem.stockflow.service.batch.HeaderDetecterService;
+import com.adeem.stockflow.service.dto.batch.ExcelRow;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Splits an import file into contiguous ranges of data rows, one per worker step.
+ * <p>
+ * The sheet is read once up front, into an {@link ImportRowSpill} that the workers read their range from, so no
+ * worker parses the sheet itself. The spill file is deleted by
+ * {@link com.adeem.stockflow.batch.listener.ProductImportJobListener} when the job ends.
+ * <p>
+ * The same pass gives every product code to the first row that carries it, valid or not, so the same rows are
+ * reported as duplicates whatever order the partitions run in; a single step import claims the codes in the same
+ * way as it reads the sheet. The row count is also published as {@code estimatedDataRows} for the progress tracking.
+ */
+@Component
+@StepScope
+public class ImportRowRangePartitioner implements Partitioner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ImportRowRangePartitioner.class);
+
+    public static final String FIRST_DATA_ROW = "firstDataRow";
+    public static final String LAST_DATA_ROW = "lastDataRow";
+    public static final String ROWS_FILE = "rowsFile";
+    public static final String ROWS_OFFSET = "rowsOffset";
+
+    private final HeaderDetecterService headerDetecterService;
+    private final ProductImportJobStates jobStates;
+    private final boolean streamingReader;
+
+    @Value("#{jobParameters['fileName']}")
+    private String fileName;
+
+    @Value("#{stepExecution}")
+    private StepExecution stepExecution;
+
+    public ImportRowRangePartitioner(
+        HeaderDetecterService headerDetecterService,
+        ProductImportJobStates jobStates,
+        ApplicationProperties applicationProperties
+    ) {
+        this.headerDetecterService = headerDetecterService;
+        this.jobStates = jobStates;
+        this.streamingReader = applicationProperties.getImport().isStreamingReader();
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Path rowsFile = ImportSheet.importFile(fileName + "." + stepExecution.getJobExecutionId() + ".rows");
+        stepExecution.getJobExecution().getExecutionContext().putString(ROWS_FILE, rowsFile.toString());
+
+        try (ImportRowSpill.Writer rows = spillSheet(rowsFile)) {
+            int dataRows = rows.getDataRows();
+            stepExecution.getJobExecution().getExecutionContext().putInt("estimatedDataRows", dataRows);
+
+            int rowsPerPartition = Math.max(1, (dataRows + gridSize - 1) / gridSize);
+            Map<String, ExecutionContext> partitions = new HashMap<>();
+            for (int first = 1, index = 0; first <= Math.max(dataRows, 1); first += rowsPerPartition, index++) {
+                ExecutionContext context = new ExecutionContext();
+                context.putInt(FIRST_DATA_ROW, first);
+                context.putInt(LAST_DATA_ROW, Math.min(first + rowsPerPartition - 1, dataRows));
+                context.putString(ROWS_FILE, rowsFile.toString());
+                context.putLong(ROWS_OFFSET, rows.offsetOf(first));
+                partitions.put("partition" + index, context);
+            }
+
+            LOG.debug("Split {} data rows of {} into {} partitions", dataRows, fileName, partitions.size());
+            return partitions;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read import file " + fileName + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Copy the data rows to the spill file and claim each product code for the first row that has it.
+     */
+    private ImportRowSpill.Writer spillSheet(Path rowsFile) throws IOException {
+        ProductImportJobStates.JobState state = jobStates.get(stepExecution.getJobExecutionId());
+
+        try (ImportSheet sheet = ImportSheet.open(fileName, streamingReader, headerDetecterService)) {
+            Map<String, Integer> columnMappings = sheet.getHeaderResult().getColumnMappings();
+            Integer codeColumn = columnMappings.get("code");
+            ImportRowSpill.Writer rows = ImportRowSpill.create(rowsFile, columnMappings);
+            try {
+                ExcelRow row;
+                while ((row = sheet.nextDataRow()) != null) {
+                    rows.add(row);
+                    String code = codeColumn != null ? row.getCell(codeColumn) : null;
+                    if (code != null && !code.trim().isEmpty()) {
+                        state.claimCode(code.trim(), rows.getDataRows());
+                    }
+                }
+                return rows;
+            } catch (IOException | RuntimeException e) {
+                rows.close();
+                throw e;
+            }
+        }
+    }
+}
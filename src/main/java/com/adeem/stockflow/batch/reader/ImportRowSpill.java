@@ -0,0 +1,180 @@
+package com.adeem.stockflow.batch.reader;
+
+import com.adeem.stockflow.service.dto.batch.ExcelRow;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The data rows of an import file, copied once by {@link ImportRowRangePartitioner} for all the partitions.
+ * <p>
+ * A streamed sheet can only be read from its start, so a partition opening the file itself would parse every row
+ * before its range and load its own shared strings table. The partitioner already reads the whole sheet once, so it
+ * writes the non-empty rows, reduced to the detected columns, to one temporary file and gives every partition the
+ * offset its range starts at.
+ */
+final class ImportRowSpill {
+
+    private static final int END = -1;
+
+    private ImportRowSpill() {}
+
+    /**
+     * A spilled row with its 1-based number among the data rows, empty rows included.
+     */
+    record SpilledRow(ExcelRow row, int dataRowNumber) {}
+
+    static Writer create(Path file, Map<String, Integer> columnMappings) throws IOException {
+        return new Writer(file, columnMappings);
+    }
+
+    /**
+     * Open a spill file positioned at a row offset given by {@link Writer#offsetOf(int)}.
+     */
+    static Reader open(Path file, long offset) throws IOException {
+        return new Reader(file, offset);
+    }
+
+    static final class Writer implements Closeable {
+
+        private final DataOutputStream out;
+        private final Map<String, Integer> columnMappings;
+        private long position;
+        private long[] offsets = new long[1024];
+        private int dataRows;
+
+        private Writer(Path file, Map<String, Integer> columnMappings) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+            this.columnMappings = columnMappings;
+            out.writeInt(columnMappings.size());
+            for (Map.Entry<String, Integer> column : columnMappings.entrySet()) {
+                byte[] type = column.getKey().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(type.length);
+                out.write(type);
+                out.writeInt(column.getValue());
+            }
+            position = out.size();
+        }
+
+        /**
+         * Add the next data row; empty rows are only counted.
+         */
+        void add(ExcelRow row) throws IOException {
+            if (dataRows + 1 == offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[++dataRows] = position;
+            if (row.isEmpty()) {
+                return;
+            }
+
+            out.writeInt(row.rowIndex());
+            out.writeInt(dataRows);
+            position += 3 * Integer.BYTES;
+            int cellCount = 0;
+            for (Integer column : columnMappings.values()) {
+                if (row.getCell(column) != null) {
+                    cellCount++;
+                }
+            }
+            out.writeInt(cellCount);
+            for (Integer column : columnMappings.values()) {
+                String cell = row.getCell(column);
+                if (cell != null) {
+                    byte[] text = cell.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(column);
+                    out.writeInt(text.length);
+                    out.write(text);
+                    position += 2 * Integer.BYTES + text.length;
+                }
+            }
+        }
+
+        /**
+         * @return the number of data rows added so far
+         */
+        int getDataRows() {
+            return dataRows;
+        }
+
+        /**
+         * @return the offset of the first row at or after the given data row
+         */
+        long offsetOf(int dataRowNumber) {
+            return dataRowNumber >= 1 && dataRowNumber <= dataRows ? offsets[dataRowNumber] : position;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (out) {
+                out.writeInt(END);
+            }
+        }
+    }
+
+    static final class Reader implements Closeable {
+
+        private final FileChannel channel;
+        private final Map<String, Integer> columnMappings = new LinkedHashMap<>();
+        private final DataInputStream in;
+
+        private Reader(Path file, long offset) throws IOException {
+            channel = FileChannel.open(file);
+            try {
+                DataInputStream header = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+                for (int columns = header.readInt(); columns > 0; columns--) {
+                    byte[] type = new byte[header.readInt()];
+                    header.readFully(type);
+                    columnMappings.put(new String(type, StandardCharsets.UTF_8), header.readInt());
+                }
+                channel.position(offset);
+                in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * @return the detected column indexes by column type
+         */
+        Map<String, Integer> getColumnMappings() {
+            return columnMappings;
+        }
+
+        /**
+         * @return the next non-empty row, or {@code null} at the end of the file
+         */
+        SpilledRow next() throws IOException {
+            int rowIndex = in.readInt();
+            if (rowIndex == END) {
+                return null;
+            }
+            int dataRowNumber = in.readInt();
+            Map<Integer, String> cells = new LinkedHashMap<>();
+            for (int cellCount = in.readInt(); cellCount > 0; cellCount--) {
+                int column = in.readInt();
+                byte[] text = new byte[in.readInt()];
+                in.readFully(text);
+                cells.put(column, new String(text, StandardCharsets.UTF_8));
+            }
+            return new SpilledRow(new ExcelRow(rowIndex, cells), dataRowNumber);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.adeem.stockflow.batch.reader;
+
+import com.adeem.stockflow.service.batch.HeaderDetecterService;
+import com.adeem.stockflow.service.dto.batch.ExcelRow;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * An uploaded import file positioned after its header row.
+ * <p>
+ * Shared by the reader and the partitioner, so both number the data rows the same way: every row after the
+ * header counts, empty ones included.
+ */
+class ImportSheet implements Closeable {
+
+    private final ExcelRowSource rowSource;
+    private final HeaderDetecterService.HeaderDetectionResult headerResult;
+    private final Deque<ExcelRow> bufferedRows;
+
+    private ImportSheet(ExcelRowSource rowSource, HeaderDetecterService.HeaderDetectionResult headerResult, Deque<ExcelRow> bufferedRows) {
+        this.rowSource = rowSource;
+        this.headerResult = headerResult;
+        this.bufferedRows = bufferedRows;
+    }
+
+    /**
+     * Open an uploaded file from the import temp directory and detect its headers.
+     *
+     * @throws IllegalStateException if the file is missing or has no recognizable header row
+     */
+    static ImportSheet open(String fileName, boolean streaming, HeaderDetecterService headerDetecterService) throws IOException {
+        if (fileName == null) {
+            throw new IllegalStateException("fileName not set from job parameters");
+        }
+
+        Path filePath = importFile(fileName);
+        if (!Files.exists(filePath)) {
+            throw new IllegalStateException("File not found: " + filePath);
+        }
+
+        ExcelRowSource rowSource = ExcelRowSource.open(filePath, streaming);
+        try {
+            // Detect headers on the leading rows only, the rest of the sheet is read as the step goes
+            List<ExcelRow> leadingRows = new ArrayList<>();
+            ExcelRow row;
+            while (leadingRows.size() < HeaderDetecterService.MAX_HEADER_ROWS && (row = rowSource.nextRow()) != null) {
+                leadingRows.add(row);
+            }
+
+            HeaderDetecterService.HeaderDetectionResult headerResult = headerDetecterService.detectHeaders(leadingRows);
+            if (!headerResult.isSuccessful()) {
+                throw new IllegalStateException("Failed to detect headers: " + headerResult.getErrorMessage());
+            }
+
+            // Keep the already read rows that come after the header row
+            Deque<ExcelRow> bufferedRows = new ArrayDeque<>();
+            for (ExcelRow leadingRow : leadingRows) {
+                if (leadingRow.rowIndex() > headerResult.getHeaderRowNumber()) {
+                    bufferedRows.add(leadingRow);
+                }
+            }
+            return new ImportSheet(rowSource, headerResult, bufferedRows);
+        } catch (IOException | RuntimeException e) {
+            rowSource.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the path of an uploaded file, or of a file derived from it, in the import temp directory
+     */
+    static Path importFile(String fileName) {
+        return Path.of(System.getProperty("java.io.tmpdir"), "stockflow-imports", fileName);
+    }
+
+    HeaderDetecterService.HeaderDetectionResult getHeaderResult() {
+        return headerResult;
+    }
+
+    /**
+     * @return the next row after the header, or {@code null} at the end of the sheet
+     */
+    ExcelRow nextDataRow() throws IOException {
+        ExcelRow buffered = bufferedRows.poll();
+        return buffered != null ? buffered : rowSource.nextRow();
+    }
+
+    @Override
+    public void close() throws IOException {
+        bufferedRows.clear();
+        rowSource.close();
+    }
+}
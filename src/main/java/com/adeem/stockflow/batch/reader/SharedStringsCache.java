@@ -0,0 +1,144 @@
+package com.adeem.stockflow.batch.reader;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * The shared strings table of an .xlsx file, spilled to a temporary file.
+ * <p>
+ * Catalog files have mostly unique strings (codes, names, descriptions), so the table grows with the file.
+ * Only one offset per string and a bounded LRU of recently used strings stay on the heap.
+ */
+class SharedStringsCache implements Closeable {
+
+    private static final int CACHED_STRINGS = 4096;
+
+    private final Path file;
+    private final RandomAccessFile data;
+    private final long[] offsets;
+    private final int count;
+
+    private final Map<Integer, String> recent = new LinkedHashMap<>(CACHED_STRINGS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+            return size() > CACHED_STRINGS;
+        }
+    };
+
+    private SharedStringsCache(Path file, long[] offsets, int count) throws IOException {
+        this.file = file;
+        this.offsets = offsets;
+        this.count = count;
+        this.data = new RandomAccessFile(file.toFile(), "r");
+    }
+
+    /**
+     * Copy the {@code sst.xml} part into a temporary file.
+     *
+     * @param sst the shared strings part, or {@code null} when the workbook has none
+     * @param xmlInputFactory the factory to parse the part with
+     */
+    static SharedStringsCache load(InputStream sst, XMLInputFactory xmlInputFactory) throws IOException {
+        Path file = Files.createTempFile("stockflow-sst-", ".bin");
+        long[] offsets = new long[1024];
+        int count = 0;
+        try {
+            if (sst != null) {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+                    XMLStreamReader xml = xmlInputFactory.createXMLStreamReader(sst);
+                    long position = 0;
+                    while (xml.hasNext()) {
+                        if (xml.next() == XMLStreamConstants.START_ELEMENT && "si".equals(xml.getLocalName())) {
+                            byte[] text = readStringItem(xml).getBytes(StandardCharsets.UTF_8);
+                            if (count == offsets.length) {
+                                offsets = Arrays.copyOf(offsets, count * 2);
+                            }
+                            offsets[count++] = position;
+                            out.writeInt(text.length);
+                            out.write(text);
+                            position += Integer.BYTES + text.length;
+                        }
+                    }
+                    xml.close();
+                }
+            }
+            return new SharedStringsCache(file, offsets, count);
+        } catch (XMLStreamException e) {
+            Files.deleteIfExists(file);
+            throw new IOException("Malformed shared strings table", e);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    /**
+     * Text of an {@code <si>} item: the plain {@code <t>} or the concatenated rich text runs, without phonetic hints.
+     */
+    private static String readStringItem(XMLStreamReader xml) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int phoneticDepth = 0;
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = xml.getLocalName();
+                if ("rPh".equals(name)) {
+                    phoneticDepth++;
+                } else if ("t".equals(name) && phoneticDepth == 0) {
+                    text.append(xml.getElementText());
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                String name = xml.getLocalName();
+                if ("rPh".equals(name)) {
+                    phoneticDepth--;
+                } else if ("si".equals(name)) {
+                    break;
+                }
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * @param index the 0-based index of the string in the table
+     * @return the string, or {@code null} for an index outside the table
+     */
+    String get(int index) throws IOException {
+        if (index < 0 || index >= count) {
+            return null;
+        }
+        String cached = recent.get(index);
+        if (cached != null) {
+            return cached;
+        }
+        data.seek(offsets[index]);
+        byte[] text = new byte[data.readInt()];
+        data.readFully(text);
+        String value = new String(text, StandardCharsets.UTF_8);
+        recent.put(index, value);
+        return value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            data.close();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
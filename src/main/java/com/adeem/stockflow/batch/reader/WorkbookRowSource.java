@@ -0,0 +1,114 @@
+package com.adeem.stockflow.batch.reader;
+
+import com.adeem.stockflow.service.dto.batch.ExcelRow;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+/**
+ * Reads rows from a workbook loaded entirely in memory.
+ * Needed for .xls files, which have no streaming XML form; for .xlsx the heap grows with the file size.
+ */
+public class WorkbookRowSource implements ExcelRowSource {
+
+    private final Workbook workbook;
+    private final Iterator<Row> rowIterator;
+
+    private WorkbookRowSource(Workbook workbook) {
+        this.workbook = workbook;
+        Sheet sheet = workbook.getNumberOfSheets() > 0 ? workbook.getSheetAt(0) : null;
+        if (sheet == null) {
+            throw new IllegalStateException("Excel file does not contain any sheets");
+        }
+        this.rowIterator = sheet.iterator();
+    }
+
+    static WorkbookRowSource open(Path file, boolean xlsx) throws IOException {
+        Workbook workbook;
+        try (InputStream fis = Files.newInputStream(file)) {
+            workbook = xlsx ? new XSSFWorkbook(fis) : new HSSFWorkbook(fis);
+        }
+        try {
+            return new WorkbookRowSource(workbook);
+        } catch (RuntimeException e) {
+            workbook.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public ExcelRow nextRow() {
+        if (!rowIterator.hasNext()) {
+            return null;
+        }
+
+        Row row = rowIterator.next();
+        Map<Integer, String> cells = new LinkedHashMap<>();
+        for (Cell cell : row) {
+            String cellValue = getCellValueAsString(cell);
+            if (cellValue != null) {
+                cells.put(cell.getColumnIndex(), cellValue);
+            }
+        }
+        return new ExcelRow(row.getRowNum(), cells);
+    }
+
+    @Override
+    public void close() throws IOException {
+        workbook.close();
+    }
+
+    /**
+     * Get cell value as string regardless of cell type.
+     */
+    private String getCellValueAsString(Cell cell) {
+        if (cell == null) {
+            return null;
+        }
+
+        switch (cell.getCellType()) {
+            case STRING:
+                return cell.getStringCellValue();
+            case NUMERIC:
+                if (DateUtil.isCellDateFormatted(cell)) {
+                    return cell.getDateCellValue().toString();
+                } else {
+                    return formatNumber(cell.getNumericCellValue());
+                }
+            case BOOLEAN:
+                return String.valueOf(cell.getBooleanCellValue());
+            case FORMULA:
+                try {
+                    return cell.getStringCellValue();
+                } catch (Exception e) {
+                    try {
+                        return formatNumber(cell.getNumericCellValue());
+                    } catch (Exception e2) {
+                        return null;
+                    }
+                }
+            case BLANK:
+            case _NONE:
+            case ERROR:
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Whole numbers are returned without a decimal part, as product codes and quantities are often typed as numbers.
+     */
+    static String formatNumber(double numericValue) {
+        if (numericValue == Math.floor(numericValue) && !Double.isInfinite(numericValue)) {
+            return String.valueOf((long) numericValue);
+        }
+        return String.valueOf(numericValue);
+    }
+}
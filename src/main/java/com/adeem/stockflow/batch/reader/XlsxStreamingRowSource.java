@@ -0,0 +1,208 @@
+package com.adeem.stockflow.batch.reader;
+
+import com.adeem.stockflow.service.dto.batch.ExcelRow;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+
+/**
+ * Streams the rows of the first sheet of an .xlsx file straight from the zipped sheet XML, using the XSSF event
+ * model parts (sheet, styles and shared strings) instead of building a workbook.
+ * <p>
+ * The sheet is pulled one {@code <row>} at a time, so the heap holds a single row plus the bounded
+ * {@link SharedStringsCache}, whatever the size of the file.
+ */
+public class XlsxStreamingRowSource implements ExcelRowSource {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    private OPCPackage pkg;
+    private SharedStringsCache sharedStrings;
+    private StylesTable styles;
+    private InputStream sheetData;
+    private XMLStreamReader sheet;
+    private int nextRowIndex;
+
+    private XlsxStreamingRowSource() {}
+
+    static XlsxStreamingRowSource open(Path file) throws IOException {
+        XlsxStreamingRowSource source = new XlsxStreamingRowSource();
+        try {
+            source.pkg = OPCPackage.open(file.toFile(), PackageAccess.READ);
+            XSSFReader reader = new XSSFReader(source.pkg);
+            source.styles = reader.getStylesTable();
+
+            List<PackagePart> sstParts = source.pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+            try (InputStream sst = sstParts.isEmpty() ? null : sstParts.get(0).getInputStream()) {
+                source.sharedStrings = SharedStringsCache.load(sst, XML_INPUT_FACTORY);
+            }
+
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new IllegalStateException("Excel file does not contain any sheets");
+            }
+            source.sheetData = sheets.next();
+            source.sheet = XML_INPUT_FACTORY.createXMLStreamReader(source.sheetData);
+            return source;
+        } catch (OpenXML4JException | XMLStreamException e) {
+            source.close();
+            throw new IOException("Could not open Excel file " + file.getFileName(), e);
+        } catch (IOException | RuntimeException e) {
+            source.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public ExcelRow nextRow() throws IOException {
+        try {
+            while (sheet.hasNext()) {
+                if (sheet.next() == XMLStreamConstants.START_ELEMENT && "row".equals(sheet.getLocalName())) {
+                    return readRow();
+                }
+            }
+            return null;
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed sheet XML", e);
+        }
+    }
+
+    private ExcelRow readRow() throws XMLStreamException, IOException {
+        String rowRef = sheet.getAttributeValue(null, "r");
+        int rowIndex = rowRef != null ? Integer.parseInt(rowRef) - 1 : nextRowIndex;
+        nextRowIndex = rowIndex + 1;
+
+        Map<Integer, String> cells = new LinkedHashMap<>();
+        int nextColumnIndex = 0;
+        while (sheet.hasNext()) {
+            int event = sheet.next();
+            if (event == XMLStreamConstants.START_ELEMENT && "c".equals(sheet.getLocalName())) {
+                int columnIndex = columnIndex(sheet.getAttributeValue(null, "r"), nextColumnIndex);
+                nextColumnIndex = columnIndex + 1;
+                String cellValue = readCell();
+                if (cellValue != null) {
+                    cells.put(columnIndex, cellValue);
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && "row".equals(sheet.getLocalName())) {
+                break;
+            }
+        }
+        return new ExcelRow(rowIndex, cells);
+    }
+
+    /**
+     * Read a {@code <c>} element, formatting its value the same way {@link WorkbookRowSource} does.
+     */
+    private String readCell() throws XMLStreamException, IOException {
+        String type = sheet.getAttributeValue(null, "t");
+        String style = sheet.getAttributeValue(null, "s");
+        String value = null;
+        StringBuilder inlineText = null;
+
+        while (sheet.hasNext()) {
+            int event = sheet.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = sheet.getLocalName();
+                if ("v".equals(name)) {
+                    value = sheet.getElementText();
+                } else if ("t".equals(name)) {
+                    inlineText = inlineText == null ? new StringBuilder() : inlineText;
+                    inlineText.append(sheet.getElementText());
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && "c".equals(sheet.getLocalName())) {
+                break;
+            }
+        }
+
+        if (type == null || "n".equals(type)) {
+            return value == null || value.isEmpty() ? null : formatNumericCell(value, style);
+        }
+        return switch (type) {
+            case "s" -> value == null ? null : sharedStrings.get(Integer.parseInt(value.trim()));
+            case "inlineStr" -> inlineText == null ? null : inlineText.toString();
+            case "str", "d" -> value;
+            case "b" -> value == null ? null : String.valueOf("1".equals(value.trim()));
+            default -> null; // "e": error cells carry no usable value
+        };
+    }
+
+    private String formatNumericCell(String value, String style) {
+        double numericValue;
+        try {
+            numericValue = Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return value;
+        }
+        if (isDateFormatted(numericValue, style)) {
+            return DateUtil.getJavaDate(numericValue).toString();
+        }
+        return WorkbookRowSource.formatNumber(numericValue);
+    }
+
+    private boolean isDateFormatted(double numericValue, String style) {
+        if (styles == null || style == null || !DateUtil.isValidExcelDate(numericValue)) {
+            return false;
+        }
+        XSSFCellStyle cellStyle = styles.getStyleAt(Integer.parseInt(style));
+        return cellStyle != null && DateUtil.isADateFormat(cellStyle.getDataFormat(), cellStyle.getDataFormatString());
+    }
+
+    /**
+     * Column index of an A1-style cell reference; cells without a reference follow the previous one.
+     */
+    private static int columnIndex(String cellRef, int defaultIndex) {
+        if (cellRef == null) {
+            return defaultIndex;
+        }
+        int column = 0;
+        for (int i = 0; i < cellRef.length() && Character.isLetter(cellRef.charAt(i)); i++) {
+            column = column * 26 + (Character.toUpperCase(cellRef.charAt(i)) - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (sheet != null) {
+                sheet.close();
+            }
+            if (sheetData != null) {
+                sheetData.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Could not close sheet XML", e);
+        } finally {
+            if (sharedStrings != null) {
+                sharedStrings.close();
+            }
+            if (pkg != null) {
+                pkg.revert();
+            }
+        }
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
@@ -0,0 +1,66 @@
+package com.adeem.stockflow.batch.writer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory state of the running product imports, shared by all the steps (and partitions) of a job execution.
+ * <p>
+ * Created on first use and dropped by {@link com.adeem.stockflow.batch.listener.ProductImportJobListener} once the job ends.
+ */
+@Component
+public class ProductImportJobStates {
+
+    private final ConcurrentMap<Long, JobState> states = new ConcurrentHashMap<>();
+
+    public JobState get(Long jobExecutionId) {
+        return states.computeIfAbsent(jobExecutionId, id -> new JobState());
+    }
+
+    public void remove(Long jobExecutionId) {
+        states.remove(jobExecutionId);
+    }
+
+    /**
+     * Progress counters, product code owners and product family ids of one import.
+     */
+    public static class JobState {
+
+        private final AtomicInteger totalProcessed = new AtomicInteger();
+        private final AtomicInteger successCount = new AtomicInteger();
+        private final AtomicInteger errorCount = new AtomicInteger();
+
+        // Data row owning each product code, any other row with the same code is a duplicate
+        private final ConcurrentMap<String, Integer> codeOwners = new ConcurrentHashMap<>();
+
+        // Family ids by lower-cased name, only for families that are committed
+        private final Map<String, Long> familyIds = new ConcurrentHashMap<>();
+
+        /**
+         * Give the code to the data row unless an earlier claim already owns it.
+         *
+         * @return whether the row owns the code
+         */
+        public boolean claimCode(String code, int dataRowNumber) {
+            Integer owner = codeOwners.putIfAbsent(code, dataRowNumber);
+            return owner == null || owner == dataRowNumber;
+        }
+
+        public Map<String, Long> getFamilyIds() {
+            return familyIds;
+        }
+
+        public void recordProgress(int processed, int successful, int failed) {
+            totalProcessed.addAndGet(processed);
+            successCount.addAndGet(successful);
+            errorCount.addAndGet(failed);
+        }
+
+        public ProductImportWriter.ProgressStats getProgressStats() {
+            return new ProductImportWriter.ProgressStats(totalProcessed.get(), successCount.get(), errorCount.get());
+        }
+    }
+}
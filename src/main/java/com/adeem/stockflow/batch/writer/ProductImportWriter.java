@@ -1,59 +1,124 @@
 package com.adeem.stockflow.batch.writer;
 
+import com.adeem.stockflow.domain.ClientAccount;
+import com.adeem.stockflow.domain.Inventory;
+import com.adeem.stockflow.domain.InventoryTransaction;
+import com.adeem.stockflow.domain.Product;
+import com.adeem.stockflow.domain.ProductFamily;
 import com.adeem.stockflow.domain.ProductImportError;
 import com.adeem.stockflow.domain.ProductImportJob;
+import com.adeem.stockflow.domain.enumeration.ImportErrorType;
 import com.adeem.stockflow.domain.enumeration.ImportStatus;
+import com.adeem.stockflow.domain.enumeration.InventoryStatus;
+import com.adeem.stockflow.domain.enumeration.MeteredResource;
+import com.adeem.stockflow.domain.enumeration.TransactionType;
+import com.adeem.stockflow.repository.ClientAccountRepository;
+import com.adeem.stockflow.repository.InventoryRepository;
+import com.adeem.stockflow.repository.ProductFamilyRepository;
 import com.adeem.stockflow.repository.ProductImportErrorRepository;
 import com.adeem.stockflow.repository.ProductImportJobRepository;
+import com.adeem.stockflow.repository.ProductRepository;
+import com.adeem.stockflow.service.InventoryTransactionService;
+import com.adeem.stockflow.service.ProductFamilyService;
+import com.adeem.stockflow.service.QuotaEnforcementService;
 import com.adeem.stockflow.service.dto.batch.ImportErrorDTO;
 import com.adeem.stockflow.service.dto.batch.ProductCreationResult;
+import com.adeem.stockflow.service.dto.batch.ProductImportRow;
+import com.adeem.stockflow.service.event.CatalogChangedEvent;
+import com.adeem.stockflow.service.exceptions.BadRequestAlertException;
+import com.adeem.stockflow.service.mapper.ProductMapper;
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.JobExecutionListener;
 import org.springframework.batch.core.StepExecution;
-import org.springframework.batch.core.annotation.BeforeStep;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.Chunk;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Spring Batch ItemWriter for handling ProductCreationResult objects.
- * Updates import job progress and saves errors to database.
+ * Creates the products of a whole chunk at once, then updates import job progress and saves errors to database.
+ * <p>
+ * Code uniqueness and product families are resolved with one query per chunk. Families and code owners are
+ * kept in the job's {@link ProductImportJobStates.JobState}, shared by all partitions, so later chunks neither
+ * look them up again nor accept a code that appeared earlier in the file. Products, inventories and their
+ * initial transactions are inserted through Hibernate's JDBC batching.
+ * <p>
+ * The products of a chunk are counted against the plan limit before they are inserted; once the limit is reached,
+ * the rows of the chunk are rejected and the import goes on with the next chunk.
+ * <p>
+ * Step scoped: each partition of a partitioned import writes through its own instance.
  */
 @Component
+@StepScope
 public class ProductImportWriter implements ItemWriter<ProductCreationResult> {
 
     private static final Logger LOG = LoggerFactory.getLogger(ProductImportWriter.class);
 
     private final ProductImportJobRepository importJobRepository;
     private final ProductImportErrorRepository importErrorRepository;
-
+    private final ProductRepository productRepository;
+    private final ProductFamilyRepository productFamilyRepository;
+    private final InventoryRepository inventoryRepository;
+    private final ClientAccountRepository clientAccountRepository;
+    private final InventoryTransactionService inventoryTransactionService;
+    private final ProductFamilyService productFamilyService;
+    private final QuotaEnforcementService quotaEnforcementService;
+    private final ProductMapper productMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductImportJobStates jobStates;
+
+    @Value("#{jobParameters['importJobId']}")
     private Long importJobId;
-    private Long clientAccountId;
 
-    // Counters for tracking progress
-    private final AtomicInteger totalProcessed = new AtomicInteger(0);
-    private final AtomicInteger successCount = new AtomicInteger(0);
-    private final AtomicInteger errorCount = new AtomicInteger(0);
+    @Value("#{jobParameters['clientAccountId']}")
+    private Long clientAccountId;
 
+    @Value("#{stepExecution}")
     private StepExecution stepExecution;
 
-    public ProductImportWriter(ProductImportJobRepository importJobRepository, ProductImportErrorRepository importErrorRepository) {
+    public ProductImportWriter(
+        ProductImportJobRepository importJobRepository,
+        ProductImportErrorRepository importErrorRepository,
+        ProductRepository productRepository,
+        ProductFamilyRepository productFamilyRepository,
+        InventoryRepository inventoryRepository,
+        ClientAccountRepository clientAccountRepository,
+        InventoryTransactionService inventoryTransactionService,
+        ProductFamilyService productFamilyService,
+        QuotaEnforcementService quotaEnforcementService,
+        ProductMapper productMapper,
+        ApplicationEventPublisher eventPublisher,
+        ProductImportJobStates jobStates
+    ) {
         this.importJobRepository = importJobRepository;
         this.importErrorRepository = importErrorRepository;
-    }
-
-    @BeforeStep
-    public void beforeStep(StepExecution stepExecution) {
-        this.importJobId = stepExecution.getJobExecution().getJobParameters().getLong("importJobId");
-        this.clientAccountId = stepExecution.getJobExecution().getJobParameters().getLong("clientAccountId");
-        this.stepExecution = stepExecution;
+        this.productRepository = productRepository;
+        this.productFamilyRepository = productFamilyRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.clientAccountRepository = clientAccountRepository;
+        this.inventoryTransactionService = inventoryTransactionService;
+        this.productFamilyService = productFamilyService;
+        this.quotaEnforcementService = quotaEnforcementService;
+        this.productMapper = productMapper;
+        this.eventPublisher = eventPublisher;
+        this.jobStates = jobStates;
     }
 
     @Override
@@ -61,6 +126,16 @@ public class ProductImportWriter implements ItemWriter<ProductCreationResult> {
     public void write(Chunk<? extends ProductCreationResult> chunk) throws Exception {
         LOG.debug("Writing batch of {} results for import job {}", chunk.size(), importJobId);
 
+        List<ProductCreationResult> pending = new ArrayList<>();
+        for (ProductCreationResult result : chunk) {
+            if (result.isPending()) {
+                pending.add(result);
+            }
+        }
+        if (!pending.isEmpty()) {
+            createProducts(pending);
+        }
+
         List<ProductImportError> errorsToSave = new ArrayList<>();
         int batchSuccessCount = 0;
         int batchErrorCount = 0;
@@ -88,25 +163,200 @@ public class ProductImportWriter implements ItemWriter<ProductCreationResult> {
             LOG.debug("Saved {} errors to database", errorsToSave.size());
         }
 
-        // Update counters
-        totalProcessed.addAndGet(chunk.size());
-        successCount.addAndGet(batchSuccessCount);
-        errorCount.addAndGet(batchErrorCount);
-
         // Update import job progress
-        updateImportJobProgress();
+        ProductImportJobStates.JobState state = jobState();
+        updateImportJobProgress(state, chunk.size(), batchSuccessCount, batchErrorCount);
+
+        // Counted once the chunk commits, so a chunk rolled back and scanned again item by item is not counted twice
+        int processed = chunk.size();
+        int successful = batchSuccessCount;
+        int failed = batchErrorCount;
+        afterCommit(() -> state.recordProgress(processed, successful, failed));
 
         LOG.debug("Processed batch: {} total, {} success, {} errors", chunk.size(), batchSuccessCount, batchErrorCount);
     }
 
+    /**
+     * Create the products of the validated rows, rejecting codes that already exist or repeat an earlier row, and
+     * all the rows once the plan's product limit is reached.
+     */
+    private void createProducts(List<ProductCreationResult> pending) {
+        Set<String> codes = new HashSet<>();
+        for (ProductCreationResult result : pending) {
+            codes.add(result.getProductCode());
+        }
+        Set<String> existingCodes = new HashSet<>(productRepository.findExistingCodes(codes, clientAccountId));
+
+        ProductImportJobStates.JobState state = jobState();
+        List<ProductCreationResult> accepted = new ArrayList<>();
+        for (ProductCreationResult result : pending) {
+            String code = result.getProductCode();
+            if (existingCodes.contains(code)) {
+                result.addError(createDuplicateError(result, code, "Product code already exists", "Use a unique product code"));
+            } else if (!state.claimCode(code, result.getDataRowNumber())) {
+                result.addError(
+                    createDuplicateError(result, code, "Product code appears more than once in the file", "Keep one row per product code")
+                );
+            } else {
+                accepted.add(result);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+        try {
+            // Given back by the quota service if the chunk rolls back
+            quotaEnforcementService.acquire(clientAccountId, MeteredResource.PRODUCTS, accepted.size());
+        } catch (BadRequestAlertException e) {
+            for (ProductCreationResult result : accepted) {
+                result.addError(
+                    new ImportErrorDTO(
+                        result.getRowNumber(),
+                        result.getDataRowNumber(),
+                        "code",
+                        result.getProductCode(),
+                        ImportErrorType.BUSINESS_RULE,
+                        e.getUserMessage(),
+                        "Upgrade your plan or remove products before importing more"
+                    )
+                );
+            }
+            return;
+        }
+
+        ClientAccount clientAccount = clientAccountRepository.getReferenceById(clientAccountId);
+        Map<String, ProductFamily> families = resolveProductFamilies(accepted, state);
+
+        List<Product> products = new ArrayList<>(accepted.size());
+        for (ProductCreationResult result : accepted) {
+            Product product = productMapper.toEntity(result.getProduct());
+            product.setClientAccount(clientAccount);
+            product.setProductFamily(families.get(familyKey(result.getRow())));
+            products.add(product);
+        }
+        productRepository.saveAll(products);
+
+        List<Inventory> inventories = new ArrayList<>(products.size());
+        List<InventoryTransaction> transactions = new ArrayList<>(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            BigDecimal quantity = accepted.get(i).getRow().getQuantity();
+
+            Inventory inventory = new Inventory();
+            inventory.setProduct(product);
+            inventory.setQuantity(quantity);
+            inventory.setAvailableQuantity(quantity);
+            inventory.setStatus(quantity.compareTo(BigDecimal.ZERO) == 0 ? InventoryStatus.OUT_OF_STOCK : InventoryStatus.AVAILABLE);
+            inventory.setClientAccount(clientAccount);
+            inventories.add(inventory);
+
+            transactions.add(
+                inventoryTransactionService.createEntity(
+                    quantity,
+                    TransactionType.INITIAL,
+                    product,
+                    clientAccount,
+                    inventoryTransactionService.generateReference(clientAccountId)
+                )
+            );
+        }
+        inventoryRepository.saveAll(inventories);
+        inventoryTransactionService.saveAll(transactions);
+        // Flush here so a failing insert fails this write, before any row is reported as created
+        productRepository.flush();
+
+        for (int i = 0; i < accepted.size(); i++) {
+            ProductCreationResult result = accepted.get(i);
+            result.setSuccess(true);
+            result.setProductId(products.get(i).getId());
+        }
+        eventPublisher.publishEvent(new CatalogChangedEvent(clientAccountId));
+    }
+
+    /**
+     * Resolve the families named by the rows, matching existing ones by name ignoring case and creating the rest.
+     * <p>
+     * Runs under the job's lock and commits new families on their own, so two partitions never create the same family.
+     *
+     * @return the families by lower-cased name
+     */
+    private Map<String, ProductFamily> resolveProductFamilies(List<ProductCreationResult> results, ProductImportJobStates.JobState state) {
+        Map<String, String> namesByKey = new LinkedHashMap<>();
+        for (ProductCreationResult result : results) {
+            String key = familyKey(result.getRow());
+            if (key != null) {
+                namesByKey.putIfAbsent(key, result.getRow().getFamily().trim());
+            }
+        }
+        if (namesByKey.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, Long> familyIds = state.getFamilyIds();
+        if (!familyIds.keySet().containsAll(namesByKey.keySet())) {
+            synchronized (state) {
+                Set<String> unknown = new HashSet<>(namesByKey.keySet());
+                unknown.removeAll(familyIds.keySet());
+
+                if (!unknown.isEmpty()) {
+                    for (ProductFamily family : productFamilyRepository.findByLowerNameInAndClientAccountId(unknown, clientAccountId)) {
+                        String key = family.getName().toLowerCase(Locale.ROOT);
+                        if (unknown.remove(key)) {
+                            familyIds.put(key, family.getId());
+                        }
+                    }
+                }
+
+                if (!unknown.isEmpty()) {
+                    List<String> names = unknown.stream().map(namesByKey::get).toList();
+                    for (ProductFamily family : productFamilyService.createAll(names, clientAccountId)) {
+                        familyIds.put(family.getName().toLowerCase(Locale.ROOT), family.getId());
+                    }
+                    LOG.debug("Created {} product families for client account: {}", names.size(), clientAccountId);
+                }
+            }
+        }
+
+        Map<String, ProductFamily> families = new HashMap<>();
+        for (String key : namesByKey.keySet()) {
+            families.put(key, productFamilyRepository.getReferenceById(familyIds.get(key)));
+        }
+        return families;
+    }
+
+    private static String familyKey(ProductImportRow row) {
+        if (row.getFamily() == null || row.getFamily().trim().isEmpty()) {
+            return null;
+        }
+        return row.getFamily().trim().toLowerCase(Locale.ROOT);
+    }
+
+    private ImportErrorDTO createDuplicateError(ProductCreationResult result, String code, String errorMessage, String suggestion) {
+        return new ImportErrorDTO(
+            result.getRowNumber(),
+            result.getDataRowNumber(),
+            "code",
+            code,
+            ImportErrorType.DUPLICATE,
+            errorMessage,
+            suggestion
+        );
+    }
+
     /**
      * Update the import job progress in the database.
+     * The row counts are incremented in the chunk transaction, so they stay exact across partitions and rollbacks.
      */
-    private void updateImportJobProgress() {
+    private void updateImportJobProgress(
+        ProductImportJobStates.JobState state,
+        int batchProcessed,
+        int batchSuccessCount,
+        int batchErrorCount
+    ) {
         try {
-            int currentTotal = totalProcessed.get();
-            int currentSuccess = successCount.get();
-            int currentErrors = errorCount.get();
+            ProgressStats progress = state.getProgressStats();
+            // This chunk is only added to the job's counters once it commits
+            int currentTotal = progress.getTotalProcessed() + batchProcessed;
 
             // Get estimated total rows from step execution context
             int estimatedTotal = getEstimatedTotalRows();
@@ -117,11 +367,11 @@ public class ProductImportWriter implements ItemWriter<ProductCreationResult> {
                 estimatedTotal > 0 ? estimatedTotal : currentTotal
             );
 
-            importJobRepository.updateJobProgress(
+            importJobRepository.incrementJobProgress(
                 importJobId,
                 estimatedTotal > 0 ? estimatedTotal : currentTotal,
-                currentSuccess,
-                currentErrors,
+                batchSuccessCount,
+                batchErrorCount,
                 currentPhase
             );
 
@@ -129,14 +379,29 @@ public class ProductImportWriter implements ItemWriter<ProductCreationResult> {
                 "Updated import job progress: {}/{} processed, {} successful, {} errors",
                 currentTotal,
                 estimatedTotal,
-                currentSuccess,
-                currentErrors
+                progress.getSuccessCount(),
+                progress.getErrorCount()
             );
         } catch (Exception e) {
             LOG.warn("Failed to update import job progress: {}", e.getMessage());
         }
     }
 
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            }
+        );
+    }
+
     /**
      * Get estimated total rows from step execution context.
      */
@@ -173,19 +438,14 @@ public class ProductImportWriter implements ItemWriter<ProductCreationResult> {
     }
 
     /**
-     * Get current progress statistics.
+     * Get current progress statistics of the whole job, all partitions included.
      */
     public ProgressStats getProgressStats() {
-        return new ProgressStats(totalProcessed.get(), successCount.get(), errorCount.get());
+        return jobState().getProgressStats();
     }
 
-    /**
-     * Reset counters (useful for testing or restarting jobs).
-     */
-    public void resetCounters() {
-        totalProcessed.set(0);
-        successCount.set(0);
-        errorCount.set(0);
+    private ProductImportJobStates.JobState jobState() {
+        return jobStates.get(stepExecution.getJobExecutionId());
     }
 
     /**
@@ -13,6 +13,20 @@ public class ApplicationProperties {
 
     private final Liquibase liquibase = new Liquibase();
     private final Import importConfig = new Import();
+    private final Reference reference = new Reference();
+    private final Reservation reservation = new Reservation();
+    private final Quota quota = new Quota();
+    private final OrderStats orderStats = new OrderStats();
+    private final InventoryStats inventoryStats = new InventoryStats();
+    private final StatisticsCache statisticsCache = new StatisticsCache();
+    private final Marketplace marketplace = new Marketplace();
+    private final GuestCart guestCart = new GuestCart();
+    private final Audit audit = new Audit();
+    private final Storage storage = new Storage();
+    private final Export export = new Export();
+    private final Autocomplete autocomplete = new Autocomplete();
+    private final Carrier carrier = new Carrier();
+    private final ShippingRates shippingRates = new ShippingRates();
 
     public Liquibase getLiquibase() {
         return liquibase;
@@ -22,6 +36,62 @@ public class ApplicationProperties {
         return importConfig;
     }
 
+    public Reference getReference() {
+        return reference;
+    }
+
+    public Reservation getReservation() {
+        return reservation;
+    }
+
+    public Quota getQuota() {
+        return quota;
+    }
+
+    public OrderStats getOrderStats() {
+        return orderStats;
+    }
+
+    public InventoryStats getInventoryStats() {
+        return inventoryStats;
+    }
+
+    public StatisticsCache getStatisticsCache() {
+        return statisticsCache;
+    }
+
+    public Marketplace getMarketplace() {
+        return marketplace;
+    }
+
+    public GuestCart getGuestCart() {
+        return guestCart;
+    }
+
+    public Audit getAudit() {
+        return audit;
+    }
+
+    public Storage getStorage() {
+        return storage;
+    }
+
+    public Export getExport() {
+        return export;
+    }
+
+    public Autocomplete getAutocomplete() {
+        return autocomplete;
+    }
+
+    public Carrier getCarrier() {
+        return carrier;
+    }
+
+    public ShippingRates getShippingRates() {
+        return shippingRates;
+    }
+
     public static class Liquibase {
 
         private Boolean asyncStart = true;
@@ -35,6 +105,548 @@ public class ApplicationProperties {
         }
     }
 
+    public static class Reference {
+
+        private int blockSize = 20;
+
+        public int getBlockSize() {
+            return blockSize;
+        }
+
+        public void setBlockSize(int blockSize) {
+            this.blockSize = blockSize;
+        }
+    }
+
+    public static class Reservation {
+
+        private long sweepIntervalMs = 15000;
+        private int sweepBatchSize = 200;
+
+        public long getSweepIntervalMs() {
+            return sweepIntervalMs;
+        }
+
+        public void setSweepIntervalMs(long sweepIntervalMs) {
+            this.sweepIntervalMs = sweepIntervalMs;
+        }
+
+        public int getSweepBatchSize() {
+            return sweepBatchSize;
+        }
+
+        public void setSweepBatchSize(int sweepBatchSize) {
+            this.sweepBatchSize = sweepBatchSize;
+        }
+    }
+
+    public static class Quota {
+
+        private boolean enabled = true;
+        private long flushIntervalMs = 10000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getFlushIntervalMs() {
+            return flushIntervalMs;
+        }
+
+        public void setFlushIntervalMs(long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+        }
+    }
+
+    public static class OrderStats {
+
+        private boolean incremental = true;
+
+        public boolean isIncremental() {
+            return incremental;
+        }
+
+        public void setIncremental(boolean incremental) {
+            this.incremental = incremental;
+        }
+    }
+
+    public static class InventoryStats {
+
+        private boolean incremental = true;
+        private long reconcileIntervalMs = 3600000;
+        private int reconcileBatchSize = 100;
+
+        public boolean isIncremental() {
+            return incremental;
+        }
+
+        public void setIncremental(boolean incremental) {
+            this.incremental = incremental;
+        }
+
+        public long getReconcileIntervalMs() {
+            return reconcileIntervalMs;
+        }
+
+        public void setReconcileIntervalMs(long reconcileIntervalMs) {
+            this.reconcileIntervalMs = reconcileIntervalMs;
+        }
+
+        public int getReconcileBatchSize() {
+            return reconcileBatchSize;
+        }
+
+        public void setReconcileBatchSize(int reconcileBatchSize) {
+            this.reconcileBatchSize = reconcileBatchSize;
+        }
+    }
+
+    public static class StatisticsCache {
+
+        private boolean enabled = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    public static class Marketplace {
+
+        private long categoryStatsTtlSeconds = 30;
+        private long categoryStatsMinRebuildSeconds = 5;
+
+        public long getCategoryStatsTtlSeconds() {
+            return categoryStatsTtlSeconds;
+        }
+
+        public void setCategoryStatsTtlSeconds(long categoryStatsTtlSeconds) {
+            this.categoryStatsTtlSeconds = categoryStatsTtlSeconds;
+        }
+
+        public long getCategoryStatsMinRebuildSeconds() {
+            return categoryStatsMinRebuildSeconds;
+        }
+
+        public void setCategoryStatsMinRebuildSeconds(long categoryStatsMinRebuildSeconds) {
+            this.categoryStatsMinRebuildSeconds = categoryStatsMinRebuildSeconds;
+        }
+    }
+
+    public static class GuestCart {
+
+        private boolean inMemory = false;
+        private int maximumSize = 10000;
+        private long flushAfterSeconds = 900;
+        private long flushIntervalMs = 60000;
+
+        public boolean isInMemory() {
+            return inMemory;
+        }
+
+        public void setInMemory(boolean inMemory) {
+            this.inMemory = inMemory;
+        }
+
+        public int getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(int maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public long getFlushAfterSeconds() {
+            return flushAfterSeconds;
+        }
+
+        public void setFlushAfterSeconds(long flushAfterSeconds) {
+            this.flushAfterSeconds = flushAfterSeconds;
+        }
+
+        public long getFlushIntervalMs() {
+            return flushIntervalMs;
+        }
+
+        public void setFlushIntervalMs(long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+        }
+    }
+
+    public static class Audit {
+
+        private int bufferSize = 10000;
+        private int batchSize = 500;
+        private long flushIntervalMs = 1000;
+        private long offerTimeoutMs = 100;
+        private int versionCacheSize = 100000;
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getFlushIntervalMs() {
+            return flushIntervalMs;
+        }
+
+        public void setFlushIntervalMs(long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+        }
+
+        public long getOfferTimeoutMs() {
+            return offerTimeoutMs;
+        }
+
+        public void setOfferTimeoutMs(long offerTimeoutMs) {
+            this.offerTimeoutMs = offerTimeoutMs;
+        }
+
+        public int getVersionCacheSize() {
+            return versionCacheSize;
+        }
+
+        public void setVersionCacheSize(int versionCacheSize) {
+            this.versionCacheSize = versionCacheSize;
+        }
+    }
+
+    public static class Storage {
+
+        private String type = "filesystem";
+        private String directory = "data/blobs";
+        private final S3 s3 = new S3();
+        private final Migration migration = new Migration();
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public S3 getS3() {
+            return s3;
+        }
+
+        public Migration getMigration() {
+            return migration;
+        }
+
+        public static class S3 {
+
+            private String endpoint;
+            private String region = "us-east-1";
+            private String bucket;
+            private String accessKey;
+            private String secretKey;
+            private boolean pathStyle = true;
+
+            public String getEndpoint() {
+                return endpoint;
+            }
+
+            public void setEndpoint(String endpoint) {
+                this.endpoint = endpoint;
+            }
+
+            public String getRegion() {
+                return region;
+            }
+
+            public void setRegion(String region) {
+                this.region = region;
+            }
+
+            public String getBucket() {
+                return bucket;
+            }
+
+            public void setBucket(String bucket) {
+                this.bucket = bucket;
+            }
+
+            public String getAccessKey() {
+                return accessKey;
+            }
+
+            public void setAccessKey(String accessKey) {
+                this.accessKey = accessKey;
+            }
+
+            public String getSecretKey() {
+                return secretKey;
+            }
+
+            public void setSecretKey(String secretKey) {
+                this.secretKey = secretKey;
+            }
+
+            public boolean isPathStyle() {
+                return pathStyle;
+            }
+
+            public void setPathStyle(boolean pathStyle) {
+                this.pathStyle = pathStyle;
+            }
+        }
+
+        public static class Migration {
+
+            private boolean enabled = true;
+            private int batchSize = 50;
+            private long intervalMs = 300000;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+
+            public long getIntervalMs() {
+                return intervalMs;
+            }
+
+            public void setIntervalMs(long intervalMs) {
+                this.intervalMs = intervalMs;
+            }
+        }
+    }
+
+    public static class Export {
+
+        private int fetchSize = 1000;
+        private int xlsxWindowSize = 100;
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+
+        public int getXlsxWindowSize() {
+            return xlsxWindowSize;
+        }
+
+        public void setXlsxWindowSize(int xlsxWindowSize) {
+            this.xlsxWindowSize = xlsxWindowSize;
+        }
+    }
+
+    public static class Autocomplete {
+
+        private int minLength = 3;
+        private int maxResults = 20;
+
+        public int getMinLength() {
+            return minLength;
+        }
+
+        public void setMinLength(int minLength) {
+            this.minLength = minLength;
+        }
+
+        public int getMaxResults() {
+            return maxResults;
+        }
+
+        public void setMaxResults(int maxResults) {
+            this.maxResults = maxResults;
+        }
+    }
+
+    public static class Carrier {
+
+        private final Client yalidine = new Client();
+
+        public Client getYalidine() {
+            return yalidine;
+        }
+
+        public static class Client {
+
+            private String baseUrl = "https://api.yalidine.app";
+            private long connectTimeoutMs = 2000;
+            private long readTimeoutMs = 10000;
+            private int maxConcurrentCalls = 20;
+            private long acquireTimeoutMs = 500;
+            private int maxAttempts = 3;
+            private long retryBackoffMs = 200;
+            private int failureThreshold = 5;
+            private long openDurationMs = 30000;
+
+            public String getBaseUrl() {
+                return baseUrl;
+            }
+
+            public void setBaseUrl(String baseUrl) {
+                this.baseUrl = baseUrl;
+            }
+
+            public long getConnectTimeoutMs() {
+                return connectTimeoutMs;
+            }
+
+            public void setConnectTimeoutMs(long connectTimeoutMs) {
+                this.connectTimeoutMs = connectTimeoutMs;
+            }
+
+            public long getReadTimeoutMs() {
+                return readTimeoutMs;
+            }
+
+            public void setReadTimeoutMs(long readTimeoutMs) {
+                this.readTimeoutMs = readTimeoutMs;
+            }
+
+            public int getMaxConcurrentCalls() {
+                return maxConcurrentCalls;
+            }
+
+            public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+                this.maxConcurrentCalls = maxConcurrentCalls;
+            }
+
+            public long getAcquireTimeoutMs() {
+                return acquireTimeoutMs;
+            }
+
+            public void setAcquireTimeoutMs(long acquireTimeoutMs) {
+                this.acquireTimeoutMs = acquireTimeoutMs;
+            }
+
+            public int getMaxAttempts() {
+                return maxAttempts;
+            }
+
+            public void setMaxAttempts(int maxAttempts) {
+                this.maxAttempts = maxAttempts;
+            }
+
+            public long getRetryBackoffMs() {
+                return retryBackoffMs;
+            }
+
+            public void setRetryBackoffMs(long retryBackoffMs) {
+                this.retryBackoffMs = retryBackoffMs;
+            }
+
+            public int getFailureThreshold() {
+                return failureThreshold;
+            }
+
+            public void setFailureThreshold(int failureThreshold) {
+                this.failureThreshold = failureThreshold;
+            }
+
+            public long getOpenDurationMs() {
+                return openDurationMs;
+            }
+
+            public void setOpenDurationMs(long openDurationMs) {
+                this.openDurationMs = openDurationMs;
+            }
+        }
+    }
+
+    public static class ShippingRates {
+
+        private long refreshAfterSeconds = 3600;
+        private long expireAfterSeconds = 86400;
+        private long failureExpireAfterSeconds = 60;
+        private int maxEntries = 10000;
+        private long waitTimeoutMs = 3000;
+        private int weightBracketKg = 1;
+
+        public long getRefreshAfterSeconds() {
+            return refreshAfterSeconds;
+        }
+
+        public void setRefreshAfterSeconds(long refreshAfterSeconds) {
+            this.refreshAfterSeconds = refreshAfterSeconds;
+        }
+
+        public long getExpireAfterSeconds() {
+            return expireAfterSeconds;
+        }
+
+        public void setExpireAfterSeconds(long expireAfterSeconds) {
+            this.expireAfterSeconds = expireAfterSeconds;
+        }
+
+        public long getFailureExpireAfterSeconds() {
+            return failureExpireAfterSeconds;
+        }
+
+        public void setFailureExpireAfterSeconds(long failureExpireAfterSeconds) {
+            this.failureExpireAfterSeconds = failureExpireAfterSeconds;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public long getWaitTimeoutMs() {
+            return waitTimeoutMs;
+        }
+
+        public void setWaitTimeoutMs(long waitTimeoutMs) {
+            this.waitTimeoutMs = waitTimeoutMs;
+        }
+
+        public int getWeightBracketKg() {
+            return weightBracketKg;
+        }
+
+        public void setWeightBracketKg(int weightBracketKg) {
+            this.weightBracketKg = weightBracketKg;
+        }
+    }
+
     public static class Import {
 
         private int chunkSize;
@@ -42,6 +654,8 @@ public class ApplicationProperties {
         private int tempFileRetentionHours;
         private String[] supportedFormats;
         private String defaultInventoryStatus;
+        private boolean streamingReader = true;
+        private int partitions = 1;
 
         private HeaderDetection headerDetection = new HeaderDetection();
         private ProgressTracking progressTracking = new ProgressTracking();
@@ -87,6 +701,22 @@ public class ApplicationProperties {
             this.defaultInventoryStatus = defaultInventoryStatus;
         }
 
+        public boolean isStreamingReader() {
+            return streamingReader;
+        }
+
+        public void setStreamingReader(boolean streamingReader) {
+            this.streamingReader = streamingReader;
+        }
+
+        public int getPartitions() {
+            return partitions;
+        }
+
+        public void setPartitions(int partitions) {
+            this.partitions = partitions;
+        }
+
         public HeaderDetection getHeaderDetection() {
             return headerDetection;
         }
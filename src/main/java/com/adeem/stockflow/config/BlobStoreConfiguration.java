@@ -0,0 +1,39 @@
+package com.adeem.stockflow.config;
+
+import com.adeem.stockflow.service.storage.BlobStore;
+import com.adeem.stockflow.service.storage.FileSystemBlobStore;
+import com.adeem.stockflow.service.storage.S3BlobStore;
+import java.net.URI;
+import java.nio.file.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class BlobStoreConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BlobStoreConfiguration.class);
+
+    @Bean
+    public BlobStore blobStore(ApplicationProperties applicationProperties) {
+        ApplicationProperties.Storage storage = applicationProperties.getStorage();
+        if ("s3".equalsIgnoreCase(storage.getType())) {
+            ApplicationProperties.Storage.S3 s3 = storage.getS3();
+            if (s3.getEndpoint() == null || s3.getBucket() == null) {
+                throw new IllegalStateException("application.storage.s3.endpoint and bucket are required with the s3 blob store");
+            }
+            LOG.info("Attachment content stored in bucket {} on {}", s3.getBucket(), s3.getEndpoint());
+            return new S3BlobStore(
+                URI.create(s3.getEndpoint()),
+                s3.getRegion(),
+                s3.getBucket(),
+                s3.getAccessKey(),
+                s3.getSecretKey(),
+                s3.isPathStyle()
+            );
+        }
+        LOG.info("Attachment content stored under {}", storage.getDirectory());
+        return new FileSystemBlobStore(Path.of(storage.getDirectory()));
+    }
+}
@@ -106,6 +106,7 @@ public class CacheConfiguration {
             createCache(cm, CacheConstants.CUSTOMER_VALIDATION_CACHE);
             createCache(cm, CacheConstants.ASSOCIATION_STATS_CACHE);
             createCache(cm, CacheConstants.MARKETPLACE_STATS_CACHE);
+            createCache(cm, CacheConstants.PRODUCT_FAMILY_STATS_CACHE);
             // jhipster-needle-ehcache-add-entry
         };
     }
@@ -8,4 +8,5 @@ public class CacheConstants {
     public static final String MARKETPLACE_STATS_CACHE = "marketplaceStats";
     public static final String SUPPLIER_STATS_CACHE = "supplierStats";
     public static final String INVENTORY_STATS_CACHE = "inventoryStats";
+    public static final String PRODUCT_FAMILY_STATS_CACHE = "productFamilyStats";
 }
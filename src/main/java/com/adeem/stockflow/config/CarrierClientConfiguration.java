@@ -0,0 +1,20 @@
+package com.adeem.stockflow.config;
+
+import com.adeem.stockflow.service.carrier.CarrierHttpClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestClient;
+
+@Configuration
+public class CarrierClientConfiguration {
+
+    @Bean
+    public CarrierHttpClient yalidineHttpClient(
+        ApplicationProperties applicationProperties,
+        RestClient.Builder restClientBuilder,
+        MeterRegistry meterRegistry
+    ) {
+        return new CarrierHttpClient("yalidine", applicationProperties.getCarrier().getYalidine(), restClientBuilder, meterRegistry);
+    }
+}
@@ -28,4 +28,16 @@ public class BatchConfiguration {
         executor.setThreadNamePrefix("batch-import-");
         return executor;
     }
+
+    /**
+     * Runs the worker steps of partitioned product imports. Kept apart from {@code taskExecutor}, whose name is
+     * shared with the application's async executor.
+     */
+    @Bean
+    public SimpleAsyncTaskExecutor importTaskExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor();
+        executor.setConcurrencyLimit(10);
+        executor.setThreadNamePrefix("batch-import-partition-");
+        return executor;
+    }
 }
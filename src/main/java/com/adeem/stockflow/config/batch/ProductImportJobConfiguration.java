@@ -3,6 +3,7 @@ package com.adeem.stockflow.config.batch;
 import com.adeem.stockflow.batch.listener.ProductImportJobListener;
 import com.adeem.stockflow.batch.listener.ProductImportStepListener;
 import com.adeem.stockflow.batch.reader.ExcelProductItemReader;
+import com.adeem.stockflow.batch.reader.ImportRowRangePartitioner;
 import com.adeem.stockflow.config.ApplicationProperties;
 import com.adeem.stockflow.service.dto.batch.ProductCreationResult;
 import com.adeem.stockflow.service.dto.batch.ProductImportRow;
@@ -16,10 +17,12 @@ import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 
 @Configuration
@@ -38,6 +41,11 @@ public class ProductImportJobConfiguration {
         return new JobBuilder("productImportJob", jobRepository).start(productImportStep).listener(jobListener).build();
     }
 
+    /**
+     * With {@code application.import.partitions} above 1, a manager step splits the sheet into row ranges and runs
+     * one worker step per range on {@code importTaskExecutor}. Otherwise the whole sheet goes through a single chunk step.
+     * The step listener is only registered on the chunk steps, so it runs once per step that reads rows.
+     */
     @Bean
     public Step productImportStep(
         JobRepository jobRepository,
@@ -45,9 +53,50 @@ public class ProductImportJobConfiguration {
         ExcelProductItemReader excelProductItemReader,
         ItemProcessor<ProductImportRow, ProductCreationResult> productImportProcessor,
         ItemWriter<ProductCreationResult> productImportWriter,
-        ProductImportStepListener stepListener
+        ProductImportStepListener stepListener,
+        ImportRowRangePartitioner importRowRangePartitioner,
+        @Qualifier("importTaskExecutor") TaskExecutor importTaskExecutor
     ) {
+        int partitions = applicationProperties.getImport().getPartitions();
+        if (partitions <= 1) {
+            return chunkStep(
+                "productImportStep",
+                jobRepository,
+                transactionManager,
+                excelProductItemReader,
+                productImportProcessor,
+                productImportWriter,
+                stepListener
+            );
+        }
+
+        Step workerStep = chunkStep(
+            "productImportWorkerStep",
+            jobRepository,
+            transactionManager,
+            excelProductItemReader,
+            productImportProcessor,
+            productImportWriter,
+            stepListener
+        );
         return new StepBuilder("productImportStep", jobRepository)
+            .partitioner(workerStep.getName(), importRowRangePartitioner)
+            .step(workerStep)
+            .gridSize(partitions)
+            .taskExecutor(importTaskExecutor)
+            .build();
+    }
+
+    private Step chunkStep(
+        String name,
+        JobRepository jobRepository,
+        PlatformTransactionManager transactionManager,
+        ExcelProductItemReader excelProductItemReader,
+        ItemProcessor<ProductImportRow, ProductCreationResult> productImportProcessor,
+        ItemWriter<ProductCreationResult> productImportWriter,
+        ProductImportStepListener stepListener
+    ) {
+        return new StepBuilder(name, jobRepository)
             .<ProductImportRow, ProductCreationResult>chunk(applicationProperties.getImport().getChunkSize(), transactionManager)
             .reader(excelProductItemReader)
             .processor(productImportProcessor)
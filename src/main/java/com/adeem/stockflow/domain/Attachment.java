@@ -34,9 +34,23 @@ public class Attachment extends AbstractAuditingEntity<Long> implements Serializ
     @Column(name = "url")
     private String url;
 
-    @Lob
-    @Column(name = "data")
-    private byte[] data;
+    /**
+     * SHA-256 of the content, which lives in the blob store. The legacy {@code data} column is not mapped.
+     */
+    @Column(name = "blob_key", length = 64)
+    private String blobKey;
+
+    /**
+     * Blob of the thumbnail of an image, the original blob when no smaller image could be made.
+     */
+    @Column(name = "thumbnail_blob_key", length = 64)
+    private String thumbnailBlobKey;
+
+    /**
+     * Blob of the medium size of an image, the original blob when no smaller image could be made.
+     */
+    @Column(name = "medium_blob_key", length = 64)
+    private String mediumBlobKey;
 
     @Column(name = "data_content_type")
     private String dataContentType;
@@ -114,17 +128,43 @@ public class Attachment extends AbstractAuditingEntity<Long> implements Serializ
         this.url = url;
     }
 
-    public byte[] getData() {
-        return this.data;
+    public String getBlobKey() {
+        return this.blobKey;
     }
 
-    public Attachment data(byte[] data) {
-        this.setData(data);
+    public Attachment blobKey(String blobKey) {
+        this.setBlobKey(blobKey);
         return this;
     }
 
-    public void setData(byte[] data) {
-        this.data = data;
+    public void setBlobKey(String blobKey) {
+        this.blobKey = blobKey;
+    }
+
+    public String getThumbnailBlobKey() {
+        return this.thumbnailBlobKey;
+    }
+
+    public Attachment thumbnailBlobKey(String thumbnailBlobKey) {
+        this.setThumbnailBlobKey(thumbnailBlobKey);
+        return this;
+    }
+
+    public void setThumbnailBlobKey(String thumbnailBlobKey) {
+        this.thumbnailBlobKey = thumbnailBlobKey;
+    }
+
+    public String getMediumBlobKey() {
+        return this.mediumBlobKey;
+    }
+
+    public Attachment mediumBlobKey(String mediumBlobKey) {
+        this.setMediumBlobKey(mediumBlobKey);
+        return this;
+    }
+
+    public void setMediumBlobKey(String mediumBlobKey) {
+        this.mediumBlobKey = mediumBlobKey;
     }
 
     public String getDataContentType() {
@@ -299,7 +339,9 @@ public class Attachment extends AbstractAuditingEntity<Long> implements Serializ
             "id=" + getId() +
             ", type='" + getType() + "'" +
             ", url='" + getUrl() + "'" +
-            ", data='" + getData() + "'" +
+            ", blobKey='" + getBlobKey() + "'" +
+            ", thumbnailBlobKey='" + getThumbnailBlobKey() + "'" +
+            ", mediumBlobKey='" + getMediumBlobKey() + "'" +
             ", dataContentType='" + getDataContentType() + "'" +
             ", fileSize=" + getFileSize() +
             ", isPrimary='" + getIsPrimary() + "'" +
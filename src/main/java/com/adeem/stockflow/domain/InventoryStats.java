@@ -0,0 +1,125 @@
+package com.adeem.stockflow.domain;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Read model of a client account's stock counters across all its inventory rows.
+ * The counters are kept in slots of {@code inventory_stats} by database triggers on {@code inventory} and
+ * {@code product} and read summed through the {@code inventory_stats_totals} view, so the entity is read-only and
+ * deliberately not second-level cached.
+ */
+@Entity
+@Immutable
+@Table(name = "inventory_stats_totals")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class InventoryStats implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "client_account_id")
+    private Long clientAccountId;
+
+    @Column(name = "total_units", precision = 21, scale = 2, nullable = false)
+    private BigDecimal totalUnits;
+
+    @Column(name = "total_available", precision = 21, scale = 2, nullable = false)
+    private BigDecimal totalAvailable;
+
+    @Column(name = "total_reserved", precision = 21, scale = 2, nullable = false)
+    private BigDecimal totalReserved;
+
+    @Column(name = "total_value", precision = 30, scale = 4, nullable = false)
+    private BigDecimal totalValue;
+
+    @Column(name = "stock_level_products", nullable = false)
+    private Long stockLevelProducts;
+
+    @Column(name = "out_of_stock_count", nullable = false)
+    private Long outOfStockCount;
+
+    @Column(name = "low_stock_count", nullable = false)
+    private Long lowStockCount;
+
+    @Column(name = "healthy_stock_count", nullable = false)
+    private Long healthyStockCount;
+
+    @Column(name = "overstock_count", nullable = false)
+    private Long overstockCount;
+
+    public Long getClientAccountId() {
+        return this.clientAccountId;
+    }
+
+    public BigDecimal getTotalUnits() {
+        return this.totalUnits;
+    }
+
+    public BigDecimal getTotalAvailable() {
+        return this.totalAvailable;
+    }
+
+    public BigDecimal getTotalReserved() {
+        return this.totalReserved;
+    }
+
+    public BigDecimal getTotalValue() {
+        return this.totalValue;
+    }
+
+    public Long getStockLevelProducts() {
+        return this.stockLevelProducts;
+    }
+
+    public Long getOutOfStockCount() {
+        return this.outOfStockCount;
+    }
+
+    public Long getLowStockCount() {
+        return this.lowStockCount;
+    }
+
+    public Long getHealthyStockCount() {
+        return this.healthyStockCount;
+    }
+
+    public Long getOverstockCount() {
+        return this.overstockCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof InventoryStats)) {
+            return false;
+        }
+        return getClientAccountId() != null && getClientAccountId().equals(((InventoryStats) o).getClientAccountId());
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "InventoryStats{" +
+            "clientAccountId=" + getClientAccountId() +
+            ", totalUnits=" + getTotalUnits() +
+            ", totalAvailable=" + getTotalAvailable() +
+            ", totalReserved=" + getTotalReserved() +
+            ", totalValue=" + getTotalValue() +
+            ", stockLevelProducts=" + getStockLevelProducts() +
+            ", outOfStockCount=" + getOutOfStockCount() +
+            ", lowStockCount=" + getLowStockCount() +
+            ", healthyStockCount=" + getHealthyStockCount() +
+            ", overstockCount=" + getOverstockCount() +
+            "}";
+    }
+}
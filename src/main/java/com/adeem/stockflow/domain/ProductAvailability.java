@@ -0,0 +1,68 @@
+package com.adeem.stockflow.domain;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Read model of a product's stock across all its inventory rows.
+ * Rows are maintained by database triggers on {@code inventory}, so the entity is read-only and deliberately not
+ * second-level cached.
+ */
+@Entity
+@Immutable
+@Table(name = "product_availability")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class ProductAvailability implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "available_total", precision = 21, scale = 2, nullable = false)
+    private BigDecimal availableTotal;
+
+    @Column(name = "in_stock", nullable = false)
+    private Boolean inStock;
+
+    public Long getProductId() {
+        return this.productId;
+    }
+
+    public BigDecimal getAvailableTotal() {
+        return this.availableTotal;
+    }
+
+    public Boolean getInStock() {
+        return this.inStock;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ProductAvailability)) {
+            return false;
+        }
+        return getProductId() != null && getProductId().equals(((ProductAvailability) o).getProductId());
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ProductAvailability{" +
+            "productId=" + getProductId() +
+            ", availableTotal=" + getAvailableTotal() +
+            ", inStock='" + getInStock() + "'" +
+            "}";
+    }
+}
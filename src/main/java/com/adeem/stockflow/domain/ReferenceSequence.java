@@ -0,0 +1,116 @@
+package com.adeem.stockflow.domain;
+
+import com.adeem.stockflow.domain.enumeration.ReferenceType;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import java.io.Serializable;
+
+/**
+ * Per-tenant, per-document-type reference counter.
+ * Holds the high-water mark of the reference numbers handed out for a given year;
+ * numbers are reserved from it in blocks by {@link com.adeem.stockflow.service.ReferenceSequenceService}.
+ */
+@Entity
+@Table(
+    name = "reference_sequence",
+    uniqueConstraints = @UniqueConstraint(
+        name = "ux_reference_sequence_key",
+        columnNames = { "client_account_id", "reference_type", "period_year" }
+    )
+)
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class ReferenceSequence implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator")
+    @Column(name = "id")
+    private Long id;
+
+    @NotNull
+    @Column(name = "client_account_id", nullable = false)
+    private Long clientAccountId;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "reference_type", nullable = false)
+    private ReferenceType referenceType;
+
+    @NotNull
+    @Column(name = "period_year", nullable = false)
+    private Integer periodYear;
+
+    @NotNull
+    @Column(name = "last_value", nullable = false)
+    private Long lastValue;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getClientAccountId() {
+        return this.clientAccountId;
+    }
+
+    public void setClientAccountId(Long clientAccountId) {
+        this.clientAccountId = clientAccountId;
+    }
+
+    public ReferenceType getReferenceType() {
+        return this.referenceType;
+    }
+
+    public void setReferenceType(ReferenceType referenceType) {
+        this.referenceType = referenceType;
+    }
+
+    public Integer getPeriodYear() {
+        return this.periodYear;
+    }
+
+    public void setPeriodYear(Integer periodYear) {
+        this.periodYear = periodYear;
+    }
+
+    public Long getLastValue() {
+        return this.lastValue;
+    }
+
+    public void setLastValue(Long lastValue) {
+        this.lastValue = lastValue;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ReferenceSequence)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((ReferenceSequence) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ReferenceSequence{" +
+            "id=" + getId() +
+            ", clientAccountId=" + getClientAccountId() +
+            ", referenceType='" + getReferenceType() + "'" +
+            ", periodYear=" + getPeriodYear() +
+            ", lastValue=" + getLastValue() +
+            "}";
+    }
+}
@@ -0,0 +1,64 @@
+package com.adeem.stockflow.domain.enumeration;
+
+/**
+ * The ImageSize enumeration.
+ * Defines the sizes an image attachment can be downloaded in.
+ */
+public enum ImageSize {
+    /**
+     * The content as it was uploaded
+     */
+    ORIGINAL("original", 0),
+
+    /**
+     * Fits in a product grid cell
+     */
+    THUMBNAIL("thumbnail", 240),
+
+    /**
+     * Fits on a product detail page
+     */
+    MEDIUM("medium", 960);
+
+    private final String value;
+
+    private final int maxDimension;
+
+    ImageSize(String value, int maxDimension) {
+        this.value = value;
+        this.maxDimension = maxDimension;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * @return the largest width or height of this size in pixels, 0 for the original
+     */
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    /**
+     * @param value the size as used in download URLs, {@code null} for the original
+     * @return the matching size
+     * @throws IllegalArgumentException if no size matches
+     */
+    public static ImageSize fromValue(String value) {
+        if (value == null) {
+            return ORIGINAL;
+        }
+        for (ImageSize size : values()) {
+            if (size.value.equalsIgnoreCase(value)) {
+                return size;
+            }
+        }
+        throw new IllegalArgumentException("Unknown image size: " + value);
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
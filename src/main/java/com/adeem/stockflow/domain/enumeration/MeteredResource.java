@@ -0,0 +1,29 @@
+package com.adeem.stockflow.domain.enumeration;
+
+/**
+ * The MeteredResource enumeration.
+ * A resource counted in {@code quota} and capped by the {@code resource_limit} of the plan, whose
+ * {@code resource_type} is the constant name. Periodic resources count what was created since the last
+ * {@code reset_date}, the others count what currently exists.
+ */
+public enum MeteredResource {
+    USERS(false),
+    PRODUCTS(false),
+    PRODUCT_FAMILIES(false),
+    SHOWCASED_PRODUCTS(false),
+    SALE_ORDERS(true),
+    PURCHASE_ORDERS(true),
+    CUSTOMERS(false),
+    SUPPLIERS(false),
+    SHIPMENTS(true);
+
+    private final boolean periodic;
+
+    MeteredResource(boolean periodic) {
+        this.periodic = periodic;
+    }
+
+    public boolean isPeriodic() {
+        return periodic;
+    }
+}
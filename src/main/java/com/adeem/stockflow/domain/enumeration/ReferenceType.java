@@ -0,0 +1,11 @@
+package com.adeem.stockflow.domain.enumeration;
+
+/**
+ * The ReferenceType enumeration.
+ * Identifies the document family a per-tenant reference number is allocated for.
+ */
+public enum ReferenceType {
+    SALE_ORDER,
+    SHIPMENT,
+    INVENTORY_TRANSACTION,
+}
@@ -3,6 +3,7 @@ package com.adeem.stockflow.repository;
 import com.adeem.stockflow.domain.Attachment;
 import java.util.List;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -15,4 +16,20 @@ public interface AttachmentRepository extends JpaRepository<Attachment, Long> {
     List<Attachment> findByUserIsCurrentUser();
 
     List<Attachment> findByProductId(Long id);
+
+    /**
+     * Attachments whose content is still in the legacy {@code data} column, in id order.
+     */
+    @Query(
+        value = "SELECT id FROM attachment WHERE blob_key IS NULL AND data IS NOT NULL AND id > :afterId ORDER BY id LIMIT :limit",
+        nativeQuery = true
+    )
+    List<Long> findLegacyDataIds(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    @Query(value = "SELECT data FROM attachment WHERE id = :id", nativeQuery = true)
+    byte[] findLegacyData(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "UPDATE attachment SET data = NULL WHERE id IN (:ids) AND blob_key IS NOT NULL", nativeQuery = true)
+    int clearLegacyData(@Param("ids") List<Long> ids);
 }
@@ -15,5 +15,19 @@ public interface CartRepository extends JpaRepository<Cart, Long>, JpaSpecificat
     @Query("SELECT c FROM Cart c WHERE c.customer.id = :customerId")
     Optional<Cart> findByCustomerId(@Param("customerId") Long customerId);
 
+    /**
+     * The customer's cart with its items, their products and the products' client accounts, in one query.
+     */
+    @Query(
+        """
+        SELECT c FROM Cart c
+        LEFT JOIN FETCH c.cartItems ci
+        LEFT JOIN FETCH ci.product p
+        LEFT JOIN FETCH p.clientAccount
+        WHERE c.customer.id = :customerId
+        """
+    )
+    Optional<Cart> findWithItemsByCustomerId(@Param("customerId") Long customerId);
+
     List<Cart> findByCustomerIdOrderByCreatedDateDesc(Long customerId);
 }
@@ -3,6 +3,7 @@ package com.adeem.stockflow.repository;
 import com.adeem.stockflow.domain.ClientAccount;
 import java.util.List;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -12,4 +13,7 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface ClientAccountRepository extends JpaRepository<ClientAccount, Long> {
     List<ClientAccount> findByCompanyName(String companyName);
+
+    @Query(value = "SELECT id FROM client_account WHERE id > :afterId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, @Param("limit") int limit);
 }
@@ -1,6 +1,7 @@
 package com.adeem.stockflow.repository;
 
 import com.adeem.stockflow.domain.Customer;
+import com.adeem.stockflow.repository.projection.CustomerStatsProjection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
@@ -100,6 +101,30 @@ public interface CustomerRepository extends JpaRepository<Customer, Long>, JpaSp
     )
     Page<Customer> searchByClientAccount(@Param("query") String query, @Param("clientAccountId") Long clientAccountId, Pageable pageable);
 
+    /**
+     * Ranked type-ahead over enabled customers of a client account, best match first.
+     * Both predicates are served by the trigram GIN index on the generated {@code search_text} column: the substring
+     * {@code LIKE} and, for typos, the pg_trgm word similarity, which also orders the ids.
+     */
+    @Query(
+        value = """
+        SELECT c.id
+        FROM customer c
+        WHERE c.created_by_client_account_id = :clientAccountId
+        AND c.enabled = true
+        AND (c.search_text LIKE :pattern OR :term <% c.search_text)
+        ORDER BY word_similarity(:term, c.search_text) DESC, c.id DESC
+        LIMIT :limit
+        """,
+        nativeQuery = true
+    )
+    List<Long> autocompleteIds(
+        @Param("term") String term,
+        @Param("pattern") String pattern,
+        @Param("clientAccountId") Long clientAccountId,
+        @Param("limit") int limit
+    );
+
     /**
      * Search all customers including those with associations
      */
@@ -123,10 +148,38 @@ public interface CustomerRepository extends JpaRepository<Customer, Long>, JpaSp
 
     // Statistics queries using projections
     /**
-     * Count customers by client account
+     * Count the customers of a client account by status and account, with its active associations by type, in one
+     * pass over each table.
      */
-    @Query("SELECT COUNT(c) FROM Customer c WHERE c.createdByClientAccount.id = :clientAccountId")
-    Long countByClientAccount(@Param("clientAccountId") Long clientAccountId);
+    @Query(
+        value = """
+        SELECT c.total_customers as totalCustomers, c.enabled_customers as enabledCustomers,
+            c.disabled_customers as disabledCustomers, c.customers_with_accounts as customersWithAccounts,
+            c.customers_without_accounts as customersWithoutAccounts, a.total_associations as totalAssociations,
+            a.followed_associations as followedAssociations,
+            a.preferred_supplier_associations as preferredSupplierAssociations,
+            a.business_partner_associations as businessPartnerAssociations
+        FROM (
+            SELECT COUNT(*) as total_customers,
+                COUNT(*) FILTER (WHERE cu.enabled = true) as enabled_customers,
+                COUNT(*) FILTER (WHERE cu.enabled = false) as disabled_customers,
+                COUNT(*) FILTER (WHERE cu.user_id IS NOT NULL) as customers_with_accounts,
+                COUNT(*) FILTER (WHERE cu.user_id IS NULL) as customers_without_accounts
+            FROM customer cu
+            WHERE cu.created_by_client_account_id = :clientAccountId
+        ) c
+        CROSS JOIN (
+            SELECT COUNT(*) as total_associations,
+                COUNT(*) FILTER (WHERE ca.association_type = 'FOLLOWED') as followed_associations,
+                COUNT(*) FILTER (WHERE ca.association_type = 'PREFERRED_SUPPLIER') as preferred_supplier_associations,
+                COUNT(*) FILTER (WHERE ca.association_type = 'BUSINESS_PARTNER') as business_partner_associations
+            FROM customer_client_association ca
+            WHERE ca.client_account_id = :clientAccountId AND ca.status = 'ACTIVE'
+        ) a
+        """,
+        nativeQuery = true
+    )
+    CustomerStatsProjection aggregateStatsByClientAccount(@Param("clientAccountId") Long clientAccountId);
 
     /**
      * Count enabled customers by client account
@@ -134,36 +187,6 @@ public interface CustomerRepository extends JpaRepository<Customer, Long>, JpaSp
     @Query("SELECT COUNT(c) FROM Customer c WHERE c.createdByClientAccount.id = :clientAccountId AND c.enabled = true")
     Long countEnabledByClientAccount(@Param("clientAccountId") Long clientAccountId);
 
-    /**
-     * Count disabled customers by client account
-     */
-    @Query("SELECT COUNT(c) FROM Customer c WHERE c.createdByClientAccount.id = :clientAccountId AND c.enabled = false")
-    Long countDisabledByClientAccount(@Param("clientAccountId") Long clientAccountId);
-
-    /**
-     * Count customers with user accounts by client account
-     */
-    @Query("SELECT COUNT(c) FROM Customer c WHERE c.createdByClientAccount.id = :clientAccountId AND c.user IS NOT NULL")
-    Long countWithUserAccountByClientAccount(@Param("clientAccountId") Long clientAccountId);
-
-    /**
-     * Count customers without user accounts by client account
-     */
-    @Query("SELECT COUNT(c) FROM Customer c WHERE c.createdByClientAccount.id = :clientAccountId AND c.user IS NULL")
-    Long countWithoutUserAccountByClientAccount(@Param("clientAccountId") Long clientAccountId);
-
-    /**
-     * Count managed customers (created by client, no user account)
-     */
-    @Query("SELECT COUNT(c) FROM Customer c WHERE c.createdByClientAccount.id = :clientAccountId AND c.user IS NULL")
-    Long countManagedCustomersByClientAccount(@Param("clientAccountId") Long clientAccountId);
-
-    /**
-     * Count independent customers (have user accounts)
-     */
-    @Query("SELECT COUNT(c) FROM Customer c WHERE c.createdByClientAccount.id = :clientAccountId AND c.user IS NOT NULL")
-    Long countIndependentCustomersByClientAccount(@Param("clientAccountId") Long clientAccountId);
-
     // Association counting
     /**
      * Count total associations for client account
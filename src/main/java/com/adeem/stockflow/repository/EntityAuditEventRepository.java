@@ -1,6 +1,8 @@
 package com.adeem.stockflow.repository;
 
 import com.adeem.stockflow.domain.EntityAuditEvent;
+import com.adeem.stockflow.repository.projection.EntityAuditVersionProjection;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -17,6 +19,12 @@ public interface EntityAuditEventRepository extends JpaRepository<EntityAuditEve
     @Query("SELECT max(a.commitVersion) FROM EntityAuditEvent a where a.entityType = :type and a.entityId = :entityId")
     Integer findMaxCommitVersion(@Param("type") String type, @Param("entityId") String entityId);
 
+    @Query(
+        "SELECT a.entityId AS entityId, max(a.commitVersion) AS commitVersion FROM EntityAuditEvent a " +
+        "where a.entityType = :type and a.entityId IN :entityIds GROUP BY a.entityId"
+    )
+    List<EntityAuditVersionProjection> findMaxCommitVersions(@Param("type") String type, @Param("entityIds") Collection<String> entityIds);
+
     @Query("SELECT DISTINCT (a.entityType) from EntityAuditEvent a")
     List<String> findAllEntityTypes();
 
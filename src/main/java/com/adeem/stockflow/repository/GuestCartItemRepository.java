@@ -2,6 +2,7 @@ package com.adeem.stockflow.repository;
 
 import com.adeem.stockflow.domain.GuestCartItem;
 import com.adeem.stockflow.service.dto.GuestCartItemDTO;
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
@@ -46,5 +47,36 @@ public interface GuestCartItemRepository extends JpaRepository<GuestCartItem, Lo
 
     List<GuestCartItem> findBySessionId(String sessionId);
 
+    /**
+     * Delete all items of a guest cart in one statement
+     */
+    @Modifying
+    @Query("DELETE FROM GuestCartItem gci WHERE gci.sessionId = :sessionId")
+    int deleteAllBySessionId(@Param("sessionId") String sessionId);
+
+    /**
+     * Insert an item that already has an id, for guest carts kept in memory
+     */
+    @Modifying
+    @Query(
+        value = "INSERT INTO guest_cart_item (id, session_id, quantity, price_at_time, added_date, product_id) " +
+        "VALUES (:id, :sessionId, :quantity, :priceAtTime, :addedDate, :productId)",
+        nativeQuery = true
+    )
+    void insertItem(
+        @Param("id") Long id,
+        @Param("sessionId") String sessionId,
+        @Param("quantity") BigDecimal quantity,
+        @Param("priceAtTime") BigDecimal priceAtTime,
+        @Param("addedDate") Instant addedDate,
+        @Param("productId") Long productId
+    );
+
+    /**
+     * Reserve a block of ids from the shared sequence (its increment is 50)
+     */
+    @Query(value = "SELECT nextval('sequence_generator')", nativeQuery = true)
+    Long nextIdBlock();
+
     void deleteBySessionId(String sessionId);
 }
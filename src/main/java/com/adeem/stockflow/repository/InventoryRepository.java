@@ -4,7 +4,11 @@ import com.adeem.stockflow.domain.Inventory;
 import com.adeem.stockflow.domain.Product;
 import com.adeem.stockflow.repository.projection.InventoryFinancialStatsDTO;
 import com.adeem.stockflow.repository.projection.InventoryStockLevelStatsDTO;
+import com.adeem.stockflow.repository.projection.ProductAvailableQuantityProjection;
+import com.adeem.stockflow.repository.projection.StockMovementLineProjection;
+import jakarta.persistence.QueryHint;
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -56,9 +60,196 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long>, Jpa
 
     Optional<Inventory> findByProductIdAndClientAccountId(Long productId, Long currentClientAccountId);
 
+    /**
+     * Move quantities from available to reserved stock, guarded by {@code available_quantity >= quantity}.
+     * All lines are applied in one statement, or none when a line fails its guard; a concurrent change that
+     * invalidates a guard between the check and the update leaves that line unapplied.
+     * The inventory rows are locked in id order before being checked, so movements of orders sharing products
+     * queue behind each other instead of deadlocking.
+     * Product IDs and quantities are passed as comma-separated lists in matching order.
+     */
+    @Query(
+        value = """
+        WITH moves AS (
+            SELECT m.product_id, m.quantity
+            FROM unnest(
+                CAST(string_to_array(:productIds, ',') AS bigint[]),
+                CAST(string_to_array(:quantities, ',') AS numeric[])
+            ) AS m(product_id, quantity)
+        ),
+        locked AS (
+            SELECT i.id, i.product_id, i.quantity, i.available_quantity
+            FROM inventory i
+            WHERE i.client_account_id = :clientAccountId
+            AND i.product_id = ANY (CAST(string_to_array(:productIds, ',') AS bigint[]))
+            ORDER BY i.id
+            FOR UPDATE
+        ),
+        checked AS (
+            SELECT m.product_id, m.quantity AS requested, i.id AS inventory_id, i.quantity, i.available_quantity,
+                (i.id IS NOT NULL AND i.available_quantity >= m.quantity) AS ok
+            FROM moves m
+            LEFT JOIN locked i ON i.product_id = m.product_id
+        ),
+        applied AS (
+            UPDATE inventory i
+            SET available_quantity = i.available_quantity - c.requested
+            FROM checked c
+            WHERE i.id = c.inventory_id
+            AND NOT EXISTS (SELECT 1 FROM checked f WHERE NOT f.ok)
+            AND i.available_quantity >= c.requested
+            RETURNING i.id
+        )
+        SELECT
+            c.product_id as productId,
+            c.inventory_id as inventoryId,
+            c.requested as requestedQuantity,
+            c.quantity as quantity,
+            c.available_quantity as availableQuantity,
+            (a.id IS NOT NULL) as applied
+        FROM checked c
+        LEFT JOIN applied a ON a.id = c.inventory_id
+        """,
+        nativeQuery = true
+    )
+    List<StockMovementLineProjection> reserveStock(
+        @Param("clientAccountId") Long clientAccountId,
+        @Param("productIds") String productIds,
+        @Param("quantities") String quantities
+    );
+
+    /**
+     * Return reserved quantities to available stock.
+     * Same contract as {@link #reserveStock}.
+     */
+    @Query(
+        value = """
+        WITH moves AS (
+            SELECT m.product_id, m.quantity
+            FROM unnest(
+                CAST(string_to_array(:productIds, ',') AS bigint[]),
+                CAST(string_to_array(:quantities, ',') AS numeric[])
+            ) AS m(product_id, quantity)
+        ),
+        locked AS (
+            SELECT i.id, i.product_id, i.quantity, i.available_quantity
+            FROM inventory i
+            WHERE i.client_account_id = :clientAccountId
+            AND i.product_id = ANY (CAST(string_to_array(:productIds, ',') AS bigint[]))
+            ORDER BY i.id
+            FOR UPDATE
+        ),
+        checked AS (
+            SELECT m.product_id, m.quantity AS requested, i.id AS inventory_id, i.quantity, i.available_quantity,
+                (i.id IS NOT NULL) AS ok
+            FROM moves m
+            LEFT JOIN locked i ON i.product_id = m.product_id
+        ),
+        applied AS (
+            UPDATE inventory i
+            SET available_quantity = i.available_quantity + c.requested
+            FROM checked c
+            WHERE i.id = c.inventory_id
+            AND NOT EXISTS (SELECT 1 FROM checked f WHERE NOT f.ok)
+            RETURNING i.id
+        )
+        SELECT
+            c.product_id as productId,
+            c.inventory_id as inventoryId,
+            c.requested as requestedQuantity,
+            c.quantity as quantity,
+            c.available_quantity as availableQuantity,
+            (a.id IS NOT NULL) as applied
+        FROM checked c
+        LEFT JOIN applied a ON a.id = c.inventory_id
+        """,
+        nativeQuery = true
+    )
+    List<StockMovementLineProjection> releaseStock(
+        @Param("clientAccountId") Long clientAccountId,
+        @Param("productIds") String productIds,
+        @Param("quantities") String quantities
+    );
+
+    /**
+     * Remove sold quantities from stock on hand, guarded by {@code quantity >= requested}.
+     * Same contract as {@link #reserveStock}.
+     */
+    @Query(
+        value = """
+        WITH moves AS (
+            SELECT m.product_id, m.quantity
+            FROM unnest(
+                CAST(string_to_array(:productIds, ',') AS bigint[]),
+                CAST(string_to_array(:quantities, ',') AS numeric[])
+            ) AS m(product_id, quantity)
+        ),
+        locked AS (
+            SELECT i.id, i.product_id, i.quantity, i.available_quantity
+            FROM inventory i
+            WHERE i.client_account_id = :clientAccountId
+            AND i.product_id = ANY (CAST(string_to_array(:productIds, ',') AS bigint[]))
+            ORDER BY i.id
+            FOR UPDATE
+        ),
+        checked AS (
+            SELECT m.product_id, m.quantity AS requested, i.id AS inventory_id, i.quantity, i.available_quantity,
+                (i.id IS NOT NULL AND i.quantity >= m.quantity) AS ok
+            FROM moves m
+            LEFT JOIN locked i ON i.product_id = m.product_id
+        ),
+        applied AS (
+            UPDATE inventory i
+            SET quantity = i.quantity - c.requested
+            FROM checked c
+            WHERE i.id = c.inventory_id
+            AND NOT EXISTS (SELECT 1 FROM checked f WHERE NOT f.ok)
+            AND i.quantity >= c.requested
+            RETURNING i.id
+        )
+        SELECT
+            c.product_id as productId,
+            c.inventory_id as inventoryId,
+            c.requested as requestedQuantity,
+            c.quantity as quantity,
+            c.available_quantity as availableQuantity,
+            (a.id IS NOT NULL) as applied
+        FROM checked c
+        LEFT JOIN applied a ON a.id = c.inventory_id
+        """,
+        nativeQuery = true
+    )
+    List<StockMovementLineProjection> consumeStock(
+        @Param("clientAccountId") Long clientAccountId,
+        @Param("productIds") String productIds,
+        @Param("quantities") String quantities
+    );
+
     @Query("SELECT i FROM Inventory i WHERE i.product.id IN :productIds")
     List<Inventory> findByProductIdIn(@Param("productIds") List<Long> productIds);
 
+    /**
+     * Give back the reserved quantities of several orders at once, summed per tenant and product.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "inventory"))
+    @Query(
+        value = """
+        UPDATE inventory i
+        SET available_quantity = i.available_quantity + r.quantity
+        FROM (
+            SELECT so.client_account_id, soi.product_id, SUM(soi.quantity) AS quantity
+            FROM sale_order_item soi
+            JOIN sale_order so ON so.id = soi.sale_order_id
+            WHERE so.id IN (:orderIds)
+            GROUP BY so.client_account_id, soi.product_id
+        ) r
+        WHERE i.client_account_id = r.client_account_id AND i.product_id = r.product_id
+        """,
+        nativeQuery = true
+    )
+    int releaseOrderReservations(@Param("orderIds") List<Long> orderIds);
+
     @Modifying
     @Query("DELETE FROM Inventory i WHERE i.product.id IN :productIds")
     int deleteByProductIdIn(@Param("productIds") List<Long> productIds);
@@ -66,6 +257,15 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long>, Jpa
     @Query("SELECT COALESCE(SUM(i.availableQuantity), 0) FROM Inventory i WHERE i.product.id = :productId")
     Optional<BigDecimal> getTotalAvailableQuantityForProduct(@Param("productId") Long productId);
 
+    /**
+     * Available quantity of several products in one query; products without inventory are left out.
+     */
+    @Query(
+        "SELECT i.product.id AS productId, COALESCE(SUM(i.availableQuantity), 0) AS availableQuantity " +
+        "FROM Inventory i WHERE i.product.id IN :productIds GROUP BY i.product.id"
+    )
+    List<ProductAvailableQuantityProjection> getTotalAvailableQuantityForProducts(@Param("productIds") Collection<Long> productIds);
+
     @Query(
         "SELECT CASE WHEN COALESCE(SUM(i.availableQuantity), 0) >= :requiredQuantity THEN true ELSE false END " +
         "FROM Inventory i WHERE i.product.id = :productId"
@@ -0,0 +1,108 @@
+package com.adeem.stockflow.repository;
+
+import com.adeem.stockflow.domain.InventoryStats;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the InventoryStats read model.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface InventoryStatsRepository extends JpaRepository<InventoryStats, Long> {
+    /**
+     * Create the zeroed first counters slot of a client account if it does not exist yet.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "inventory_stats"))
+    @Query(
+        value = """
+        INSERT INTO inventory_stats (client_account_id, slot) VALUES (:clientAccountId, 0)
+        ON CONFLICT (client_account_id, slot) DO NOTHING
+        """,
+        nativeQuery = true
+    )
+    int insertIfMissing(@Param("clientAccountId") Long clientAccountId);
+
+    /**
+     * Lock the counters slots of a client account until the end of the transaction, in slot order.
+     * Stock movements in flight hold the lock of their slot until they commit, so a statement run afterwards sees all
+     * the movements already counted in the slots.
+     *
+     * @return the number of slots locked
+     */
+    @Query(
+        value = """
+        SELECT COUNT(*) FROM (
+            SELECT slot FROM inventory_stats WHERE client_account_id = :clientAccountId ORDER BY slot FOR UPDATE
+        ) l
+        """,
+        nativeQuery = true
+    )
+    long lockByClientAccountId(@Param("clientAccountId") Long clientAccountId);
+
+    /**
+     * Recompute the counters of a client account from its inventory rows, the same way the triggers count them.
+     * The totals are written to the first slot and the other slots are zeroed.
+     *
+     * @return the number of slots rewritten if the summed counters had drifted, 0 otherwise
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "inventory_stats"))
+    @Query(
+        value = """
+        UPDATE inventory_stats s
+        SET total_units = CASE WHEN s.slot = 0 THEN a.total_units ELSE 0 END,
+            total_available = CASE WHEN s.slot = 0 THEN a.total_available ELSE 0 END,
+            total_reserved = CASE WHEN s.slot = 0 THEN a.total_reserved ELSE 0 END,
+            total_value = CASE WHEN s.slot = 0 THEN a.total_value ELSE 0 END,
+            stock_level_products = CASE WHEN s.slot = 0 THEN a.stock_level_products ELSE 0 END,
+            out_of_stock_count = CASE WHEN s.slot = 0 THEN a.out_of_stock_count ELSE 0 END,
+            low_stock_count = CASE WHEN s.slot = 0 THEN a.low_stock_count ELSE 0 END,
+            healthy_stock_count = CASE WHEN s.slot = 0 THEN a.healthy_stock_count ELSE 0 END,
+            overstock_count = CASE WHEN s.slot = 0 THEN a.overstock_count ELSE 0 END
+        FROM (
+            SELECT
+                COALESCE(SUM(i.quantity), 0) AS total_units,
+                COALESCE(SUM(i.available_quantity), 0) AS total_available,
+                COALESCE(SUM(i.quantity - i.available_quantity), 0) AS total_reserved,
+                COALESCE(SUM(i.available_quantity * p.cost_price), 0) AS total_value,
+                COUNT(p.minimum_stock_level) AS stock_level_products,
+                COUNT(*) FILTER (WHERE p.minimum_stock_level IS NOT NULL AND i.available_quantity = 0) AS out_of_stock_count,
+                COUNT(*) FILTER (WHERE i.available_quantity > 0 AND i.available_quantity <= p.minimum_stock_level) AS low_stock_count,
+                COUNT(*) FILTER (
+                    WHERE i.available_quantity > p.minimum_stock_level AND i.available_quantity <= p.minimum_stock_level * 3
+                ) AS healthy_stock_count,
+                COUNT(*) FILTER (WHERE i.available_quantity > p.minimum_stock_level * 3) AS overstock_count
+            FROM inventory i
+            LEFT JOIN product p ON p.id = i.product_id
+            WHERE i.client_account_id = :clientAccountId AND i.product_id IS NOT NULL
+        ) a, (
+            SELECT
+                SUM(total_units) AS total_units,
+                SUM(total_available) AS total_available,
+                SUM(total_reserved) AS total_reserved,
+                SUM(total_value) AS total_value,
+                SUM(stock_level_products) AS stock_level_products,
+                SUM(out_of_stock_count) AS out_of_stock_count,
+                SUM(low_stock_count) AS low_stock_count,
+                SUM(healthy_stock_count) AS healthy_stock_count,
+                SUM(overstock_count) AS overstock_count
+            FROM inventory_stats
+            WHERE client_account_id = :clientAccountId
+        ) c
+        WHERE s.client_account_id = :clientAccountId
+        AND (
+            c.total_units, c.total_available, c.total_reserved, c.total_value, c.stock_level_products,
+            c.out_of_stock_count, c.low_stock_count, c.healthy_stock_count, c.overstock_count
+        ) IS DISTINCT FROM (
+            a.total_units, a.total_available, a.total_reserved, a.total_value, a.stock_level_products,
+            a.out_of_stock_count, a.low_stock_count, a.healthy_stock_count, a.overstock_count
+        )
+        """,
+        nativeQuery = true
+    )
+    int recompute(@Param("clientAccountId") Long clientAccountId);
+}
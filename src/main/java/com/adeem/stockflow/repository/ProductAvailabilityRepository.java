@@ -0,0 +1,16 @@
+package com.adeem.stockflow.repository;
+
+import com.adeem.stockflow.domain.ProductAvailability;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the ProductAvailability read model.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface ProductAvailabilityRepository extends JpaRepository<ProductAvailability, Long> {
+    List<ProductAvailability> findByProductIdIn(Collection<Long> productIds);
+}
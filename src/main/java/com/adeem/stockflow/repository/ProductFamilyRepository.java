@@ -5,6 +5,7 @@ import com.adeem.stockflow.repository.projection.FamilyDetailStatsProjection;
 import com.adeem.stockflow.repository.projection.ProductFamilyStatsProjection;
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
@@ -29,6 +30,15 @@ public interface ProductFamilyRepository extends JpaRepository<ProductFamily, Lo
 
     Page<ProductFamily> findByNameContainingIgnoreCaseAndClientAccountId(String name, Long clientAccountId, Pageable pageable);
 
+    /**
+     * Families of the client account whose name matches one of the given lower-cased names, ignoring case.
+     */
+    @Query("SELECT f FROM ProductFamily f WHERE lower(f.name) IN :names AND f.clientAccount.id = :clientAccountId")
+    List<ProductFamily> findByLowerNameInAndClientAccountId(
+        @Param("names") Collection<String> names,
+        @Param("clientAccountId") Long clientAccountId
+    );
+
     // OPTIMIZED REPOSITORY METHODS - Replace multiple queries with 3 efficient ones
 
     /**
@@ -72,6 +72,23 @@ public interface ProductImportJobRepository extends JpaRepository<ProductImportJ
         @Param("phase") String phase
     );
 
+    /**
+     * Add a chunk's row counts to the job progress. Safe with concurrent partitions, unlike {@link #updateJobProgress}.
+     */
+    @Modifying
+    @Query(
+        "UPDATE ProductImportJob j SET j.totalRows = :totalRows, " +
+        "j.successfulRows = COALESCE(j.successfulRows, 0) + :successfulRows, " +
+        "j.failedRows = COALESCE(j.failedRows, 0) + :failedRows, j.currentPhase = :phase WHERE j.id = :jobId"
+    )
+    void incrementJobProgress(
+        @Param("jobId") Long jobId,
+        @Param("totalRows") Integer totalRows,
+        @Param("successfulRows") Integer successfulRows,
+        @Param("failedRows") Integer failedRows,
+        @Param("phase") String phase
+    );
+
     /**
      * Complete job.
      */
@@ -2,7 +2,10 @@ package com.adeem.stockflow.repository;
 
 import com.adeem.stockflow.domain.Product;
 import com.adeem.stockflow.repository.projection.CategoryStatsProjection;
+import com.adeem.stockflow.repository.projection.MarketplaceCategoryCountProjection;
+import com.adeem.stockflow.repository.projection.ProductSearchHitProjection;
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
@@ -19,6 +22,55 @@ import org.springframework.stereotype.Repository;
 public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
     Optional<Product> findByCodeAndClientAccountId(String code, Long clientAccountId);
 
+    /**
+     * Ranked marketplace search over visible products, one keyset page at a time.
+     * Matches either the full-text prefix query (GIN on {@code search_vector}) or, for typos, the trigram word
+     * similarity of the name (GIN on {@code lower(name)}). Hits come back by descending rank, then id, strictly after
+     * the {@code (afterRank, afterId)} position.
+     */
+    @Query(
+        value = """
+        SELECT h.id as id, h.rank as rank
+        FROM (
+            SELECT p.id,
+                CAST(ts_rank_cd(p.search_vector, q.query) + word_similarity(:term, lower(p.name)) AS double precision) AS rank
+            FROM product p
+            CROSS JOIN to_tsquery('simple', :tsQuery) AS q(query)
+            WHERE p.is_visible_to_customers = true
+            AND (p.search_vector @@ q.query OR :term <% lower(p.name))
+        ) h
+        WHERE (h.rank, h.id) < (:afterRank, :afterId)
+        ORDER BY h.rank DESC, h.id DESC
+        LIMIT :limit
+        """,
+        nativeQuery = true
+    )
+    List<ProductSearchHitProjection> searchMarketplace(
+        @Param("tsQuery") String tsQuery,
+        @Param("term") String term,
+        @Param("afterRank") double afterRank,
+        @Param("afterId") long afterId,
+        @Param("limit") int limit
+    );
+
+    /**
+     * Visible and in-stock product counts of every marketplace category, in a single pass over product.
+     */
+    @Query(
+        value = """
+        SELECT p.category as category,
+            COUNT(*) as productCount,
+            COUNT(*) FILTER (WHERE pa.in_stock) as availableCount
+        FROM product p
+        LEFT JOIN product_availability pa ON pa.product_id = p.id
+        WHERE p.is_visible_to_customers = true
+        AND p.category IS NOT NULL
+        GROUP BY p.category
+        """,
+        nativeQuery = true
+    )
+    List<MarketplaceCategoryCountProjection> countMarketplaceCategories();
+
     @Query(
         "SELECT p, i FROM Product p " +
         "LEFT JOIN p.inventories i " +
@@ -63,6 +115,16 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
         @Param("clientAccountId") Long clientAccountId
     );
 
+    /**
+     * Which of the given codes are already taken in the client account, for validating a whole import chunk at once.
+     *
+     * @param codes the candidate product codes
+     * @param clientAccountId the client account ID
+     * @return the codes that already exist
+     */
+    @Query("SELECT p.code FROM Product p WHERE p.code IN :codes AND p.clientAccount.id = :clientAccountId")
+    List<String> findExistingCodes(@Param("codes") Collection<String> codes, @Param("clientAccountId") Long clientAccountId);
+
     /**
      * Find products by IDs that belong to the specified client account.
      *
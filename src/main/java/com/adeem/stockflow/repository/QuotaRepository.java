@@ -1,8 +1,10 @@
 package com.adeem.stockflow.repository;
 
 import com.adeem.stockflow.domain.Quota;
+import java.time.ZonedDateTime;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -12,4 +14,48 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface QuotaRepository extends JpaRepository<Quota, Long> {
     Optional<Quota> findByClientAccountId(Long clientAccountId);
+
+    /**
+     * Add usage deltas to the counters, relative to the stored values so concurrent writers do not overwrite each other.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(
+        """
+        UPDATE Quota q SET
+            q.users = COALESCE(q.users, 0) + :users,
+            q.products = COALESCE(q.products, 0) + :products,
+            q.productFamilies = COALESCE(q.productFamilies, 0) + :productFamilies,
+            q.showcasedProducts = COALESCE(q.showcasedProducts, 0) + :showcasedProducts,
+            q.saleOrders = COALESCE(q.saleOrders, 0) + :saleOrders,
+            q.purchaseOrders = COALESCE(q.purchaseOrders, 0) + :purchaseOrders,
+            q.customers = COALESCE(q.customers, 0) + :customers,
+            q.suppliers = COALESCE(q.suppliers, 0) + :suppliers,
+            q.shipments = COALESCE(q.shipments, 0) + :shipments
+        WHERE q.id = :id
+        """
+    )
+    int addUsage(
+        @Param("id") Long id,
+        @Param("users") int users,
+        @Param("products") int products,
+        @Param("productFamilies") int productFamilies,
+        @Param("showcasedProducts") int showcasedProducts,
+        @Param("saleOrders") int saleOrders,
+        @Param("purchaseOrders") int purchaseOrders,
+        @Param("customers") int customers,
+        @Param("suppliers") int suppliers,
+        @Param("shipments") int shipments
+    );
+
+    /**
+     * Start a new period: clear the periodic counters and move the reset date, unless another node already did.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(
+        """
+        UPDATE Quota q SET q.saleOrders = 0, q.purchaseOrders = 0, q.shipments = 0, q.resetDate = :nextResetDate
+        WHERE q.id = :id AND (q.resetDate IS NULL OR q.resetDate <= :now)
+        """
+    )
+    int resetPeriodicUsage(@Param("id") Long id, @Param("now") ZonedDateTime now, @Param("nextResetDate") ZonedDateTime nextResetDate);
 }
@@ -0,0 +1,39 @@
+package com.adeem.stockflow.repository;
+
+import com.adeem.stockflow.domain.ReferenceSequence;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Spring Data JPA repository for the ReferenceSequence entity.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface ReferenceSequenceRepository extends JpaRepository<ReferenceSequence, Long> {
+    /**
+     * Reserve the next {@code blockSize} numbers of a counter in a single round trip and return the new high-water mark.
+     * The counter row is created from {@code seed} on first use. Runs in its own transaction so the row lock is
+     * released immediately instead of being held until the caller commits.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(
+        value = """
+        INSERT INTO reference_sequence (id, client_account_id, reference_type, period_year, last_value)
+        VALUES (nextval('sequence_generator'), :clientAccountId, :referenceType, :periodYear, :seed + :blockSize)
+        ON CONFLICT (client_account_id, reference_type, period_year)
+        DO UPDATE SET last_value = reference_sequence.last_value + :blockSize
+        RETURNING last_value
+        """,
+        nativeQuery = true
+    )
+    long allocateBlock(
+        @Param("clientAccountId") Long clientAccountId,
+        @Param("referenceType") String referenceType,
+        @Param("periodYear") int periodYear,
+        @Param("seed") long seed,
+        @Param("blockSize") int blockSize
+    );
+}
@@ -1,7 +1,10 @@
 package com.adeem.stockflow.repository;
 
 import com.adeem.stockflow.domain.ResourceLimit;
+import com.adeem.stockflow.domain.enumeration.SubscriptionStatus;
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +12,17 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface ResourceLimitRepository extends JpaRepository<ResourceLimit, Long> {}
+public interface ResourceLimitRepository extends JpaRepository<ResourceLimit, Long> {
+    /**
+     * The limits of the plans a client account is subscribed to with the given status.
+     */
+    @Query(
+        """
+        SELECT rl FROM ResourceLimit rl
+        WHERE rl.planFormula.id IN (
+            SELECT s.planFormula.id FROM Subscription s WHERE s.clientAccount.id = :clientAccountId AND s.status = :status
+        )
+        """
+    )
+    List<ResourceLimit> findBySubscription(@Param("clientAccountId") Long clientAccountId, @Param("status") SubscriptionStatus status);
+}
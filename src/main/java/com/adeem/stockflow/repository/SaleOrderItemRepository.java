@@ -1,7 +1,9 @@
 package com.adeem.stockflow.repository;
 
 import com.adeem.stockflow.domain.SaleOrderItem;
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -11,4 +13,9 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface SaleOrderItemRepository extends JpaRepository<SaleOrderItem, Long> {
     void deleteBySaleOrderId(Long id);
+
+    @Query(
+        "SELECT i FROM SaleOrderItem i JOIN FETCH i.product JOIN FETCH i.saleOrder o JOIN FETCH o.clientAccount WHERE o.id IN :orderIds"
+    )
+    List<SaleOrderItem> findWithProductBySaleOrderIdIn(@Param("orderIds") List<Long> orderIds);
 }
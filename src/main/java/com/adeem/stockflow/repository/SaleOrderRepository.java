@@ -1,10 +1,13 @@
 package com.adeem.stockflow.repository;
 
 import com.adeem.stockflow.domain.SaleOrder;
+import com.adeem.stockflow.repository.projection.SaleOrderStatsProjection;
+import jakarta.persistence.QueryHint;
 import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -18,6 +21,67 @@ public interface SaleOrderRepository extends JpaRepository<SaleOrder, Long>, Jpa
     @Query(value = "SELECT reference FROM sale_order so WHERE so.client_account_id = ?1 ORDER BY so.id DESC LIMIT 1", nativeQuery = true)
     Optional<String> getLastReference(Long clientAccountId);
 
-    @Query("SELECT s FROM SaleOrder s WHERE s.reservationExpiresAt <= ?1")
-    List<SaleOrder> findExpiredReservations(ZonedDateTime time);
+    @Query(
+        value = """
+        SELECT so.status as status, so.order_type as orderType, COUNT(*) as orderCount, COALESCE(SUM(so.total), 0) as totalAmount
+        FROM sale_order so
+        WHERE so.client_account_id = :clientAccountId
+        GROUP BY so.status, so.order_type
+        """,
+        nativeQuery = true
+    )
+    List<SaleOrderStatsProjection> aggregateStatsByClientAccount(@Param("clientAccountId") Long clientAccountId);
+
+    /**
+     * Read the trigger-maintained counters of a client account, at most one row per status and order type.
+     * Each counter is spread over several slot rows, summed here.
+     */
+    @Query(
+        value = """
+        SELECT s.status as status, s.order_type as orderType, CAST(SUM(s.order_count) AS bigint) as orderCount, SUM(s.total_amount) as totalAmount
+        FROM sale_order_stats s
+        WHERE s.client_account_id = :clientAccountId
+        GROUP BY s.status, s.order_type
+        HAVING SUM(s.order_count) > 0
+        """,
+        nativeQuery = true
+    )
+    List<SaleOrderStatsProjection> findStatsByClientAccount(@Param("clientAccountId") Long clientAccountId);
+
+    /**
+     * Lock the next batch of confirmed orders whose reservation has expired, in id order after {@code afterId}.
+     * Rows already locked by another node are skipped, so concurrent sweepers never work on the same orders.
+     */
+    @Query(
+        value = """
+        SELECT so.id FROM sale_order so
+        WHERE so.status = 'CONFIRMED' AND so.reservation_expires_at <= :now AND so.id > :afterId
+        ORDER BY so.id
+        LIMIT :batchSize
+        FOR UPDATE SKIP LOCKED
+        """,
+        nativeQuery = true
+    )
+    List<Long> lockExpiredReservations(
+        @Param("now") ZonedDateTime now,
+        @Param("afterId") Long afterId,
+        @Param("batchSize") int batchSize
+    );
+
+    /**
+     * Cancel orders and append a note to theirs. The note is always kept whole: when the column would overflow,
+     * the existing notes are cut instead.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "sale_order"))
+    @Query(
+        value = """
+        UPDATE sale_order
+        SET status = 'CANCELLED',
+            notes = LEFT(CONCAT_WS(E'\\n', NULLIF(LEFT(notes, GREATEST(0, 254 - LENGTH(:note))), ''), :note), 255)
+        WHERE id IN (:orderIds)
+        """,
+        nativeQuery = true
+    )
+    int cancelOrders(@Param("orderIds") List<Long> orderIds, @Param("note") String note);
 }
@@ -64,6 +64,30 @@ public interface SupplierRepository extends JpaRepository<Supplier, Long>, JpaSp
     )
     Page<Supplier> searchSuppliers(@Param("query") String query, @Param("clientAccountId") Long clientAccountId, Pageable pageable);
 
+    /**
+     * Ranked type-ahead over active suppliers of a client account, best match first.
+     * Both predicates are served by the trigram GIN index on the generated {@code search_text} column: the substring
+     * {@code LIKE} and, for typos, the pg_trgm word similarity, which also orders the ids.
+     */
+    @Query(
+        value = """
+        SELECT s.id
+        FROM supplier s
+        WHERE s.client_account_id = :clientAccountId
+        AND s.active = true
+        AND (s.search_text LIKE :pattern OR :term <% s.search_text)
+        ORDER BY word_similarity(:term, s.search_text) DESC, s.id DESC
+        LIMIT :limit
+        """,
+        nativeQuery = true
+    )
+    List<Long> autocompleteIds(
+        @Param("term") String term,
+        @Param("pattern") String pattern,
+        @Param("clientAccountId") Long clientAccountId,
+        @Param("limit") int limit
+    );
+
     /**
      * Soft delete supplier by setting active to false.
      */
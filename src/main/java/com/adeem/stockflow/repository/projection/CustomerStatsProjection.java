@@ -0,0 +1,16 @@
+package com.adeem.stockflow.repository.projection;
+
+/**
+ * Customer counters and active association counts of a client account, read in a single query.
+ */
+public interface CustomerStatsProjection {
+    Long getTotalCustomers();
+    Long getEnabledCustomers();
+    Long getDisabledCustomers();
+    Long getCustomersWithAccounts();
+    Long getCustomersWithoutAccounts();
+    Long getTotalAssociations();
+    Long getFollowedAssociations();
+    Long getPreferredSupplierAssociations();
+    Long getBusinessPartnerAssociations();
+}
@@ -0,0 +1,9 @@
+package com.adeem.stockflow.repository.projection;
+
+/**
+ * Last audit commit version of one entity.
+ */
+public interface EntityAuditVersionProjection {
+    String getEntityId();
+    Integer getCommitVersion();
+}
@@ -0,0 +1,10 @@
+package com.adeem.stockflow.repository.projection;
+
+/**
+ * Visible product counts of one marketplace category.
+ */
+public interface MarketplaceCategoryCountProjection {
+    String getCategory();
+    Long getProductCount();
+    Long getAvailableCount();
+}
@@ -0,0 +1,11 @@
+package com.adeem.stockflow.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Available quantity of a product, summed over its inventory rows.
+ */
+public interface ProductAvailableQuantityProjection {
+    Long getProductId();
+    BigDecimal getAvailableQuantity();
+}
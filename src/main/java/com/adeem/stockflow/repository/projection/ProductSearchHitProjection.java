@@ -0,0 +1,9 @@
+package com.adeem.stockflow.repository.projection;
+
+/**
+ * A ranked product search match; {@code (rank, id)} is also the keyset position of the hit.
+ */
+public interface ProductSearchHitProjection {
+    Long getId();
+    Double getRank();
+}
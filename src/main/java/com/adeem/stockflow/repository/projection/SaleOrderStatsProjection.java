@@ -0,0 +1,13 @@
+package com.adeem.stockflow.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Order count and summed totals for one status / order type pair of a client account.
+ */
+public interface SaleOrderStatsProjection {
+    String getStatus();
+    String getOrderType();
+    Long getOrderCount();
+    BigDecimal getTotalAmount();
+}
@@ -0,0 +1,27 @@
+package com.adeem.stockflow.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection interface for the per-line outcome of a set-based stock movement.
+ * Quantities are the values read before the movement was applied.
+ */
+public interface StockMovementLineProjection {
+    Long getProductId();
+
+    /**
+     * Get the inventory row the line was matched to, or null when the product has no inventory
+     */
+    Long getInventoryId();
+
+    BigDecimal getRequestedQuantity();
+
+    BigDecimal getQuantity();
+
+    BigDecimal getAvailableQuantity();
+
+    /**
+     * Whether the guarded update was applied to this line
+     */
+    Boolean getApplied();
+}
@@ -1,9 +1,17 @@
 package com.adeem.stockflow.service;
 
 import com.adeem.stockflow.domain.Attachment;
+import com.adeem.stockflow.domain.enumeration.ImageSize;
 import com.adeem.stockflow.repository.AttachmentRepository;
+import com.adeem.stockflow.service.BlobStorageService.StoredBlob;
 import com.adeem.stockflow.service.dto.AttachmentDTO;
 import com.adeem.stockflow.service.mapper.AttachmentMapper;
+import com.adeem.stockflow.service.util.AttachmentUrlUtils;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
@@ -15,6 +23,10 @@ import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service Implementation for managing {@link com.adeem.stockflow.domain.Attachment}.
+ * <p>
+ * The content of an attachment lives in the blob store, the row only keeps its key. Blobs are shared by every
+ * attachment with the same content and are left in place when an attachment is deleted.
+ * Images also get smaller sizes, made on upload, or in the background on the first download of a missing size.
  */
 @Service
 @Transactional
@@ -26,9 +38,20 @@ public class AttachmentService {
 
     private final AttachmentMapper attachmentMapper;
 
-    public AttachmentService(AttachmentRepository attachmentRepository, AttachmentMapper attachmentMapper) {
+    private final BlobStorageService blobStorageService;
+
+    private final ImageDerivativeService imageDerivativeService;
+
+    public AttachmentService(
+        AttachmentRepository attachmentRepository,
+        AttachmentMapper attachmentMapper,
+        BlobStorageService blobStorageService,
+        ImageDerivativeService imageDerivativeService
+    ) {
         this.attachmentRepository = attachmentRepository;
         this.attachmentMapper = attachmentMapper;
+        this.blobStorageService = blobStorageService;
+        this.imageDerivativeService = imageDerivativeService;
     }
 
     /**
@@ -40,6 +63,23 @@ public class AttachmentService {
     public AttachmentDTO save(AttachmentDTO attachmentDTO) {
         LOG.debug("Request to save Attachment : {}", attachmentDTO);
         Attachment attachment = attachmentMapper.toEntity(attachmentDTO);
+        storeData(attachment, attachmentDTO);
+        attachment = attachmentRepository.save(attachment);
+        return attachmentMapper.toDto(attachment);
+    }
+
+    /**
+     * Save a attachment with content streamed from an upload.
+     *
+     * @param attachmentDTO the entity to save, its {@code data} is ignored.
+     * @param content the content of the attachment, it is read to the end and closed.
+     * @return the persisted entity.
+     */
+    public AttachmentDTO save(AttachmentDTO attachmentDTO, InputStream content) throws IOException {
+        LOG.debug("Request to save Attachment with content : {}", attachmentDTO);
+        Attachment attachment = attachmentMapper.toEntity(attachmentDTO);
+        setContent(attachment, blobStorageService.store(content, attachmentDTO.getDataContentType()));
+        imageDerivativeService.generateDerivatives(attachment);
         attachment = attachmentRepository.save(attachment);
         return attachmentMapper.toDto(attachment);
     }
@@ -53,6 +93,9 @@ public class AttachmentService {
     public void saveAll(List<AttachmentDTO> attachmentDTOSet) {
         LOG.debug("Request to save Attachments : {}", attachmentDTOSet);
         List<Attachment> attachments = attachmentMapper.toEntity(attachmentDTOSet);
+        for (int i = 0; i < attachments.size(); i++) {
+            storeData(attachments.get(i), attachmentDTOSet.get(i));
+        }
         attachmentRepository.saveAll(attachments);
     }
 
@@ -66,6 +109,17 @@ public class AttachmentService {
         LOG.debug("Request to update Attachment : {}", attachmentDTO);
         Attachment attachment = attachmentMapper.toEntity(attachmentDTO);
         attachment.setIsPersisted();
+        if (attachmentDTO.getData() != null) {
+            storeData(attachment, attachmentDTO);
+        } else {
+            // The content is not part of the DTO, keep the stored one
+            Attachment existingAttachment = attachmentRepository.findById(attachmentDTO.getId()).orElse(null);
+            if (existingAttachment != null) {
+                attachment.setBlobKey(existingAttachment.getBlobKey());
+                attachment.setThumbnailBlobKey(existingAttachment.getThumbnailBlobKey());
+                attachment.setMediumBlobKey(existingAttachment.getMediumBlobKey());
+            }
+        }
         attachment = attachmentRepository.save(attachment);
         return attachmentMapper.toDto(attachment);
     }
@@ -83,6 +137,7 @@ public class AttachmentService {
             .findById(attachmentDTO.getId())
             .map(existingAttachment -> {
                 attachmentMapper.partialUpdate(existingAttachment, attachmentDTO);
+                storeData(existingAttachment, attachmentDTO);
 
                 return existingAttachment;
             })
@@ -123,4 +178,142 @@ public class AttachmentService {
         LOG.debug("Request to delete Attachment : {}", id);
         attachmentRepository.deleteById(id);
     }
+
+    /**
+     * Get where the content of an attachment is stored.
+     * Content still in the legacy {@code data} column is moved to the blob store first. A missing size of an image is
+     * made in the background and the original is returned until it is ready. Sizes of other attachments are their
+     * original content.
+     *
+     * @param id the id of the entity.
+     * @param size the requested image size.
+     * @return the content description, empty if the attachment does not exist or has no content.
+     */
+    public Optional<AttachmentContent> findContent(Long id, ImageSize size) {
+        LOG.debug("Request to get the {} content of Attachment : {}", size, id);
+        return attachmentRepository
+            .findById(id)
+            .map(attachment -> {
+                if (attachment.getBlobKey() == null) {
+                    migrateLegacyData(attachment);
+                }
+                return attachment;
+            })
+            .filter(attachment -> attachment.getBlobKey() != null)
+            .map(attachment -> toContent(attachment, size));
+    }
+
+    private AttachmentContent toContent(Attachment attachment, ImageSize size) {
+        String version = AttachmentUrlUtils.getContentVersion(attachment.getBlobKey());
+        if (size != ImageSize.ORIGINAL) {
+            String derivativeKey = ImageDerivativeService.getBlobKey(attachment, size);
+            if (derivativeKey == null && imageDerivativeService.isImage(attachment)) {
+                // Made in the background, the original is served meanwhile and must not be cached under this size
+                imageDerivativeService.generateLater(attachment.getId());
+                version = null;
+            }
+            if (derivativeKey != null && !derivativeKey.equals(attachment.getBlobKey())) {
+                try {
+                    long derivativeSize = blobStorageService.size(derivativeKey);
+                    return new AttachmentContent(
+                        derivativeKey,
+                        ImageDerivativeService.DERIVATIVE_CONTENT_TYPE,
+                        derivativeSize,
+                        attachment.getAltText(),
+                        version
+                    );
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not read the " + size + " size of attachment " + attachment.getId(), e);
+                }
+            }
+        }
+        return new AttachmentContent(
+            attachment.getBlobKey(),
+            attachment.getDataContentType(),
+            attachment.getFileSize(),
+            attachment.getAltText(),
+            version
+        );
+    }
+
+    /**
+     * Move the content of the next attachments still stored in the legacy {@code data} column to the blob store.
+     *
+     * @param afterId keyset cursor, only attachments with a greater id are considered.
+     * @param batchSize the maximum number of attachments to migrate.
+     * @return the ids of the attachments considered, in ascending order.
+     */
+    public List<Long> migrateLegacyBatch(long afterId, int batchSize) {
+        List<Long> ids = attachmentRepository.findLegacyDataIds(afterId, batchSize);
+        if (ids.isEmpty()) {
+            return ids;
+        }
+
+        List<Long> migrated = new ArrayList<>(ids.size());
+        for (Attachment attachment : attachmentRepository.findAllById(ids)) {
+            if (moveLegacyData(attachment)) {
+                migrated.add(attachment.getId());
+            }
+        }
+        clearLegacyData(migrated);
+        LOG.info("Moved the content of {} attachments to the blob store", migrated.size());
+        return ids;
+    }
+
+    private void migrateLegacyData(Attachment attachment) {
+        if (moveLegacyData(attachment)) {
+            clearLegacyData(List.of(attachment.getId()));
+        }
+    }
+
+    private boolean moveLegacyData(Attachment attachment) {
+        byte[] data = attachmentRepository.findLegacyData(attachment.getId());
+        if (data == null) {
+            return false;
+        }
+        setContent(attachment, store(data, attachment.getDataContentType()));
+        return true;
+    }
+
+    private void clearLegacyData(List<Long> ids) {
+        if (!ids.isEmpty()) {
+            // The blob keys must be written before the bytes they replace are dropped
+            attachmentRepository.flush();
+            attachmentRepository.clearLegacyData(ids);
+        }
+    }
+
+    private void storeData(Attachment attachment, AttachmentDTO attachmentDTO) {
+        if (attachmentDTO.getData() != null) {
+            setContent(attachment, store(attachmentDTO.getData(), attachmentDTO.getDataContentType()));
+            imageDerivativeService.generateDerivatives(attachment);
+        }
+    }
+
+    private void setContent(Attachment attachment, StoredBlob blob) {
+        attachment.setBlobKey(blob.key());
+        attachment.setFileSize(blob.size());
+        attachment.setThumbnailBlobKey(null);
+        attachment.setMediumBlobKey(null);
+    }
+
+    private StoredBlob store(byte[] data, String contentType) {
+        try {
+            return blobStorageService.store(new ByteArrayInputStream(data), contentType);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store attachment content", e);
+        }
+    }
+
+    /**
+     * Where the content of an attachment is stored.
+     *
+     * @param blobKey the key of the content in the blob store
+     * @param contentType the media type of the content
+     * @param size the size of the content in bytes
+     * @param fileName the name the content was uploaded with
+     * @param version the version of the original content, as used in download URLs, {@code null} when the content
+     * stands in for a size that is not made yet
+     */
+    public record AttachmentContent(String blobKey, String contentType, Long size, String fileName, String version) {}
 }
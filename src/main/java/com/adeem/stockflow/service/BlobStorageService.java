@@ -0,0 +1,110 @@
+package com.adeem.stockflow.service;
+
+import com.adeem.stockflow.config.ApplicationProperties;
+import com.adeem.stockflow.service.storage.BlobStore;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Stores attachment content in the configured {@link BlobStore}.
+ * <p>
+ * Uploads are streamed to a spool file while their SHA-256 is computed, the digest becomes the blob key and content
+ * that is already stored is not written again. Nothing is held in memory beyond the copy buffer.
+ */
+@Service
+public class BlobStorageService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BlobStorageService.class);
+
+    private final BlobStore blobStore;
+    private final Path spoolDirectory;
+
+    public BlobStorageService(BlobStore blobStore, ApplicationProperties applicationProperties) {
+        this.blobStore = blobStore;
+        this.spoolDirectory = Path.of(applicationProperties.getStorage().getDirectory()).resolve("incoming");
+    }
+
+    /**
+     * Store content, unless the same bytes are already stored.
+     *
+     * @param content the content, it is read to the end and closed
+     * @param contentType the media type of the content, may be {@code null}
+     * @return the key and size of the stored blob
+     */
+    public StoredBlob store(InputStream content, String contentType) throws IOException {
+        Files.createDirectories(spoolDirectory);
+        Path spool = Files.createTempFile(spoolDirectory, "upload-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (InputStream in = new DigestInputStream(content, digest)) {
+                size = Files.copy(in, spool, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String key = HexFormat.of().formatHex(digest.digest());
+
+            if (blobStore.exists(key)) {
+                LOG.debug("Blob {} already stored, {} bytes not written again", key, size);
+            } else {
+                blobStore.put(key, spool, size, contentType);
+                LOG.debug("Stored blob {} of {} bytes", key, size);
+            }
+            return new StoredBlob(key, size);
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+    }
+
+    /**
+     * Copy a range of a stored blob to the target channel.
+     *
+     * @param key the blob key
+     * @param position the first byte to copy
+     * @param count the number of bytes to copy
+     * @param target the channel to write to, it is not closed
+     * @return the number of bytes copied
+     */
+    public long transferTo(String key, long position, long count, WritableByteChannel target) throws IOException {
+        return blobStore.transferTo(key, position, count, target);
+    }
+
+    /**
+     * @param key the blob key
+     * @return the size of the blob in bytes
+     */
+    public long size(String key) throws IOException {
+        return blobStore.size(key);
+    }
+
+    /**
+     * @param key the blob key
+     * @return the content of the blob, to be closed by the caller
+     */
+    public InputStream newInputStream(String key) throws IOException {
+        return blobStore.newInputStream(key);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param key the SHA-256 of the content
+     * @param size the size of the content in bytes
+     */
+    public record StoredBlob(String key, long size) {}
+}
@@ -1,7 +1,9 @@
 package com.adeem.stockflow.service;
 
 import com.adeem.stockflow.domain.*;
+import com.adeem.stockflow.domain.enumeration.AddressType;
 import com.adeem.stockflow.repository.*;
+import com.adeem.stockflow.repository.projection.ProductAvailableQuantityProjection;
 import com.adeem.stockflow.security.SecurityUtils;
 import com.adeem.stockflow.service.dto.*;
 import com.adeem.stockflow.service.exceptions.BadRequestAlertException;
@@ -9,6 +11,7 @@ import com.adeem.stockflow.service.mapper.CartMapper;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,6 +38,7 @@ public class CartService {
     private final InventoryRepository inventoryRepository;
     private final GuestCartService guestCartService;
     private final CartMapper cartMapper;
+    private final ShippingRateQuoteService shippingRateQuoteService;
 
     public CartService(
         CartRepository cartRepository,
@@ -43,7 +47,8 @@ public class CartService {
         ProductRepository productRepository,
         InventoryRepository inventoryRepository,
         GuestCartService guestCartService,
-        CartMapper cartMapper
+        CartMapper cartMapper,
+        ShippingRateQuoteService shippingRateQuoteService
     ) {
         this.cartRepository = cartRepository;
         this.cartItemRepository = cartItemRepository;
@@ -52,6 +57,7 @@ public class CartService {
         this.inventoryRepository = inventoryRepository;
         this.guestCartService = guestCartService;
         this.cartMapper = cartMapper;
+        this.shippingRateQuoteService = shippingRateQuoteService;
     }
 
     /**
@@ -66,7 +72,7 @@ public class CartService {
 
         Long customerId = getCurrentCustomerId();
 
-        Cart cart = cartRepository.findByCustomerId(customerId).orElseGet(() -> createNewCartForCustomer(customerId));
+        Cart cart = cartRepository.findWithItemsByCustomerId(customerId).orElseGet(() -> createNewCartForCustomer(customerId));
 
         return buildCartWithTotals(cart);
     }
@@ -200,19 +206,21 @@ public class CartService {
         Long customerId = getCurrentCustomerId();
 
         Cart cart = cartRepository
-            .findByCustomerId(customerId)
+            .findWithItemsByCustomerId(customerId)
             .orElseThrow(() -> new BadRequestAlertException("No active cart found", "cart", "noactivecart"));
 
+        Map<Long, BigDecimal> availableQuantities = getAvailableQuantities(cart);
         List<CartValidationIssueDTO> issues = new ArrayList<>();
 
         for (CartItem item : cart.getCartItems()) {
-            validateCartItem(item, issues);
+            validateCartItem(item, availableQuantityOf(availableQuantities, item), issues);
         }
 
         CartValidationResponseDTO response = new CartValidationResponseDTO();
         response.setIsValid(issues.isEmpty());
         response.setIssues(issues);
-        response.setUpdatedCart(buildCartWithTotals(cart));
+        // Checkout prices use the carrier rates, waiting a bounded time for those that are not cached yet
+        response.setUpdatedCart(buildCartWithTotals(cart, availableQuantities, true));
 
         return response;
     }
@@ -231,11 +239,33 @@ public class CartService {
 
         GuestCartDTO guestCart = guestCartService.findGuestCart(sessionId);
 
-        Cart userCart = cartRepository.findByCustomerId(customerId).orElseGet(() -> createNewCartForCustomer(customerId));
+        Cart userCart = cartRepository.findWithItemsByCustomerId(customerId).orElseGet(() -> createNewCartForCustomer(customerId));
+
+        // Load the guest products, their stock and the matching cart lines up front
+        Set<Long> productIds = guestCart.getItems().stream().map(GuestCartItemDTO::getProductId).collect(Collectors.toSet());
+        Map<Long, Product> products = productRepository
+            .findAllById(productIds)
+            .stream()
+            .collect(Collectors.toMap(Product::getId, product -> product));
+        Map<Long, BigDecimal> availableQuantities = getAvailableQuantities(productIds);
+        Map<Long, CartItem> existingItems = userCart
+            .getCartItems()
+            .stream()
+            .collect(Collectors.toMap(item -> item.getProduct().getId(), item -> item, (first, second) -> first));
 
-        // Migrate items from guest cart
+        // Migrate items from guest cart, a product repeated in the guest cart adds to the line created for it
         for (GuestCartItemDTO guestItem : guestCart.getItems()) {
-            migrateGuestCartItem(userCart, guestItem);
+            Long productId = guestItem.getProductId();
+            CartItem item = migrateGuestCartItem(
+                userCart,
+                guestItem,
+                existingItems.get(productId),
+                products.get(productId),
+                availableQuantities.getOrDefault(productId, BigDecimal.ZERO)
+            );
+            if (item != null) {
+                existingItems.put(productId, item);
+            }
         }
 
         // Clean up guest cart
@@ -292,12 +322,15 @@ public class CartService {
     }
 
     private void validateProductAvailability(Product product, BigDecimal requestedQuantity) {
+        BigDecimal availableQuantity = inventoryRepository.getTotalAvailableQuantityForProduct(product.getId()).orElse(BigDecimal.ZERO);
+        validateProductAvailability(product, requestedQuantity, availableQuantity);
+    }
+
+    private void validateProductAvailability(Product product, BigDecimal requestedQuantity, BigDecimal availableQuantity) {
         if (!product.getIsVisibleToCustomers()) {
             throw new BadRequestAlertException("Product is not available for purchase", "cart", "productnotavailable");
         }
 
-        BigDecimal availableQuantity = inventoryRepository.getTotalAvailableQuantityForProduct(product.getId()).orElse(BigDecimal.ZERO);
-
         if (availableQuantity.compareTo(requestedQuantity) < 0) {
             throw new BadRequestAlertException(
                 "Insufficient stock. Available: " + availableQuantity + ", Requested: " + requestedQuantity,
@@ -307,7 +340,7 @@ public class CartService {
         }
     }
 
-    private void validateCartItem(CartItem item, List<CartValidationIssueDTO> issues) {
+    private void validateCartItem(CartItem item, BigDecimal availableQuantity, List<CartValidationIssueDTO> issues) {
         Product product = item.getProduct();
 
         // Check product visibility
@@ -323,8 +356,6 @@ public class CartService {
         }
 
         // Check stock availability
-        BigDecimal availableQuantity = inventoryRepository.getTotalAvailableQuantityForProduct(product.getId()).orElse(BigDecimal.ZERO);
-
         if (availableQuantity.compareTo(BigDecimal.ZERO) == 0) {
             CartValidationIssueDTO issue = new CartValidationIssueDTO();
             issue.setCartItemId(item.getId());
@@ -362,21 +393,30 @@ public class CartService {
     }
 
     private CartWithTotalsDTO buildCartWithTotals(Cart cart) {
+        return buildCartWithTotals(cart, getAvailableQuantities(cart), false);
+    }
+
+    private CartWithTotalsDTO buildCartWithTotals(Cart cart, Map<Long, BigDecimal> availableQuantities, boolean waitForRates) {
         CartWithTotalsDTO dto = new CartWithTotalsDTO();
         dto.setId(cart.getId());
         dto.setCreatedDate(cart.getCreatedDate());
         dto.setLastModifiedDate(cart.getLastModifiedDate());
 
-        List<CartItemDetailDTO> items = cart.getCartItems().stream().map(this::buildCartItemDetail).collect(Collectors.toList());
+        List<CartItemDetailDTO> items = cart
+            .getCartItems()
+            .stream()
+            .map(item -> buildCartItemDetail(item, availableQuantityOf(availableQuantities, item)))
+            .collect(Collectors.toList());
         dto.setItems(items);
 
         // Group by company
+        Map<Long, BigDecimal> carrierRates = getCarrierShippingRates(cart, waitForRates);
         Map<String, CompanyOrderSummaryDTO> ordersByCompany = items
             .stream()
             .collect(
                 Collectors.groupingBy(
                     CartItemDetailDTO::getCompanyName,
-                    Collectors.collectingAndThen(Collectors.toList(), this::buildCompanyOrderSummary)
+                    Collectors.collectingAndThen(Collectors.toList(), companyItems -> buildCompanyOrderSummary(companyItems, carrierRates))
                 )
             );
         dto.setOrdersByCompany(ordersByCompany);
@@ -403,6 +443,13 @@ public class CartService {
     }
 
     private CartItemDetailDTO buildCartItemDetail(CartItem cartItem) {
+        BigDecimal availableQuantity = inventoryRepository
+            .getTotalAvailableQuantityForProduct(cartItem.getProduct().getId())
+            .orElse(BigDecimal.ZERO);
+        return buildCartItemDetail(cartItem, availableQuantity);
+    }
+
+    private CartItemDetailDTO buildCartItemDetail(CartItem cartItem, BigDecimal availableQuantity) {
         Product product = cartItem.getProduct();
 
         CartItemDetailDTO dto = new CartItemDetailDTO();
@@ -425,7 +472,6 @@ public class CartService {
         dto.setCompanyName(product.getClientAccount().getCompanyName());
 
         // Availability details
-        BigDecimal availableQuantity = inventoryRepository.getTotalAvailableQuantityForProduct(product.getId()).orElse(BigDecimal.ZERO);
         dto.setAvailableQuantity(availableQuantity);
         dto.setInStock(availableQuantity.compareTo(BigDecimal.ZERO) > 0);
         dto.setAvailabilityChanged(availableQuantity.compareTo(cartItem.getQuantity()) < 0);
@@ -436,7 +482,81 @@ public class CartService {
         return dto;
     }
 
-    private CompanyOrderSummaryDTO buildCompanyOrderSummary(List<CartItemDetailDTO> items) {
+    /**
+     * Available quantity of every product in the cart, with a single grouped query.
+     * Products without inventory are left out of the map.
+     */
+    private Map<Long, BigDecimal> getAvailableQuantities(Cart cart) {
+        return getAvailableQuantities(cart.getCartItems().stream().map(item -> item.getProduct().getId()).collect(Collectors.toSet()));
+    }
+
+    private Map<Long, BigDecimal> getAvailableQuantities(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        return inventoryRepository
+            .getTotalAvailableQuantityForProducts(productIds)
+            .stream()
+            .collect(
+                Collectors.toMap(ProductAvailableQuantityProjection::getProductId, ProductAvailableQuantityProjection::getAvailableQuantity)
+            );
+    }
+
+    private static BigDecimal availableQuantityOf(Map<Long, BigDecimal> availableQuantities, CartItem item) {
+        return availableQuantities.getOrDefault(item.getProduct().getId(), BigDecimal.ZERO);
+    }
+
+    /**
+     * Carrier rate of each company shipping with Yalidine, from its address to the customer's delivery address.
+     * Companies without a rate are left out of the map.
+     *
+     * @param waitForRates whether to wait for the carrier when a rate is not cached, otherwise it is only asked in the background.
+     * The rates of all the companies are then asked together and waited for a bounded time, as the caller's transaction
+     * holds its connection meanwhile.
+     */
+    private Map<Long, BigDecimal> getCarrierShippingRates(Cart cart, boolean waitForRates) {
+        Address deliveryAddress = getDeliveryAddress(cart.getCustomer());
+        if (deliveryAddress == null) {
+            return Map.of();
+        }
+
+        Map<Long, BigDecimal> rates = new HashMap<>();
+        Map<Long, CompletableFuture<Optional<BigDecimal>>> pendingRates = new HashMap<>();
+        for (CartItem item : cart.getCartItems()) {
+            ClientAccount company = item.getProduct().getClientAccount();
+            if (!Boolean.TRUE.equals(company.getYalidineEnabled()) || pendingRates.containsKey(company.getId())) {
+                continue;
+            }
+            // Product weights are not known, parcels are quoted in the first weight bracket
+            CompletableFuture<Optional<BigDecimal>> rate = waitForRates
+                ? shippingRateQuoteService.getQuoteAsync(company.getAddress(), deliveryAddress, null)
+                : CompletableFuture.completedFuture(shippingRateQuoteService.getQuoteIfCached(company.getAddress(), deliveryAddress, null));
+            pendingRates.put(company.getId(), rate);
+        }
+        // Each rate gives up after the quote service's timeout, so this waits for the slowest one at most
+        pendingRates.forEach((companyId, rate) -> rate.join().ifPresent(value -> rates.put(companyId, value)));
+        return rates;
+    }
+
+    /**
+     * The customer's shipping address, the default one first, or any address when none is for shipping.
+     */
+    private static Address getDeliveryAddress(Customer customer) {
+        if (customer == null) {
+            return null;
+        }
+        return customer
+            .getAddresses()
+            .stream()
+            .min(
+                Comparator.comparing((Address address) -> address.getAddressType() != AddressType.SHIPPING).thenComparing(address ->
+                    !Boolean.TRUE.equals(address.getIsDefault())
+                )
+            )
+            .orElse(null);
+    }
+
+    private CompanyOrderSummaryDTO buildCompanyOrderSummary(List<CartItemDetailDTO> items, Map<Long, BigDecimal> carrierRates) {
         if (items.isEmpty()) {
             return new CompanyOrderSummaryDTO();
         }
@@ -450,8 +570,11 @@ public class CartService {
         BigDecimal subtotal = items.stream().map(CartItemDetailDTO::getLineTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
         summary.setSubtotal(subtotal);
 
-        // For now, simple shipping calculation - could be enhanced later
-        BigDecimal shippingCost = subtotal.compareTo(new BigDecimal("100")) >= 0 ? BigDecimal.ZERO : new BigDecimal("10.00");
+        // Carrier rate when the company ships with Yalidine and the rate is known, simple flat shipping otherwise
+        BigDecimal shippingCost = carrierRates.get(firstItem.getCompanyId());
+        if (shippingCost == null) {
+            shippingCost = subtotal.compareTo(new BigDecimal("100")) >= 0 ? BigDecimal.ZERO : new BigDecimal("10.00");
+        }
         summary.setShippingCost(shippingCost);
         summary.setTotal(subtotal.add(shippingCost));
 
@@ -484,43 +607,50 @@ public class CartService {
         cartRepository.save(cart);
     }
 
-    private void migrateGuestCartItem(Cart userCart, GuestCartItemDTO guestItem) {
-        Optional<CartItem> existingItem = cartItemRepository.findByCartIdAndProductId(userCart.getId(), guestItem.getProductId());
-
-        if (existingItem.isPresent()) {
-            CartItem item = existingItem.get();
-            BigDecimal newQuantity = item.getQuantity().add(guestItem.getQuantity());
+    /**
+     * Add a guest cart line to the user's cart, to its existing line of the same product if there is one.
+     *
+     * @return the user's cart line of the product, {@code null} when there is none
+     */
+    private CartItem migrateGuestCartItem(
+        Cart userCart,
+        GuestCartItemDTO guestItem,
+        CartItem existingItem,
+        Product product,
+        BigDecimal availableQuantity
+    ) {
+        if (existingItem != null) {
+            BigDecimal newQuantity = existingItem.getQuantity().add(guestItem.getQuantity());
 
             // Validate availability for new quantity
-            Product product = item.getProduct();
             try {
-                validateProductAvailability(product, newQuantity);
-                item.setQuantity(newQuantity);
-                item.setLastModifiedDate(Instant.now());
-                cartItemRepository.save(item);
+                validateProductAvailability(existingItem.getProduct(), newQuantity, availableQuantity);
+                existingItem.setQuantity(newQuantity);
+                existingItem.setLastModifiedDate(Instant.now());
+                cartItemRepository.save(existingItem);
             } catch (BadRequestAlertException e) {
                 LOG.warn("Could not migrate guest cart item due to availability: {}", e.getMessage());
             }
-        } else {
+            return existingItem;
+        } else if (product != null) {
             // Create new cart item
-            Product product = productRepository.findById(guestItem.getProductId()).orElse(null);
-            if (product != null) {
-                try {
-                    validateProductAvailability(product, guestItem.getQuantity());
-
-                    CartItem newItem = new CartItem();
-                    newItem.setCart(userCart);
-                    newItem.setProduct(product);
-                    newItem.setQuantity(guestItem.getQuantity());
-                    newItem.setPrice(guestItem.getPriceAtTime());
-                    newItem.setAddedDate(Instant.now());
-                    newItem.setCreatedDate(Instant.now());
-
-                    cartItemRepository.save(newItem);
-                } catch (BadRequestAlertException e) {
-                    LOG.warn("Could not migrate guest cart item due to availability: {}", e.getMessage());
-                }
+            try {
+                validateProductAvailability(product, guestItem.getQuantity(), availableQuantity);
+
+                CartItem newItem = new CartItem();
+                newItem.setCart(userCart);
+                newItem.setProduct(product);
+                newItem.setQuantity(guestItem.getQuantity());
+                newItem.setPrice(guestItem.getPriceAtTime());
+                newItem.setAddedDate(Instant.now());
+                newItem.setCreatedDate(Instant.now());
+                userCart.addCartItems(newItem);
+
+                return cartItemRepository.save(newItem);
+            } catch (BadRequestAlertException e) {
+                LOG.warn("Could not migrate guest cart item due to availability: {}", e.getMessage());
             }
         }
+        return null;
     }
 }
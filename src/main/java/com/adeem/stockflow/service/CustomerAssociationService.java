@@ -9,12 +9,15 @@ import com.adeem.stockflow.repository.CustomerClientAssociationRepository;
 import com.adeem.stockflow.repository.CustomerRepository;
 import com.adeem.stockflow.repository.projection.AssociationStatsProjection;
 import com.adeem.stockflow.security.SecurityUtils;
+import com.adeem.stockflow.service.StatisticsCacheService.StatisticsType;
 import com.adeem.stockflow.service.dto.CustomerAssociationDTO;
+import com.adeem.stockflow.service.event.CustomerAssociationsChangedEvent;
 import com.adeem.stockflow.service.exceptions.BadRequestAlertException;
 import com.adeem.stockflow.service.mapper.CustomerAssociationMapper;
 import java.util.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
@@ -35,17 +38,23 @@ public class CustomerAssociationService {
     private final CustomerRepository customerRepository;
     private final ClientAccountRepository clientAccountRepository;
     private final CustomerAssociationMapper associationMapper;
+    private final StatisticsCacheService statisticsCacheService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public CustomerAssociationService(
         CustomerClientAssociationRepository associationRepository,
         CustomerRepository customerRepository,
         ClientAccountRepository clientAccountRepository,
-        CustomerAssociationMapper associationMapper
+        CustomerAssociationMapper associationMapper,
+        StatisticsCacheService statisticsCacheService,
+        ApplicationEventPublisher eventPublisher
     ) {
         this.associationRepository = associationRepository;
         this.customerRepository = customerRepository;
         this.clientAccountRepository = clientAccountRepository;
         this.associationMapper = associationMapper;
+        this.statisticsCacheService = statisticsCacheService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -91,6 +100,7 @@ public class CustomerAssociationService {
 
         association = associationRepository.save(association);
         LOG.debug("Created CustomerAssociation : {}", association);
+        eventPublisher.publishEvent(new CustomerAssociationsChangedEvent(clientAccount.getId()));
 
         return associationMapper.toDto(association);
     }
@@ -118,6 +128,7 @@ public class CustomerAssociationService {
         CustomerClientAssociation association = associationMapper.toEntity(associationDTO);
         association.setIsPersisted();
         association = associationRepository.save(association);
+        eventPublisher.publishEvent(new CustomerAssociationsChangedEvent(existingAssociation.getClientAccount().getId()));
 
         return associationMapper.toDto(association);
     }
@@ -138,6 +149,7 @@ public class CustomerAssociationService {
                 validateAssociationAccess(existingAssociation.getCustomer().getId(), existingAssociation.getClientAccount().getId());
 
                 associationMapper.partialUpdate(existingAssociation, associationDTO);
+                eventPublisher.publishEvent(new CustomerAssociationsChangedEvent(existingAssociation.getClientAccount().getId()));
                 return existingAssociation;
             })
             .map(associationRepository::save)
@@ -249,6 +261,7 @@ public class CustomerAssociationService {
         validateAssociationAccess(association.getCustomer().getId(), association.getClientAccount().getId());
 
         associationRepository.delete(association);
+        eventPublisher.publishEvent(new CustomerAssociationsChangedEvent(association.getClientAccount().getId()));
         LOG.debug("Deleted CustomerAssociation : {}", id);
     }
 
@@ -304,7 +317,12 @@ public class CustomerAssociationService {
         LOG.debug("Request to get association statistics");
 
         Long clientAccountId = SecurityUtils.getCurrentClientAccountId();
+        return statisticsCacheService.get(StatisticsType.CUSTOMER_ASSOCIATION, clientAccountId, () ->
+            computeAssociationStatistics(clientAccountId)
+        );
+    }
 
+    private Map<String, Object> computeAssociationStatistics(Long clientAccountId) {
         Map<String, Object> stats = new HashMap<>();
 
         // Total counts
@@ -378,6 +396,7 @@ public class CustomerAssociationService {
         }
 
         association = associationRepository.save(association);
+        eventPublisher.publishEvent(new CustomerAssociationsChangedEvent(association.getClientAccount().getId()));
         LOG.debug("Toggled status of CustomerAssociation : {}", id);
 
         return associationMapper.toDto(association);
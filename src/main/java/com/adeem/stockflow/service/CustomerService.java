@@ -1,27 +1,31 @@
 package com.adeem.stockflow.service;
 
+import com.adeem.stockflow.config.ApplicationProperties;
 import com.adeem.stockflow.domain.ClientAccount;
 import com.adeem.stockflow.domain.Customer;
 import com.adeem.stockflow.domain.User;
+import com.adeem.stockflow.domain.enumeration.AssociationType;
+import com.adeem.stockflow.domain.enumeration.MeteredResource;
 import com.adeem.stockflow.repository.ClientAccountRepository;
-import com.adeem.stockflow.repository.CustomerClientAssociationRepository;
 import com.adeem.stockflow.repository.CustomerRepository;
 import com.adeem.stockflow.repository.UserRepository;
-import com.adeem.stockflow.repository.projection.AssociationStatsProjection;
+import com.adeem.stockflow.repository.projection.CustomerStatsProjection;
 import com.adeem.stockflow.security.AuthoritiesConstants;
 import com.adeem.stockflow.security.SecurityUtils;
+import com.adeem.stockflow.service.StatisticsCacheService.StatisticsType;
+import com.adeem.stockflow.service.criteria.AutocompleteQuery;
 import com.adeem.stockflow.service.dto.AdminUserDTO;
 import com.adeem.stockflow.service.dto.CreateAccountRequestDTO;
 import com.adeem.stockflow.service.dto.CustomerDTO;
 import com.adeem.stockflow.service.dto.CustomerStatsDTO;
+import com.adeem.stockflow.service.event.CustomersChangedEvent;
 import com.adeem.stockflow.service.exceptions.BadRequestAlertException;
 import com.adeem.stockflow.service.mapper.CustomerMapper;
 import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -40,29 +44,38 @@ public class CustomerService {
     private static final Logger LOG = LoggerFactory.getLogger(CustomerService.class);
 
     private final CustomerRepository customerRepository;
-    private final CustomerClientAssociationRepository associationRepository;
     private final ClientAccountRepository clientAccountRepository;
     private final UserRepository userRepository;
     private final CustomerMapper customerMapper;
     private final UserService userService;
     private final MailService mailService;
+    private final StatisticsCacheService statisticsCacheService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ApplicationProperties applicationProperties;
+    private final QuotaEnforcementService quotaEnforcementService;
 
     public CustomerService(
         CustomerRepository customerRepository,
-        CustomerClientAssociationRepository associationRepository,
         ClientAccountRepository clientAccountRepository,
         UserRepository userRepository,
         CustomerMapper customerMapper,
         UserService userService,
-        MailService mailService
+        MailService mailService,
+        StatisticsCacheService statisticsCacheService,
+        ApplicationEventPublisher eventPublisher,
+        ApplicationProperties applicationProperties,
+        QuotaEnforcementService quotaEnforcementService
     ) {
         this.customerRepository = customerRepository;
-        this.associationRepository = associationRepository;
         this.clientAccountRepository = clientAccountRepository;
         this.userRepository = userRepository;
         this.customerMapper = customerMapper;
         this.userService = userService;
         this.mailService = mailService;
+        this.statisticsCacheService = statisticsCacheService;
+        this.eventPublisher = eventPublisher;
+        this.applicationProperties = applicationProperties;
+        this.quotaEnforcementService = quotaEnforcementService;
     }
 
     /**
@@ -71,7 +84,6 @@ public class CustomerService {
      * @param customerDTO the entity to save.
      * @return the persisted entity.
      */
-    //@CacheEvict(value = "customerStats", key = "#root.target.getCurrentClientAccountId()")
     public CustomerDTO create(CustomerDTO customerDTO) {
         LOG.debug("Request to save Customer : {}", customerDTO);
 
@@ -86,6 +98,7 @@ public class CustomerService {
         if (customerDTO.getTaxId() != null && TaxIdExistsInCompany(customerDTO.getTaxId(), clientAccountId, null)) {
             throw new BadRequestAlertException("Tax ID already exists in this company", "customer", "taxidexists");
         }
+        quotaEnforcementService.acquire(clientAccountId, MeteredResource.CUSTOMERS);
 
         Customer customer = customerMapper.toEntity(customerDTO);
 
@@ -102,6 +115,7 @@ public class CustomerService {
 
         customer = customerRepository.save(customer);
         LOG.debug("Created Customer : {}", customer);
+        eventPublisher.publishEvent(new CustomersChangedEvent(clientAccountId));
 
         return customerMapper.toDto(customer);
     }
@@ -112,7 +126,6 @@ public class CustomerService {
      * @param customerDTO the entity to save.
      * @return the persisted entity.
      */
-    //@CacheEvict(value = "customerStats", key = "#root.target.getCurrentClientAccountId()")
     public CustomerDTO update(CustomerDTO customerDTO) {
         LOG.debug("Request to update Customer : {}", customerDTO);
 
@@ -140,6 +153,7 @@ public class CustomerService {
         Customer customer = customerMapper.toEntity(customerDTO);
         customer.setIsPersisted();
         customer = customerRepository.save(customer);
+        eventPublisher.publishEvent(new CustomersChangedEvent(clientAccountId));
 
         return customerMapper.toDto(customer);
     }
@@ -150,7 +164,6 @@ public class CustomerService {
      * @param customerDTO the entity to update partially.
      * @return the persisted entity.
      */
-    //@CacheEvict(value = "customerStats", key = "#root.target.getCurrentClientAccountId()")
     public Optional<CustomerDTO> partialUpdate(CustomerDTO customerDTO) {
         LOG.debug("Request to partially update Customer : {}", customerDTO);
 
@@ -160,7 +173,7 @@ public class CustomerService {
             throw new AccessDeniedException("Cannot manage this customer");
         }
 
-        return customerRepository
+        Optional<CustomerDTO> result = customerRepository
             .findByIdAndCreatedByClientAccountId(customerDTO.getId(), clientAccountId)
             .map(existingCustomer -> {
                 customerMapper.partialUpdate(existingCustomer, customerDTO);
@@ -168,6 +181,8 @@ public class CustomerService {
             })
             .map(customerRepository::save)
             .map(customerMapper::toDto);
+        eventPublisher.publishEvent(new CustomersChangedEvent(clientAccountId));
+        return result;
     }
 
     /**
@@ -234,7 +249,6 @@ public class CustomerService {
      *
      * @param id the id of the entity.
      */
-    //@CacheEvict(value = "customerStats", key = "#root.target.getCurrentClientAccountId()")
     public void delete(Long id) {
         LOG.debug("Request to delete Customer : {}", id);
 
@@ -249,8 +263,12 @@ public class CustomerService {
             .orElseThrow(() -> new BadRequestAlertException("Customer not found", "customer", "idnotfound"));
 
         // Soft delete
+        if (Boolean.TRUE.equals(customer.getEnabled())) {
+            quotaEnforcementService.release(clientAccountId, MeteredResource.CUSTOMERS, 1);
+        }
         customer.setEnabled(false);
         customerRepository.save(customer);
+        eventPublisher.publishEvent(new CustomersChangedEvent(clientAccountId));
 
         LOG.debug("Soft deleted Customer : {}", id);
     }
@@ -260,7 +278,6 @@ public class CustomerService {
      *
      * @param id the id of the entity.
      */
-    //@CacheEvict(value = "customerStats", key = "#root.target.getCurrentClientAccountId()")
     public void reactivate(Long id) {
         LOG.debug("Request to reactivate Customer : {}", id);
 
@@ -270,8 +287,12 @@ public class CustomerService {
             .findByIdAndCreatedByClientAccountId(id, clientAccountId)
             .orElseThrow(() -> new BadRequestAlertException("Customer not found", "customer", "idnotfound"));
 
+        if (!Boolean.TRUE.equals(customer.getEnabled())) {
+            quotaEnforcementService.acquire(clientAccountId, MeteredResource.CUSTOMERS);
+        }
         customer.setEnabled(true);
         customerRepository.save(customer);
+        eventPublisher.publishEvent(new CustomersChangedEvent(clientAccountId));
 
         LOG.debug("Reactivated Customer : {}", id);
     }
@@ -295,50 +316,76 @@ public class CustomerService {
         return customerRepository.searchByClientAccount(query.trim(), clientAccountId, pageable).map(customerMapper::toDto);
     }
 
+    /**
+     * Type-ahead suggestions among the enabled customers of the current company, best match first.
+     * Matches names, phone and tax id as a substring or with typos, see {@link AutocompleteQuery}.
+     *
+     * @param query the text typed so far, at least {@code application.autocomplete.min-length} characters.
+     * @param size the number of suggestions, capped by {@code application.autocomplete.max-results}.
+     * @return the suggestions.
+     */
+    @Transactional(readOnly = true)
+    public List<CustomerDTO> autocomplete(String query, Integer size) {
+        LOG.debug("Request to autocomplete Customers : {}", query);
+        AutocompleteQuery autocomplete = AutocompleteQuery.of(query, size, applicationProperties.getAutocomplete(), "customer");
+        Long clientAccountId = getCurrentClientAccountId();
+
+        List<Long> ids = customerRepository.autocompleteIds(
+            autocomplete.getTerm(),
+            autocomplete.getPattern(),
+            clientAccountId,
+            autocomplete.getLimit()
+        );
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return AutocompleteQuery.inRankOrder(ids, customerRepository.findAllById(ids), Customer::getId)
+            .stream()
+            .map(customerMapper::toDto)
+            .toList();
+    }
+
     /**
      * Get customer statistics for current company.
      *
      * @return the statistics.
      */
     @Transactional(readOnly = true)
-    //@Cacheable(value = "customerStats", key = "#root.target.getCurrentClientAccountId()")
     public CustomerStatsDTO getStatistics() {
         LOG.debug("Request to get Customer statistics");
         Long clientAccountId = getCurrentClientAccountId();
+        return statisticsCacheService.get(StatisticsType.CUSTOMER, clientAccountId, () -> computeStatistics(clientAccountId));
+    }
 
-        Long totalCustomers = customerRepository.countByClientAccount(clientAccountId);
-        Long enabledCustomers = customerRepository.countEnabledByClientAccount(clientAccountId);
-        Long disabledCustomers = customerRepository.countDisabledByClientAccount(clientAccountId);
-        Long managedCustomers = customerRepository.countManagedCustomersByClientAccount(clientAccountId);
-        Long independentCustomers = customerRepository.countIndependentCustomersByClientAccount(clientAccountId);
-        Long customersWithAccounts = customerRepository.countWithUserAccountByClientAccount(clientAccountId);
-        Long customersWithoutAccounts = customerRepository.countWithoutUserAccountByClientAccount(clientAccountId);
-        Long totalAssociations = associationRepository.countActiveAssociationsByClientAccount(clientAccountId);
+    private CustomerStatsDTO computeStatistics(Long clientAccountId) {
+        CustomerStatsProjection counters = customerRepository.aggregateStatsByClientAccount(clientAccountId);
 
+        // Managed customers are the ones without a user account, independent ones have one
         CustomerStatsDTO stats = new CustomerStatsDTO(
-            totalCustomers,
-            managedCustomers,
-            independentCustomers,
-            enabledCustomers,
-            disabledCustomers,
-            customersWithAccounts,
-            customersWithoutAccounts,
-            totalAssociations
+            counters.getTotalCustomers(),
+            counters.getCustomersWithoutAccounts(),
+            counters.getCustomersWithAccounts(),
+            counters.getEnabledCustomers(),
+            counters.getDisabledCustomers(),
+            counters.getCustomersWithAccounts(),
+            counters.getCustomersWithoutAccounts(),
+            counters.getTotalAssociations()
         );
 
-        // Add association type breakdown
-        List<AssociationStatsProjection> associationStats = associationRepository.countAssociationsByTypeAndClientAccount(
-            clientAccountId,
-            com.adeem.stockflow.domain.enumeration.AssociationStatus.ACTIVE
-        );
-
-        for (AssociationStatsProjection stat : associationStats) {
-            stats.addAssociationType(stat.getAssociationType(), stat.getCount());
-        }
+        // Add association type breakdown, only the types in use
+        addAssociationType(stats, AssociationType.FOLLOWED, counters.getFollowedAssociations());
+        addAssociationType(stats, AssociationType.PREFERRED_SUPPLIER, counters.getPreferredSupplierAssociations());
+        addAssociationType(stats, AssociationType.BUSINESS_PARTNER, counters.getBusinessPartnerAssociations());
 
         return stats;
     }
 
+    private static void addAssociationType(CustomerStatsDTO stats, AssociationType type, Long count) {
+        if (count != null && count > 0) {
+            stats.addAssociationType(type, count);
+        }
+    }
+
     /**
      * Count customers for current company.
      *
@@ -426,6 +473,7 @@ public class CustomerService {
         // Link customer to user
         customer.setUser(newUser);
         customerRepository.save(customer);
+        eventPublisher.publishEvent(new CustomersChangedEvent(clientAccountId));
 
         // Send activation email
         if (request.getSendWelcomeEmail()) {
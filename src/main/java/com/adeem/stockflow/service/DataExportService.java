@@ -0,0 +1,203 @@
+package com.adeem.stockflow.service;
+
+import com.adeem.stockflow.config.ApplicationProperties;
+import com.adeem.stockflow.domain.Customer;
+import com.adeem.stockflow.domain.Inventory;
+import com.adeem.stockflow.domain.Inventory_;
+import com.adeem.stockflow.domain.Product;
+import com.adeem.stockflow.domain.ProductFamily;
+import com.adeem.stockflow.domain.Product_;
+import com.adeem.stockflow.domain.SaleOrder;
+import com.adeem.stockflow.domain.SaleOrder_;
+import com.adeem.stockflow.service.export.ExportColumn;
+import com.adeem.stockflow.service.export.ExportFormat;
+import com.adeem.stockflow.service.export.ExportWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.SingularAttribute;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service exporting tenant data to CSV or XLSX files.
+ * <p>
+ * Rows are streamed from a database cursor and written as they are read: the query runs with a JDBC fetch size, in a
+ * read-only transaction, and the loaded entities are released every fetch size rows, so an export of millions of
+ * rows uses the same memory as an export of a thousand. Rows are exported in id order and the callers' specifications
+ * select them, tenant filter included.
+ */
+@Service
+@Transactional(readOnly = true)
+public class DataExportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DataExportService.class);
+
+    private static final List<ExportColumn<Product>> PRODUCT_COLUMNS = List.of(
+        new ExportColumn<>("ID", Product::getId),
+        new ExportColumn<>("Code", Product::getCode),
+        new ExportColumn<>("Name", Product::getName),
+        new ExportColumn<>("Description", Product::getDescription),
+        new ExportColumn<>("Category", Product::getCategory),
+        new ExportColumn<>("Family", product -> familyName(product.getProductFamily())),
+        new ExportColumn<>("Manufacturer Code", Product::getManufacturerCode),
+        new ExportColumn<>("UPC", Product::getUpc),
+        new ExportColumn<>("Selling Price", Product::getSellingPrice),
+        new ExportColumn<>("Cost Price", Product::getCostPrice),
+        new ExportColumn<>("Profit Margin", Product::getProfitMargin),
+        new ExportColumn<>("Min Stock Level", Product::getMinimumStockLevel),
+        new ExportColumn<>("Apply TVA", Product::getApplyTva),
+        new ExportColumn<>("Visible To Customers", Product::getIsVisibleToCustomers),
+        new ExportColumn<>("Expiration Date", Product::getExpirationDate)
+    );
+
+    private static final List<ExportColumn<Inventory>> INVENTORY_COLUMNS = List.of(
+        new ExportColumn<>("ID", Inventory::getId),
+        new ExportColumn<>("Product Code", inventory -> inventory.getProduct().getCode()),
+        new ExportColumn<>("Product Name", inventory -> inventory.getProduct().getName()),
+        new ExportColumn<>("Quantity", Inventory::getQuantity),
+        new ExportColumn<>("Available Quantity", Inventory::getAvailableQuantity),
+        new ExportColumn<>("Status", Inventory::getStatus),
+        new ExportColumn<>("Last Updated", Inventory::getLastModifiedDate)
+    );
+
+    private static final List<ExportColumn<SaleOrder>> SALE_ORDER_COLUMNS = List.of(
+        new ExportColumn<>("ID", SaleOrder::getId),
+        new ExportColumn<>("Reference", SaleOrder::getReference),
+        new ExportColumn<>("Date", SaleOrder::getDate),
+        new ExportColumn<>("Due Date", SaleOrder::getDueDate),
+        new ExportColumn<>("Status", SaleOrder::getStatus),
+        new ExportColumn<>("Order Type", SaleOrder::getOrderType),
+        new ExportColumn<>("Sale Type", SaleOrder::getSaleType),
+        new ExportColumn<>("Customer", saleOrder -> customerName(saleOrder.getCustomer())),
+        new ExportColumn<>("Sub Total", SaleOrder::getSubTotal),
+        new ExportColumn<>("TVA Amount", SaleOrder::getTvaAmount),
+        new ExportColumn<>("Stamp Amount", SaleOrder::getStampAmount),
+        new ExportColumn<>("Discount Amount", SaleOrder::getDiscountAmount),
+        new ExportColumn<>("Shipping Cost", SaleOrder::getShippingCost),
+        new ExportColumn<>("Total", SaleOrder::getTotal)
+    );
+
+    private final EntityManager entityManager;
+    private final ApplicationProperties.Export properties;
+
+    public DataExportService(EntityManager entityManager, ApplicationProperties applicationProperties) {
+        this.entityManager = entityManager;
+        this.properties = applicationProperties.getExport();
+    }
+
+    /**
+     * Export the products matching a specification, with their family.
+     *
+     * @param specification selects the exported products, tenant filter included
+     * @param format the file format
+     * @param out where the file is written, left open
+     * @return the number of exported products
+     */
+    public long exportProducts(Specification<Product> specification, ExportFormat format, OutputStream out) throws IOException {
+        LOG.debug("Request to export Products as {}", format);
+        return export(Product.class, Product_.id, Product_.productFamily, specification, PRODUCT_COLUMNS, format, out);
+    }
+
+    /**
+     * Export the inventory lines matching a specification, with their product.
+     *
+     * @param specification selects the exported inventory lines, tenant filter included
+     * @param format the file format
+     * @param out where the file is written, left open
+     * @return the number of exported inventory lines
+     */
+    public long exportInventory(Specification<Inventory> specification, ExportFormat format, OutputStream out) throws IOException {
+        LOG.debug("Request to export Inventory as {}", format);
+        return export(Inventory.class, Inventory_.id, Inventory_.product, specification, INVENTORY_COLUMNS, format, out);
+    }
+
+    /**
+     * Export the sale orders matching a specification, with their customer.
+     *
+     * @param specification selects the exported sale orders, tenant filter included
+     * @param format the file format
+     * @param out where the file is written, left open
+     * @return the number of exported sale orders
+     */
+    public long exportSaleOrders(Specification<SaleOrder> specification, ExportFormat format, OutputStream out) throws IOException {
+        LOG.debug("Request to export SaleOrders as {}", format);
+        return export(SaleOrder.class, SaleOrder_.id, SaleOrder_.customer, specification, SALE_ORDER_COLUMNS, format, out);
+    }
+
+    private <T> long export(
+        Class<T> entityClass,
+        SingularAttribute<? super T, Long> id,
+        SingularAttribute<? super T, ?> fetched,
+        Specification<T> specification,
+        List<ExportColumn<T>> columns,
+        ExportFormat format,
+        OutputStream out
+    ) throws IOException {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(entityClass);
+        Root<T> root = query.from(entityClass);
+        // Fetched with the row rather than one query per row for the columns reading it
+        root.fetch(fetched, JoinType.LEFT);
+        Predicate predicate = specification != null ? specification.toPredicate(root, query, cb) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root).orderBy(cb.asc(root.get(id)));
+
+        int fetchSize = properties.getFetchSize();
+        long count = 0;
+        try (
+            Stream<T> rows = entityManager
+                .createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+            ExportWriter writer = ExportWriter.open(format, out, properties.getXlsxWindowSize())
+        ) {
+            writer.writeRow(columns.stream().map(ExportColumn::header).toList());
+            Iterator<T> iterator = rows.iterator();
+            List<Object> values = new ArrayList<>(columns.size());
+            while (iterator.hasNext()) {
+                T row = iterator.next();
+                values.clear();
+                for (ExportColumn<T> column : columns) {
+                    values.add(column.value().apply(row));
+                }
+                writer.writeRow(values);
+                if (++count % fetchSize == 0) {
+                    // Otherwise the persistence context keeps every exported entity
+                    entityManager.clear();
+                }
+            }
+        }
+        LOG.debug("Exported {} {} rows as {}", count, entityClass.getSimpleName(), format);
+        return count;
+    }
+
+    private static String familyName(ProductFamily productFamily) {
+        return productFamily != null ? productFamily.getName() : null;
+    }
+
+    private static String customerName(Customer customer) {
+        if (customer == null) {
+            return null;
+        }
+        return Stream.of(customer.getFirstName(), customer.getLastName()).filter(Objects::nonNull).collect(Collectors.joining(" "));
+    }
+}
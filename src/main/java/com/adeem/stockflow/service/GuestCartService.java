@@ -7,6 +7,8 @@ import com.adeem.stockflow.domain.Product;
 import com.adeem.stockflow.repository.GuestCartItemRepository;
 import com.adeem.stockflow.repository.GuestCartRepository;
 import com.adeem.stockflow.repository.ProductRepository;
+import com.adeem.stockflow.service.GuestCartSessionStore.GuestCartLine;
+import com.adeem.stockflow.service.GuestCartSessionStore.GuestCartSession;
 import com.adeem.stockflow.service.dto.GuestCartDTO;
 import com.adeem.stockflow.service.dto.GuestCartItemDTO;
 import com.adeem.stockflow.service.exceptions.BadRequestAlertException;
@@ -31,6 +33,9 @@ import org.springframework.transaction.annotation.Transactional;
 /**
  * Service Implementation for managing Guest Cart functionality.
  * Handles session-based cart management for anonymous users.
+ * <p>
+ * With {@code application.guest-cart.in-memory} the carts live in the {@link GuestCartSessionStore} and only reach
+ * the database when they are written behind; otherwise every change is saved right away.
  */
 @Service
 @Transactional
@@ -44,19 +49,22 @@ public class GuestCartService {
     private final ProductRepository productRepository;
     private final GuestCartMapper guestCartMapper;
     private final GuestCartItemMapper guestCartItemMapper;
+    private final GuestCartSessionStore sessionStore;
 
     public GuestCartService(
         GuestCartRepository guestCartRepository,
         GuestCartItemRepository guestCartItemRepository,
         ProductRepository productRepository,
         GuestCartMapper guestCartMapper,
-        GuestCartItemMapper guestCartItemMapper
+        GuestCartItemMapper guestCartItemMapper,
+        GuestCartSessionStore sessionStore
     ) {
         this.guestCartRepository = guestCartRepository;
         this.guestCartItemRepository = guestCartItemRepository;
         this.productRepository = productRepository;
         this.guestCartMapper = guestCartMapper;
         this.guestCartItemMapper = guestCartItemMapper;
+        this.sessionStore = sessionStore;
     }
 
     /**
@@ -71,6 +79,12 @@ public class GuestCartService {
         Instant now = Instant.now();
         Instant expiresAt = now.plus(GUEST_CART_EXPIRY_HOURS, ChronoUnit.HOURS);
 
+        if (sessionStore.isEnabled()) {
+            sessionStore.create(sessionId, now, expiresAt);
+            LOG.debug("Created in-memory guest cart with session ID: {}", sessionId);
+            return sessionId;
+        }
+
         GuestCart guestCart = new GuestCart();
         guestCart.setSessionId(sessionId);
         guestCart.setCreatedDate(now);
@@ -91,6 +105,13 @@ public class GuestCartService {
     @Transactional(readOnly = true)
     public GuestCartDTO findGuestCart(String sessionId) {
         LOG.debug("Request to get guest cart: {}", sessionId);
+        if (sessionStore.isEnabled()) {
+            GuestCartSession session = sessionStore
+                .find(sessionId, Instant.now())
+                .orElseThrow(() -> new BadRequestAlertException("Guest cart not found", "", ErrorConstants.GUEST_CART_NOT_FOUND));
+            return calculateTotals(toDto(session));
+        }
+
         GuestCart guestCart = guestCartRepository
             .findValidGuestCart(sessionId, Instant.now())
             .orElseThrow(() -> new BadRequestAlertException("Guest cart not found", "", ErrorConstants.GUEST_CART_NOT_FOUND));
@@ -135,6 +156,22 @@ public class GuestCartService {
     public GuestCartItemDTO addItemToGuestCart(String sessionId, Long productId, BigDecimal quantity) {
         LOG.debug("Request to add item to guest cart: {} - Product: {}, Quantity: {}", sessionId, productId, quantity);
 
+        if (sessionStore.isEnabled()) {
+            GuestCartSession session = getValidSession(sessionId);
+            Product product = getValidMarketplaceProduct(productId);
+            synchronized (session) {
+                GuestCartLine line = session
+                    .findLineByProductId(productId)
+                    .map(existing -> existing.withQuantity(existing.quantity().add(quantity)))
+                    .orElseGet(() ->
+                        new GuestCartLine(sessionStore.nextItemId(), productId, quantity, product.getSellingPrice(), Instant.now())
+                    );
+                session.putLine(line);
+                LOG.debug("Added/updated item in in-memory guest cart: {}", line.id());
+                return toDto(sessionId, line);
+            }
+        }
+
         // Validate session
         getValidGuestCart(sessionId);
 
@@ -176,6 +213,20 @@ public class GuestCartService {
     public GuestCartItemDTO updateGuestCartItem(String sessionId, Long itemId, BigDecimal quantity) {
         LOG.debug("Request to update guest cart item: {} - Item: {}, Quantity: {}", sessionId, itemId, quantity);
 
+        if (sessionStore.isEnabled()) {
+            GuestCartSession session = getValidSession(sessionId);
+            synchronized (session) {
+                GuestCartLine line = getSessionLine(session, itemId);
+                if (quantity.compareTo(BigDecimal.ZERO) == 0) {
+                    session.removeLine(itemId);
+                    return null;
+                }
+                line = line.withQuantity(quantity);
+                session.putLine(line);
+                return toDto(sessionId, line);
+            }
+        }
+
         // Validate session
         getValidGuestCart(sessionId);
 
@@ -207,6 +258,15 @@ public class GuestCartService {
     public void removeItemFromGuestCart(String sessionId, Long itemId) {
         LOG.debug("Request to remove item from guest cart: {} - Item: {}", sessionId, itemId);
 
+        if (sessionStore.isEnabled()) {
+            GuestCartSession session = getValidSession(sessionId);
+            synchronized (session) {
+                getSessionLine(session, itemId);
+                session.removeLine(itemId);
+            }
+            return;
+        }
+
         // Validate session
         getValidGuestCart(sessionId);
 
@@ -228,6 +288,11 @@ public class GuestCartService {
     public void clearGuestCart(String sessionId) {
         LOG.debug("Request to clear guest cart: {}", sessionId);
 
+        if (sessionStore.isEnabled()) {
+            getValidSession(sessionId).clearLines();
+            return;
+        }
+
         // Validate session
         getValidGuestCart(sessionId);
 
@@ -247,6 +312,15 @@ public class GuestCartService {
     public Optional<GuestCartDTO> extendGuestCartExpiration(String sessionId) {
         LOG.debug("Request to extend guest cart expiration: {}", sessionId);
 
+        if (sessionStore.isEnabled()) {
+            return sessionStore
+                .find(sessionId, Instant.now())
+                .map(session -> {
+                    session.setExpiresAt(Instant.now().plus(GUEST_CART_EXPIRY_HOURS, ChronoUnit.HOURS));
+                    return toDto(session);
+                });
+        }
+
         return guestCartRepository
             .findValidGuestCart(sessionId, Instant.now())
             .map(guestCart -> {
@@ -266,6 +340,10 @@ public class GuestCartService {
     public Long countGuestCartItems(String sessionId) {
         LOG.debug("Request to count guest cart items: {}", sessionId);
 
+        if (sessionStore.isEnabled()) {
+            return sessionStore.find(sessionId, Instant.now()).map(session -> (long) session.getLines().size()).orElse(0L);
+        }
+
         return guestCartItemRepository.countItemsBySessionId(sessionId);
     }
 
@@ -301,6 +379,40 @@ public class GuestCartService {
             );
     }
 
+    private GuestCartSession getValidSession(String sessionId) {
+        return sessionStore
+            .find(sessionId, Instant.now())
+            .orElseThrow(() -> new BadRequestAlertException("Guest cart not found or expired", "GuestCart", ErrorConstants.ENTITY_NOT_FOUND)
+            );
+    }
+
+    private static GuestCartLine getSessionLine(GuestCartSession session, Long itemId) {
+        return session
+            .findLine(itemId)
+            .orElseThrow(() -> new BadRequestAlertException("Cart item not found", "GuestCartItem", ErrorConstants.ID_NOT_FOUND));
+    }
+
+    private static GuestCartDTO toDto(GuestCartSession session) {
+        GuestCartDTO guestCartDTO = new GuestCartDTO();
+        guestCartDTO.setSessionId(session.getSessionId());
+        guestCartDTO.setCreatedDate(session.getCreatedDate());
+        guestCartDTO.setExpiresAt(session.getExpiresAt());
+        guestCartDTO.setItems(session.getLines().stream().map(line -> toDto(session.getSessionId(), line)).toList());
+        return guestCartDTO;
+    }
+
+    private static GuestCartItemDTO toDto(String sessionId, GuestCartLine line) {
+        GuestCartItemDTO itemDTO = new GuestCartItemDTO();
+        itemDTO.setId(line.id());
+        itemDTO.setSessionId(sessionId);
+        itemDTO.setProductId(line.productId());
+        itemDTO.setQuantity(line.quantity());
+        itemDTO.setPriceAtTime(line.priceAtTime());
+        itemDTO.setAddedDate(line.addedDate());
+        itemDTO.setTotalPrice(line.quantity().multiply(line.priceAtTime()));
+        return itemDTO;
+    }
+
     private Product getValidMarketplaceProduct(Long productId) {
         return productRepository
             .findById(productId)
@@ -315,6 +427,10 @@ public class GuestCartService {
     }
 
     public void deleteGuestCart(String sessionId) {
+        if (sessionStore.isEnabled()) {
+            sessionStore.remove(sessionId);
+            return;
+        }
         guestCartItemRepository.deleteBySessionId(sessionId);
         guestCartRepository.deleteById(sessionId);
     }
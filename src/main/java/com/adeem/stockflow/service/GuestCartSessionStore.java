@@ -0,0 +1,430 @@
+package com.adeem.stockflow.service;
+
+import com.adeem.stockflow.config.ApplicationProperties;
+import com.adeem.stockflow.domain.GuestCart;
+import com.adeem.stockflow.domain.GuestCartItem;
+import com.adeem.stockflow.repository.GuestCartItemRepository;
+import com.adeem.stockflow.repository.GuestCartRepository;
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Guest carts kept in memory, written to {@code guest_cart} / {@code guest_cart_item} only once they outlive a
+ * browsing session.
+ * <p>
+ * Carts are held in a bounded, least-recently-used map keyed by session ID. A cart is written behind when it gets
+ * older than the configured age, when newer carts push it out of the map, or on shutdown, so carts abandoned before
+ * that never reach the database. Carts that are not in memory are loaded back from the tables. Empty carts are never
+ * written: once evicted they are gone and the client gets "not found", as for an expired cart.
+ * <p>
+ * Item ids are reserved from {@code sequence_generator} in blocks, like Hibernate does, so the ids a client has seen
+ * stay valid once the cart is written. The store is per node: several nodes need sticky sessions on the marketplace.
+ */
+@Service
+public class GuestCartSessionStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GuestCartSessionStore.class);
+
+    // Increment of sequence_generator, each value reserves the ids up to it
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private final GuestCartRepository guestCartRepository;
+    private final GuestCartItemRepository guestCartItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int maximumSize;
+    private final Duration flushAfter;
+
+    // Access ordered, guarded by itself
+    private final Map<String, GuestCartSession> sessions;
+
+    // Carts pushed out of the map that still have to be written
+    private final ConcurrentMap<String, GuestCartSession> evicted = new ConcurrentHashMap<>();
+
+    private long nextItemId = 1;
+    private long itemIdLimit = 0;
+
+    public GuestCartSessionStore(
+        GuestCartRepository guestCartRepository,
+        GuestCartItemRepository guestCartItemRepository,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.guestCartRepository = guestCartRepository;
+        this.guestCartItemRepository = guestCartItemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = applicationProperties.getGuestCart().isInMemory();
+        this.maximumSize = Math.max(1, applicationProperties.getGuestCart().getMaximumSize());
+        this.flushAfter = Duration.ofSeconds(applicationProperties.getGuestCart().getFlushAfterSeconds());
+        this.sessions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, GuestCartSession> eldest) {
+                if (size() <= maximumSize) {
+                    return false;
+                }
+                if (eldest.getValue().needsWrite()) {
+                    evicted.put(eldest.getKey(), eldest.getValue());
+                }
+                return true;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Start a new cart, in memory only.
+     */
+    public GuestCartSession create(String sessionId, Instant createdDate, Instant expiresAt) {
+        GuestCartSession session = new GuestCartSession(sessionId, createdDate, expiresAt, false);
+        synchronized (sessions) {
+            sessions.put(sessionId, session);
+        }
+        return session;
+    }
+
+    /**
+     * Get a cart that has not expired, loading it from the database when it is not in memory.
+     *
+     * @param sessionId the session ID
+     * @param now the expiry cut-off
+     * @return the cart, or empty if it does not exist or has expired
+     */
+    public Optional<GuestCartSession> find(String sessionId, Instant now) {
+        GuestCartSession session = lookup(sessionId);
+        if (session == null) {
+            session = load(sessionId, now);
+            if (session == null) {
+                return Optional.empty();
+            }
+            synchronized (sessions) {
+                GuestCartSession current = sessions.putIfAbsent(sessionId, session);
+                session = current != null ? current : session;
+            }
+        }
+
+        if (!session.getExpiresAt().isAfter(now)) {
+            // Rows written earlier are left to the scheduled cleanup
+            discard(session);
+            return Optional.empty();
+        }
+        return Optional.of(session);
+    }
+
+    /**
+     * Drop a cart, and its rows if it was ever written.
+     */
+    public void remove(String sessionId) {
+        GuestCartSession session;
+        synchronized (sessions) {
+            session = sessions.remove(sessionId);
+        }
+        GuestCartSession evictedSession = evicted.remove(sessionId);
+        session = session != null ? session : evictedSession;
+
+        if (session == null) {
+            deleteRows(sessionId);
+            return;
+        }
+        // Under the write lock, so a write already past its snapshot commits first and its rows are deleted here
+        synchronized (session.writeLock) {
+            session.discard();
+            if (session.isPersisted()) {
+                deleteRows(sessionId);
+            }
+        }
+    }
+
+    private void deleteRows(String sessionId) {
+        guestCartItemRepository.deleteAllBySessionId(sessionId);
+        guestCartRepository.deleteById(sessionId);
+    }
+
+    /**
+     * @return an id for a new cart item, unique across the {@code sequence_generator} users
+     */
+    public synchronized long nextItemId() {
+        if (nextItemId > itemIdLimit) {
+            itemIdLimit = guestCartItemRepository.nextIdBlock();
+            nextItemId = itemIdLimit - ID_BLOCK_SIZE + 1;
+        }
+        return nextItemId++;
+    }
+
+    /**
+     * Write behind the carts that are old enough or were evicted, and forget the expired ones.
+     */
+    @Scheduled(fixedDelayString = "${application.guest-cart.flush-interval-ms:60000}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        Instant writeBefore = now.minus(flushAfter);
+        int written = 0;
+
+        for (GuestCartSession session : snapshotSessions()) {
+            if (!session.getExpiresAt().isAfter(now)) {
+                discard(session);
+            } else if (session.needsWrite() && !session.getCreatedDate().isAfter(writeBefore) && write(session)) {
+                written++;
+            }
+        }
+        written += flushEvicted(now);
+
+        if (written > 0) {
+            LOG.debug("Wrote {} guest carts behind", written);
+        }
+    }
+
+    /**
+     * Write every pending cart before the node goes away.
+     */
+    @PreDestroy
+    public void flushAll() {
+        if (!enabled) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        int written = flushEvicted(now);
+        for (GuestCartSession session : snapshotSessions()) {
+            if (session.needsWrite() && session.getExpiresAt().isAfter(now) && write(session)) {
+                written++;
+            }
+        }
+        LOG.info("Wrote {} guest carts on shutdown", written);
+    }
+
+    private int flushEvicted(Instant now) {
+        int written = 0;
+        for (GuestCartSession session : evicted.values()) {
+            if (!session.getExpiresAt().isAfter(now)) {
+                evicted.remove(session.getSessionId(), session);
+            } else if (write(session)) {
+                evicted.remove(session.getSessionId(), session);
+                written++;
+            }
+        }
+        return written;
+    }
+
+    private boolean write(GuestCartSession session) {
+        synchronized (session.writeLock) {
+            return writeLocked(session);
+        }
+    }
+
+    private boolean writeLocked(GuestCartSession session) {
+        GuestCartSession.Snapshot snapshot = session.snapshot();
+        if (snapshot == null) {
+            return false;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                GuestCart guestCart = new GuestCart()
+                    .sessionId(session.getSessionId())
+                    .createdDate(session.getCreatedDate())
+                    .expiresAt(snapshot.expiresAt());
+                guestCartRepository.saveAndFlush(guestCart);
+                guestCartItemRepository.deleteAllBySessionId(session.getSessionId());
+                for (GuestCartLine line : snapshot.lines()) {
+                    guestCartItemRepository.insertItem(
+                        line.id(),
+                        session.getSessionId(),
+                        line.quantity(),
+                        line.priceAtTime(),
+                        line.addedDate(),
+                        line.productId()
+                    );
+                }
+            });
+            session.markWritten(snapshot.version());
+            return true;
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to write guest cart {}, will retry: {}", session.getSessionId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private GuestCartSession lookup(String sessionId) {
+        synchronized (sessions) {
+            GuestCartSession session = sessions.get(sessionId);
+            if (session == null) {
+                session = evicted.remove(sessionId);
+                if (session != null) {
+                    sessions.put(sessionId, session);
+                }
+            }
+            return session;
+        }
+    }
+
+    private GuestCartSession load(String sessionId, Instant now) {
+        return guestCartRepository
+            .findValidGuestCart(sessionId, now)
+            .map(guestCart -> {
+                List<GuestCartLine> lines = new ArrayList<>();
+                for (GuestCartItem item : guestCartItemRepository.findBySessionId(sessionId)) {
+                    lines.add(
+                        new GuestCartLine(
+                            item.getId(),
+                            item.getProduct().getId(),
+                            item.getQuantity(),
+                            item.getPriceAtTime(),
+                            item.getAddedDate()
+                        )
+                    );
+                }
+                GuestCartSession session = new GuestCartSession(sessionId, guestCart.getCreatedDate(), guestCart.getExpiresAt(), true);
+                session.load(lines);
+                return session;
+            })
+            .orElse(null);
+    }
+
+    private void discard(GuestCartSession session) {
+        synchronized (sessions) {
+            sessions.remove(session.getSessionId(), session);
+        }
+        session.discard();
+    }
+
+    private List<GuestCartSession> snapshotSessions() {
+        synchronized (sessions) {
+            return new ArrayList<>(sessions.values());
+        }
+    }
+
+    /**
+     * A cart item as kept in memory.
+     */
+    public record GuestCartLine(Long id, Long productId, BigDecimal quantity, BigDecimal priceAtTime, Instant addedDate) {
+        GuestCartLine withQuantity(BigDecimal newQuantity) {
+            return new GuestCartLine(id, productId, newQuantity, priceAtTime, addedDate);
+        }
+    }
+
+    /**
+     * One guest cart. Changes bump its version, so a write only marks it clean if nothing changed meanwhile.
+     * <p>
+     * Writes and removals of the cart's rows hold its write lock, so a removed cart is never written again.
+     */
+    public static final class GuestCartSession {
+
+        private final String sessionId;
+        private final Instant createdDate;
+        private final List<GuestCartLine> lines = new ArrayList<>();
+        private final Object writeLock = new Object();
+        private Instant expiresAt;
+        private long version;
+        private long writtenVersion;
+        private boolean persisted;
+        private boolean discarded;
+
+        private GuestCartSession(String sessionId, Instant createdDate, Instant expiresAt, boolean persisted) {
+            this.sessionId = sessionId;
+            this.createdDate = createdDate;
+            this.expiresAt = expiresAt;
+            this.persisted = persisted;
+        }
+
+        public String getSessionId() {
+            return sessionId;
+        }
+
+        public Instant getCreatedDate() {
+            return createdDate;
+        }
+
+        public synchronized Instant getExpiresAt() {
+            return expiresAt;
+        }
+
+        public synchronized void setExpiresAt(Instant expiresAt) {
+            this.expiresAt = expiresAt;
+            version++;
+        }
+
+        public synchronized List<GuestCartLine> getLines() {
+            return List.copyOf(lines);
+        }
+
+        public synchronized Optional<GuestCartLine> findLine(Long itemId) {
+            return lines.stream().filter(line -> line.id().equals(itemId)).findFirst();
+        }
+
+        public synchronized Optional<GuestCartLine> findLineByProductId(Long productId) {
+            return lines.stream().filter(line -> line.productId().equals(productId)).findFirst();
+        }
+
+        /**
+         * Add the line, or replace the line that has the same id.
+         */
+        public synchronized void putLine(GuestCartLine line) {
+            lines.removeIf(existing -> existing.id().equals(line.id()));
+            lines.add(line);
+            version++;
+        }
+
+        public synchronized void removeLine(Long itemId) {
+            if (lines.removeIf(line -> line.id().equals(itemId))) {
+                version++;
+            }
+        }
+
+        public synchronized void clearLines() {
+            lines.clear();
+            version++;
+        }
+
+        synchronized boolean isPersisted() {
+            return persisted;
+        }
+
+        /**
+         * Whether the database is behind: always for written carts, only with items for the others.
+         */
+        synchronized boolean needsWrite() {
+            return !discarded && version != writtenVersion && (persisted || !lines.isEmpty());
+        }
+
+        private synchronized void load(List<GuestCartLine> loadedLines) {
+            lines.addAll(loadedLines);
+        }
+
+        private synchronized Snapshot snapshot() {
+            return discarded ? null : new Snapshot(version, expiresAt, List.copyOf(lines));
+        }
+
+        private synchronized void markWritten(long writtenVersion) {
+            this.writtenVersion = writtenVersion;
+            persisted = true;
+        }
+
+        private synchronized void discard() {
+            discarded = true;
+        }
+
+        private record Snapshot(long version, Instant expiresAt, List<GuestCartLine> lines) {}
+    }
+}
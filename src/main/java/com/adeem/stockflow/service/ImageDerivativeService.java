@@ -0,0 +1,251 @@
+package com.adeem.stockflow.service;
+
+import com.adeem.stockflow.domain.Attachment;
+import com.adeem.stockflow.domain.enumeration.ImageSize;
+import com.adeem.stockflow.repository.AttachmentRepository;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import javax.imageio.IIOException;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Makes the smaller sizes of image attachments and stores them in the blob store next to the original.
+ * <p>
+ * Sizes are JPEG images that fit in the {@link ImageSize#getMaxDimension() maximum dimension} of their size, with
+ * transparent areas painted white. When an image is already small enough, has an unsupported format or cannot be
+ * decoded, the size points to the original blob so it is not attempted again. Only failures to read the blob are
+ * retried.
+ * <p>
+ * Sizes are made on upload. Attachments stored before, or whose sizes could not be made then, get them in the
+ * background on {@code taskExecutor} when a size is first downloaded.
+ */
+@Service
+public class ImageDerivativeService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ImageDerivativeService.class);
+
+    public static final String DERIVATIVE_CONTENT_TYPE = "image/jpeg";
+
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final BlobStorageService blobStorageService;
+    private final AttachmentRepository attachmentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor executor;
+
+    // Attachments whose sizes are being made in the background
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    public ImageDerivativeService(
+        BlobStorageService blobStorageService,
+        AttachmentRepository attachmentRepository,
+        PlatformTransactionManager transactionManager,
+        @Qualifier("taskExecutor") Executor executor
+    ) {
+        this.blobStorageService = blobStorageService;
+        this.attachmentRepository = attachmentRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+    }
+
+    /**
+     * Fill the missing sizes of an image attachment, other attachments are left alone.
+     *
+     * @param attachment the attachment, its blob keys are updated.
+     * @return whether the attachment was changed.
+     */
+    public boolean generateDerivatives(Attachment attachment) {
+        if (!isImage(attachment) || (attachment.getThumbnailBlobKey() != null && attachment.getMediumBlobKey() != null)) {
+            return false;
+        }
+
+        try {
+            BufferedImage image = read(attachment.getBlobKey());
+            if (image == null) {
+                LOG.debug("Attachment {} is not a supported or valid image, its sizes are the original", attachment.getId());
+                attachment.setThumbnailBlobKey(attachment.getBlobKey());
+                attachment.setMediumBlobKey(attachment.getBlobKey());
+                return true;
+            }
+            // Largest first, the thumbnail is then scaled down from the medium size
+            String mediumKey = attachment.getBlobKey();
+            BufferedImage medium = resize(image, ImageSize.MEDIUM);
+            if (medium != null) {
+                mediumKey = store(medium);
+                image = medium;
+            }
+            String thumbnailKey = mediumKey;
+            BufferedImage thumbnail = resize(image, ImageSize.THUMBNAIL);
+            if (thumbnail != null) {
+                thumbnailKey = store(thumbnail);
+            }
+            attachment.setMediumBlobKey(mediumKey);
+            attachment.setThumbnailBlobKey(thumbnailKey);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            // Left empty, the next download of a smaller size tries again in the background
+            LOG.warn("Could not make the image sizes of attachment {}: {}", attachment.getId(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Fill the missing sizes of an attachment in the background, in a transaction of their own. Nothing happens if they
+     * are already being made.
+     *
+     * @param attachmentId the id of the attachment
+     */
+    public void generateLater(Long attachmentId) {
+        if (!pending.add(attachmentId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    transactionTemplate.executeWithoutResult(status ->
+                        attachmentRepository.findById(attachmentId).ifPresent(this::generateDerivatives)
+                    );
+                } catch (RuntimeException e) {
+                    LOG.warn("Could not save the image sizes of attachment {}: {}", attachmentId, e.getMessage());
+                } finally {
+                    pending.remove(attachmentId);
+                }
+            });
+        } catch (RuntimeException e) {
+            pending.remove(attachmentId);
+            LOG.warn("Could not schedule the image sizes of attachment {}: {}", attachmentId, e.getMessage());
+        }
+    }
+
+    /**
+     * @param attachment the attachment
+     * @return whether the attachment has stored content of an image type, which gets smaller sizes
+     */
+    public boolean isImage(Attachment attachment) {
+        return attachment.getBlobKey() != null && isImage(attachment.getDataContentType());
+    }
+
+    /**
+     * @param attachment the attachment
+     * @param size the requested size
+     * @return the key of the blob holding that size, {@code null} if it has not been made
+     */
+    public static String getBlobKey(Attachment attachment, ImageSize size) {
+        return switch (size) {
+            case ORIGINAL -> attachment.getBlobKey();
+            case THUMBNAIL -> attachment.getThumbnailBlobKey();
+            case MEDIUM -> attachment.getMediumBlobKey();
+        };
+    }
+
+    private static boolean isImage(String contentType) {
+        return contentType != null && contentType.startsWith("image/");
+    }
+
+    /**
+     * Decode an image, skipping pixels of images much larger than the medium size.
+     *
+     * @return the image, {@code null} if its format is not supported or its content cannot be decoded
+     * @throws IOException if the blob cannot be read
+     */
+    private BufferedImage read(String blobKey) throws IOException {
+        try (
+            InputStream content = blobStorageService.newInputStream(blobKey);
+            ImageInputStream input = ImageIO.createImageInputStream(content)
+        ) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int largestSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int subsampling = Math.max(1, largestSide / (2 * ImageSize.MEDIUM.getMaxDimension()));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } catch (IIOException | RuntimeException e) {
+                LOG.debug("Could not decode image blob {}: {}", blobKey, e.getMessage());
+                return null;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * @return the image scaled to fit the size, {@code null} if it already fits
+     */
+    private static BufferedImage resize(BufferedImage image, ImageSize size) {
+        int maxDimension = size.getMaxDimension();
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (width <= maxDimension && height <= maxDimension) {
+            return null;
+        }
+        double scale = Math.min((double) maxDimension / width, (double) maxDimension / height);
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        // Halve in steps, a single bilinear pass over a much larger image aliases
+        BufferedImage current = image;
+        while (current.getWidth() / 2 > targetWidth && current.getHeight() / 2 > targetHeight) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        return draw(current, targetWidth, targetHeight);
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private String store(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream output = new MemoryCacheImageOutputStream(bytes)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return blobStorageService.store(new ByteArrayInputStream(bytes.toByteArray()), DERIVATIVE_CONTENT_TYPE).key();
+    }
+}
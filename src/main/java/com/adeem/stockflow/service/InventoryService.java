@@ -2,16 +2,22 @@ package com.adeem.stockflow.service;
 
 import static com.adeem.stockflow.service.util.GlobalUtils.generateReference;
 
+import com.adeem.stockflow.config.ApplicationProperties;
 import com.adeem.stockflow.domain.Inventory;
+import com.adeem.stockflow.domain.InventoryStats;
 import com.adeem.stockflow.domain.InventoryTransaction;
 import com.adeem.stockflow.domain.enumeration.TransactionType;
 import com.adeem.stockflow.repository.InventoryRepository;
+import com.adeem.stockflow.repository.InventoryStatsRepository;
 import com.adeem.stockflow.repository.InventoryTransactionRepository;
 import com.adeem.stockflow.repository.projection.InventoryFinancialStatsDTO;
 import com.adeem.stockflow.repository.projection.InventoryStockLevelStatsDTO;
+import com.adeem.stockflow.service.StatisticsCacheService.StatisticsType;
 import com.adeem.stockflow.service.criteria.InventorySpecification;
 import com.adeem.stockflow.service.criteria.InventoryTransactionSpecification;
+import com.adeem.stockflow.service.criteria.KeysetPagination;
 import com.adeem.stockflow.service.dto.*;
+import com.adeem.stockflow.service.event.CatalogChangedEvent;
 import com.adeem.stockflow.service.exceptions.BadRequestAlertException;
 import com.adeem.stockflow.service.exceptions.ErrorConstants;
 import com.adeem.stockflow.service.exceptions.InsufficientInventoryException;
@@ -25,8 +31,7 @@ import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -48,6 +53,10 @@ public class InventoryService {
     private final InventoryTransactionMapper inventoryTransactionMapper;
     private final ProductMapper productMapper;
     private final InventoryMapper inventoryMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final InventoryStatsRepository inventoryStatsRepository;
+    private final StatisticsCacheService statisticsCacheService;
+    private final boolean incrementalInventoryStats;
 
     public InventoryService(
         InventoryRepository inventoryRepository,
@@ -55,7 +64,11 @@ public class InventoryService {
         InventoryTransactionRepository inventoryTransactionRepository,
         InventoryTransactionMapper inventoryTransactionMapper,
         ProductMapper productMapper,
-        InventoryMapper inventoryMapper
+        InventoryMapper inventoryMapper,
+        ApplicationEventPublisher eventPublisher,
+        InventoryStatsRepository inventoryStatsRepository,
+        StatisticsCacheService statisticsCacheService,
+        ApplicationProperties applicationProperties
     ) {
         this.inventoryRepository = inventoryRepository;
         this.inventoryTransactionService = inventoryTransactionService;
@@ -63,6 +76,10 @@ public class InventoryService {
         this.inventoryTransactionMapper = inventoryTransactionMapper;
         this.productMapper = productMapper;
         this.inventoryMapper = inventoryMapper;
+        this.eventPublisher = eventPublisher;
+        this.inventoryStatsRepository = inventoryStatsRepository;
+        this.statisticsCacheService = statisticsCacheService;
+        this.incrementalInventoryStats = applicationProperties.getInventoryStats().isIncremental();
     }
 
     /**
@@ -75,14 +92,17 @@ public class InventoryService {
         LOG.debug("Request to save Inventory : {}", inventoryDTO);
         Inventory inventory = inventoryMapper.toEntity(inventoryDTO);
         inventory = inventoryRepository.save(inventory);
+        eventPublisher.publishEvent(new CatalogChangedEvent(inventoryDTO.getClientAccountId()));
         return inventoryMapper.toDto(inventory);
     }
 
     public void saveAll(List<Inventory> inventoriesToSave) {
         inventoryRepository.saveAll(inventoriesToSave);
+        if (!inventoriesToSave.isEmpty()) {
+            eventPublisher.publishEvent(new CatalogChangedEvent(clientAccountIdOf(inventoriesToSave.get(0))));
+        }
     }
 
-    //@CacheEvict(value = "inventoryStats", key = "#inventoryDTO.clientAccountId")
     public InventoryDTO create(InventoryDTO inventoryDTO) {
         LOG.debug("Request to create Inventory : {}", inventoryDTO);
 
@@ -101,7 +121,6 @@ public class InventoryService {
      * @param inventoryDTO the entity to save.
      * @return the persisted entity.
      */
-    //@CacheEvict(value = "inventoryStats", key = "#inventoryDTO.clientAccountId")
     public InventoryDTO update(InventoryDTO inventoryDTO) {
         LOG.debug("Request to update Inventory : {}", inventoryDTO);
 
@@ -113,6 +132,7 @@ public class InventoryService {
         Inventory inventory = inventoryMapper.toEntity(inventoryDTO);
         inventory.setIsPersisted();
         inventory = inventoryRepository.save(inventory);
+        eventPublisher.publishEvent(new CatalogChangedEvent(inventoryDTO.getClientAccountId()));
 
         // Record inventory transaction
         inventoryTransactionService.save(inventoryDTO.getProduct().getId(), inventoryDTO.getQuantity(), TransactionType.ADJUSTMENT);
@@ -259,6 +279,30 @@ public class InventoryService {
         });
     }
 
+    /**
+     * Get inventories with product information, keyset paged from a cursor and without a count.
+     *
+     * @param specification the specification for filtering
+     * @param cursor the cursor of the previous page, or blank for the first page
+     * @param pageable the page size and sort
+     * @return the page of inventory with product DTOs and the cursor of the next one
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<InventoryWithProductDTO> scrollWithProduct(
+        Specification<Inventory> specification,
+        String cursor,
+        Pageable pageable
+    ) {
+        LOG.debug("Request to scroll Inventories with Product info after: {}", cursor);
+
+        return KeysetPagination.of(Inventory.class, pageable.getSort(), cursor).fetch(
+            inventoryRepository,
+            specification,
+            pageable.getPageSize(),
+            inventory -> new InventoryWithProductDTO(inventoryMapper.toDto(inventory), productMapper.toDto(inventory.getProduct()))
+        );
+    }
+
     /**
      * Find inventory items with low stock levels.
      *
@@ -299,16 +343,42 @@ public class InventoryService {
      * @param clientAccountId the client account ID
      * @return inventory statistics
      */
-    //@Cacheable(value = "inventoryStats", key = "#clientAccountId")
     @Transactional(readOnly = true)
     public InventoryStatsDTO getInventoryStats(Long clientAccountId) {
         LOG.debug("Request to get Inventory stats for client account: {}", clientAccountId);
+        return statisticsCacheService.get(StatisticsType.INVENTORY, clientAccountId, () -> computeInventoryStats(clientAccountId));
+    }
 
-        // Single query for financial data
-        InventoryFinancialStatsDTO financialStats = inventoryRepository.getFinancialStats(clientAccountId);
-
-        // Single query for stock level analysis
-        InventoryStockLevelStatsDTO stockLevelStats = inventoryRepository.getStockLevelStats(clientAccountId);
+    private InventoryStatsDTO computeInventoryStats(Long clientAccountId) {
+        InventoryFinancialStatsDTO financialStats;
+        InventoryStockLevelStatsDTO stockLevelStats;
+        if (incrementalInventoryStats) {
+            // Counters kept by the database triggers, a client account without inventory has no row yet
+            InventoryStats counters = inventoryStatsRepository.findById(clientAccountId).orElse(null);
+            financialStats = counters != null
+                ? new InventoryFinancialStatsDTO(
+                    counters.getTotalUnits(),
+                    counters.getTotalAvailable(),
+                    counters.getTotalReserved(),
+                    counters.getTotalValue()
+                )
+                : new InventoryFinancialStatsDTO(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+            stockLevelStats = counters != null
+                ? new InventoryStockLevelStatsDTO(
+                    counters.getStockLevelProducts(),
+                    counters.getOutOfStockCount(),
+                    counters.getLowStockCount(),
+                    counters.getHealthyStockCount(),
+                    counters.getOverstockCount()
+                )
+                : new InventoryStockLevelStatsDTO(0L, 0L, 0L, 0L, 0L);
+        } else {
+            // Single query for financial data
+            financialStats = inventoryRepository.getFinancialStats(clientAccountId);
+
+            // Single query for stock level analysis
+            stockLevelStats = inventoryRepository.getStockLevelStats(clientAccountId);
+        }
 
         // Combine results
         InventoryStatsDTO stats = new InventoryStatsDTO();
@@ -340,6 +410,25 @@ public class InventoryService {
         return stats;
     }
 
+    /**
+     * Recompute the inventory counters of a client account from its inventory rows, correcting any drift of the
+     * counters kept by the database triggers (rows changed with triggers disabled, manual fixes, ...).
+     *
+     * @param clientAccountId the client account ID
+     * @return whether the counters had drifted
+     */
+    public boolean reconcileInventoryStats(Long clientAccountId) {
+        inventoryStatsRepository.insertIfMissing(clientAccountId);
+        // Waits for the stock movements in flight, the recompute then sees every movement the slots have counted
+        inventoryStatsRepository.lockByClientAccountId(clientAccountId);
+        boolean drifted = inventoryStatsRepository.recompute(clientAccountId) > 0;
+        if (drifted) {
+            LOG.warn("Inventory stats of client account {} had drifted and were recomputed", clientAccountId);
+            eventPublisher.publishEvent(new CatalogChangedEvent(clientAccountId));
+        }
+        return drifted;
+    }
+
     /**
      * Delete the inventory by id.
      *
@@ -348,6 +437,7 @@ public class InventoryService {
     public void delete(Long id) {
         LOG.debug("Request to delete Inventory : {}", id);
         inventoryRepository.deleteById(id);
+        eventPublisher.publishEvent(new CatalogChangedEvent(null));
     }
 
     /**
@@ -405,6 +495,7 @@ public class InventoryService {
         inventory.setIsPersisted();
 
         Inventory savedInventory = inventoryRepository.save(inventory);
+        eventPublisher.publishEvent(new CatalogChangedEvent(clientAccountIdOf(inventory)));
 
         BigDecimal quantityChange = newQuantity.subtract(oldQuantity);
         inventoryTransactionService.save(inventory.getProduct().getId(), quantityChange, TransactionType.ADJUSTMENT);
@@ -516,6 +607,30 @@ public class InventoryService {
         return inventoryTransactionRepository.findAll(specification, pageable).map(inventoryTransactionMapper::toDto);
     }
 
+    /**
+     * Get inventory transaction history, keyset paged from a cursor and without a count.
+     *
+     * @param inventoryId the inventory ID
+     * @param cursor the cursor of the previous page, or blank for the first page
+     * @param pageable the page size and sort
+     * @return the page of inventory transactions and the cursor of the next one
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<InventoryTransactionDTO> scrollInventoryHistory(Long inventoryId, String cursor, Pageable pageable) {
+        LOG.debug("Request to scroll Inventory history : {} after: {}", inventoryId, cursor);
+
+        Inventory inventory = inventoryRepository
+            .findById(inventoryId)
+            .orElseThrow(() -> new BadRequestAlertException("Inventory not found", "inventory", ErrorConstants.ID_NOT_FOUND));
+
+        return KeysetPagination.of(InventoryTransaction.class, pageable.getSort(), cursor).fetch(
+            inventoryTransactionRepository,
+            InventoryTransactionSpecification.withProductId(inventory.getProduct().getId()),
+            pageable.getPageSize(),
+            inventoryTransactionMapper::toDto
+        );
+    }
+
     /**
      * Bulk delete all inventory records for multiple products.
      * This method is used for efficient bulk product deletion.
@@ -552,6 +667,7 @@ public class InventoryService {
 
                 // Perform bulk deletion of inventory records
                 int deletedCount = inventoryRepository.deleteByProductIdIn(productIds);
+                eventPublisher.publishEvent(new CatalogChangedEvent(clientAccountId));
 
                 LOG.debug("Successfully deleted {} inventory records for {} products", deletedCount, productIds.size());
                 return deletedCount;
@@ -567,4 +683,8 @@ public class InventoryService {
     public Optional<Inventory> findByProductIdAndClientAccountId(Long productId, Long currentClientAccountId) {
         return inventoryRepository.findByProductIdAndClientAccountId(productId, currentClientAccountId);
     }
+
+    private Long clientAccountIdOf(Inventory inventory) {
+        return inventory.getClientAccount() != null ? inventory.getClientAccount().getId() : null;
+    }
 }
@@ -3,13 +3,13 @@ package com.adeem.stockflow.service;
 import com.adeem.stockflow.domain.ClientAccount;
 import com.adeem.stockflow.domain.InventoryTransaction;
 import com.adeem.stockflow.domain.Product;
+import com.adeem.stockflow.domain.enumeration.ReferenceType;
 import com.adeem.stockflow.domain.enumeration.TransactionType;
 import com.adeem.stockflow.repository.InventoryTransactionRepository;
 import com.adeem.stockflow.repository.ProductRepository;
 import com.adeem.stockflow.service.dto.InventoryTransactionDTO;
 import com.adeem.stockflow.service.mapper.InventoryTransactionMapper;
 import com.adeem.stockflow.service.util.DateTimeUtils;
-import com.adeem.stockflow.service.util.GlobalUtils;
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 import java.util.List;
@@ -33,15 +33,18 @@ public class InventoryTransactionService {
     private final ProductRepository productRepository;
     private final InventoryTransactionRepository inventoryTransactionRepository;
     private final InventoryTransactionMapper inventoryTransactionMapper;
+    private final ReferenceSequenceService referenceSequenceService;
 
     public InventoryTransactionService(
         ProductRepository productRepository,
         InventoryTransactionRepository inventoryTransactionRepository,
-        InventoryTransactionMapper inventoryTransactionMapper
+        InventoryTransactionMapper inventoryTransactionMapper,
+        ReferenceSequenceService referenceSequenceService
     ) {
         this.productRepository = productRepository;
         this.inventoryTransactionRepository = inventoryTransactionRepository;
         this.inventoryTransactionMapper = inventoryTransactionMapper;
+        this.referenceSequenceService = referenceSequenceService;
     }
 
     /**
@@ -114,8 +117,7 @@ public class InventoryTransactionService {
     }
 
     public String generateReference(Long clientAccountId) {
-        String reference = inventoryTransactionRepository.getLastReference(clientAccountId).orElse(null);
-        return GlobalUtils.generateReference(reference);
+        return referenceSequenceService.nextReference(clientAccountId, ReferenceType.INVENTORY_TRANSACTION);
     }
 
     public InventoryTransaction createEntity(
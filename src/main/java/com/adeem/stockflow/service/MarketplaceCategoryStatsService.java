@@ -0,0 +1,144 @@
+package com.adeem.stockflow.service;
+
+import com.adeem.stockflow.config.ApplicationProperties;
+import com.adeem.stockflow.domain.enumeration.ProductCategory;
+import com.adeem.stockflow.repository.ProductRepository;
+import com.adeem.stockflow.repository.projection.MarketplaceCategoryCountProjection;
+import com.adeem.stockflow.service.dto.CategoryStatsDTO;
+import com.adeem.stockflow.service.event.CatalogChangedEvent;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Product counts per marketplace category, served from an in-memory snapshot.
+ * <p>
+ * The snapshot is rebuilt in the background when it gets older than the configured TTL, or after a
+ * {@link CatalogChangedEvent} commits, at most once per minimum rebuild interval however often the catalog changes;
+ * readers keep getting the previous snapshot meanwhile. Only the very first request waits for the database. A TTL of
+ * zero disables the snapshot and every call queries the database.
+ */
+@Service
+public class MarketplaceCategoryStatsService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MarketplaceCategoryStatsService.class);
+
+    private final ProductRepository productRepository;
+    private final Executor executor;
+    private final long ttlNanos;
+    private final long minRebuildNanos;
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile boolean changed;
+    private volatile long lastRebuildAt;
+    private volatile Snapshot snapshot;
+
+    public MarketplaceCategoryStatsService(
+        ProductRepository productRepository,
+        @Qualifier("taskExecutor") Executor executor,
+        ApplicationProperties applicationProperties
+    ) {
+        this.productRepository = productRepository;
+        this.executor = executor;
+        this.ttlNanos = Duration.ofSeconds(applicationProperties.getMarketplace().getCategoryStatsTtlSeconds()).toNanos();
+        this.minRebuildNanos = Duration.ofSeconds(applicationProperties.getMarketplace().getCategoryStatsMinRebuildSeconds()).toNanos();
+    }
+
+    /**
+     * Get the categories that have at least one visible product, in {@link ProductCategory} order.
+     *
+     * @return the category statistics
+     */
+    public List<CategoryStatsDTO> getCategoryStats() {
+        if (ttlNanos <= 0) {
+            return loadCategoryStats();
+        }
+
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    lastRebuildAt = System.nanoTime();
+                    current = new Snapshot(loadCategoryStats(), System.nanoTime());
+                    snapshot = current;
+                }
+            }
+        } else {
+            long now = System.nanoTime();
+            if ((changed || now - current.loadedAt() > ttlNanos) && now - lastRebuildAt > minRebuildNanos) {
+                requestRefresh();
+            }
+        }
+        return current.categories();
+    }
+
+    /**
+     * Mark the snapshot as outdated once the stock or visibility change that triggered the event is committed. The next
+     * read rebuilds it when the previous rebuild is older than the minimum interval, so a steady stream of changes costs
+     * one rebuild per interval.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (ttlNanos > 0) {
+            changed = true;
+        }
+    }
+
+    /**
+     * Schedule a background rebuild, unless one is already running.
+     */
+    private void requestRefresh() {
+        if (refreshing.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::refresh);
+            } catch (RuntimeException e) {
+                refreshing.set(false);
+                LOG.warn("Could not schedule the marketplace category stats refresh: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void refresh() {
+        try {
+            // Changes committing during the rebuild mark the new snapshot as outdated again
+            lastRebuildAt = System.nanoTime();
+            changed = false;
+            snapshot = new Snapshot(loadCategoryStats(), System.nanoTime());
+        } catch (RuntimeException e) {
+            changed = true;
+            LOG.warn("Could not refresh the marketplace category stats, keeping the previous snapshot", e);
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    private List<CategoryStatsDTO> loadCategoryStats() {
+        LOG.debug("Loading marketplace category stats");
+        Map<String, MarketplaceCategoryCountProjection> counts = productRepository
+            .countMarketplaceCategories()
+            .stream()
+            .collect(Collectors.toMap(MarketplaceCategoryCountProjection::getCategory, Function.identity()));
+
+        return Arrays.stream(ProductCategory.values())
+            .filter(category -> counts.containsKey(category.name()))
+            .map(category -> {
+                MarketplaceCategoryCountProjection count = counts.get(category.name());
+                return new CategoryStatsDTO(category, count.getProductCount(), count.getAvailableCount());
+            })
+            .filter(stats -> stats.getProductCount() > 0)
+            .toList();
+    }
+
+    private record Snapshot(List<CategoryStatsDTO> categories, long loadedAt) {}
+}
@@ -1,25 +1,38 @@
 // File: src/main/java/com/adeem/stockflow/service/MarketplaceProductService.java
 package com.adeem.stockflow.service;
 
-import com.adeem.stockflow.domain.Inventory;
 import com.adeem.stockflow.domain.Product;
+import com.adeem.stockflow.domain.ProductAvailability;
+import com.adeem.stockflow.domain.enumeration.ImageSize;
 import com.adeem.stockflow.domain.enumeration.ProductCategory;
-import com.adeem.stockflow.repository.InventoryRepository;
+import com.adeem.stockflow.repository.ProductAvailabilityRepository;
 import com.adeem.stockflow.repository.ProductRepository;
+import com.adeem.stockflow.repository.projection.ProductSearchHitProjection;
 import com.adeem.stockflow.service.criteria.ProductSpecification;
 import com.adeem.stockflow.service.dto.CategoryStatsDTO;
 import com.adeem.stockflow.service.dto.MarketplaceProductDTO;
 import com.adeem.stockflow.service.dto.MarketplaceProductDetailDTO;
+import com.adeem.stockflow.service.dto.MarketplaceSearchResultDTO;
+import com.adeem.stockflow.service.exceptions.BadRequestAlertException;
+import com.adeem.stockflow.service.exceptions.ErrorConstants;
 import com.adeem.stockflow.service.mapper.MarketplaceProductMapper;
+import com.adeem.stockflow.service.util.AttachmentUrlUtils;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -36,18 +49,23 @@ public class MarketplaceProductService {
 
     private static final Logger LOG = LoggerFactory.getLogger(MarketplaceProductService.class);
 
+    private static final Pattern SEARCH_TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
     private final ProductRepository productRepository;
-    private final InventoryRepository inventoryRepository;
+    private final ProductAvailabilityRepository productAvailabilityRepository;
     private final MarketplaceProductMapper marketplaceProductMapper;
+    private final MarketplaceCategoryStatsService marketplaceCategoryStatsService;
 
     public MarketplaceProductService(
         ProductRepository productRepository,
-        InventoryRepository inventoryRepository,
-        MarketplaceProductMapper marketplaceProductMapper
+        ProductAvailabilityRepository productAvailabilityRepository,
+        MarketplaceProductMapper marketplaceProductMapper,
+        MarketplaceCategoryStatsService marketplaceCategoryStatsService
     ) {
         this.productRepository = productRepository;
-        this.inventoryRepository = inventoryRepository;
+        this.productAvailabilityRepository = productAvailabilityRepository;
         this.marketplaceProductMapper = marketplaceProductMapper;
+        this.marketplaceCategoryStatsService = marketplaceCategoryStatsService;
     }
 
     /**
@@ -91,7 +109,7 @@ public class MarketplaceProductService {
             availableOnly
         );
 
-        return productRepository.findAll(spec, pageable).map(marketplaceProductMapper::toDto);
+        return toMarketplaceDtos(productRepository.findAll(spec, pageable));
     }
 
     /**
@@ -112,35 +130,59 @@ public class MarketplaceProductService {
 
     /**
      * Get product categories with product counts for marketplace navigation.
-     * Only counts products that are visible to customers.
+     * Only counts products that are visible to customers; served from the {@link MarketplaceCategoryStatsService} snapshot.
      *
      * @return list of category statistics
      */
     public List<CategoryStatsDTO> getProductCategoriesWithCounts() {
         LOG.debug("Request to get product categories with counts");
 
-        return Arrays.stream(ProductCategory.values())
-            .map(this::getCategoryStats)
-            .filter(stats -> stats.getProductCount() > 0)
-            .collect(Collectors.toList());
+        return marketplaceCategoryStatsService.getCategoryStats();
     }
 
     /**
-     * Search products by text in name and description.
-     * Only searches products that are visible to customers.
+     * Ranked full-text search over visible products, with prefix matching and trigram typo tolerance.
+     * Pages are keyset based: pass the previous result's {@code nextCursor} to get the following page.
      *
      * @param searchTerm the search term
-     * @param pageable pagination information
-     * @return page of matching products
+     * @param cursor the cursor of the previous page, or {@code null} for the first page
+     * @param size the page size
+     * @return the matching products, best match first
      */
-    public Page<MarketplaceProductDTO> searchProducts(String searchTerm, Pageable pageable) {
-        LOG.debug("Request to search products: {}", searchTerm);
+    public MarketplaceSearchResultDTO searchProducts(String searchTerm, String cursor, int size) {
+        LOG.debug("Request to search products: {}, after: {}", searchTerm, cursor);
+
+        String term = searchTerm == null ? "" : searchTerm.trim().toLowerCase(Locale.ROOT);
+        String tsQuery = Arrays.stream(SEARCH_TOKEN_SEPARATOR.split(term))
+            .filter(token -> !token.isEmpty())
+            .map(token -> token + ":*")
+            .collect(Collectors.joining(" & "));
+        if (tsQuery.isEmpty()) {
+            return new MarketplaceSearchResultDTO(List.of(), null);
+        }
 
-        Specification<Product> spec = Specification.where(ProductSpecification.withVisibleToCustomers(true)).and(
-            ProductSpecification.withNameOrDescriptionContaining(searchTerm)
-        );
+        double afterRank = Double.MAX_VALUE;
+        long afterId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = decodeCursor(cursor);
+            afterRank = Double.parseDouble(position[0]);
+            afterId = Long.parseLong(position[1]);
+        }
+
+        List<ProductSearchHitProjection> hits = productRepository.searchMarketplace(tsQuery, term, afterRank, afterId, size);
+        if (hits.isEmpty()) {
+            return new MarketplaceSearchResultDTO(List.of(), null);
+        }
 
-        return productRepository.findAll(spec, pageable).map(marketplaceProductMapper::toDto);
+        Map<Long, Product> products = productRepository
+            .findAllById(hits.stream().map(ProductSearchHitProjection::getId).toList())
+            .stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Product> ranked = hits.stream().map(hit -> products.get(hit.getId())).filter(Objects::nonNull).toList();
+
+        ProductSearchHitProjection last = hits.get(hits.size() - 1);
+        String nextCursor = hits.size() == size ? encodeCursor(last.getRank(), last.getId()) : null;
+        return new MarketplaceSearchResultDTO(toMarketplaceDtos(ranked), nextCursor);
     }
 
     /**
@@ -163,7 +205,7 @@ public class MarketplaceProductService {
             spec = spec.and(ProductSpecification.withIdNot(excludeProductId));
         }
 
-        return productRepository.findAll(spec, pageable).map(marketplaceProductMapper::toDto);
+        return toMarketplaceDtos(productRepository.findAll(spec, pageable));
     }
 
     /**
@@ -187,12 +229,7 @@ public class MarketplaceProductService {
         }
 
         Pageable pageable = PageRequest.of(0, limit);
-        return productRepository
-            .findAll(spec, pageable)
-            .getContent()
-            .stream()
-            .map(marketplaceProductMapper::toDto)
-            .collect(Collectors.toList());
+        return toMarketplaceDtos(productRepository.findAll(spec, pageable)).getContent();
     }
 
     // Private helper methods
@@ -234,20 +271,6 @@ public class MarketplaceProductService {
         return spec;
     }
 
-    private CategoryStatsDTO getCategoryStats(ProductCategory category) {
-        Long totalCount = productRepository.count(
-            Specification.where(ProductSpecification.withVisibleToCustomers(true)).and(ProductSpecification.withCategory(category.name()))
-        );
-
-        Long availableCount = productRepository.count(
-            Specification.where(ProductSpecification.withVisibleToCustomers(true))
-                .and(ProductSpecification.withCategory(category.name()))
-                .and(ProductSpecification.withAvailableInventory())
-        );
-
-        return new CategoryStatsDTO(category, totalCount, availableCount);
-    }
-
     private MarketplaceProductDetailDTO convertToDetailDTO(Product product) {
         MarketplaceProductDetailDTO detailDTO = new MarketplaceProductDetailDTO();
 
@@ -261,8 +284,10 @@ public class MarketplaceProductService {
         detailDTO.setIsVisibleToCustomers(product.getIsVisibleToCustomers());
         detailDTO.setMinimumStockLevel(product.getMinimumStockLevel());
 
-        // Calculate availability from inventories
-        BigDecimal availableQty = calculateAvailableQuantity(product);
+        BigDecimal availableQty = productAvailabilityRepository
+            .findById(product.getId())
+            .map(ProductAvailability::getAvailableTotal)
+            .orElse(BigDecimal.ZERO);
         detailDTO.setAvailableQuantity(availableQty);
         detailDTO.setIsAvailable(availableQty.compareTo(BigDecimal.ZERO) > 0);
         detailDTO.setIsLowStock(product.getMinimumStockLevel() != null && availableQty.compareTo(product.getMinimumStockLevel()) <= 0);
@@ -288,7 +313,7 @@ public class MarketplaceProductService {
             List<String> imageUrls = product
                 .getImages()
                 .stream()
-                .map(attachment -> "/api/attachments/" + attachment.getId() + "/download")
+                .map(attachment -> AttachmentUrlUtils.getDownloadUrl(attachment, ImageSize.MEDIUM))
                 .collect(Collectors.toList());
             detailDTO.setImageUrls(imageUrls);
         }
@@ -302,15 +327,50 @@ public class MarketplaceProductService {
         return detailDTO;
     }
 
-    private BigDecimal calculateAvailableQuantity(Product product) {
-        Set<Inventory> inventories = inventoryRepository.findByProductId(product.getId());
-        if (inventories == null || inventories.isEmpty()) {
-            return BigDecimal.ZERO;
+    private Page<MarketplaceProductDTO> toMarketplaceDtos(Page<Product> products) {
+        List<MarketplaceProductDTO> dtos = toMarketplaceDtos(products.getContent());
+        return new PageImpl<>(dtos, products.getPageable(), products.getTotalElements());
+    }
+
+    /**
+     * Map products, loading the availability of all of them in one query.
+     */
+    private List<MarketplaceProductDTO> toMarketplaceDtos(List<Product> products) {
+        if (products.isEmpty()) {
+            return List.of();
         }
+        Map<Long, BigDecimal> availableTotals = productAvailabilityRepository
+            .findByProductIdIn(products.stream().map(Product::getId).toList())
+            .stream()
+            .collect(Collectors.toMap(ProductAvailability::getProductId, ProductAvailability::getAvailableTotal));
 
-        return inventories
+        return products
             .stream()
-            .map(inventory -> inventory.getAvailableQuantity() != null ? inventory.getAvailableQuantity() : BigDecimal.ZERO)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+            .map(product -> {
+                MarketplaceProductDTO dto = marketplaceProductMapper.toDto(product);
+                BigDecimal availableQty = availableTotals.getOrDefault(product.getId(), BigDecimal.ZERO);
+                dto.setAvailableQuantity(availableQty);
+                dto.setIsAvailable(Boolean.TRUE.equals(product.getIsVisibleToCustomers()) && availableQty.compareTo(BigDecimal.ZERO) > 0);
+                return dto;
+            })
+            .toList();
+    }
+
+    private String encodeCursor(double rank, long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((rank + "_" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("_");
+            if (position.length == 2) {
+                Double.parseDouble(position[0]);
+                Long.parseLong(position[1]);
+                return position;
+            }
+        } catch (IllegalArgumentException e) {
+            // Falls through to the bad request below
+        }
+        throw new BadRequestAlertException("Invalid search cursor", "product", ErrorConstants.INVALID_CURSOR);
     }
 }
@@ -1,15 +1,19 @@
 package com.adeem.stockflow.service;
 
+import com.adeem.stockflow.domain.ClientAccount;
 import com.adeem.stockflow.domain.Product;
 import com.adeem.stockflow.domain.ProductFamily;
+import com.adeem.stockflow.domain.enumeration.MeteredResource;
 import com.adeem.stockflow.repository.ProductFamilyRepository;
 import com.adeem.stockflow.repository.ProductRepository;
 import com.adeem.stockflow.repository.projection.CategoryStatsProjection;
 import com.adeem.stockflow.repository.projection.FamilyDetailStatsProjection;
 import com.adeem.stockflow.repository.projection.ProductFamilyStatsDTO;
 import com.adeem.stockflow.repository.projection.ProductFamilyStatsProjection;
+import com.adeem.stockflow.service.StatisticsCacheService.StatisticsType;
 import com.adeem.stockflow.service.dto.ProductDTO;
 import com.adeem.stockflow.service.dto.ProductFamilyDTO;
+import com.adeem.stockflow.service.event.ProductFamiliesChangedEvent;
 import com.adeem.stockflow.service.mapper.ProductFamilyMapper;
 import com.adeem.stockflow.service.mapper.ProductMapper;
 import java.math.BigDecimal;
@@ -17,16 +21,20 @@ import java.math.RoundingMode;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -44,19 +52,28 @@ public class ProductFamilyService {
     private final ProductFamilyMapper productFamilyMapper;
     private final ProductMapper productMapper;
     private final ProductService productService;
+    private final StatisticsCacheService statisticsCacheService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final QuotaEnforcementService quotaEnforcementService;
 
     public ProductFamilyService(
         ProductFamilyRepository productFamilyRepository,
         ProductRepository productRepository,
         ProductFamilyMapper productFamilyMapper,
         ProductMapper productMapper,
-        ProductService productService
+        ProductService productService,
+        StatisticsCacheService statisticsCacheService,
+        ApplicationEventPublisher eventPublisher,
+        QuotaEnforcementService quotaEnforcementService
     ) {
         this.productFamilyRepository = productFamilyRepository;
         this.productRepository = productRepository;
         this.productFamilyMapper = productFamilyMapper;
         this.productMapper = productMapper;
         this.productService = productService;
+        this.statisticsCacheService = statisticsCacheService;
+        this.eventPublisher = eventPublisher;
+        this.quotaEnforcementService = quotaEnforcementService;
     }
 
     /**
@@ -67,11 +84,41 @@ public class ProductFamilyService {
      */
     public ProductFamilyDTO save(ProductFamilyDTO productFamilyDTO) {
         LOG.debug("Request to save ProductFamily : {}", productFamilyDTO);
+        if (productFamilyDTO.getId() == null) {
+            quotaEnforcementService.acquire(productFamilyDTO.getClientAccountId(), MeteredResource.PRODUCT_FAMILIES);
+        }
         ProductFamily productFamily = productFamilyMapper.toEntity(productFamilyDTO);
         productFamily = productFamilyRepository.save(productFamily);
+        eventPublisher.publishEvent(new ProductFamiliesChangedEvent(productFamilyDTO.getClientAccountId()));
         return productFamilyMapper.toDto(productFamily);
     }
 
+    /**
+     * Create families in a transaction of their own, so concurrent import partitions see them as soon as this returns.
+     *
+     * @param names the names of the families to create.
+     * @param clientAccountId the owning client account.
+     * @return the persisted entities.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<ProductFamily> createAll(Collection<String> names, Long clientAccountId) {
+        LOG.debug("Request to create {} ProductFamilies for client account : {}", names.size(), clientAccountId);
+        quotaEnforcementService.acquire(clientAccountId, MeteredResource.PRODUCT_FAMILIES, names.size());
+        ClientAccount clientAccount = new ClientAccount();
+        clientAccount.setId(clientAccountId);
+
+        List<ProductFamily> families = new ArrayList<>(names.size());
+        for (String name : names) {
+            ProductFamily family = new ProductFamily();
+            family.setName(name);
+            family.setClientAccount(clientAccount);
+            families.add(family);
+        }
+        List<ProductFamily> saved = productFamilyRepository.saveAll(families);
+        eventPublisher.publishEvent(new ProductFamiliesChangedEvent(clientAccountId));
+        return saved;
+    }
+
     /**
      * Update a productFamily.
      *
@@ -83,6 +130,7 @@ public class ProductFamilyService {
         ProductFamily productFamily = productFamilyMapper.toEntity(productFamilyDTO);
         productFamily.setIsPersisted();
         productFamily = productFamilyRepository.save(productFamily);
+        eventPublisher.publishEvent(new ProductFamiliesChangedEvent(productFamilyDTO.getClientAccountId()));
         return productFamilyMapper.toDto(productFamily);
     }
 
@@ -102,7 +150,11 @@ public class ProductFamilyService {
                 return existingProductFamily;
             })
             .map(productFamilyRepository::save)
-            .map(productFamilyMapper::toDto);
+            .map(productFamilyMapper::toDto)
+            .map(result -> {
+                eventPublisher.publishEvent(new ProductFamiliesChangedEvent(result.getClientAccountId()));
+                return result;
+            });
     }
 
     /**
@@ -180,7 +232,14 @@ public class ProductFamilyService {
      */
     public void delete(Long id) {
         LOG.debug("Request to delete ProductFamily : {}", id);
-        productFamilyRepository.deleteById(id);
+        productFamilyRepository
+            .findById(id)
+            .ifPresent(productFamily -> {
+                productFamilyRepository.delete(productFamily);
+                Long clientAccountId = productFamily.getClientAccount() != null ? productFamily.getClientAccount().getId() : null;
+                quotaEnforcementService.release(clientAccountId, MeteredResource.PRODUCT_FAMILIES, 1);
+                eventPublisher.publishEvent(new ProductFamiliesChangedEvent(clientAccountId));
+            });
     }
 
     /**
@@ -251,7 +310,9 @@ public class ProductFamilyService {
      */
     public Integer assignProductToFamily(Long clientAccountId, ProductFamily family, List<Long> productIds) {
         LOG.debug("Request to assign Products : {} to ProductFamily : {}}", productIds.toString(), family.getId());
-        return productFamilyRepository.assignProductToFamily(clientAccountId, family, productIds);
+        Integer assigned = productFamilyRepository.assignProductToFamily(clientAccountId, family, productIds);
+        eventPublisher.publishEvent(new ProductFamiliesChangedEvent(clientAccountId));
+        return assigned;
     }
 
     /**
@@ -263,7 +324,9 @@ public class ProductFamilyService {
      */
     public Integer removeProductFromFamily(Long clientAccountId, ProductFamily family, List<Long> productIds) {
         LOG.debug("Request to remove Products : {} from ProductFamily : {}}", productIds.toString(), family.getId());
-        return productFamilyRepository.removeProductsFromFamily(clientAccountId, family, productIds);
+        Integer removed = productFamilyRepository.removeProductsFromFamily(clientAccountId, family, productIds);
+        eventPublisher.publishEvent(new ProductFamiliesChangedEvent(clientAccountId));
+        return removed;
     }
 
     /**
@@ -276,7 +339,10 @@ public class ProductFamilyService {
     @Transactional(readOnly = true)
     public ProductFamilyStatsDTO getStatistics(Long clientAccountId) {
         LOG.debug("Request to get ProductFamily statistics for client account : {}", clientAccountId);
+        return statisticsCacheService.get(StatisticsType.PRODUCT_FAMILY, clientAccountId, () -> computeStatistics(clientAccountId));
+    }
 
+    private ProductFamilyStatsDTO computeStatistics(Long clientAccountId) {
         ProductFamilyStatsDTO stats = new ProductFamilyStatsDTO();
 
         // Query 1: Get comprehensive family overview statistics
@@ -4,11 +4,14 @@ import com.adeem.stockflow.domain.Inventory;
 import com.adeem.stockflow.domain.Product;
 import com.adeem.stockflow.domain.ProductFamily;
 import com.adeem.stockflow.domain.enumeration.AttachmentType;
+import com.adeem.stockflow.domain.enumeration.MeteredResource;
 import com.adeem.stockflow.domain.enumeration.TransactionType;
 import com.adeem.stockflow.repository.ProductFamilyRepository;
 import com.adeem.stockflow.repository.ProductRepository;
+import com.adeem.stockflow.service.criteria.KeysetPagination;
 import com.adeem.stockflow.service.criteria.ProductSpecification;
 import com.adeem.stockflow.service.dto.*;
+import com.adeem.stockflow.service.event.CatalogChangedEvent;
 import com.adeem.stockflow.service.exceptions.BadRequestAlertException;
 import com.adeem.stockflow.service.exceptions.ErrorConstants;
 import com.adeem.stockflow.service.mapper.InventoryMapper;
@@ -19,6 +22,7 @@ import java.util.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -42,6 +46,8 @@ public class ProductService {
     private final AttachmentService attachmentService;
     private final ProductMapper productMapper;
     private final InventoryMapper inventoryMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final QuotaEnforcementService quotaEnforcementService;
 
     public ProductService(
         ProductRepository productRepository,
@@ -49,7 +55,9 @@ public class ProductService {
         InventoryService inventoryService,
         AttachmentService attachmentService,
         ProductMapper productMapper,
-        InventoryMapper inventoryMapper
+        InventoryMapper inventoryMapper,
+        ApplicationEventPublisher eventPublisher,
+        QuotaEnforcementService quotaEnforcementService
     ) {
         this.productRepository = productRepository;
         this.productFamilyRepository = productFamilyRepository;
@@ -57,6 +65,8 @@ public class ProductService {
         this.attachmentService = attachmentService;
         this.productMapper = productMapper;
         this.inventoryMapper = inventoryMapper;
+        this.eventPublisher = eventPublisher;
+        this.quotaEnforcementService = quotaEnforcementService;
     }
 
     /**
@@ -69,13 +79,14 @@ public class ProductService {
         LOG.debug("Request to save Product : {}", productDTO);
         Product product = productMapper.toEntity(productDTO);
         product = productRepository.save(product);
+        eventPublisher.publishEvent(new CatalogChangedEvent(productDTO.getClientAccountId()));
         return productMapper.toDto(product);
     }
 
-    //@CacheEvict(value = "inventoryStats", key = "#productDTO.clientAccountId")
     public ProductDTO create(ProductDTO productDTO, InventoryDTO inventoryDTO, List<MultipartFile> images) throws IOException {
         LOG.debug("Request to create Product : {}", productDTO);
         checkFields(productDTO);
+        quotaEnforcementService.acquire(productDTO.getClientAccountId(), MeteredResource.PRODUCTS);
 
         ProductDTO newProduct = copyProductFields(productDTO, new ProductDTO());
 
@@ -103,7 +114,6 @@ public class ProductService {
      * @param images the product images to add (optional)
      * @return the updated entity
      */
-    //@CacheEvict(value = "inventoryStats", key = "#productDTO.clientAccountId")
     public ProductDTO update(ProductDTO productDTO, InventoryDTO inventoryDTO, List<MultipartFile> images) throws IOException {
         LOG.debug("Request to update Product : {}", productDTO);
 
@@ -123,6 +133,7 @@ public class ProductService {
         // Update the product fields
         existing.setIsPersisted();
         Product updated = productRepository.save(existing);
+        eventPublisher.publishEvent(new CatalogChangedEvent(productDTO.getClientAccountId()));
 
         // Update the inventory if provided
         if (inventoryDTO != null && inventoryDTO.getId() != null) {
@@ -216,19 +227,16 @@ public class ProductService {
     }
 
     private void addProductImages(Long productId, List<MultipartFile> images) throws IOException {
-        List<AttachmentDTO> attachmentDTOList = new ArrayList<>();
         for (MultipartFile image : images) {
             AttachmentDTO attachmentDTO = new AttachmentDTO();
             attachmentDTO.setProductId(productId);
             attachmentDTO.setAltText(image.getOriginalFilename());
-            attachmentDTO.setData(image.getBytes());
             attachmentDTO.setType(AttachmentType.PRODUCT_IMAGE);
-            attachmentDTO.setFileSize(image.getSize());
             attachmentDTO.setIsPrimary(false);
             attachmentDTO.setDataContentType(image.getContentType());
-            attachmentDTOList.add(attachmentDTO);
+            // Streamed to the blob store, the image is never loaded in memory
+            attachmentService.save(attachmentDTO, image.getInputStream());
         }
-        attachmentService.saveAll(attachmentDTOList);
     }
 
     /**
@@ -305,6 +313,25 @@ public class ProductService {
         return productRepository.findAll(specification, pageable).map(productMapper::toDto);
     }
 
+    /**
+     * Get the products, keyset paged from a cursor and without a count.
+     *
+     * @param specification the specification for filtering.
+     * @param cursor the cursor of the previous page, or blank for the first page.
+     * @param pageable the page size and sort.
+     * @return the page of entities and the cursor of the next one.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ProductDTO> scrollAll(Specification<Product> specification, String cursor, Pageable pageable) {
+        LOG.debug("Request to scroll Products after: {}", cursor);
+        return KeysetPagination.of(Product.class, pageable.getSort(), cursor).fetch(
+            productRepository,
+            specification,
+            pageable.getPageSize(),
+            productMapper::toDto
+        );
+    }
+
     /**
      * Get one product by id.
      *
@@ -394,7 +421,14 @@ public class ProductService {
      */
     public void delete(Long id) {
         LOG.debug("Request to delete Product : {}", id);
-        productRepository.deleteById(id);
+        productRepository
+            .findById(id)
+            .ifPresent(product -> {
+                productRepository.delete(product);
+                Long clientAccountId = product.getClientAccount() != null ? product.getClientAccount().getId() : null;
+                quotaEnforcementService.release(clientAccountId, MeteredResource.PRODUCTS, 1);
+            });
+        eventPublisher.publishEvent(new CatalogChangedEvent(null));
     }
 
     // Add these methods to your ProductService.java class
@@ -424,6 +458,8 @@ public class ProductService {
 
                 // Perform bulk product deletion
                 int deletedProductCount = productRepository.deleteByIdsAndClientAccount(validProductIds, clientAccountId);
+                quotaEnforcementService.release(clientAccountId, MeteredResource.PRODUCTS, deletedProductCount);
+                eventPublisher.publishEvent(new CatalogChangedEvent(clientAccountId));
 
                 result.setSuccessCount(deletedProductCount);
                 LOG.debug("Successfully deleted {} products", deletedProductCount);
@@ -471,6 +507,7 @@ public class ProductService {
             if (!validProductIds.isEmpty()) {
                 // Perform bulk visibility toggle using case statement
                 int updatedCount = productRepository.toggleVisibilityByIdsAndClientAccount(validProductIds, clientAccountId);
+                eventPublisher.publishEvent(new CatalogChangedEvent(clientAccountId));
 
                 // Get updated products to return in response
                 List<Product> updatedProducts = productRepository.findByIdsAndClientAccount(validProductIds, clientAccountId);
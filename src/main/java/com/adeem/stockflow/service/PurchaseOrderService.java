@@ -1,12 +1,15 @@
 package com.adeem.stockflow.service;
 
 import com.adeem.stockflow.domain.PurchaseOrder;
+import com.adeem.stockflow.domain.enumeration.MeteredResource;
 import com.adeem.stockflow.repository.PurchaseOrderRepository;
 import com.adeem.stockflow.service.dto.PurchaseOrderDTO;
+import com.adeem.stockflow.service.event.SuppliersChangedEvent;
 import com.adeem.stockflow.service.mapper.PurchaseOrderMapper;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -25,9 +28,19 @@ public class PurchaseOrderService {
 
     private final PurchaseOrderMapper purchaseOrderMapper;
 
-    public PurchaseOrderService(PurchaseOrderRepository purchaseOrderRepository, PurchaseOrderMapper purchaseOrderMapper) {
+    private final ApplicationEventPublisher eventPublisher;
+    private final QuotaEnforcementService quotaEnforcementService;
+
+    public PurchaseOrderService(
+        PurchaseOrderRepository purchaseOrderRepository,
+        PurchaseOrderMapper purchaseOrderMapper,
+        ApplicationEventPublisher eventPublisher,
+        QuotaEnforcementService quotaEnforcementService
+    ) {
         this.purchaseOrderRepository = purchaseOrderRepository;
         this.purchaseOrderMapper = purchaseOrderMapper;
+        this.eventPublisher = eventPublisher;
+        this.quotaEnforcementService = quotaEnforcementService;
     }
 
     /**
@@ -38,8 +51,13 @@ public class PurchaseOrderService {
      */
     public PurchaseOrderDTO save(PurchaseOrderDTO purchaseOrderDTO) {
         LOG.debug("Request to save PurchaseOrder : {}", purchaseOrderDTO);
+        if (purchaseOrderDTO.getId() == null) {
+            quotaEnforcementService.acquire(purchaseOrderDTO.getClientAccountId(), MeteredResource.PURCHASE_ORDERS);
+        }
         PurchaseOrder purchaseOrder = purchaseOrderMapper.toEntity(purchaseOrderDTO);
         purchaseOrder = purchaseOrderRepository.save(purchaseOrder);
+        // Supplier statistics include purchase order counts and values
+        eventPublisher.publishEvent(new SuppliersChangedEvent(purchaseOrderDTO.getClientAccountId()));
         return purchaseOrderMapper.toDto(purchaseOrder);
     }
 
@@ -54,6 +72,7 @@ public class PurchaseOrderService {
         PurchaseOrder purchaseOrder = purchaseOrderMapper.toEntity(purchaseOrderDTO);
         purchaseOrder.setIsPersisted();
         purchaseOrder = purchaseOrderRepository.save(purchaseOrder);
+        eventPublisher.publishEvent(new SuppliersChangedEvent(purchaseOrderDTO.getClientAccountId()));
         return purchaseOrderMapper.toDto(purchaseOrder);
     }
 
@@ -74,7 +93,11 @@ public class PurchaseOrderService {
                 return existingPurchaseOrder;
             })
             .map(purchaseOrderRepository::save)
-            .map(purchaseOrderMapper::toDto);
+            .map(purchaseOrderMapper::toDto)
+            .map(result -> {
+                eventPublisher.publishEvent(new SuppliersChangedEvent(result.getClientAccountId()));
+                return result;
+            });
     }
 
     /**
@@ -108,6 +131,12 @@ public class PurchaseOrderService {
      */
     public void delete(Long id) {
         LOG.debug("Request to delete PurchaseOrder : {}", id);
-        purchaseOrderRepository.deleteById(id);
+        purchaseOrderRepository
+            .findById(id)
+            .ifPresent(purchaseOrder -> {
+                purchaseOrderRepository.delete(purchaseOrder);
+                Long clientAccountId = purchaseOrder.getClientAccount() != null ? purchaseOrder.getClientAccount().getId() : null;
+                eventPublisher.publishEvent(new SuppliersChangedEvent(clientAccountId));
+            });
     }
 }
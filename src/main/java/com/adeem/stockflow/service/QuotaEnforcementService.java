@@ -0,0 +1,407 @@
+package com.adeem.stockflow.service;
+
+import com.adeem.stockflow.config.ApplicationProperties;
+import com.adeem.stockflow.domain.Quota;
+import com.adeem.stockflow.domain.ResourceLimit;
+import com.adeem.stockflow.domain.enumeration.MeteredResource;
+import com.adeem.stockflow.domain.enumeration.SubscriptionStatus;
+import com.adeem.stockflow.repository.QuotaRepository;
+import com.adeem.stockflow.repository.ResourceLimitRepository;
+import com.adeem.stockflow.service.exceptions.BadRequestAlertException;
+import com.adeem.stockflow.service.exceptions.ErrorConstants;
+import jakarta.annotation.PreDestroy;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Enforces the resource limits of the subscribed plan without counting rows on the write path.
+ * <p>
+ * Usage is counted in memory, one atomic counter per tenant and resource, seeded from the tenant's {@link Quota} on
+ * first use. A create checks and bumps its counter with a compare-and-set, so concurrent creates cannot both take the
+ * last unit, and the change is undone if the surrounding transaction rolls back. Counted changes are written to
+ * {@code quota} as deltas on a schedule and on shutdown; the counters and the plan limits are then re-read, so
+ * changes made by other nodes and plan changes are picked up within one flush interval. The periodic counters
+ * (see {@link MeteredResource#isPeriodic()}) are cleared when {@code reset_date} passes and the date moves a month on.
+ * <p>
+ * Tenants without a {@code quota} row are not metered, and a resource without a limit in the active plans is
+ * unlimited.
+ */
+@Service
+public class QuotaEnforcementService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(QuotaEnforcementService.class);
+
+    private static final MeteredResource[] RESOURCES = MeteredResource.values();
+    private static final int UNLIMITED = -1;
+
+    private final QuotaRepository quotaRepository;
+    private final ResourceLimitRepository resourceLimitRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    private final ConcurrentMap<Long, TenantUsage> tenants = new ConcurrentHashMap<>();
+
+    public QuotaEnforcementService(
+        QuotaRepository quotaRepository,
+        ResourceLimitRepository resourceLimitRepository,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.quotaRepository = quotaRepository;
+        this.resourceLimitRepository = resourceLimitRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Kept out of the caller's transaction, which may hold its locks for much longer
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = applicationProperties.getQuota().isEnabled();
+    }
+
+    /**
+     * Take one unit of a resource, see {@link #acquire(Long, MeteredResource, int)}.
+     */
+    public void acquire(Long clientAccountId, MeteredResource resource) {
+        acquire(clientAccountId, resource, 1);
+    }
+
+    /**
+     * Take units of a resource before creating them.
+     * Called within the creating transaction, the units are given back if it does not commit.
+     *
+     * @param clientAccountId the client account ID
+     * @param resource the created resource
+     * @param amount the number of units created
+     * @throws BadRequestAlertException if the plan limit of the resource would be exceeded
+     */
+    public void acquire(Long clientAccountId, MeteredResource resource, int amount) {
+        if (!enabled || clientAccountId == null || amount <= 0) {
+            return;
+        }
+        TenantUsage usage = usageOf(clientAccountId);
+        if (!usage.isMetered()) {
+            return;
+        }
+        if (usage.isResetDue(ZonedDateTime.now())) {
+            refresh(usage);
+        }
+
+        int limit = usage.tryAdd(resource, amount);
+        if (limit != UNLIMITED) {
+            throw new BadRequestAlertException(
+                "Your plan is limited to " + limit + " " + resource.name().toLowerCase(Locale.ROOT).replace('_', ' '),
+                "quota",
+                ErrorConstants.QUOTA_EXCEEDED
+            );
+        }
+        onRollback(() -> usage.subtract(resource, amount));
+    }
+
+    /**
+     * Give units of a resource back once they are deleted or deactivated.
+     * Called within the deleting transaction, the units are taken again if it does not commit.
+     *
+     * @param clientAccountId the client account ID
+     * @param resource the removed resource
+     * @param amount the number of units removed
+     */
+    public void release(Long clientAccountId, MeteredResource resource, int amount) {
+        if (!enabled || clientAccountId == null || amount <= 0) {
+            return;
+        }
+        TenantUsage usage = usageOf(clientAccountId);
+        if (!usage.isMetered()) {
+            return;
+        }
+
+        int released = usage.subtract(resource, amount);
+        onRollback(() -> usage.add(resource, released));
+    }
+
+    /**
+     * Write the usage counted since the last flush and re-read the counters and limits of every tenant in memory.
+     */
+    @Scheduled(fixedDelayString = "${application.quota.flush-interval-ms:10000}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        for (TenantUsage usage : tenants.values()) {
+            try {
+                refresh(usage);
+            } catch (RuntimeException e) {
+                LOG.warn("Failed to flush the quota of client account {}, will retry: {}", usage.clientAccountId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Write the usage counted in memory before the node goes away.
+     */
+    @PreDestroy
+    public void flushAll() {
+        flush();
+        LOG.info("Flushed the quota usage of {} client accounts on shutdown", tenants.size());
+    }
+
+    private TenantUsage usageOf(Long clientAccountId) {
+        TenantUsage usage = tenants.computeIfAbsent(clientAccountId, TenantUsage::new);
+        if (!usage.loaded) {
+            synchronized (usage) {
+                if (!usage.loaded) {
+                    refresh(usage);
+                }
+            }
+        }
+        return usage;
+    }
+
+    /**
+     * Write the pending deltas of a tenant, start a new period if due, then reload its counters and limits.
+     * Deltas that could not be written stay pending.
+     */
+    private void refresh(TenantUsage usage) {
+        synchronized (usage) {
+            int[] deltas = usage.drainPending();
+            QuotaSnapshot snapshot;
+            try {
+                snapshot = transactionTemplate.execute(status -> load(usage.clientAccountId, deltas));
+            } catch (RuntimeException e) {
+                usage.restorePending(deltas);
+                throw e;
+            }
+            usage.apply(snapshot);
+        }
+    }
+
+    private QuotaSnapshot load(Long clientAccountId, int[] deltas) {
+        Optional<Quota> existing = quotaRepository.findByClientAccountId(clientAccountId);
+        if (existing.isEmpty()) {
+            return null;
+        }
+        Long quotaId = existing.get().getId();
+        ZonedDateTime resetDate = existing.get().getResetDate();
+
+        if (Arrays.stream(deltas).anyMatch(delta -> delta != 0)) {
+            quotaRepository.addUsage(
+                quotaId,
+                deltas[MeteredResource.USERS.ordinal()],
+                deltas[MeteredResource.PRODUCTS.ordinal()],
+                deltas[MeteredResource.PRODUCT_FAMILIES.ordinal()],
+                deltas[MeteredResource.SHOWCASED_PRODUCTS.ordinal()],
+                deltas[MeteredResource.SALE_ORDERS.ordinal()],
+                deltas[MeteredResource.PURCHASE_ORDERS.ordinal()],
+                deltas[MeteredResource.CUSTOMERS.ordinal()],
+                deltas[MeteredResource.SUPPLIERS.ordinal()],
+                deltas[MeteredResource.SHIPMENTS.ordinal()]
+            );
+        }
+        ZonedDateTime now = ZonedDateTime.now();
+        if (resetDate == null || !resetDate.isAfter(now)) {
+            quotaRepository.resetPeriodicUsage(quotaId, now, nextResetDate(resetDate, now));
+        }
+
+        Quota quota = quotaRepository.findById(quotaId).orElseThrow();
+        int[] used = new int[RESOURCES.length];
+        for (MeteredResource resource : RESOURCES) {
+            used[resource.ordinal()] = usageOf(quota, resource);
+        }
+        return new QuotaSnapshot(quotaId, used, limitsOf(clientAccountId), quota.getResetDate());
+    }
+
+    /**
+     * The most generous limit of each resource among the active plans of the tenant.
+     */
+    private int[] limitsOf(Long clientAccountId) {
+        int[] limits = new int[RESOURCES.length];
+        boolean[] limited = new boolean[RESOURCES.length];
+        boolean[] unlimited = new boolean[RESOURCES.length];
+        for (ResourceLimit limit : resourceLimitRepository.findBySubscription(clientAccountId, SubscriptionStatus.ACTIVE)) {
+            Optional<MeteredResource> resource = resourceOf(limit.getResourceType());
+            if (resource.isEmpty()) {
+                continue;
+            }
+            int i = resource.get().ordinal();
+            if (Boolean.TRUE.equals(limit.getIsUnlimited()) || limit.getMaxAmount() == null) {
+                unlimited[i] = true;
+            } else {
+                limits[i] = limited[i] ? Math.max(limits[i], limit.getMaxAmount()) : limit.getMaxAmount();
+                limited[i] = true;
+            }
+        }
+        for (int i = 0; i < limits.length; i++) {
+            if (unlimited[i] || !limited[i]) {
+                limits[i] = UNLIMITED;
+            }
+        }
+        return limits;
+    }
+
+    private static Optional<MeteredResource> resourceOf(String resourceType) {
+        if (resourceType == null) {
+            return Optional.empty();
+        }
+        String name = resourceType.trim().replaceAll("([a-z])([A-Z])", "$1_$2").replace('-', '_').replace(' ', '_');
+        try {
+            return Optional.of(MeteredResource.valueOf(name.toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static int usageOf(Quota quota, MeteredResource resource) {
+        Integer value = switch (resource) {
+            case USERS -> quota.getUsers();
+            case PRODUCTS -> quota.getProducts();
+            case PRODUCT_FAMILIES -> quota.getProductFamilies();
+            case SHOWCASED_PRODUCTS -> quota.getShowcasedProducts();
+            case SALE_ORDERS -> quota.getSaleOrders();
+            case PURCHASE_ORDERS -> quota.getPurchaseOrders();
+            case CUSTOMERS -> quota.getCustomers();
+            case SUPPLIERS -> quota.getSuppliers();
+            case SHIPMENTS -> quota.getShipments();
+        };
+        return value != null ? value : 0;
+    }
+
+    /**
+     * The first monthly reset date after now, counting from the current one or, for a new quota, from the start of
+     * the current month.
+     */
+    static ZonedDateTime nextResetDate(ZonedDateTime resetDate, ZonedDateTime now) {
+        ZonedDateTime next = resetDate != null ? resetDate : now.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+        while (!next.isAfter(now)) {
+            next = next.plusMonths(1);
+        }
+        return next;
+    }
+
+    private static void onRollback(Runnable undo) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        undo.run();
+                    }
+                }
+            }
+        );
+    }
+
+    private record QuotaSnapshot(Long quotaId, int[] used, int[] limits, ZonedDateTime resetDate) {}
+
+    /**
+     * The usage of one tenant. {@code used} is the best known total, {@code pending} what this node changed since the
+     * last flush.
+     */
+    private static final class TenantUsage {
+
+        private final Long clientAccountId;
+        private final AtomicIntegerArray used = new AtomicIntegerArray(RESOURCES.length);
+        private final AtomicIntegerArray pending = new AtomicIntegerArray(RESOURCES.length);
+        private volatile boolean loaded;
+        private volatile boolean metered;
+        private volatile int[] limits = new int[RESOURCES.length];
+        private volatile ZonedDateTime resetDate;
+
+        private TenantUsage(Long clientAccountId) {
+            this.clientAccountId = clientAccountId;
+        }
+
+        boolean isMetered() {
+            return metered;
+        }
+
+        boolean isResetDue(ZonedDateTime now) {
+            ZonedDateTime date = resetDate;
+            return date != null && !date.isAfter(now);
+        }
+
+        /**
+         * Add the amount unless it would exceed the limit.
+         *
+         * @return {@link #UNLIMITED} if added, else the limit
+         */
+        int tryAdd(MeteredResource resource, int amount) {
+            int i = resource.ordinal();
+            int limit = limits[i];
+            while (true) {
+                int current = used.get(i);
+                if (limit != UNLIMITED && current + amount > limit) {
+                    return limit;
+                }
+                if (used.compareAndSet(i, current, current + amount)) {
+                    pending.addAndGet(i, amount);
+                    return UNLIMITED;
+                }
+            }
+        }
+
+        void add(MeteredResource resource, int amount) {
+            used.addAndGet(resource.ordinal(), amount);
+            pending.addAndGet(resource.ordinal(), amount);
+        }
+
+        /**
+         * Remove the amount, without going below zero.
+         *
+         * @return the amount actually removed
+         */
+        int subtract(MeteredResource resource, int amount) {
+            int i = resource.ordinal();
+            while (true) {
+                int current = used.get(i);
+                int removed = Math.min(current, amount);
+                if (used.compareAndSet(i, current, current - removed)) {
+                    pending.addAndGet(i, -removed);
+                    return removed;
+                }
+            }
+        }
+
+        int[] drainPending() {
+            int[] deltas = new int[RESOURCES.length];
+            for (int i = 0; i < deltas.length; i++) {
+                deltas[i] = pending.getAndSet(i, 0);
+            }
+            return deltas;
+        }
+
+        void restorePending(int[] deltas) {
+            for (int i = 0; i < deltas.length; i++) {
+                pending.addAndGet(i, deltas[i]);
+            }
+        }
+
+        /**
+         * Take the stored counters, plus what was counted here while they were read.
+         */
+        void apply(QuotaSnapshot snapshot) {
+            metered = snapshot != null;
+            if (snapshot != null) {
+                limits = snapshot.limits();
+                resetDate = snapshot.resetDate();
+                for (int i = 0; i < RESOURCES.length; i++) {
+                    used.set(i, snapshot.used()[i] + pending.get(i));
+                }
+            }
+            loaded = true;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.adeem.stockflow.service;
+
+import com.adeem.stockflow.config.ApplicationProperties;
+import com.adeem.stockflow.domain.enumeration.ReferenceType;
+import com.adeem.stockflow.repository.InventoryTransactionRepository;
+import com.adeem.stockflow.repository.ReferenceSequenceRepository;
+import com.adeem.stockflow.repository.SaleOrderRepository;
+import com.adeem.stockflow.repository.ShipmentRepository;
+import com.adeem.stockflow.service.util.GlobalUtils;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Allocates per-tenant {@code YYYY/NNNN} document references.
+ * <p>
+ * Numbers are reserved from the {@code reference_sequence} counter in blocks and handed out from memory,
+ * so most calls cost no query at all. Each tenant/type/year counter has its own block and lock, which keeps
+ * tenants from contending with each other. Unused numbers of a block are lost on restart, so references are
+ * unique and increasing per node but may contain gaps.
+ */
+@Service
+public class ReferenceSequenceService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReferenceSequenceService.class);
+
+    private final ReferenceSequenceRepository referenceSequenceRepository;
+    private final SaleOrderRepository saleOrderRepository;
+    private final ShipmentRepository shipmentRepository;
+    private final InventoryTransactionRepository inventoryTransactionRepository;
+    private final int blockSize;
+
+    private final ConcurrentMap<SequenceKey, ReferenceBlock> blocks = new ConcurrentHashMap<>();
+
+    public ReferenceSequenceService(
+        ReferenceSequenceRepository referenceSequenceRepository,
+        SaleOrderRepository saleOrderRepository,
+        ShipmentRepository shipmentRepository,
+        InventoryTransactionRepository inventoryTransactionRepository,
+        ApplicationProperties applicationProperties
+    ) {
+        this.referenceSequenceRepository = referenceSequenceRepository;
+        this.saleOrderRepository = saleOrderRepository;
+        this.shipmentRepository = shipmentRepository;
+        this.inventoryTransactionRepository = inventoryTransactionRepository;
+        this.blockSize = Math.max(1, applicationProperties.getReference().getBlockSize());
+    }
+
+    /**
+     * Get the next reference for a client account and document type.
+     *
+     * @param clientAccountId the client account ID
+     * @param referenceType the document type
+     * @return the reference, e.g. {@code 2025/0042}
+     */
+    public String nextReference(Long clientAccountId, ReferenceType referenceType) {
+        int year = LocalDate.now().getYear();
+        SequenceKey key = new SequenceKey(clientAccountId, referenceType, year);
+
+        ReferenceBlock block = blocks.get(key);
+        if (block == null) {
+            blocks.keySet().removeIf(k -> k.year() < year);
+            block = blocks.computeIfAbsent(key, k -> new ReferenceBlock());
+        }
+
+        return GlobalUtils.formatReference(year, block.next(key));
+    }
+
+    private long allocateBlock(SequenceKey key, boolean firstBlock) {
+        // The legacy "last reference" scan only runs once per counter and node, to continue existing numbering
+        long seed = firstBlock ? GlobalUtils.parseReferenceNumber(findLastReference(key).orElse(null), key.year()) : 0L;
+        long limit = referenceSequenceRepository.allocateBlock(key.clientAccountId(), key.type().name(), key.year(), seed, blockSize);
+        LOG.debug("Allocated {} references up to {} for {}", blockSize, limit, key);
+        return limit;
+    }
+
+    private Optional<String> findLastReference(SequenceKey key) {
+        return switch (key.type()) {
+            case SALE_ORDER -> saleOrderRepository.getLastReference(key.clientAccountId());
+            case SHIPMENT -> shipmentRepository.getLastReference(key.clientAccountId());
+            case INVENTORY_TRANSACTION -> inventoryTransactionRepository.getLastReference(key.clientAccountId());
+        };
+    }
+
+    private record SequenceKey(Long clientAccountId, ReferenceType type, int year) {}
+
+    private final class ReferenceBlock {
+
+        private long next = 1;
+        private long limit = 0;
+        private boolean allocated;
+
+        synchronized long next(SequenceKey key) {
+            if (next > limit) {
+                limit = allocateBlock(key, !allocated);
+                next = Math.max(next, limit - blockSize + 1);
+                allocated = true;
+            }
+            return next++;
+        }
+    }
+}
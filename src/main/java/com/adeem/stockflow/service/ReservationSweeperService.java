@@ -0,0 +1,91 @@
+package com.adeem.stockflow.service;
+
+import com.adeem.stockflow.domain.ClientAccount;
+import com.adeem.stockflow.domain.InventoryTransaction;
+import com.adeem.stockflow.domain.SaleOrderItem;
+import com.adeem.stockflow.domain.enumeration.TransactionType;
+import com.adeem.stockflow.repository.InventoryRepository;
+import com.adeem.stockflow.repository.SaleOrderItemRepository;
+import com.adeem.stockflow.repository.SaleOrderRepository;
+import com.adeem.stockflow.service.event.CatalogChangedEvent;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Cancels confirmed orders whose reservation has expired, one bounded batch per transaction.
+ * <p>
+ * Each batch locks its orders with {@code FOR UPDATE SKIP LOCKED}, so several nodes can sweep at the same time
+ * without blocking each other or releasing the same reservation twice.
+ */
+@Service
+@Transactional
+public class ReservationSweeperService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReservationSweeperService.class);
+
+    private final SaleOrderRepository saleOrderRepository;
+    private final SaleOrderItemRepository saleOrderItemRepository;
+    private final InventoryRepository inventoryRepository;
+    private final InventoryTransactionService inventoryTransactionService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ReservationSweeperService(
+        SaleOrderRepository saleOrderRepository,
+        SaleOrderItemRepository saleOrderItemRepository,
+        InventoryRepository inventoryRepository,
+        InventoryTransactionService inventoryTransactionService,
+        ApplicationEventPublisher eventPublisher
+    ) {
+        this.saleOrderRepository = saleOrderRepository;
+        this.saleOrderItemRepository = saleOrderItemRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.inventoryTransactionService = inventoryTransactionService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Cancel the next batch of expired reservations and give their stock back.
+     *
+     * @param now the expiry cut-off
+     * @param afterId keyset cursor, only orders with a greater id are considered
+     * @param batchSize the maximum number of orders to cancel
+     * @return the ids of the cancelled orders, in ascending order
+     */
+    public List<Long> cancelExpiredBatch(ZonedDateTime now, Long afterId, int batchSize) {
+        List<Long> orderIds = saleOrderRepository.lockExpiredReservations(now, afterId, batchSize);
+        if (orderIds.isEmpty()) {
+            return orderIds;
+        }
+
+        int releasedLines = inventoryRepository.releaseOrderReservations(orderIds);
+        saleOrderRepository.cancelOrders(orderIds, "Auto-cancelled due to expired reservation at " + now);
+        recordReleases(orderIds);
+        eventPublisher.publishEvent(new CatalogChangedEvent(null));
+
+        LOG.info("Auto-cancelled {} expired orders, {} inventory rows released", orderIds.size(), releasedLines);
+        return orderIds;
+    }
+
+    private void recordReleases(List<Long> orderIds) {
+        List<InventoryTransaction> transactions = new ArrayList<>();
+        for (SaleOrderItem item : saleOrderItemRepository.findWithProductBySaleOrderIdIn(orderIds)) {
+            ClientAccount clientAccount = item.getSaleOrder().getClientAccount();
+            transactions.add(
+                inventoryTransactionService.createEntity(
+                    item.getQuantity(),
+                    TransactionType.RESERVATION_RELEASE,
+                    item.getProduct(),
+                    clientAccount,
+                    inventoryTransactionService.generateReference(clientAccount.getId())
+                )
+            );
+        }
+        inventoryTransactionService.saveAll(transactions);
+    }
+}
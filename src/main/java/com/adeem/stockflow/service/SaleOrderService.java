@@ -1,15 +1,17 @@
 package com.adeem.stockflow.service;
 
+import com.adeem.stockflow.config.ApplicationProperties;
 import com.adeem.stockflow.config.Constants;
 import com.adeem.stockflow.domain.*;
 import com.adeem.stockflow.domain.enumeration.*;
 import com.adeem.stockflow.repository.*;
+import com.adeem.stockflow.repository.projection.SaleOrderStatsProjection;
 import com.adeem.stockflow.security.SecurityUtils;
+import com.adeem.stockflow.service.criteria.KeysetPagination;
 import com.adeem.stockflow.service.criteria.SaleOrderSpecification;
 import com.adeem.stockflow.service.dto.*;
 import com.adeem.stockflow.service.exceptions.*;
 import com.adeem.stockflow.service.mapper.SaleOrderMapper;
-import com.adeem.stockflow.service.util.GlobalUtils;
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 import java.util.*;
@@ -42,6 +44,10 @@ public class SaleOrderService {
     private final ClientAccountRepository clientAccountRepository;
     private final ProductRepository productRepository;
     private final InventoryService inventoryService;
+    private final ReferenceSequenceService referenceSequenceService;
+    private final StockReservationService stockReservationService;
+    private final boolean incrementalOrderStats;
+    private final QuotaEnforcementService quotaEnforcementService;
     private ShipmentService shipmentService;
 
     public SaleOrderService(
@@ -51,7 +57,11 @@ public class SaleOrderService {
         CustomerRepository customerRepository,
         ClientAccountRepository clientAccountRepository,
         ProductRepository productRepository,
-        InventoryService inventoryService
+        InventoryService inventoryService,
+        ReferenceSequenceService referenceSequenceService,
+        StockReservationService stockReservationService,
+        ApplicationProperties applicationProperties,
+        QuotaEnforcementService quotaEnforcementService
     ) {
         this.saleOrderRepository = saleOrderRepository;
         this.saleOrderMapper = saleOrderMapper;
@@ -60,6 +70,10 @@ public class SaleOrderService {
         this.clientAccountRepository = clientAccountRepository;
         this.productRepository = productRepository;
         this.inventoryService = inventoryService;
+        this.referenceSequenceService = referenceSequenceService;
+        this.stockReservationService = stockReservationService;
+        this.incrementalOrderStats = applicationProperties.getOrderStats().isIncremental();
+        this.quotaEnforcementService = quotaEnforcementService;
     }
 
     @Autowired
@@ -81,6 +95,7 @@ public class SaleOrderService {
         ClientAccount clientAccount = getCurrentClientAccount();
         Customer customer = getAndValidateCustomer(saleOrderDTO.getCustomer().getId());
         validateOrderItems(saleOrderDTO.getOrderItems());
+        quotaEnforcementService.acquire(clientAccount.getId(), MeteredResource.SALE_ORDERS);
 
         Set<SaleOrderItem> orderItems = validateAndCreateOrderItems(saleOrderDTO.getOrderItems(), clientAccount.getId());
 
@@ -132,6 +147,24 @@ public class SaleOrderService {
         return saleOrderRepository.findAll(finalSpec, pageable).map(saleOrderMapper::toDto);
     }
 
+    /**
+     * Get saleOrders with criteria filtering, keyset paged from a cursor and without a count.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<SaleOrderDTO> scrollWithCriteria(Pageable pageable, String cursor, Specification<SaleOrder> spec) {
+        LOG.debug("Request to scroll SaleOrders with criteria after: {}", cursor);
+
+        Long currentClientAccountId = SecurityUtils.getCurrentClientAccountId();
+        Specification<SaleOrder> finalSpec = buildSpecificationWithClientFilter(currentClientAccountId, spec);
+
+        return KeysetPagination.of(SaleOrder.class, pageable.getSort(), cursor).fetch(
+            saleOrderRepository,
+            finalSpec,
+            pageable.getPageSize(),
+            saleOrderMapper::toDto
+        );
+    }
+
     /**
      * Get one saleOrder by id.
      */
@@ -187,7 +220,6 @@ public class SaleOrderService {
 
         SaleOrder saleOrder = getAndValidateOrder(id);
         validateCanConfirm(saleOrder);
-        validateInventoryAvailability(saleOrder);
 
         reserveInventoryForOrder(saleOrder);
         updateOrderStatusToConfirmed(saleOrder);
@@ -245,9 +277,11 @@ public class SaleOrderService {
         LOG.debug("Request to get order statistics");
 
         Long currentClientAccountId = SecurityUtils.getCurrentClientAccountId();
-        List<SaleOrder> orders = saleOrderRepository.findByClientAccountId(currentClientAccountId);
+        List<SaleOrderStatsProjection> rows = incrementalOrderStats
+            ? saleOrderRepository.findStatsByClientAccount(currentClientAccountId)
+            : saleOrderRepository.aggregateStatsByClientAccount(currentClientAccountId);
 
-        return buildOrderStatistics(orders);
+        return buildOrderStatistics(rows);
     }
 
     // Private helper methods - Validation and Retrieval
@@ -452,46 +486,41 @@ public class SaleOrderService {
         return error;
     }
 
-    private SaleOrderStatsDTO buildOrderStatistics(List<SaleOrder> orders) {
-        SaleOrderStatsDTO stats = new SaleOrderStatsDTO();
+    private SaleOrderStatsDTO buildOrderStatistics(List<SaleOrderStatsProjection> rows) {
+        Map<String, Long> ordersByStatus = new HashMap<>();
+        Map<String, Long> ordersByType = new HashMap<>();
+        long totalOrders = 0;
+        BigDecimal totalRevenue = BigDecimal.ZERO;
 
-        stats.setTotalOrders((long) orders.size());
-        stats.setDraftedOrders(countOrdersByStatus(orders, OrderStatus.DRAFTED));
-        stats.setConfirmedOrders(countOrdersByStatus(orders, OrderStatus.CONFIRMED));
-        stats.setShippedOrders(countOrdersByStatus(orders, OrderStatus.SHIPPED));
-        stats.setCompletedOrders(countOrdersByStatus(orders, OrderStatus.COMPLETED));
-        stats.setCancelledOrders(countOrdersByStatus(orders, OrderStatus.CANCELLED));
+        for (SaleOrderStatsProjection row : rows) {
+            long count = row.getOrderCount();
+            totalOrders += count;
+            ordersByStatus.merge(row.getStatus(), count, Long::sum);
+            ordersByType.merge(row.getOrderType(), count, Long::sum);
+            if (OrderStatus.COMPLETED.name().equals(row.getStatus()) && row.getTotalAmount() != null) {
+                totalRevenue = totalRevenue.add(row.getTotalAmount());
+            }
+        }
 
-        BigDecimal totalRevenue = calculateTotalRevenue(orders);
+        SaleOrderStatsDTO stats = new SaleOrderStatsDTO();
+        stats.setTotalOrders(totalOrders);
+        stats.setDraftedOrders(ordersByStatus.getOrDefault(OrderStatus.DRAFTED.name(), 0L));
+        stats.setConfirmedOrders(ordersByStatus.getOrDefault(OrderStatus.CONFIRMED.name(), 0L));
+        stats.setShippedOrders(ordersByStatus.getOrDefault(OrderStatus.SHIPPED.name(), 0L));
+        stats.setCompletedOrders(ordersByStatus.getOrDefault(OrderStatus.COMPLETED.name(), 0L));
+        stats.setCancelledOrders(ordersByStatus.getOrDefault(OrderStatus.CANCELLED.name(), 0L));
         stats.setTotalRevenue(totalRevenue);
 
         if (stats.getCompletedOrders() > 0) {
             stats.setAverageOrderValue(totalRevenue.divide(BigDecimal.valueOf(stats.getCompletedOrders()), 2, BigDecimal.ROUND_HALF_UP));
         }
 
-        stats.setDeliveryOrders(countOrdersByType(orders, OrderType.DELIVERY));
-        stats.setPickupOrders(countOrdersByType(orders, OrderType.STORE_PICKUP));
+        stats.setDeliveryOrders(ordersByType.getOrDefault(OrderType.DELIVERY.name(), 0L));
+        stats.setPickupOrders(ordersByType.getOrDefault(OrderType.STORE_PICKUP.name(), 0L));
 
         return stats;
     }
 
-    private long countOrdersByStatus(List<SaleOrder> orders, OrderStatus status) {
-        return orders.stream().filter(o -> o.getStatus() == status).count();
-    }
-
-    private long countOrdersByType(List<SaleOrder> orders, OrderType type) {
-        return orders.stream().filter(o -> o.getOrderType() == type).count();
-    }
-
-    private BigDecimal calculateTotalRevenue(List<SaleOrder> orders) {
-        return orders
-            .stream()
-            .filter(o -> o.getStatus() == OrderStatus.COMPLETED)
-            .map(SaleOrder::getTotal)
-            .filter(Objects::nonNull)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
     private Specification<SaleOrder> buildSpecificationWithClientFilter(Long clientAccountId, Specification<SaleOrder> additionalSpec) {
         Specification<SaleOrder> clientSpec = SaleOrderSpecification.withClientAccountId(clientAccountId);
         return additionalSpec != null ? clientSpec.and(additionalSpec) : clientSpec;
@@ -542,8 +571,7 @@ public class SaleOrderService {
     }
 
     private String generateReference(Long clientAccountId) {
-        String reference = saleOrderRepository.getLastReference(clientAccountId).orElse(null);
-        return GlobalUtils.generateReference(reference);
+        return referenceSequenceService.nextReference(clientAccountId, ReferenceType.SALE_ORDER);
     }
 
     private void calculateOrderTotals(SaleOrder saleOrder, Set<SaleOrderItem> orderItems) {
@@ -615,22 +643,6 @@ public class SaleOrderService {
         return order.getStatus() == OrderStatus.DRAFTED;
     }
 
-    private void validateInventoryAvailability(SaleOrder saleOrder) {
-        for (SaleOrderItem item : saleOrder.getOrderItems()) {
-            Inventory inventory = inventoryService
-                .findByProductIdAndClientAccountId(item.getProduct().getId(), saleOrder.getClientAccount().getId())
-                .orElseThrow(() ->
-                    new InsufficientInventoryException(String.format("Product %s not found in inventory", item.getProduct().getName()))
-                );
-
-            if (inventory.getAvailableQuantity().compareTo(item.getQuantity()) < 0) {
-                throw new InsufficientInventoryException(
-                    String.format("Product %s has only %s units available", item.getProduct().getName(), inventory.getAvailableQuantity())
-                );
-            }
-        }
-    }
-
     private void reserveInventoryForOrder(SaleOrder saleOrder) {
         updateInventoryQuantities(saleOrder, TransactionType.RESERVATION);
     }
@@ -644,30 +656,11 @@ public class SaleOrderService {
     }
 
     public void updateInventoryQuantities(SaleOrder saleOrder, TransactionType transactionType) {
-        String transactionReference = inventoryTransactionService.generateReference(saleOrder.getClientAccount().getId());
-        List<Inventory> inventoriesToSave = new ArrayList<>();
-        List<InventoryTransaction> transactionsToSave = new ArrayList<>();
-
-        for (SaleOrderItem item : saleOrder.getOrderItems()) {
-            Inventory inventory = inventoryService
-                .findByProductIdAndClientAccountId(item.getProduct().getId(), saleOrder.getClientAccount().getId())
-                .orElseThrow();
-            inventoryService.updateInventoryQuantities(
-                inventory,
-                item.getQuantity(),
-                transactionReference,
-                transactionType,
-                inventoriesToSave,
-                transactionsToSave
+        InventoryValidationDTO result = stockReservationService.applyOrderMovement(saleOrder, transactionType);
+        if (!result.isValid()) {
+            throw new InsufficientInventoryException(
+                result.getErrors().stream().map(InventoryValidationDTO.InventoryValidationErrorDTO::getMessage).collect(Collectors.joining("; "))
             );
-            transactionReference = GlobalUtils.generateReference(transactionReference);
         }
-
-        inventoryService.saveAll(inventoriesToSave);
-        inventoryTransactionService.saveAll(transactionsToSave);
-    }
-
-    public List<SaleOrder> findExpiredReservations(ZonedDateTime time) {
-        return saleOrderRepository.findExpiredReservations(time);
     }
 }
@@ -1,13 +1,9 @@
 package com.adeem.stockflow.service;
 
-import static com.adeem.stockflow.domain.enumeration.TransactionType.RESERVATION_RELEASE;
-
-import com.adeem.stockflow.domain.SaleOrder;
+import com.adeem.stockflow.config.ApplicationProperties;
 import com.adeem.stockflow.domain.Shipment;
-import com.adeem.stockflow.domain.enumeration.OrderStatus;
 import com.adeem.stockflow.domain.enumeration.ShippingStatus;
-import com.adeem.stockflow.domain.enumeration.TransactionType;
-import com.adeem.stockflow.repository.SaleOrderRepository;
+import com.adeem.stockflow.repository.ClientAccountRepository;
 import com.adeem.stockflow.repository.ShipmentRepository;
 import java.time.Instant;
 import java.time.ZonedDateTime;
@@ -16,62 +12,132 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service for handling scheduled background tasks related to orders and shipments.
  * Handles reservation timeouts, shipment status sync, and other maintenance tasks.
+ * <p>
+ * Not transactional itself: each task opens short transactions through the services it calls.
  */
 @Service
-@Transactional
 public class SchedulerService {
 
     private static final Logger LOG = LoggerFactory.getLogger(SchedulerService.class);
 
-    private final SaleOrderService saleOrderService;
+    private final ReservationSweeperService reservationSweeperService;
     private final InventoryService inventoryService;
+    private final AttachmentService attachmentService;
+    private final ClientAccountRepository clientAccountRepository;
+    private final int sweepBatchSize;
+    private final ApplicationProperties.Storage.Migration attachmentMigration;
+    private final ApplicationProperties.InventoryStats inventoryStats;
 
-    public SchedulerService(SaleOrderService saleOrderService, InventoryService inventoryService) {
-        this.saleOrderService = saleOrderService;
+    public SchedulerService(
+        ReservationSweeperService reservationSweeperService,
+        InventoryService inventoryService,
+        AttachmentService attachmentService,
+        ClientAccountRepository clientAccountRepository,
+        ApplicationProperties applicationProperties
+    ) {
+        this.reservationSweeperService = reservationSweeperService;
         this.inventoryService = inventoryService;
+        this.attachmentService = attachmentService;
+        this.clientAccountRepository = clientAccountRepository;
+        this.sweepBatchSize = Math.max(1, applicationProperties.getReservation().getSweepBatchSize());
+        this.attachmentMigration = applicationProperties.getStorage().getMigration();
+        this.inventoryStats = applicationProperties.getInventoryStats();
     }
 
     /**
-     * Process expired reservations every 30 minutes.
-     * Automatically cancels orders where reservation has expired.
+     * Cancel orders whose reservation has expired.
+     * Pages through them in id order, one transaction per batch, until a batch comes back short.
      */
-    @Scheduled(fixedRate = 30 * 60 * 1000) // Every 30 minutes
+    @Scheduled(fixedDelayString = "${application.reservation.sweep-interval-ms:15000}")
     public void processExpiredReservations() {
-        LOG.debug("Processing expired reservations");
+        ZonedDateTime currentTime = ZonedDateTime.now();
+        long afterId = 0L;
+        int cancelled = 0;
 
         try {
-            ZonedDateTime currentTime = ZonedDateTime.now();
-            List<SaleOrder> expiredOrders = saleOrderService.findExpiredReservations(currentTime);
-
-            LOG.info("Found {} expired reservations to process", expiredOrders.size());
+            List<Long> batch;
+            do {
+                batch = reservationSweeperService.cancelExpiredBatch(currentTime, afterId, sweepBatchSize);
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1);
+                    cancelled += batch.size();
+                }
+            } while (batch.size() == sweepBatchSize);
+        } catch (Exception e) {
+            LOG.error("Error processing expired reservations after order {}: {}", afterId, e.getMessage(), e);
+        }
 
-            for (SaleOrder order : expiredOrders) {
-                try {
-                    LOG.info("Auto-cancelling expired order: {}", order.getReference());
+        if (cancelled > 0) {
+            LOG.info("Auto-cancelled {} orders with expired reservations", cancelled);
+        }
+    }
 
-                    // Release reserved inventory
-                    saleOrderService.updateInventoryQuantities(order, RESERVATION_RELEASE);
+    /**
+     * Move attachment content still stored in the database to the blob store.
+     * Pages through the attachments in id order, one transaction per batch, until a batch comes back short.
+     */
+    @Scheduled(fixedDelayString = "${application.storage.migration.interval-ms:300000}")
+    public void migrateAttachmentContent() {
+        if (!attachmentMigration.isEnabled()) {
+            return;
+        }
+        int batchSize = Math.max(1, attachmentMigration.getBatchSize());
+        long afterId = 0L;
 
-                    // Update order status
-                    order.setStatus(OrderStatus.CANCELLED);
-                    order.setNotes(order.getNotes() + "\nAuto-cancelled due to expired reservation at " + currentTime);
+        try {
+            List<Long> batch;
+            do {
+                batch = attachmentService.migrateLegacyBatch(afterId, batchSize);
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1);
+                }
+            } while (batch.size() == batchSize);
+        } catch (Exception e) {
+            LOG.error("Error moving attachment content to the blob store after attachment {}: {}", afterId, e.getMessage(), e);
+        }
+    }
 
-                    saleOrderService.save(order);
+    /**
+     * Recompute the inventory counters of every client account from its inventory rows.
+     * The counters are kept by database triggers, this only corrects drift. Each client account is recomputed in its
+     * own transaction so stock movements of a client account are held back for a single recompute at most.
+     */
+    @Scheduled(
+        initialDelayString = "${application.inventory-stats.reconcile-interval-ms:3600000}",
+        fixedDelayString = "${application.inventory-stats.reconcile-interval-ms:3600000}"
+    )
+    public void reconcileInventoryStats() {
+        if (!inventoryStats.isIncremental()) {
+            return;
+        }
+        int batchSize = Math.max(1, inventoryStats.getReconcileBatchSize());
+        long afterId = 0L;
+        int drifted = 0;
 
-                    LOG.info("Successfully auto-cancelled order: {}", order.getReference());
-                } catch (Exception e) {
-                    LOG.error("Failed to process expired reservation for order {}: {}", order.getReference(), e.getMessage(), e);
+        try {
+            List<Long> batch;
+            do {
+                batch = clientAccountRepository.findIdsAfter(afterId, batchSize);
+                for (Long clientAccountId : batch) {
+                    if (inventoryService.reconcileInventoryStats(clientAccountId)) {
+                        drifted++;
+                    }
+                    afterId = clientAccountId;
                 }
-            }
+            } while (batch.size() == batchSize);
         } catch (Exception e) {
-            LOG.error("Error processing expired reservations: {}", e.getMessage(), e);
+            LOG.error("Error reconciling inventory stats after client account {}: {}", afterId, e.getMessage(), e);
+        }
+
+        if (drifted > 0) {
+            LOG.warn("Recomputed the drifted inventory stats of {} client accounts", drifted);
         }
     }
+
     //    @Scheduled(fixedRate = 60 * 60 * 1000) // Every hour
     //    public void syncYalidineShipmentStatuses() {
     //        LOG.debug("Syncing Yalidine shipment statuses");
@@ -9,7 +9,6 @@ import com.adeem.stockflow.service.criteria.ShipmentSpecification;
 import com.adeem.stockflow.service.dto.*;
 import com.adeem.stockflow.service.exceptions.*;
 import com.adeem.stockflow.service.mapper.ShipmentMapper;
-import com.adeem.stockflow.service.util.GlobalUtils;
 import java.time.LocalDateTime;
 import java.util.Optional;
 import org.slf4j.Logger;
@@ -34,17 +33,23 @@ public class ShipmentService {
     private final ShipmentMapper shipmentMapper;
     private final AddressRepository addressRepository;
     private final SaleOrderService saleOrderService;
+    private final ReferenceSequenceService referenceSequenceService;
+    private final QuotaEnforcementService quotaEnforcementService;
 
     public ShipmentService(
         ShipmentRepository shipmentRepository,
         ShipmentMapper shipmentMapper,
         AddressRepository addressRepository,
-        SaleOrderService saleOrderService
+        SaleOrderService saleOrderService,
+        ReferenceSequenceService referenceSequenceService,
+        QuotaEnforcementService quotaEnforcementService
     ) {
         this.shipmentRepository = shipmentRepository;
         this.shipmentMapper = shipmentMapper;
         this.addressRepository = addressRepository;
         this.saleOrderService = saleOrderService;
+        this.referenceSequenceService = referenceSequenceService;
+        this.quotaEnforcementService = quotaEnforcementService;
     }
 
     /**
@@ -56,6 +61,7 @@ public class ShipmentService {
         SaleOrder saleOrder = getAndValidateOrder(orderId);
         validateOrderCanBeShipped(saleOrder);
         validateShipmentDoesNotExist(saleOrder);
+        quotaEnforcementService.acquire(saleOrder.getClientAccount().getId(), MeteredResource.SHIPMENTS);
 
         Shipment shipment = buildNewShipment(createShipmentDTO, saleOrder);
         setShipmentAddress(shipment, saleOrder.getCustomer(), createShipmentDTO.getAddressId());
@@ -292,8 +298,7 @@ public class ShipmentService {
     }
 
     private String generateReference(Long clientAccountId) {
-        String reference = shipmentRepository.getLastReference(clientAccountId).orElse(null);
-        return GlobalUtils.generateReference(reference);
+        return referenceSequenceService.nextReference(clientAccountId, ReferenceType.SHIPMENT);
     }
     // Commented out methods for Yalidine integration - keeping for reference
     /*
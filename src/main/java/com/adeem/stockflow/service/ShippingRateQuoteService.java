@@ -0,0 +1,314 @@
+package com.adeem.stockflow.service;
+
+import com.adeem.stockflow.config.ApplicationProperties;
+import com.adeem.stockflow.domain.Address;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+/**
+ * Carrier shipping rates, served from an in-memory cache of quotes.
+ * <p>
+ * Carrier rates only depend on the origin wilaya, the destination wilaya and the weight bracket of the parcel, so quotes
+ * are cached per {@link RateKey}:
+ * <ul>
+ *     <li>concurrent requests for a quote that is not cached yet share a single carrier call;</li>
+ *     <li>a quote older than {@code refresh-after-seconds} is still served while it is refreshed in the background;</li>
+ *     <li>a quote older than {@code expire-after-seconds}, because it could not be refreshed, is asked again;</li>
+ *     <li>a failed call is cached as a missing rate for {@code failure-expire-after-seconds}, so that a carrier answering
+ *     with errors is not asked again on every request;</li>
+ *     <li>the wilayas come from free-text addresses, so at most {@code max-entries} quotes are kept. When the cache is
+ *     full, expired quotes are dropped and, if there is still no room, quotes are asked without being cached.</li>
+ * </ul>
+ * A {@code refresh-after-seconds} of zero disables the cache and every quote calls the carrier.
+ */
+@Service
+public class ShippingRateQuoteService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ShippingRateQuoteService.class);
+
+    private final YalidineIntegrationService yalidineIntegrationService;
+    private final Executor executor;
+    private final long refreshAfterNanos;
+    private final long expireAfterNanos;
+    private final long failureExpireAfterNanos;
+    private final int maxEntries;
+    private final long waitTimeoutMs;
+    private final int weightBracketKg;
+    private final LongSupplier nanoClock;
+
+    private final ConcurrentMap<RateKey, CompletableFuture<Quote>> quotes = new ConcurrentHashMap<>();
+    private final Set<RateKey> refreshing = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public ShippingRateQuoteService(
+        YalidineIntegrationService yalidineIntegrationService,
+        @Qualifier("taskExecutor") Executor executor,
+        ApplicationProperties applicationProperties
+    ) {
+        this(yalidineIntegrationService, executor, applicationProperties, System::nanoTime);
+    }
+
+    ShippingRateQuoteService(
+        YalidineIntegrationService yalidineIntegrationService,
+        Executor executor,
+        ApplicationProperties applicationProperties,
+        LongSupplier nanoClock
+    ) {
+        ApplicationProperties.ShippingRates shippingRates = applicationProperties.getShippingRates();
+        this.yalidineIntegrationService = yalidineIntegrationService;
+        this.executor = executor;
+        this.refreshAfterNanos = Duration.ofSeconds(shippingRates.getRefreshAfterSeconds()).toNanos();
+        this.expireAfterNanos = Math.max(refreshAfterNanos, Duration.ofSeconds(shippingRates.getExpireAfterSeconds()).toNanos());
+        this.failureExpireAfterNanos = Duration.ofSeconds(shippingRates.getFailureExpireAfterSeconds()).toNanos();
+        this.maxEntries = Math.max(1, shippingRates.getMaxEntries());
+        this.waitTimeoutMs = shippingRates.getWaitTimeoutMs();
+        this.weightBracketKg = Math.max(1, shippingRates.getWeightBracketKg());
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Get the rate of a parcel, waiting for the carrier when the quote is not cached.
+     *
+     * @param from the pickup address
+     * @param to the delivery address
+     * @param weightKg the parcel weight, one kilogram when unknown
+     * @return the rate, empty when the addresses have no wilaya or the carrier gave no rate
+     */
+    public Optional<BigDecimal> getQuote(Address from, Address to, Double weightKg) {
+        RateRequest request = requestOf(from, to, weightKg);
+        if (request == null) {
+            return Optional.empty();
+        }
+        if (refreshAfterNanos <= 0) {
+            return fetch(request).toRate();
+        }
+
+        CompletableFuture<Quote> quote = cachedOrLoad(request, Runnable::run);
+        return quote != null ? quote.join().toRate() : fetch(request).toRate();
+    }
+
+    /**
+     * Get the rate of a parcel without blocking, a quote that is not cached being asked on the task executor. Lets a
+     * caller ask several quotes at once.
+     *
+     * @param from the pickup address
+     * @param to the delivery address
+     * @param weightKg the parcel weight, one kilogram when unknown
+     * @return the rate, empty when the addresses have no wilaya, the carrier gave no rate or did not answer within
+     * {@code wait-timeout-ms}
+     */
+    public CompletableFuture<Optional<BigDecimal>> getQuoteAsync(Address from, Address to, Double weightKg) {
+        RateRequest request = requestOf(from, to, weightKg);
+        if (request == null) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+
+        CompletableFuture<Quote> quote = refreshAfterNanos > 0 ? cachedOrLoad(request, executor) : null;
+        if (quote == null) {
+            quote = new CompletableFuture<>();
+            load(request, quote, executor);
+        }
+        // The timeout only gives up waiting, a quote still loading is cached once it arrives
+        return quote.thenApply(Quote::toRate).completeOnTimeout(Optional.empty(), waitTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get the rate of a parcel only if it is already cached, never waiting for the carrier. A missing quote is asked in
+     * the background so that it is ready for a later request.
+     *
+     * @param from the pickup address
+     * @param to the delivery address
+     * @param weightKg the parcel weight, one kilogram when unknown
+     * @return the cached rate, empty when it is not cached yet or the cache is disabled
+     */
+    public Optional<BigDecimal> getQuoteIfCached(Address from, Address to, Double weightKg) {
+        RateRequest request = requestOf(from, to, weightKg);
+        if (request == null || refreshAfterNanos <= 0) {
+            return Optional.empty();
+        }
+
+        CompletableFuture<Quote> quote = cachedOrLoad(request, executor);
+        if (quote == null || !quote.isDone()) {
+            return Optional.empty();
+        }
+        return quote.join().toRate();
+    }
+
+    /**
+     * The cached or loading quote of a key, loading it with the given executor when it is not cached.
+     *
+     * @return the quote, {@code null} when it is not cached and the cache is full
+     */
+    private CompletableFuture<Quote> cachedOrLoad(RateRequest request, Executor loader) {
+        CompletableFuture<Quote> quote = cachedOrLoading(request);
+        if (quote != null) {
+            return quote;
+        }
+        if (!hasRoom()) {
+            return null;
+        }
+
+        CompletableFuture<Quote> load = new CompletableFuture<>();
+        quote = quotes.putIfAbsent(request.key(), load);
+        if (quote != null) {
+            return quote;
+        }
+        load(request, load, loader);
+        return load;
+    }
+
+    private void load(RateRequest request, CompletableFuture<Quote> load, Executor loader) {
+        try {
+            loader.execute(() -> load.complete(fetch(request)));
+        } catch (RuntimeException e) {
+            LOG.warn("Could not schedule the shipping rate quote {}: {}", request.key(), e.getMessage());
+            load.complete(new Quote(null, nanoClock.getAsLong()));
+        }
+    }
+
+    /**
+     * The cached or loading quote of a key, scheduling a background refresh when it is stale.
+     *
+     * @return the quote, {@code null} when it is not cached or has expired
+     */
+    private CompletableFuture<Quote> cachedOrLoading(RateRequest request) {
+        CompletableFuture<Quote> quote = quotes.get(request.key());
+        if (quote == null || !quote.isDone()) {
+            return quote;
+        }
+
+        Quote cached = quote.join();
+        long age = nanoClock.getAsLong() - cached.loadedAt();
+        if (isExpired(cached, age)) {
+            quotes.remove(request.key(), quote);
+            return null;
+        }
+        if (cached.rate() != null && age > refreshAfterNanos) {
+            refresh(request);
+        }
+        return quote;
+    }
+
+    private boolean isExpired(Quote quote, long age) {
+        return age > (quote.rate() != null ? expireAfterNanos : failureExpireAfterNanos);
+    }
+
+    /**
+     * Whether a new quote can be cached, dropping the expired quotes first when the cache is full.
+     */
+    private boolean hasRoom() {
+        if (quotes.size() < maxEntries) {
+            return true;
+        }
+        long now = nanoClock.getAsLong();
+        quotes.forEach((key, quote) -> {
+            if (quote.isDone() && isExpired(quote.join(), now - quote.join().loadedAt())) {
+                quotes.remove(key, quote);
+            }
+        });
+        return quotes.size() < maxEntries;
+    }
+
+    /**
+     * Ask the carrier again in the background, keeping the current quote meanwhile and when the call fails.
+     */
+    private void refresh(RateRequest request) {
+        RateKey key = request.key();
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    Quote quote = fetch(request);
+                    if (quote.rate() != null) {
+                        quotes.put(key, CompletableFuture.completedFuture(quote));
+                    }
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshing.remove(key);
+            LOG.warn("Could not schedule the shipping rate refresh of {}: {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * Ask the carrier for a rate.
+     *
+     * @return the quote, without rate when the call failed
+     */
+    private Quote fetch(RateRequest request) {
+        try {
+            BigDecimal rate = yalidineIntegrationService.fetchRate(request.from(), request.to(), request.key().weightKg());
+            return new Quote(rate, nanoClock.getAsLong());
+        } catch (RuntimeException e) {
+            LOG.warn("Could not get the shipping rate of {}: {}", request.key(), e.getMessage());
+            return new Quote(null, nanoClock.getAsLong());
+        }
+    }
+
+    private RateRequest requestOf(Address from, Address to, Double weightKg) {
+        String fromWilaya = wilayaOf(from);
+        String toWilaya = wilayaOf(to);
+        if (fromWilaya == null || toWilaya == null) {
+            return null;
+        }
+        double weight = weightKg != null && weightKg > 0 ? weightKg : 1.0;
+        int brackets = (int) Math.ceil(weight / weightBracketKg);
+        RateKey key = new RateKey(keyOf(fromWilaya), keyOf(toWilaya), Math.max(1, brackets) * weightBracketKg);
+        return new RateRequest(key, fromWilaya, toWilaya);
+    }
+
+    /**
+     * The wilaya of an address as given, stored as its state, falling back to the city.
+     */
+    private static String wilayaOf(Address address) {
+        if (address == null) {
+            return null;
+        }
+        String wilaya = address.getState() != null && !address.getState().isBlank() ? address.getState() : address.getCity();
+        return wilaya != null && !wilaya.isBlank() ? wilaya : null;
+    }
+
+    /**
+     * The form of a wilaya the cache is keyed by, so that spellings differing in case or spacing share a quote.
+     */
+    private static String keyOf(String wilaya) {
+        return wilaya.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * What a carrier rate depends on, the weight being the upper bound of its bracket.
+     */
+    record RateKey(String from, String to, int weightKg) {}
+
+    /**
+     * A quote to ask, with the wilayas sent to the carrier as the addresses give them.
+     */
+    private record RateRequest(RateKey key, String from, String to) {}
+
+    /**
+     * A carrier answer, without rate when the call failed.
+     */
+    private record Quote(BigDecimal rate, long loadedAt) {
+        Optional<BigDecimal> toRate() {
+            return Optional.ofNullable(rate);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.adeem.stockflow.service;
+
+import com.adeem.stockflow.config.ApplicationProperties;
+import com.adeem.stockflow.config.CacheConstants;
+import com.adeem.stockflow.service.event.CatalogChangedEvent;
+import com.adeem.stockflow.service.event.CustomerAssociationsChangedEvent;
+import com.adeem.stockflow.service.event.CustomersChangedEvent;
+import com.adeem.stockflow.service.event.ProductFamiliesChangedEvent;
+import com.adeem.stockflow.service.event.SuppliersChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Caches the statistics of each tenant, one cache per {@link StatisticsType} keyed by client account id.
+ * <p>
+ * Entries are evicted once the change behind a domain event is committed, and otherwise expire with the cache TTL
+ * (which also bounds how stale another node's copy can get). Concurrent misses on the same entry share a single
+ * computation. Hits, misses and shared computations are counted in {@code statistics.cache.gets}, tagged by type and
+ * result.
+ */
+@Service
+public class StatisticsCacheService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StatisticsCacheService.class);
+
+    public enum StatisticsType {
+        CUSTOMER(CacheConstants.CUSTOMER_STATS_CACHE),
+        CUSTOMER_ASSOCIATION(CacheConstants.ASSOCIATION_STATS_CACHE),
+        SUPPLIER(CacheConstants.SUPPLIER_STATS_CACHE),
+        PRODUCT_FAMILY(CacheConstants.PRODUCT_FAMILY_STATS_CACHE),
+        INVENTORY(CacheConstants.INVENTORY_STATS_CACHE);
+
+        private final String cacheName;
+
+        StatisticsType(String cacheName) {
+            this.cacheName = cacheName;
+        }
+
+        public String getCacheName() {
+            return cacheName;
+        }
+    }
+
+    private final CacheManager cacheManager;
+    private final boolean enabled;
+    private final Map<StatisticsType, Counter> hits = new EnumMap<>(StatisticsType.class);
+    private final Map<StatisticsType, Counter> misses = new EnumMap<>(StatisticsType.class);
+    private final Map<StatisticsType, Counter> shared = new EnumMap<>(StatisticsType.class);
+    private final Map<Key, Load> loads = new ConcurrentHashMap<>();
+
+    public StatisticsCacheService(CacheManager cacheManager, MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        this.cacheManager = cacheManager;
+        this.enabled = applicationProperties.getStatisticsCache().isEnabled();
+        for (StatisticsType type : StatisticsType.values()) {
+            hits.put(type, getsCounter(meterRegistry, type, "hit"));
+            misses.put(type, getsCounter(meterRegistry, type, "miss"));
+            shared.put(type, getsCounter(meterRegistry, type, "shared"));
+        }
+    }
+
+    private static Counter getsCounter(MeterRegistry meterRegistry, StatisticsType type, String result) {
+        return Counter.builder("statistics.cache.gets")
+            .description("Tenant statistics requests, by whether they were served from the cache")
+            .tag("type", type.name().toLowerCase())
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Get the statistics of a tenant from the cache, computing them on a miss.
+     * When the same statistics are already being computed, the caller waits for that computation instead.
+     *
+     * @param type the statistics type
+     * @param clientAccountId the tenant
+     * @param loader computes the statistics, runs in the caller's transaction
+     * @return the statistics
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(StatisticsType type, Long clientAccountId, Supplier<T> loader) {
+        Cache cache = enabled && clientAccountId != null ? cacheManager.getCache(type.getCacheName()) : null;
+        if (cache == null) {
+            return loader.get();
+        }
+
+        Cache.ValueWrapper cached = cache.get(clientAccountId);
+        if (cached != null) {
+            hits.get(type).increment();
+            return (T) cached.get();
+        }
+
+        Key key = new Key(type, clientAccountId);
+        Load load = new Load();
+        Load running = loads.putIfAbsent(key, load);
+        if (running != null) {
+            shared.get(type).increment();
+            return (T) running.await();
+        }
+
+        misses.get(type).increment();
+        try {
+            T value = loader.get();
+            synchronized (load) {
+                // Not kept when the data changed while computing, the next request computes again
+                if (!load.invalidated) {
+                    cache.put(clientAccountId, value);
+                }
+            }
+            load.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(key, load);
+        }
+    }
+
+    /**
+     * Drop the cached statistics of a tenant, or of every tenant when {@code clientAccountId} is {@code null}.
+     *
+     * @param type the statistics type
+     * @param clientAccountId the tenant, may be {@code null}
+     */
+    public void evict(StatisticsType type, Long clientAccountId) {
+        loads.forEach((key, load) -> {
+            if (key.type() == type && (clientAccountId == null || clientAccountId.equals(key.clientAccountId()))) {
+                synchronized (load) {
+                    load.invalidated = true;
+                }
+            }
+        });
+
+        Cache cache = cacheManager.getCache(type.getCacheName());
+        if (cache == null) {
+            return;
+        }
+        if (clientAccountId == null) {
+            cache.clear();
+        } else {
+            cache.evict(clientAccountId);
+        }
+        LOG.debug("Evicted {} statistics of client account {}", type, clientAccountId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCustomersChanged(CustomersChangedEvent event) {
+        evict(StatisticsType.CUSTOMER, event.clientAccountId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCustomerAssociationsChanged(CustomerAssociationsChangedEvent event) {
+        // Customer statistics include the association counts
+        evict(StatisticsType.CUSTOMER_ASSOCIATION, event.clientAccountId());
+        evict(StatisticsType.CUSTOMER, event.clientAccountId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSuppliersChanged(SuppliersChangedEvent event) {
+        evict(StatisticsType.SUPPLIER, event.clientAccountId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductFamiliesChanged(ProductFamiliesChangedEvent event) {
+        evict(StatisticsType.PRODUCT_FAMILY, event.clientAccountId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        // Family statistics include product counts, stock levels and inventory value
+        evict(StatisticsType.INVENTORY, event.clientAccountId());
+        evict(StatisticsType.PRODUCT_FAMILY, event.clientAccountId());
+    }
+
+    private record Key(StatisticsType type, Long clientAccountId) {}
+
+    /**
+     * A computation in progress, callers arriving meanwhile wait for its result.
+     */
+    private static final class Load extends CompletableFuture<Object> {
+
+        private boolean invalidated;
+
+        Object await() {
+            try {
+                return get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for statistics", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.adeem.stockflow.service;
+
+import com.adeem.stockflow.domain.ClientAccount;
+import com.adeem.stockflow.domain.Inventory;
+import com.adeem.stockflow.domain.InventoryTransaction;
+import com.adeem.stockflow.domain.Product;
+import com.adeem.stockflow.domain.SaleOrder;
+import com.adeem.stockflow.domain.SaleOrderItem;
+import com.adeem.stockflow.domain.enumeration.TransactionType;
+import com.adeem.stockflow.repository.InventoryRepository;
+import com.adeem.stockflow.repository.projection.StockMovementLineProjection;
+import com.adeem.stockflow.service.dto.InventoryValidationDTO;
+import com.adeem.stockflow.service.event.CatalogChangedEvent;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Applies the stock movements of a whole {@link SaleOrder} as a single guarded, set-based update.
+ * <p>
+ * The statement first locks the order's inventory rows in id order, then applies the movement only if every line
+ * passes its guard ({@code available_quantity >= requested}). The guard alone prevents overselling, but two orders
+ * sharing products would then lock their rows in update order and could deadlock; taking the locks in one global
+ * order makes the later order wait for the earlier one instead. The rows are locked for the statement's transaction
+ * only, and one statement covers the whole order.
+ */
+@Service
+@Transactional
+public class StockReservationService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StockReservationService.class);
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryTransactionService inventoryTransactionService;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public StockReservationService(
+        InventoryRepository inventoryRepository,
+        InventoryTransactionService inventoryTransactionService,
+        EntityManager entityManager,
+        ApplicationEventPublisher eventPublisher
+    ) {
+        this.inventoryRepository = inventoryRepository;
+        this.inventoryTransactionService = inventoryTransactionService;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Apply a RESERVATION, RESERVATION_RELEASE or SALE movement for every item of an order.
+     * Nothing is written when a line fails; the caller is expected to abort its transaction on an invalid result.
+     *
+     * @param saleOrder the order whose items are moved
+     * @param transactionType the movement to apply
+     * @return the validation result, with one error per failed line
+     */
+    public InventoryValidationDTO applyOrderMovement(SaleOrder saleOrder, TransactionType transactionType) {
+        Long clientAccountId = saleOrder.getClientAccount().getId();
+        LOG.debug("Request to apply {} for SaleOrder : {}", transactionType, saleOrder.getId());
+
+        // Lines of the same product are merged so the guard sees the order's full demand, in product order so that
+        // every movement touches the inventory rows in the same order
+        Map<Long, BigDecimal> quantities = new TreeMap<>();
+        Map<Long, Product> products = new LinkedHashMap<>();
+        for (SaleOrderItem item : saleOrder.getOrderItems()) {
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), BigDecimal::add);
+            products.putIfAbsent(item.getProduct().getId(), item.getProduct());
+        }
+
+        String productIds = quantities.keySet().stream().map(String::valueOf).collect(Collectors.joining(","));
+        String amounts = quantities.values().stream().map(BigDecimal::toPlainString).collect(Collectors.joining(","));
+
+        List<StockMovementLineProjection> lines =
+            switch (transactionType) {
+                case RESERVATION -> inventoryRepository.reserveStock(clientAccountId, productIds, amounts);
+                case RESERVATION_RELEASE -> inventoryRepository.releaseStock(clientAccountId, productIds, amounts);
+                case SALE -> inventoryRepository.consumeStock(clientAccountId, productIds, amounts);
+                default -> throw new IllegalArgumentException("Unsupported order movement: " + transactionType);
+            };
+
+        List<StockMovementLineProjection> rejected = new ArrayList<>();
+        List<StockMovementLineProjection> notApplied = new ArrayList<>();
+        for (StockMovementLineProjection line : lines) {
+            if (Boolean.TRUE.equals(line.getApplied())) {
+                synchronizeInventory(line.getInventoryId());
+            }
+            if (isRejected(line, transactionType)) {
+                rejected.add(line);
+            } else if (!Boolean.TRUE.equals(line.getApplied())) {
+                notApplied.add(line);
+            }
+        }
+
+        // Lines blocked only because another line was rejected are not errors; without rejections, an
+        // unapplied line means a concurrent movement consumed the stock between the check and the update
+        List<InventoryValidationDTO.InventoryValidationErrorDTO> errors = (rejected.isEmpty() ? notApplied : rejected).stream()
+            .map(line -> createLineError(line, products.get(line.getProductId()), transactionType))
+            .toList();
+
+        InventoryValidationDTO result = new InventoryValidationDTO();
+        result.setErrors(errors);
+        result.setValid(errors.isEmpty());
+        if (result.isValid()) {
+            recordTransactions(saleOrder, transactionType);
+            eventPublisher.publishEvent(new CatalogChangedEvent(clientAccountId));
+        }
+        return result;
+    }
+
+    /**
+     * The update bypassed Hibernate: drop the second-level cache entry and reload the row if this session already holds it.
+     */
+    private void synchronizeInventory(Long inventoryId) {
+        entityManager.getEntityManagerFactory().getCache().evict(Inventory.class, inventoryId);
+        Inventory inventory = entityManager.getReference(Inventory.class, inventoryId);
+        if (entityManager.getEntityManagerFactory().getPersistenceUnitUtil().isLoaded(inventory)) {
+            entityManager.refresh(inventory);
+        }
+    }
+
+    private void recordTransactions(SaleOrder saleOrder, TransactionType transactionType) {
+        ClientAccount clientAccount = saleOrder.getClientAccount();
+        List<InventoryTransaction> transactions = new ArrayList<>();
+        for (SaleOrderItem item : saleOrder.getOrderItems()) {
+            transactions.add(
+                inventoryTransactionService.createEntity(
+                    item.getQuantity(),
+                    transactionType,
+                    item.getProduct(),
+                    clientAccount,
+                    inventoryTransactionService.generateReference(clientAccount.getId())
+                )
+            );
+        }
+        inventoryTransactionService.saveAll(transactions);
+    }
+
+    private boolean isRejected(StockMovementLineProjection line, TransactionType transactionType) {
+        if (line.getInventoryId() == null) {
+            return true;
+        }
+        return switch (transactionType) {
+            case RESERVATION -> line.getAvailableQuantity().compareTo(line.getRequestedQuantity()) < 0;
+            case SALE -> line.getQuantity().compareTo(line.getRequestedQuantity()) < 0;
+            default -> false;
+        };
+    }
+
+    private InventoryValidationDTO.InventoryValidationErrorDTO createLineError(
+        StockMovementLineProjection line,
+        Product product,
+        TransactionType transactionType
+    ) {
+        String productName = product != null ? product.getName() : String.valueOf(line.getProductId());
+
+        InventoryValidationDTO.InventoryValidationErrorDTO error = new InventoryValidationDTO.InventoryValidationErrorDTO();
+        error.setProductId(line.getProductId());
+        error.setProductName(productName);
+        error.setRequestedQuantity(line.getRequestedQuantity());
+        error.setAvailableQuantity(line.getAvailableQuantity() != null ? line.getAvailableQuantity() : BigDecimal.ZERO);
+
+        if (line.getInventoryId() == null) {
+            error.setMessage(String.format("Product %s not found in inventory", productName));
+        } else if (!isRejected(line, transactionType)) {
+            error.setMessage(String.format("Stock of product %s was changed by a concurrent operation", productName));
+        } else if (transactionType == TransactionType.SALE) {
+            error.setMessage(
+                String.format(
+                    "Cannot complete sale of %s units. Only %s total for product %s",
+                    line.getRequestedQuantity(),
+                    line.getQuantity(),
+                    productName
+                )
+            );
+        } else {
+            error.setMessage(String.format("Product %s has only %s units available", productName, line.getAvailableQuantity()));
+        }
+        return error;
+    }
+}
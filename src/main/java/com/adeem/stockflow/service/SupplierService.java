@@ -1,17 +1,22 @@
 package com.adeem.stockflow.service;
 
+import com.adeem.stockflow.config.ApplicationProperties;
 import com.adeem.stockflow.config.Constants;
 import com.adeem.stockflow.domain.Address;
 import com.adeem.stockflow.domain.ClientAccount;
 import com.adeem.stockflow.domain.Supplier;
 import com.adeem.stockflow.domain.enumeration.AddressType;
+import com.adeem.stockflow.domain.enumeration.MeteredResource;
 import com.adeem.stockflow.repository.AddressRepository;
 import com.adeem.stockflow.repository.ClientAccountRepository;
 import com.adeem.stockflow.repository.SupplierRepository;
 import com.adeem.stockflow.repository.projection.SupplierActivityProjection;
 import com.adeem.stockflow.repository.projection.SupplierStatsProjection;
 import com.adeem.stockflow.repository.projection.TopSuppliersProjection;
+import com.adeem.stockflow.service.StatisticsCacheService.StatisticsType;
+import com.adeem.stockflow.service.criteria.AutocompleteQuery;
 import com.adeem.stockflow.service.dto.*;
+import com.adeem.stockflow.service.event.SuppliersChangedEvent;
 import com.adeem.stockflow.service.exceptions.BadRequestAlertException;
 import com.adeem.stockflow.service.exceptions.ErrorConstants;
 import com.adeem.stockflow.service.mapper.AddressMapper;
@@ -26,8 +31,7 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -51,19 +55,31 @@ public class SupplierService {
     private final SupplierMapper supplierMapper;
     private final AddressMapper addressMapper;
     private final AddressRepository addressRepository;
+    private final StatisticsCacheService statisticsCacheService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ApplicationProperties applicationProperties;
+    private final QuotaEnforcementService quotaEnforcementService;
 
     public SupplierService(
         SupplierRepository supplierRepository,
         ClientAccountRepository clientAccountRepository,
         SupplierMapper supplierMapper,
         AddressMapper addressMapper,
-        AddressRepository addressRepository
+        AddressRepository addressRepository,
+        StatisticsCacheService statisticsCacheService,
+        ApplicationEventPublisher eventPublisher,
+        ApplicationProperties applicationProperties,
+        QuotaEnforcementService quotaEnforcementService
     ) {
         this.supplierRepository = supplierRepository;
         this.clientAccountRepository = clientAccountRepository;
         this.supplierMapper = supplierMapper;
         this.addressMapper = addressMapper;
         this.addressRepository = addressRepository;
+        this.statisticsCacheService = statisticsCacheService;
+        this.eventPublisher = eventPublisher;
+        this.applicationProperties = applicationProperties;
+        this.quotaEnforcementService = quotaEnforcementService;
     }
 
     /**
@@ -73,7 +89,6 @@ public class SupplierService {
      * @param addressDTO the optional address data
      * @return the persisted supplier
      */
-    //@CacheEvict(value = "supplierStats", key = "#supplierDTO.clientAccountId")
     public SupplierDTO create(SupplierDTO supplierDTO, AddressDTO addressDTO) {
         LOG.debug("Request to create Supplier : {}", supplierDTO);
 
@@ -83,6 +98,9 @@ public class SupplierService {
         if (supplierDTO.getActive() == null) {
             supplierDTO.setActive(true);
         }
+        if (supplierDTO.getActive()) {
+            quotaEnforcementService.acquire(supplierDTO.getClientAccountId(), MeteredResource.SUPPLIERS);
+        }
 
         // Handle address if provided
         if (addressDTO != null) {
@@ -103,7 +121,6 @@ public class SupplierService {
      * @param addressDTO the optional address data
      * @return the updated supplier
      */
-    //@CacheEvict(value = "supplierStats", key = "#supplierDTO.clientAccountId")
     public SupplierDTO update(SupplierDTO supplierDTO, AddressDTO addressDTO) {
         LOG.debug("Request to update Supplier : {}", supplierDTO);
 
@@ -127,6 +144,7 @@ public class SupplierService {
 
         existingSupplier.setIsPersisted();
         Supplier updatedSupplier = supplierRepository.save(existingSupplier);
+        eventPublisher.publishEvent(new SuppliersChangedEvent(supplierDTO.getClientAccountId()));
         return supplierMapper.toDto(updatedSupplier);
     }
 
@@ -163,6 +181,7 @@ public class SupplierService {
         }
 
         supplier = supplierRepository.save(supplier);
+        eventPublisher.publishEvent(new SuppliersChangedEvent(supplierDTO.getClientAccountId()));
         return supplierMapper.toDto(supplier);
     }
 
@@ -230,13 +249,41 @@ public class SupplierService {
         return supplierRepository.searchSuppliers(query.trim(), clientAccountId, pageable).map(supplierMapper::toDto);
     }
 
+    /**
+     * Type-ahead suggestions among the active suppliers, best match first.
+     * Matches names, company, phone, email and tax id as a substring or with typos, see {@link AutocompleteQuery}.
+     *
+     * @param query the text typed so far, at least {@code application.autocomplete.min-length} characters
+     * @param size the number of suggestions, capped by {@code application.autocomplete.max-results}
+     * @param clientAccountId the client account ID
+     * @return the suggestions
+     */
+    @Transactional(readOnly = true)
+    public List<SupplierDTO> autocompleteSuppliers(String query, Integer size, Long clientAccountId) {
+        LOG.debug("Request to autocomplete Suppliers with query : {} for client account : {}", query, clientAccountId);
+        AutocompleteQuery autocomplete = AutocompleteQuery.of(query, size, applicationProperties.getAutocomplete(), "supplier");
+
+        List<Long> ids = supplierRepository.autocompleteIds(
+            autocomplete.getTerm(),
+            autocomplete.getPattern(),
+            clientAccountId,
+            autocomplete.getLimit()
+        );
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return AutocompleteQuery.inRankOrder(ids, supplierRepository.findAllById(ids), Supplier::getId)
+            .stream()
+            .map(supplierMapper::toDto)
+            .toList();
+    }
+
     /**
      * Soft delete the supplier by id.
      *
      * @param id the id of the entity
      * @param clientAccountId the client account ID
      */
-    //@CacheEvict(value = "supplierStats", key = "#clientAccountId")
     public void softDelete(Long id, Long clientAccountId) {
         LOG.debug("Request to soft delete Supplier : {} for client account : {}", id, clientAccountId);
 
@@ -249,11 +296,16 @@ public class SupplierService {
             );
         }
 
+        boolean wasActive = isActive(id, clientAccountId);
         int updatedRows = supplierRepository.softDeleteSupplier(id, clientAccountId);
         if (updatedRows == 0) {
             throw new BadRequestAlertException("Supplier not found or access denied", "supplier", ErrorConstants.NOT_FOUND);
         }
+        if (wasActive) {
+            quotaEnforcementService.release(clientAccountId, MeteredResource.SUPPLIERS, 1);
+        }
 
+        eventPublisher.publishEvent(new SuppliersChangedEvent(clientAccountId));
         LOG.info("Soft deleted supplier {} for client account {}", id, clientAccountId);
     }
 
@@ -263,15 +315,18 @@ public class SupplierService {
      * @param id the id of the entity
      * @param clientAccountId the client account ID
      */
-    //@CacheEvict(value = "supplierStats", key = "#clientAccountId")
     public void reactivate(Long id, Long clientAccountId) {
         LOG.debug("Request to reactivate Supplier : {} for client account : {}", id, clientAccountId);
 
+        if (!isActive(id, clientAccountId)) {
+            quotaEnforcementService.acquire(clientAccountId, MeteredResource.SUPPLIERS);
+        }
         int updatedRows = supplierRepository.reactivateSupplier(id, clientAccountId);
         if (updatedRows == 0) {
             throw new BadRequestAlertException("Supplier not found or access denied", "supplier", ErrorConstants.NOT_FOUND);
         }
 
+        eventPublisher.publishEvent(new SuppliersChangedEvent(clientAccountId));
         LOG.info("Reactivated supplier {} for client account {}", id, clientAccountId);
     }
 
@@ -282,11 +337,13 @@ public class SupplierService {
      * @param clientAccountId the client account ID
      * @return the supplier statistics
      */
-    //@Cacheable(value = "supplierStats", key = "#clientAccountId")
     @Transactional(readOnly = true)
     public SupplierStatsDTO getSupplierStatistics(Long clientAccountId) {
         LOG.debug("Request to get Supplier statistics for client account : {}", clientAccountId);
+        return statisticsCacheService.get(StatisticsType.SUPPLIER, clientAccountId, () -> computeSupplierStatistics(clientAccountId));
+    }
 
+    private SupplierStatsDTO computeSupplierStatistics(Long clientAccountId) {
         SupplierStatsDTO stats = new SupplierStatsDTO();
 
         // Query 1: Get comprehensive supplier overview statistics in one query
@@ -397,6 +454,16 @@ public class SupplierService {
 
     // Private helper methods
 
+    /**
+     * Whether the supplier exists and is active, i.e. counts against the supplier quota.
+     */
+    private boolean isActive(Long id, Long clientAccountId) {
+        return supplierRepository
+            .findByIdAndClientAccountId(id, clientAccountId)
+            .map(supplier -> Boolean.TRUE.equals(supplier.getActive()))
+            .orElse(false);
+    }
+
     /**
      * Validate supplier data.
      */
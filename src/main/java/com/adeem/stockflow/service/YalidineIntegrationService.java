@@ -1,7 +1,7 @@
 package com.adeem.stockflow.service;
 
-import com.adeem.stockflow.domain.Address;
 import com.adeem.stockflow.domain.ClientAccount;
+import com.adeem.stockflow.service.carrier.CarrierHttpClient;
 import com.adeem.stockflow.service.dto.yalidine.*;
 import com.adeem.stockflow.service.dto.yalidine.CreateYalidineShipmentRequest;
 import com.adeem.stockflow.service.dto.yalidine.YalidineShipmentResponse;
@@ -13,32 +13,25 @@ import java.util.HashMap;
 import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
 
 /**
  * Service for integrating with Yalidine delivery API.
  * Handles shipment creation, tracking, and status updates.
+ * Calls go through the pooled {@link CarrierHttpClient}, bounded by its timeouts, call slots and circuit breaker.
  */
 @Service
 public class YalidineIntegrationService {
 
     private static final Logger LOG = LoggerFactory.getLogger(YalidineIntegrationService.class);
 
-    @Value("${app.yalidine.api.base-url:https://api.yalidine.app}")
-    private String yalidineBaseUrl;
-
-    @Value("${app.yalidine.api.timeout:30000}")
-    private int apiTimeout;
-
-    private final RestTemplate restTemplate;
+    private final CarrierHttpClient yalidineHttpClient;
     private final ObjectMapper objectMapper;
 
-    public YalidineIntegrationService(RestTemplate restTemplate, ObjectMapper objectMapper) {
-        this.restTemplate = restTemplate;
+    public YalidineIntegrationService(CarrierHttpClient yalidineHttpClient, ObjectMapper objectMapper) {
+        this.yalidineHttpClient = yalidineHttpClient;
         this.objectMapper = objectMapper;
     }
 
@@ -54,21 +47,21 @@ public class YalidineIntegrationService {
         validateYalidineConfiguration(request.getClientAccount());
 
         try {
-            String url = yalidineBaseUrl + "/api/v1/packages";
-
             HttpHeaders headers = createAuthHeaders(request.getClientAccount());
             headers.setContentType(MediaType.APPLICATION_JSON);
 
             // Map our request to Yalidine API format
             Map<String, Object> yalidinePayload = mapToYalidineRequest(request);
 
-            HttpEntity<Map<String, Object>> requestEntity = new HttpEntity<>(yalidinePayload, headers);
-
-            ResponseEntity<YalidineApiResponse> response = restTemplate.exchange(
-                url,
-                HttpMethod.POST,
-                requestEntity,
-                YalidineApiResponse.class
+            // Not idempotent, only retried when the request could not be sent
+            ResponseEntity<YalidineApiResponse> response = yalidineHttpClient.call("create-shipment", false, client ->
+                client
+                    .post()
+                    .uri("/api/v1/packages")
+                    .headers(h -> h.addAll(headers))
+                    .body(yalidinePayload)
+                    .retrieve()
+                    .toEntity(YalidineApiResponse.class)
             );
 
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
@@ -101,19 +94,14 @@ public class YalidineIntegrationService {
         LOG.debug("Getting Yalidine tracking info for shipment: {}", yalidineShipmentId);
 
         try {
-            String url = yalidineBaseUrl + "/api/v1/packages/" + yalidineShipmentId + "/tracking";
-
             // Note: For tracking, we might need different auth or public access
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
-            HttpEntity<?> requestEntity = new HttpEntity<>(headers);
-
-            ResponseEntity<YalidineTrackingApiResponse> response = restTemplate.exchange(
-                url,
-                HttpMethod.GET,
-                requestEntity,
-                YalidineTrackingApiResponse.class
+            ResponseEntity<YalidineTrackingApiResponse> response = yalidineHttpClient.call("tracking", true, client ->
+                client
+                    .get()
+                    .uri("/api/v1/packages/{id}/tracking", yalidineShipmentId)
+                    .accept(MediaType.APPLICATION_JSON)
+                    .retrieve()
+                    .toEntity(YalidineTrackingApiResponse.class)
             );
 
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
@@ -163,45 +151,38 @@ public class YalidineIntegrationService {
     }
 
     /**
-     * Calculate shipping cost using Yalidine rates.
+     * Ask Yalidine for the rate of a parcel, without falling back to a default.
      *
-     * @param fromAddress the pickup address.
-     * @param toAddress the delivery address.
-     * @param weight the package weight.
-     * @return the calculated shipping cost.
+     * @param from the pickup city or wilaya.
+     * @param to the delivery city or wilaya.
+     * @param weight the package weight in kilograms.
+     * @return the rate.
+     * @throws YalidineApiException if Yalidine could not be reached or gave no rate.
      */
-    public BigDecimal calculateShippingCost(Address fromAddress, Address toAddress, Double weight) {
-        LOG.debug("Calculating Yalidine shipping cost from {} to {}", fromAddress.getCity(), toAddress.getCity());
+    public BigDecimal fetchRate(String from, String to, double weight) {
+        Map<String, Object> requestPayload = new HashMap<>();
+        requestPayload.put("from_city", from);
+        requestPayload.put("to_city", to);
+        requestPayload.put("weight", weight);
 
         try {
-            String url = yalidineBaseUrl + "/api/v1/rates";
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
-            Map<String, Object> requestPayload = new HashMap<>();
-            requestPayload.put("from_city", fromAddress.getCity());
-            requestPayload.put("to_city", toAddress.getCity());
-            requestPayload.put("weight", weight != null ? weight : 1.0);
-
-            HttpEntity<Map<String, Object>> requestEntity = new HttpEntity<>(requestPayload, headers);
-
-            ResponseEntity<YalidineRateResponse> response = restTemplate.exchange(
-                url,
-                HttpMethod.POST,
-                requestEntity,
-                YalidineRateResponse.class
+            // A rate quote has no side effect, it can be asked again
+            ResponseEntity<YalidineRateResponse> response = yalidineHttpClient.call("rates", true, client ->
+                client
+                    .post()
+                    .uri("/api/v1/rates")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(requestPayload)
+                    .retrieve()
+                    .toEntity(YalidineRateResponse.class)
             );
 
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null && response.getBody().getRate() != null) {
                 return response.getBody().getRate();
-            } else {
-                LOG.warn("Failed to get Yalidine rate, using default");
-                return BigDecimal.valueOf(500); // Default rate in DZD
             }
-        } catch (Exception e) {
-            LOG.warn("Error calculating Yalidine rate: {}, using default", e.getMessage());
-            return BigDecimal.valueOf(500); // Default rate in DZD
+            throw new YalidineApiException("Failed to get Yalidine rate: HTTP " + response.getStatusCode());
+        } catch (RestClientException e) {
+            throw new YalidineApiException("Failed to get rate from Yalidine API: " + e.getMessage(), e);
         }
     }
 
@@ -214,18 +195,17 @@ public class YalidineIntegrationService {
         LOG.debug("Cancelling Yalidine shipment: {}", yalidineShipmentId);
 
         try {
-            String url = yalidineBaseUrl + "/api/v1/packages/" + yalidineShipmentId + "/cancel";
-
             HttpHeaders headers = createAuthHeaders(clientAccount);
             headers.setContentType(MediaType.APPLICATION_JSON);
 
-            HttpEntity<?> requestEntity = new HttpEntity<>(headers);
-
-            ResponseEntity<YalidineApiResponse> response = restTemplate.exchange(
-                url,
-                HttpMethod.POST,
-                requestEntity,
-                YalidineApiResponse.class
+            // Cancelling twice leaves the shipment cancelled
+            ResponseEntity<YalidineApiResponse> response = yalidineHttpClient.call("cancel-shipment", true, client ->
+                client
+                    .post()
+                    .uri("/api/v1/packages/{id}/cancel", yalidineShipmentId)
+                    .headers(h -> h.addAll(headers))
+                    .retrieve()
+                    .toEntity(YalidineApiResponse.class)
             );
 
             if (!response.getStatusCode().is2xxSuccessful()) {
@@ -1,7 +1,7 @@
 package com.adeem.stockflow.service.batch;
 
+import com.adeem.stockflow.service.dto.batch.ExcelRow;
 import java.util.*;
-import org.apache.poi.ss.usermodel.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -15,7 +15,7 @@ public class HeaderDetecterService {
     private static final Logger LOG = LoggerFactory.getLogger(HeaderDetecterService.class);
 
     // Maximum number of rows to check for headers
-    private static final int MAX_HEADER_ROWS = 10;
+    public static final int MAX_HEADER_ROWS = 10;
 
     // Minimum number of mandatory fields required to consider a row as header
     private static final int MIN_MANDATORY_FIELDS = 3;
@@ -190,30 +190,29 @@ public class HeaderDetecterService {
     }
 
     /**
-     * Detect the header row in an Excel sheet.
+     * Detect the header row among the first rows of an Excel sheet.
+     * Only rows within the first {@link #MAX_HEADER_ROWS} are considered, so readers can stream the rest of the sheet.
      *
-     * @param sheet The Excel sheet to analyze
+     * @param rows the leading rows of the sheet, in sheet order
      * @return HeaderDetectionResult containing the header row number and column mappings
      */
-    public HeaderDetectionResult detectHeaders(Sheet sheet) {
-        LOG.debug("Starting header detection for sheet: {}", sheet.getSheetName());
+    public HeaderDetectionResult detectHeaders(List<ExcelRow> rows) {
+        LOG.debug("Starting header detection on {} leading rows", rows.size());
 
-        if (sheet.getPhysicalNumberOfRows() == 0) {
+        if (rows.isEmpty()) {
             return HeaderDetectionResult.notFound("Sheet is empty");
         }
 
-        int maxRowsToCheck = Math.min(MAX_HEADER_ROWS, sheet.getPhysicalNumberOfRows());
         HeaderDetectionResult bestResult = null;
         int bestScore = 0;
 
         // Check each row as potential header
-        for (int rowIndex = 0; rowIndex < maxRowsToCheck; rowIndex++) {
-            Row row = sheet.getRow(rowIndex);
-            if (row == null) {
-                continue;
+        for (ExcelRow row : rows) {
+            if (row.rowIndex() >= MAX_HEADER_ROWS) {
+                break;
             }
 
-            HeaderDetectionResult result = analyzeRowAsHeader(row, rowIndex);
+            HeaderDetectionResult result = analyzeRowAsHeader(row);
             if (result.getScore() > bestScore) {
                 bestScore = result.getScore();
                 bestResult = result;
@@ -221,7 +220,7 @@ public class HeaderDetecterService {
 
             // If we found a very good match, we can stop looking
             if (result.getScore() >= MIN_MANDATORY_FIELDS * 2) {
-                LOG.debug("Found excellent header match at row {} with score {}", rowIndex + 1, result.getScore());
+                LOG.debug("Found excellent header match at row {} with score {}", row.rowIndex() + 1, result.getScore());
                 break;
             }
         }
@@ -237,26 +236,22 @@ public class HeaderDetecterService {
     /**
      * Analyze a specific row to see if it could be a header row.
      */
-    private HeaderDetectionResult analyzeRowAsHeader(Row row, int rowIndex) {
+    private HeaderDetectionResult analyzeRowAsHeader(ExcelRow row) {
         Map<String, Integer> columnMappings = new HashMap<>();
         Map<String, String> detectedColumns = new HashMap<>();
         int score = 0;
 
         // Check each cell in the row
-        for (Cell cell : row) {
-            if (cell == null) {
-                continue;
-            }
-
-            String cellValue = getCellValueAsString(cell);
-            if (cellValue == null || cellValue.trim().isEmpty()) {
+        for (Map.Entry<Integer, String> cell : row.cells().entrySet()) {
+            String cellValue = cell.getValue();
+            if (cellValue.trim().isEmpty()) {
                 continue;
             }
 
             // Try to match this cell value to known column types
             String matchedColumn = findBestColumnMatch(cellValue);
             if (matchedColumn != null) {
-                columnMappings.put(matchedColumn, cell.getColumnIndex());
+                columnMappings.put(matchedColumn, cell.getKey());
                 detectedColumns.put(matchedColumn, cellValue);
 
                 // Give higher score to mandatory fields
@@ -276,7 +271,7 @@ public class HeaderDetecterService {
         }
 
         return new HeaderDetectionResult(
-            rowIndex,
+            row.rowIndex(),
             columnMappings,
             detectedColumns,
             score,
@@ -331,43 +326,6 @@ public class HeaderDetecterService {
             .replaceAll("[^a-z0-9_]", "");
     }
 
-    /**
-     * Get cell value as string regardless of cell type.
-     */
-    private String getCellValueAsString(Cell cell) {
-        if (cell == null) {
-            return null;
-        }
-
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                // Check if it's a date
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getDateCellValue().toString();
-                } else {
-                    // Format as integer if it's a whole number
-                    double numericValue = cell.getNumericCellValue();
-                    if (numericValue == Math.floor(numericValue)) {
-                        return String.valueOf((long) numericValue);
-                    } else {
-                        return String.valueOf(numericValue);
-                    }
-                }
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                try {
-                    return cell.getStringCellValue();
-                } catch (Exception e) {
-                    return String.valueOf(cell.getNumericCellValue());
-                }
-            default:
-                return null;
-        }
-    }
-
     /**
      * Check if we have all mandatory fields.
      */
@@ -0,0 +1,68 @@
+package com.adeem.stockflow.service.carrier;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Consecutive-failure circuit breaker of a {@link CarrierHttpClient}.
+ * <p>
+ * After {@code failureThreshold} failures in a row calls are rejected for {@code openDurationNanos}, then a single trial
+ * call is let through: its success closes the circuit, its failure opens it again.
+ */
+class CarrierCircuitBreaker {
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN,
+    }
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final LongSupplier nanoClock;
+
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+
+    CarrierCircuitBreaker(int failureThreshold, long openDurationNanos, LongSupplier nanoClock) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDurationNanos = openDurationNanos;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return whether a call may be sent, moves an open circuit whose delay has passed to half-open
+     */
+    synchronized boolean tryAcquirePermission() {
+        return switch (state) {
+            case CLOSED -> true;
+            // The trial call is still running
+            case HALF_OPEN -> false;
+            case OPEN -> {
+                if (nanoClock.getAsLong() - openedAt < openDurationNanos) {
+                    yield false;
+                }
+                state = State.HALF_OPEN;
+                yield true;
+            }
+        };
+    }
+
+    synchronized void onSuccess() {
+        failures = 0;
+        state = State.CLOSED;
+    }
+
+    synchronized void onFailure() {
+        failures++;
+        if (state == State.HALF_OPEN || failures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = nanoClock.getAsLong();
+            failures = 0;
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,224 @@
+package com.adeem.stockflow.service.carrier;
+
+import com.adeem.stockflow.config.ApplicationProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.net.ConnectException;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * HTTP client of a carrier API.
+ * <p>
+ * Requests go through a single pooled JDK {@link HttpClient} (HTTP/2 when the carrier offers it, running on virtual
+ * threads) with connect and read timeouts, so a slow carrier holds a caller for a bounded time only:
+ * <ul>
+ *     <li>at most {@code maxConcurrentCalls} requests are in flight, other callers wait {@code acquireTimeoutMs} for a slot
+ *     then fail;</li>
+ *     <li>connection errors and 429/502/503/504 answers are retried with a jittered exponential backoff, requests that are
+ *     not idempotent only when they were never sent;</li>
+ *     <li>after {@code failureThreshold} failures in a row the circuit opens and calls fail at once until a trial call
+ *     succeeds.</li>
+ * </ul>
+ * Rejected calls throw {@link CarrierUnavailableException}. Every try is timed in the {@code carrier.client.requests}
+ * histogram, tagged with the carrier, the operation and the outcome.
+ */
+public class CarrierHttpClient implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CarrierHttpClient.class);
+
+    private final String carrier;
+    private final ExecutorService executor;
+    private final HttpClient httpClient;
+    private final RestClient restClient;
+    private final Semaphore slots;
+    private final long acquireTimeoutMs;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final CarrierCircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+
+    public CarrierHttpClient(
+        String carrier,
+        ApplicationProperties.Carrier.Client settings,
+        RestClient.Builder restClientBuilder,
+        MeterRegistry meterRegistry
+    ) {
+        this.carrier = carrier;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofMillis(settings.getConnectTimeoutMs()))
+            .executor(executor)
+            .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(settings.getReadTimeoutMs()));
+        this.restClient = restClientBuilder.baseUrl(settings.getBaseUrl()).requestFactory(requestFactory).build();
+        this.slots = new Semaphore(Math.max(1, settings.getMaxConcurrentCalls()), true);
+        this.acquireTimeoutMs = settings.getAcquireTimeoutMs();
+        this.maxAttempts = Math.max(1, settings.getMaxAttempts());
+        this.retryBackoffMs = settings.getRetryBackoffMs();
+        this.circuitBreaker = new CarrierCircuitBreaker(
+            settings.getFailureThreshold(),
+            TimeUnit.MILLISECONDS.toNanos(settings.getOpenDurationMs()),
+            System::nanoTime
+        );
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("carrier.client.circuit.open", circuitBreaker, breaker ->
+            breaker.getState() == CarrierCircuitBreaker.State.CLOSED ? 0 : 1
+        )
+            .description("Whether calls to the carrier are currently rejected without being sent")
+            .tag("carrier", carrier)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Send a request to the carrier.
+     *
+     * @param operation the operation name, used in the metrics and logs
+     * @param idempotent whether the request may be sent twice, otherwise it is only retried when it was never sent
+     * @param request builds and sends the request with the given client, relative to the carrier's base URL
+     * @return the request's result
+     * @throws CarrierUnavailableException if the call was rejected without being sent
+     * @throws RestClientException if the last try failed
+     */
+    public <T> T call(String operation, boolean idempotent, Function<RestClient, T> request) {
+        acquireSlot(operation);
+        try {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                record(operation, "rejected", 0);
+                throw new CarrierUnavailableException(carrier + " is unavailable, calls are suspended after repeated failures");
+            }
+            for (int attempt = 1; ; attempt++) {
+                long start = System.nanoTime();
+                try {
+                    T result = request.apply(restClient);
+                    circuitBreaker.onSuccess();
+                    record(operation, "success", System.nanoTime() - start);
+                    return result;
+                } catch (HttpClientErrorException e) {
+                    if (e.getStatusCode().value() != HttpStatus.TOO_MANY_REQUESTS.value()) {
+                        // The carrier answered, the request itself was refused
+                        circuitBreaker.onSuccess();
+                        record(operation, "client-error", System.nanoTime() - start);
+                        throw e;
+                    }
+                    retryOrThrow(operation, attempt, idempotent, e, start);
+                } catch (RestClientException e) {
+                    retryOrThrow(operation, attempt, idempotent, e, start);
+                } catch (RuntimeException e) {
+                    circuitBreaker.onFailure();
+                    record(operation, "failure", System.nanoTime() - start);
+                    throw e;
+                }
+            }
+        } finally {
+            slots.release();
+        }
+    }
+
+    private void acquireSlot(String operation) {
+        boolean acquired;
+        try {
+            acquired = slots.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            record(operation, "rejected", 0);
+            throw new CarrierUnavailableException(carrier + " is busy, too many calls in flight");
+        }
+    }
+
+    private void retryOrThrow(String operation, int attempt, boolean idempotent, RestClientException failure, long start) {
+        circuitBreaker.onFailure();
+        record(operation, "failure", System.nanoTime() - start);
+        if (
+            attempt >= maxAttempts ||
+            !isTransient(failure, idempotent) ||
+            circuitBreaker.getState() != CarrierCircuitBreaker.State.CLOSED
+        ) {
+            throw failure;
+        }
+
+        long delay = backoff(attempt);
+        LOG.debug("Try {} of {} {} failed ({}), retrying in {} ms", attempt, carrier, operation, failure.getMessage(), delay);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw failure;
+        }
+    }
+
+    /**
+     * Whether a failed request is worth another try: the carrier is overloaded or could not be reached.
+     */
+    static boolean isTransient(RestClientException failure, boolean idempotent) {
+        if (failure instanceof ResourceAccessException) {
+            return idempotent || neverSent(failure);
+        }
+        if (!idempotent) {
+            return false;
+        }
+        if (failure instanceof HttpServerErrorException serverError) {
+            int status = serverError.getStatusCode().value();
+            return status == 502 || status == 503 || status == 504;
+        }
+        return failure instanceof HttpClientErrorException clientError && clientError.getStatusCode().value() == 429;
+    }
+
+    private static boolean neverSent(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof HttpConnectTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long backoff(int attempt) {
+        long ceiling = retryBackoffMs << Math.min(attempt - 1, 16);
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    private void record(String operation, String outcome, long nanos) {
+        Timer.builder("carrier.client.requests")
+            .description("Calls to the carrier APIs, one per try")
+            .tag("carrier", carrier)
+            .tag("operation", operation)
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(meterRegistry)
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    CarrierCircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    @Override
+    public void close() {
+        httpClient.close();
+        executor.close();
+    }
+}
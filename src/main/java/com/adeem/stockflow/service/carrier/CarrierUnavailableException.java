@@ -0,0 +1,14 @@
+package com.adeem.stockflow.service.carrier;
+
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Thrown when a carrier call is rejected without being sent, because the carrier's circuit is open or all its call slots
+ * are taken.
+ */
+public class CarrierUnavailableException extends RestClientException {
+
+    public CarrierUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,75 @@
+package com.adeem.stockflow.service.criteria;
+
+import com.adeem.stockflow.config.ApplicationProperties;
+import com.adeem.stockflow.service.exceptions.BadRequestAlertException;
+import com.adeem.stockflow.service.exceptions.ErrorConstants;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A type-ahead query over a trigram indexed {@code search_text} column.
+ * <p>
+ * The term is trimmed and lower-cased like the column, and must be at least {@code application.autocomplete.min-length}
+ * characters long: shorter terms have too few trigrams for the index to narrow anything down, so they are rejected
+ * instead of scanning the tenant. The same term is matched as a substring ({@link #getPattern()}, with the LIKE
+ * wildcards escaped) and fuzzily with pg_trgm word similarity, which also ranks the suggestions.
+ */
+public final class AutocompleteQuery {
+
+    private final String term;
+    private final String pattern;
+    private final int limit;
+
+    private AutocompleteQuery(String term, int limit) {
+        this.term = term;
+        this.pattern = "%" + term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        this.limit = limit;
+    }
+
+    /**
+     * Validate and normalise a type-ahead query.
+     *
+     * @param query the raw query typed by the user
+     * @param size the requested number of suggestions, {@code null} for the configured maximum
+     * @param properties the autocomplete settings
+     * @param entityName the searched entity, for the error
+     * @return the query
+     * @throws BadRequestAlertException if the query is shorter than the minimum length
+     */
+    public static AutocompleteQuery of(String query, Integer size, ApplicationProperties.Autocomplete properties, String entityName) {
+        String term = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (term.length() < properties.getMinLength()) {
+            throw new BadRequestAlertException(
+                "Search query must be at least " + properties.getMinLength() + " characters long",
+                entityName,
+                ErrorConstants.SEARCH_QUERY_TOO_SHORT
+            );
+        }
+        int limit = size == null ? properties.getMaxResults() : Math.clamp(size, 1, properties.getMaxResults());
+        return new AutocompleteQuery(term, limit);
+    }
+
+    /**
+     * Put loaded entities back in the order of the ranked ids, dropping ids that no longer resolve.
+     */
+    public static <T> List<T> inRankOrder(List<Long> rankedIds, List<T> entities, Function<T, Long> idOf) {
+        Map<Long, T> byId = entities.stream().collect(Collectors.toMap(idOf, Function.identity()));
+        return rankedIds.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    public String getTerm() {
+        return term;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+}
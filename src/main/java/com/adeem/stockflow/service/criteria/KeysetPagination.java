@@ -0,0 +1,216 @@
+package com.adeem.stockflow.service.criteria;
+
+import com.adeem.stockflow.service.dto.CursorPageDTO;
+import com.adeem.stockflow.service.exceptions.BadRequestAlertException;
+import com.adeem.stockflow.service.exceptions.ErrorConstants;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import java.beans.PropertyDescriptor;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.util.StringUtils;
+
+/**
+ * Keyset (seek) paging over a {@link Specification} listing, as an alternative to offset paging.
+ * <p>
+ * Rows are ordered by at most one sort property of the entity, then by id in the same direction, and a page is the
+ * rows after the last one of the previous page: {@code WHERE (sort_key, id) > (last_key, last_id)}. Pages cost the
+ * same however deep the scroll goes and no count query is run. The position travels in an opaque cursor that also
+ * records the sort, so it cannot be replayed against another ordering. Null sort keys are ordered the way PostgreSQL
+ * does by default, last when ascending and first when descending.
+ *
+ * @param <T> the entity type
+ */
+public final class KeysetPagination<T> {
+
+    private static final String ID = "id";
+    private static final String SEPARATOR = "|";
+
+    private static final Set<Class<?>> SORTABLE_TYPES = Set.of(
+        String.class,
+        Long.class,
+        Integer.class,
+        BigDecimal.class,
+        Boolean.class,
+        Instant.class,
+        LocalDate.class,
+        ZonedDateTime.class
+    );
+
+    private final String property;
+    private final Sort.Direction direction;
+    private final boolean after;
+    private final Long lastId;
+    private final Object lastValue;
+
+    private KeysetPagination(String property, Sort.Direction direction, boolean after, Long lastId, Object lastValue) {
+        this.property = property;
+        this.direction = direction;
+        this.after = after;
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+    }
+
+    /**
+     * Start or resume a keyset paged listing.
+     *
+     * @param entityClass the listed entity
+     * @param sort the requested order, a single property of the entity or unsorted (by id)
+     * @param cursor the cursor returned with the previous page, {@code null} or blank for the first page
+     * @return the paging position
+     * @throws BadRequestAlertException if the order cannot be keyset paged or the cursor is invalid or was made for
+     *     another order
+     */
+    public static <T> KeysetPagination<T> of(Class<T> entityClass, Sort sort, String cursor) {
+        String entityName = StringUtils.uncapitalize(entityClass.getSimpleName());
+        List<Sort.Order> orders = sort.stream().filter(order -> !ID.equals(order.getProperty())).toList();
+        if (orders.size() > 1) {
+            throw new BadRequestAlertException("Cursor paging sorts by a single property", entityName, ErrorConstants.INVALID_CURSOR);
+        }
+
+        String property = null;
+        Class<?> propertyType = Long.class;
+        Sort.Direction direction;
+        if (orders.isEmpty()) {
+            Sort.Order idOrder = sort.getOrderFor(ID);
+            direction = idOrder != null ? idOrder.getDirection() : Sort.Direction.ASC;
+        } else {
+            property = orders.get(0).getProperty();
+            direction = orders.get(0).getDirection();
+            PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(entityClass, property);
+            propertyType = descriptor != null ? descriptor.getPropertyType() : null;
+            if (propertyType == null || (!SORTABLE_TYPES.contains(propertyType) && !propertyType.isEnum())) {
+                throw new BadRequestAlertException("Cannot cursor page by " + property, entityName, ErrorConstants.INVALID_CURSOR);
+            }
+        }
+
+        if (cursor == null || cursor.isBlank()) {
+            return new KeysetPagination<>(property, direction, false, null, null);
+        }
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 4);
+            if (position.length == 4 && position[0].equals(sortKey(property, direction))) {
+                Object lastValue = position[2].isEmpty() ? null : parse(propertyType, position[3]);
+                return new KeysetPagination<>(property, direction, true, Long.valueOf(position[1]), lastValue);
+            }
+        } catch (IllegalArgumentException | DateTimeException e) {
+            // Falls through to the bad request below
+        }
+        throw new BadRequestAlertException("Invalid cursor", entityName, ErrorConstants.INVALID_CURSOR);
+    }
+
+    /**
+     * The order of the pages, the sort property then id.
+     */
+    public Sort getSort() {
+        Sort byId = Sort.by(direction, ID);
+        return property == null ? byId : Sort.by(direction, property).and(byId);
+    }
+
+    /**
+     * Fetch the page after the cursor position, reading one extra row to know whether another page follows.
+     *
+     * @param repository the repository of the entity
+     * @param specification the listing criteria, may be {@code null}
+     * @param size the page size
+     * @param mapper maps the entities of the page
+     * @return the page and the cursor of the next one
+     */
+    public <D> CursorPageDTO<D> fetch(
+        JpaSpecificationExecutor<T> repository,
+        Specification<T> specification,
+        int size,
+        Function<T, D> mapper
+    ) {
+        Specification<T> page = Specification.where(specification).and(afterPosition());
+        List<T> rows = repository.findBy(page, query -> query.sortBy(getSort()).limit(size + 1).all());
+        if (rows.size() <= size) {
+            return new CursorPageDTO<>(rows.stream().map(mapper).toList(), null);
+        }
+        List<T> content = rows.subList(0, size);
+        return new CursorPageDTO<>(content.stream().map(mapper).toList(), nextCursor(content.get(size - 1)));
+    }
+
+    /**
+     * @return the rows after the cursor position, {@code null} on the first page
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Specification<T> afterPosition() {
+        if (!after) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            Path<Comparable> id = root.get(ID);
+            Predicate laterId = later(cb, id, lastId);
+            if (property == null) {
+                return laterId;
+            }
+
+            Path<Comparable> key = root.get(property);
+            if (lastValue == null) {
+                Predicate sameKey = cb.and(cb.isNull(key), laterId);
+                return direction.isAscending() ? sameKey : cb.or(sameKey, cb.isNotNull(key));
+            }
+            Predicate laterKey = cb.or(later(cb, key, (Comparable) lastValue), cb.and(cb.equal(key, lastValue), laterId));
+            return direction.isAscending() ? cb.or(laterKey, cb.isNull(key)) : laterKey;
+        };
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Predicate later(CriteriaBuilder cb, Path<Comparable> path, Comparable value) {
+        return direction.isAscending() ? cb.greaterThan(path, value) : cb.lessThan(path, value);
+    }
+
+    private String nextCursor(T last) {
+        BeanWrapper row = PropertyAccessorFactory.forBeanPropertyAccess(last);
+        Object value = property != null ? row.getPropertyValue(property) : null;
+        String valuePart = value != null ? "v" + SEPARATOR + format(value) : SEPARATOR;
+        String position = sortKey(property, direction) + SEPARATOR + row.getPropertyValue(ID) + SEPARATOR + valuePart;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String sortKey(String property, Sort.Direction direction) {
+        return (property != null ? property : ID) + "," + direction.name().toLowerCase();
+    }
+
+    private static String format(Object value) {
+        return value instanceof Enum<?> constant ? constant.name() : value.toString();
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Object parse(Class<?> type, String value) {
+        if (type == String.class) {
+            return value;
+        } else if (type == Long.class) {
+            return Long.valueOf(value);
+        } else if (type == Integer.class) {
+            return Integer.valueOf(value);
+        } else if (type == BigDecimal.class) {
+            return new BigDecimal(value);
+        } else if (type == Boolean.class) {
+            return Boolean.valueOf(value);
+        } else if (type == Instant.class) {
+            return Instant.parse(value);
+        } else if (type == LocalDate.class) {
+            return LocalDate.parse(value);
+        } else if (type == ZonedDateTime.class) {
+            return ZonedDateTime.parse(value);
+        }
+        return Enum.valueOf((Class<Enum>) type, value);
+    }
+}
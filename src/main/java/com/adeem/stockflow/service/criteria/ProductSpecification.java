@@ -3,9 +3,13 @@ package com.adeem.stockflow.service.criteria;
 import com.adeem.stockflow.domain.*;
 import com.adeem.stockflow.domain.enumeration.InventoryStatus;
 import com.adeem.stockflow.service.criteria.filter.ProductCriteria;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.JoinType;
 import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 import java.util.List;
@@ -273,7 +277,9 @@ public class ProductSpecification extends QueryService<Product> {
     // === MARKETPLACE-SPECIFIC SPECIFICATIONS ===
 
     /**
-     * Full-text search in product name and description.
+     * Substring search in product name and description.
+     * The leading-wildcard LIKE is served by the trigram GIN indexes on {@code lower(name)} and {@code lower(description)};
+     * ranked search goes through {@code ProductRepository.searchMarketplace}.
      */
     public static Specification<Product> withNameOrDescriptionContaining(String searchTerm) {
         return (root, query, criteriaBuilder) -> {
@@ -309,13 +315,10 @@ public class ProductSpecification extends QueryService<Product> {
 
     /**
      * Filter products that have available inventory (quantity > 0).
+     * Reads the {@link ProductAvailability} read model instead of joining every inventory row.
      */
     public static Specification<Product> withAvailableInventory() {
-        return (root, query, criteriaBuilder) -> {
-            Join<Product, Inventory> inventoryJoin = root.join("inventories", JoinType.LEFT);
-
-            return criteriaBuilder.greaterThan(inventoryJoin.get("availableQuantity"), BigDecimal.ZERO);
-        };
+        return (root, query, criteriaBuilder) -> inStock(root, query, criteriaBuilder);
     }
 
     /**
@@ -327,22 +330,29 @@ public class ProductSpecification extends QueryService<Product> {
                 return criteriaBuilder.conjunction();
             }
 
-            Join<Product, Inventory> inventoryJoin = root.join("inventories", JoinType.LEFT);
-
             if (available) {
-                return criteriaBuilder.and(
-                    criteriaBuilder.isTrue(root.get("isVisibleToCustomers")),
-                    criteriaBuilder.greaterThan(inventoryJoin.get("availableQuantity"), BigDecimal.ZERO)
-                );
+                return criteriaBuilder.and(criteriaBuilder.isTrue(root.get("isVisibleToCustomers")), inStock(root, query, criteriaBuilder));
             } else {
                 return criteriaBuilder.or(
                     criteriaBuilder.isFalse(root.get("isVisibleToCustomers")),
-                    criteriaBuilder.lessThanOrEqualTo(inventoryJoin.get("availableQuantity"), BigDecimal.ZERO)
+                    criteriaBuilder.not(inStock(root, query, criteriaBuilder))
                 );
             }
         };
     }
 
+    private static Predicate inStock(Root<Product> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+        Subquery<Long> subquery = query.subquery(Long.class);
+        Root<ProductAvailability> availability = subquery.from(ProductAvailability.class);
+        subquery
+            .select(availability.get("productId"))
+            .where(
+                criteriaBuilder.equal(availability.get("productId"), root.get("id")),
+                criteriaBuilder.isTrue(availability.get("inStock"))
+            );
+        return criteriaBuilder.exists(subquery);
+    }
+
     /**
      * Filter products by company location (city).
      */
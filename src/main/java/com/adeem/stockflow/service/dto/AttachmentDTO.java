@@ -18,6 +18,7 @@ public class AttachmentDTO implements Serializable {
 
     private String url;
 
+    // Content to store on save, never returned: it is read from /api/attachments/{id}/download
     @Lob
     private byte[] data;
 
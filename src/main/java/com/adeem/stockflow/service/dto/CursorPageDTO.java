@@ -0,0 +1,45 @@
+package com.adeem.stockflow.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of a keyset paged listing.
+ * {@code nextCursor} is an opaque keyset position to pass back for the following page, {@code null} on the last page.
+ */
+public class CursorPageDTO<T> implements Serializable {
+
+    private List<T> content = new ArrayList<>();
+    private String nextCursor;
+
+    public CursorPageDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public CursorPageDTO(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    @Override
+    public String toString() {
+        return "CursorPageDTO{" + "content=" + content.size() + ", nextCursor='" + nextCursor + "'" + "}";
+    }
+}
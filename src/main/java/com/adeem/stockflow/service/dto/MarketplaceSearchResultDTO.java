@@ -0,0 +1,45 @@
+package com.adeem.stockflow.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of ranked marketplace search results.
+ * {@code nextCursor} is an opaque keyset position to pass back for the following page, {@code null} on the last page.
+ */
+public class MarketplaceSearchResultDTO implements Serializable {
+
+    private List<MarketplaceProductDTO> products = new ArrayList<>();
+    private String nextCursor;
+
+    public MarketplaceSearchResultDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public MarketplaceSearchResultDTO(List<MarketplaceProductDTO> products, String nextCursor) {
+        this.products = products;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<MarketplaceProductDTO> getProducts() {
+        return products;
+    }
+
+    public void setProducts(List<MarketplaceProductDTO> products) {
+        this.products = products;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    @Override
+    public String toString() {
+        return "MarketplaceSearchResultDTO{" + "products=" + products.size() + ", nextCursor='" + nextCursor + "'" + "}";
+    }
+}
@@ -0,0 +1,19 @@
+package com.adeem.stockflow.service.dto.batch;
+
+import java.util.Map;
+
+/**
+ * The cell texts of one spreadsheet row, independent of how the file was read.
+ *
+ * @param rowIndex the 0-based row index in the sheet
+ * @param cells the cell texts by 0-based column index, in column order
+ */
+public record ExcelRow(int rowIndex, Map<Integer, String> cells) {
+    public String getCell(int columnIndex) {
+        return cells.get(columnIndex);
+    }
+
+    public boolean isEmpty() {
+        return cells.values().stream().allMatch(value -> value.trim().isEmpty());
+    }
+}
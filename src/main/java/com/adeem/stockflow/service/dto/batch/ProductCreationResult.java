@@ -1,5 +1,6 @@
 package com.adeem.stockflow.service.dto.batch;
 
+import com.adeem.stockflow.service.dto.ProductDTO;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -17,6 +18,10 @@ public class ProductCreationResult implements Serializable {
     private Long productId; // for successful creations
     private String productCode;
 
+    // Validated row waiting for the writer, which creates the product for the whole chunk
+    private transient ProductImportRow row;
+    private transient ProductDTO product;
+
     public ProductCreationResult() {}
 
     public ProductCreationResult(int rowNumber, int dataRowNumber) {
@@ -32,6 +37,14 @@ public class ProductCreationResult implements Serializable {
         return result;
     }
 
+    public static ProductCreationResult validated(ProductImportRow row, ProductDTO product) {
+        ProductCreationResult result = new ProductCreationResult(row.getRowNumber(), row.getDataRowNumber());
+        result.row = row;
+        result.product = product;
+        result.productCode = product.getCode();
+        return result;
+    }
+
     public static ProductCreationResult failed(int rowNumber, int dataRowNumber, List<ImportErrorDTO> errors) {
         ProductCreationResult result = new ProductCreationResult(rowNumber, dataRowNumber);
         result.success = false;
@@ -47,6 +60,13 @@ public class ProductCreationResult implements Serializable {
         return result;
     }
 
+    /**
+     * Whether the row passed validation but its product has not been written yet.
+     */
+    public boolean isPending() {
+        return !success && product != null && (errors == null || errors.isEmpty());
+    }
+
     public boolean isSuccess() {
         return success;
     }
@@ -103,6 +123,14 @@ public class ProductCreationResult implements Serializable {
         this.productCode = productCode;
     }
 
+    public ProductImportRow getRow() {
+        return row;
+    }
+
+    public ProductDTO getProduct() {
+        return product;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,8 @@
+package com.adeem.stockflow.service.event;
+
+/**
+ * Published when stock levels or the marketplace visibility of a tenant's products change.
+ *
+ * @param clientAccountId the tenant whose catalog changed, {@code null} when several tenants are affected
+ */
+public record CatalogChangedEvent(Long clientAccountId) {}
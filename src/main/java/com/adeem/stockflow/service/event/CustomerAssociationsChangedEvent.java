@@ -0,0 +1,8 @@
+package com.adeem.stockflow.service.event;
+
+/**
+ * Published when an association between a customer and a tenant is created, changed or removed.
+ *
+ * @param clientAccountId the tenant of the association
+ */
+public record CustomerAssociationsChangedEvent(Long clientAccountId) {}
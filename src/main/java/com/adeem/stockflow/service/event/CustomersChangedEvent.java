@@ -0,0 +1,8 @@
+package com.adeem.stockflow.service.event;
+
+/**
+ * Published when customers of a tenant are created, changed, disabled or enabled again.
+ *
+ * @param clientAccountId the tenant whose customers changed
+ */
+public record CustomersChangedEvent(Long clientAccountId) {}
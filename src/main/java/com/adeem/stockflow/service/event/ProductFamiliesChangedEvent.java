@@ -0,0 +1,8 @@
+package com.adeem.stockflow.service.event;
+
+/**
+ * Published when product families of a tenant, or the products assigned to them, change.
+ *
+ * @param clientAccountId the tenant whose families changed, {@code null} when it is not known
+ */
+public record ProductFamiliesChangedEvent(Long clientAccountId) {}
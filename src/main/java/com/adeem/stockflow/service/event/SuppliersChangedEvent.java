@@ -0,0 +1,8 @@
+package com.adeem.stockflow.service.event;
+
+/**
+ * Published when suppliers of a tenant, or the purchase orders placed with them, change.
+ *
+ * @param clientAccountId the tenant whose suppliers changed, {@code null} when it is not known
+ */
+public record SuppliersChangedEvent(Long clientAccountId) {}
@@ -0,0 +1,5 @@
+/**
+ * Application events published when tenant data that derived views are built from changes.
+ * Listeners that rebuild derived views should react after commit, with {@code @TransactionalEventListener}.
+ */
+package com.adeem.stockflow.service.event;
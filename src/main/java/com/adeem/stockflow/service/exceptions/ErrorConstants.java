@@ -73,6 +73,9 @@ public final class ErrorConstants {
     public static final String REQUIRED_ADDRESS = "E041";
     public static final String REQUIRED_CUSTOMER = "E042";
     public static final String GUEST_CART_NOT_FOUND = "E043";
+    public static final String INVALID_CURSOR = "E044";
+    public static final String SEARCH_QUERY_TOO_SHORT = "E045";
+    public static final String QUOTA_EXCEEDED = "E046";
 
     private ErrorConstants() {}
 }
@@ -0,0 +1,68 @@
+package com.adeem.stockflow.service.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Writes an export as RFC 4180 CSV in UTF-8, with a byte order mark so spreadsheet programs detect the encoding.
+ * <p>
+ * Text starting like a formula is prefixed with a quote, so opening the file never evaluates exported data.
+ */
+public class CsvExportWriter implements ExportWriter {
+
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+    private static final String LINE_SEPARATOR = "\r\n";
+
+    private final Writer writer;
+
+    public CsvExportWriter(OutputStream out) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(BYTE_ORDER_MARK);
+    }
+
+    @Override
+    public void writeRow(List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escape(format(values.get(i))));
+        }
+        writer.write(LINE_SEPARATOR);
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.flush();
+    }
+
+    private static String format(Object value) {
+        if (value == null) {
+            return "";
+        } else if (value instanceof BigDecimal number) {
+            return number.toPlainString();
+        } else if (value instanceof ZonedDateTime dateTime) {
+            return dateTime.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+        } else if (value instanceof Enum<?> constant) {
+            return constant.name();
+        } else if (value instanceof String text && !text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+            return "'" + text;
+        }
+        return value.toString();
+    }
+
+    static String escape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
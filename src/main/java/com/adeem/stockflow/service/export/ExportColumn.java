@@ -0,0 +1,12 @@
+package com.adeem.stockflow.service.export;
+
+import java.util.function.Function;
+
+/**
+ * A column of a data export: its header and how to read its value from an exported entity.
+ *
+ * @param header the column header
+ * @param value reads the cell value, may return {@code null}
+ * @param <T> the exported entity type
+ */
+public record ExportColumn<T>(String header, Function<T, Object> value) {}
@@ -0,0 +1,34 @@
+package com.adeem.stockflow.service.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Writes the rows of a data export as they are read, so memory does not grow with the number of rows.
+ * Closing the writer completes the file but leaves the underlying stream open.
+ */
+public interface ExportWriter extends Closeable {
+    /**
+     * Write one row.
+     *
+     * @param values the cell values, strings, numbers, booleans, enums or dates, {@code null} for an empty cell
+     */
+    void writeRow(List<?> values) throws IOException;
+
+    /**
+     * Open a writer of the given format.
+     *
+     * @param format the file format
+     * @param out where the file is written
+     * @param xlsxWindowSize rows an XLSX writer keeps in memory
+     * @return the writer
+     */
+    static ExportWriter open(ExportFormat format, OutputStream out, int xlsxWindowSize) throws IOException {
+        return switch (format) {
+            case CSV -> new CsvExportWriter(out);
+            case XLSX -> new XlsxExportWriter(out, xlsxWindowSize);
+        };
+    }
+}
@@ -0,0 +1,126 @@
+package com.adeem.stockflow.service.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+/**
+ * Writes an export as an XLSX workbook through POI's streaming {@link SXSSFWorkbook}: only the last rows stay in
+ * memory, older ones are flushed to a compressed temporary file until the workbook is written out on close.
+ * <p>
+ * The first row written is the header. When a sheet is full, the export continues on a new sheet starting with the
+ * same header.
+ */
+public class XlsxExportWriter implements ExportWriter {
+
+    private static final String SHEET_NAME = "Export";
+    private static final int MAX_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+    private static final int MAX_TEXT_LENGTH = SpreadsheetVersion.EXCEL2007.getMaxTextLength();
+
+    private final OutputStream out;
+    private final SXSSFWorkbook workbook;
+    private final CellStyle headerStyle;
+    private final CellStyle dateStyle;
+    private final CellStyle dateTimeStyle;
+
+    private List<?> header;
+    private SXSSFSheet sheet;
+    private int sheets;
+    private int rowIndex;
+
+    public XlsxExportWriter(OutputStream out, int windowSize) {
+        this.out = out;
+        this.workbook = new SXSSFWorkbook(windowSize);
+        workbook.setCompressTempFiles(true);
+
+        Font bold = workbook.createFont();
+        bold.setBold(true);
+        this.headerStyle = workbook.createCellStyle();
+        headerStyle.setFont(bold);
+        this.dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd"));
+        this.dateTimeStyle = workbook.createCellStyle();
+        dateTimeStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss"));
+    }
+
+    @Override
+    public void writeRow(List<?> values) {
+        if (header == null) {
+            header = List.copyOf(values);
+            newSheet();
+            return;
+        }
+        if (rowIndex == MAX_ROWS) {
+            newSheet();
+        }
+        Row row = sheet.createRow(rowIndex++);
+        for (int i = 0; i < values.size(); i++) {
+            Object value = values.get(i);
+            if (value != null) {
+                setValue(row.createCell(i), value);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (header == null) {
+                // Still a valid workbook when nothing was written
+                workbook.createSheet(SHEET_NAME);
+            }
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private void newSheet() {
+        sheets++;
+        sheet = workbook.createSheet(sheets == 1 ? SHEET_NAME : SHEET_NAME + " " + sheets);
+        Row row = sheet.createRow(0);
+        for (int i = 0; i < header.size(); i++) {
+            Cell cell = row.createCell(i);
+            cell.setCellValue(String.valueOf(header.get(i)));
+            cell.setCellStyle(headerStyle);
+        }
+        sheet.createFreezePane(0, 1);
+        rowIndex = 1;
+    }
+
+    private void setValue(Cell cell, Object value) {
+        if (value instanceof Number number) {
+            cell.setCellValue(number.doubleValue());
+        } else if (value instanceof Boolean bool) {
+            cell.setCellValue(bool);
+        } else if (value instanceof LocalDate date) {
+            cell.setCellValue(date);
+            cell.setCellStyle(dateStyle);
+        } else if (value instanceof ZonedDateTime dateTime) {
+            setDateTime(cell, dateTime.toLocalDateTime());
+        } else if (value instanceof Instant instant) {
+            setDateTime(cell, LocalDateTime.ofInstant(instant, ZoneOffset.UTC));
+        } else {
+            String text = value instanceof Enum<?> constant ? constant.name() : value.toString();
+            cell.setCellValue(text.length() > MAX_TEXT_LENGTH ? text.substring(0, MAX_TEXT_LENGTH) : text);
+        }
+    }
+
+    private void setDateTime(Cell cell, LocalDateTime dateTime) {
+        cell.setCellValue(dateTime);
+        cell.setCellStyle(dateTimeStyle);
+    }
+}
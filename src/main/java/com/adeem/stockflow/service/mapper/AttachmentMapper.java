@@ -21,12 +21,16 @@ public interface AttachmentMapper extends EntityMapper<AttachmentDTO, Attachment
     @Mapping(target = "userId", source = "user.id")
     @Mapping(target = "paymentId", source = "payment.id")
     @Mapping(target = "productId", source = "product.id")
+    @Mapping(target = "data", ignore = true)
     AttachmentDTO toDto(Attachment s);
 
     @Mapping(target = "clientAccount", source = "clientAccountId")
     @Mapping(target = "user", source = "userId")
     @Mapping(target = "payment", source = "paymentId")
     @Mapping(target = "product", source = "productId")
+    @Mapping(target = "blobKey", ignore = true)
+    @Mapping(target = "thumbnailBlobKey", ignore = true)
+    @Mapping(target = "mediumBlobKey", ignore = true)
     Attachment toEntity(AttachmentDTO attachmentDTO);
 
     default Attachment fromId(Long id) {
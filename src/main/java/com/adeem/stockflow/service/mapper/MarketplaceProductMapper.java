@@ -2,8 +2,9 @@
 package com.adeem.stockflow.service.mapper;
 
 import com.adeem.stockflow.domain.Product;
+import com.adeem.stockflow.domain.enumeration.ImageSize;
 import com.adeem.stockflow.service.dto.MarketplaceProductDTO;
-import java.math.BigDecimal;
+import com.adeem.stockflow.service.util.AttachmentUrlUtils;
 import java.util.List;
 import java.util.stream.Collectors;
 import org.mapstruct.*;
@@ -12,14 +13,17 @@ import org.mapstruct.*;
  * Mapper for the entity {@link Product} and its marketplace DTO {@link MarketplaceProductDTO}.
  * This mapper specifically converts internal Product entities to marketplace-safe DTOs
  * that hide sensitive business information.
+ * Stock figures are not mapped here: {@link com.adeem.stockflow.service.MarketplaceProductService} fills them from the
+ * product availability read model for a whole page at once.
+ * Listings link to the thumbnail size of the product images.
  */
 @Mapper(componentModel = "spring")
 public interface MarketplaceProductMapper extends EntityMapper<MarketplaceProductDTO, Product> {
     @Mapping(target = "companyName", source = "clientAccount.companyName")
     @Mapping(target = "companyLocation", expression = "java(getCompanyLocation(product))")
-    @Mapping(target = "availableQuantity", expression = "java(getAvailableQuantity(product))")
+    @Mapping(target = "availableQuantity", ignore = true)
     @Mapping(target = "imageUrls", expression = "java(getImageUrls(product))")
-    @Mapping(target = "isAvailable", expression = "java(getIsAvailable(product))")
+    @Mapping(target = "isAvailable", ignore = true)
     MarketplaceProductDTO toDto(Product product);
 
     @Named("getCompanyLocation")
@@ -30,39 +34,18 @@ public interface MarketplaceProductMapper extends EntityMapper<MarketplaceProduc
         return null;
     }
 
-    @Named("getAvailableQuantity")
-    default BigDecimal getAvailableQuantity(Product product) {
-        if (product.getInventories() != null && !product.getInventories().isEmpty()) {
-            return product
-                .getInventories()
-                .stream()
-                .map(inventory -> inventory.getAvailableQuantity() != null ? inventory.getAvailableQuantity() : BigDecimal.ZERO)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        }
-        return BigDecimal.ZERO;
-    }
-
     @Named("getImageUrls")
     default List<String> getImageUrls(Product product) {
         if (product.getImages() != null) {
             return product
                 .getImages()
                 .stream()
-                .map(attachment -> "/api/attachments/" + attachment.getId() + "/download")
+                .map(attachment -> AttachmentUrlUtils.getDownloadUrl(attachment, ImageSize.THUMBNAIL))
                 .collect(Collectors.toList());
         }
         return List.of();
     }
 
-    @Named("getIsAvailable")
-    default Boolean getIsAvailable(Product product) {
-        return (
-            product.getIsVisibleToCustomers() != null &&
-            product.getIsVisibleToCustomers() &&
-            getAvailableQuantity(product).compareTo(BigDecimal.ZERO) > 0
-        );
-    }
-
     // Don't implement toEntity as this is a read-only marketplace DTO
     default Product toEntity(MarketplaceProductDTO dto) {
         throw new UnsupportedOperationException("Marketplace DTO should not be converted back to entity");
@@ -0,0 +1,63 @@
+package com.adeem.stockflow.service.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * Content-addressed storage for attachment bytes.
+ * <p>
+ * Keys are the lowercase hex SHA-256 of the content, so a key always designates the same bytes: storing them twice
+ * is harmless and blobs are never updated in place.
+ */
+public interface BlobStore {
+    /**
+     * @param key the SHA-256 of the content
+     * @return whether the blob is already stored
+     */
+    boolean exists(String key) throws IOException;
+
+    /**
+     * @param key the SHA-256 of the content
+     * @return the size of the blob in bytes
+     */
+    long size(String key) throws IOException;
+
+    /**
+     * Store the content of a local file under its key. The store may move the file away, the caller deletes it
+     * afterwards if it is still there.
+     *
+     * @param key the SHA-256 of the file content
+     * @param source the file to store
+     * @param size the size of the file in bytes
+     * @param contentType the media type of the content, may be {@code null}
+     */
+    void put(String key, Path source, long size, String contentType) throws IOException;
+
+    /**
+     * Copy a range of a blob to the target channel.
+     *
+     * @param key the SHA-256 of the content
+     * @param position the first byte to copy
+     * @param count the number of bytes to copy
+     * @param target the channel to write to, it is not closed
+     * @return the number of bytes copied, less than {@code count} if the blob is shorter
+     */
+    long transferTo(String key, long position, long count, WritableByteChannel target) throws IOException;
+
+    /**
+     * Open a blob for reading from the start.
+     *
+     * @param key the SHA-256 of the content
+     * @return the content, to be closed by the caller
+     */
+    InputStream newInputStream(String key) throws IOException;
+
+    /**
+     * Delete a blob, nothing happens if it does not exist.
+     *
+     * @param key the SHA-256 of the content
+     */
+    void delete(String key) throws IOException;
+}
@@ -0,0 +1,230 @@
+package com.adeem.stockflow.service.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * {@link BlobStore} on an S3-compatible object storage (AWS S3, MinIO, ...), requests are signed with AWS Signature
+ * Version 4.
+ * <p>
+ * Objects are named after their key. Uploads send the key as the payload hash, since it is the SHA-256 of the content,
+ * and ranged reads only fetch the requested bytes.
+ */
+public class S3BlobStore implements BlobStore {
+
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    private static final String SERVICE = "s3";
+    private static final String SIGNED_HEADERS = "host;x-amz-content-sha256;x-amz-date";
+    private static final String EMPTY_PAYLOAD_SHA256 = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(5);
+
+    private final HttpClient httpClient;
+    private final URI endpoint;
+    private final String region;
+    private final String bucket;
+    private final String accessKey;
+    private final String secretKey;
+    private final boolean pathStyle;
+
+    public S3BlobStore(URI endpoint, String region, String bucket, String accessKey, String secretKey, boolean pathStyle) {
+        this.httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(Duration.ofSeconds(10)).build();
+        this.endpoint = endpoint;
+        this.region = region;
+        this.bucket = bucket;
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.pathStyle = pathStyle;
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        return head(key) != null;
+    }
+
+    @Override
+    public long size(String key) throws IOException {
+        HttpResponse<Void> response = head(key);
+        if (response == null) {
+            throw new NoSuchFileException(key);
+        }
+        return response.headers().firstValueAsLong("Content-Length").orElseThrow(() -> new IOException("No size for blob " + key));
+    }
+
+    @Override
+    public void put(String key, Path source, long size, String contentType) throws IOException {
+        HttpRequest.Builder request = signedRequest("PUT", key, key).PUT(HttpRequest.BodyPublishers.ofFile(source));
+        if (contentType != null) {
+            request.header("Content-Type", contentType);
+        }
+        checkStatus(send(request, HttpResponse.BodyHandlers.discarding()), "PUT", key);
+    }
+
+    @Override
+    public long transferTo(String key, long position, long count, WritableByteChannel target) throws IOException {
+        if (count <= 0) {
+            return 0;
+        }
+        HttpRequest.Builder request = signedRequest("GET", key, EMPTY_PAYLOAD_SHA256)
+            .header("Range", "bytes=" + position + "-" + (position + count - 1))
+            .GET();
+        HttpResponse<InputStream> response = send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            checkStatus(response, "GET", key);
+            if (response.statusCode() != 206 && position > 0) {
+                // The server ignored the range, skip to the requested position
+                body.skipNBytes(position);
+            }
+
+            byte[] buffer = new byte[64 * 1024];
+            long copied = 0;
+            while (copied < count) {
+                int read = body.read(buffer, 0, (int) Math.min(buffer.length, count - copied));
+                if (read < 0) {
+                    break;
+                }
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    target.write(chunk);
+                }
+                copied += read;
+            }
+            return copied;
+        }
+    }
+
+    @Override
+    public InputStream newInputStream(String key) throws IOException {
+        HttpResponse<InputStream> response = send(
+            signedRequest("GET", key, EMPTY_PAYLOAD_SHA256).GET(),
+            HttpResponse.BodyHandlers.ofInputStream()
+        );
+        if (response.statusCode() / 100 != 2) {
+            response.body().close();
+            checkStatus(response, "GET", key);
+        }
+        return response.body();
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        HttpResponse<Void> response = send(
+            signedRequest("DELETE", key, EMPTY_PAYLOAD_SHA256).DELETE(),
+            HttpResponse.BodyHandlers.discarding()
+        );
+        if (response.statusCode() != 404) {
+            checkStatus(response, "DELETE", key);
+        }
+    }
+
+    /**
+     * @return the response to a HEAD of the object, {@code null} if it does not exist
+     */
+    private HttpResponse<Void> head(String key) throws IOException {
+        HttpResponse<Void> response = send(
+            signedRequest("HEAD", key, EMPTY_PAYLOAD_SHA256).method("HEAD", HttpRequest.BodyPublishers.noBody()),
+            HttpResponse.BodyHandlers.discarding()
+        );
+        if (response.statusCode() == 404) {
+            return null;
+        }
+        checkStatus(response, "HEAD", key);
+        return response;
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest.Builder request, HttpResponse.BodyHandler<T> bodyHandler) throws IOException {
+        try {
+            return httpClient.send(request.build(), bodyHandler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while calling the object storage", e);
+        }
+    }
+
+    private static void checkStatus(HttpResponse<?> response, String method, String key) throws IOException {
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException(method + " of blob " + key + " failed with status " + response.statusCode());
+        }
+    }
+
+    /**
+     * Builds a request for the object with the Signature Version 4 headers, the HTTP method is set by the caller.
+     */
+    private HttpRequest.Builder signedRequest(String method, String key, String payloadHash) {
+        String path = pathStyle ? "/" + bucket + "/" + key : "/" + key;
+        String host = pathStyle ? endpoint.getHost() : bucket + "." + endpoint.getHost();
+        if (endpoint.getPort() != -1) {
+            host += ":" + endpoint.getPort();
+        }
+        URI uri = URI.create(endpoint.getScheme() + "://" + host + path);
+
+        String amzDate = AMZ_DATE.format(Instant.now());
+        String date = amzDate.substring(0, 8);
+        String scope = date + "/" + region + "/" + SERVICE + "/aws4_request";
+
+        String canonicalRequest = String.join(
+            "\n",
+            method,
+            path,
+            "",
+            "host:" + host,
+            "x-amz-content-sha256:" + payloadHash,
+            "x-amz-date:" + amzDate,
+            "",
+            SIGNED_HEADERS,
+            payloadHash
+        );
+        String stringToSign = String.join("\n", ALGORITHM, amzDate, scope, sha256Hex(canonicalRequest));
+
+        byte[] signingKey = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), date);
+        signingKey = hmac(signingKey, region);
+        signingKey = hmac(signingKey, SERVICE);
+        signingKey = hmac(signingKey, "aws4_request");
+        String signature = HexFormat.of().formatHex(hmac(signingKey, stringToSign));
+
+        return HttpRequest.newBuilder(uri)
+            .timeout(REQUEST_TIMEOUT)
+            .header("x-amz-content-sha256", payloadHash)
+            .header("x-amz-date", amzDate)
+            .header(
+                "Authorization",
+                ALGORITHM + " Credential=" + accessKey + "/" + scope + ", SignedHeaders=" + SIGNED_HEADERS + ", Signature=" + signature
+            );
+    }
+
+    private static String sha256Hex(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] hmac(byte[] key, String value) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(value.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.adeem.stockflow.service.util;
+
+import com.adeem.stockflow.domain.Attachment;
+import com.adeem.stockflow.domain.enumeration.ImageSize;
+
+public final class AttachmentUrlUtils {
+
+    private AttachmentUrlUtils() {}
+
+    /**
+     * @param attachment an attachment
+     * @param size the requested image size
+     * @return the URL its content is downloaded from, versioned by the content so that it can be cached for good
+     */
+    public static String getDownloadUrl(Attachment attachment, ImageSize size) {
+        StringBuilder url = new StringBuilder("/api/attachments/").append(attachment.getId()).append("/download");
+        String separator = "?";
+        if (size != ImageSize.ORIGINAL) {
+            url.append(separator).append("size=").append(size.getValue());
+            separator = "&";
+        }
+        if (attachment.getBlobKey() != null) {
+            url.append(separator).append("v=").append(getContentVersion(attachment.getBlobKey()));
+        }
+        return url.toString();
+    }
+
+    /**
+     * @param blobKey the key of the original content of an attachment
+     * @return the version of the content used in download URLs
+     */
+    public static String getContentVersion(String blobKey) {
+        return blobKey.substring(0, 16);
+    }
+}
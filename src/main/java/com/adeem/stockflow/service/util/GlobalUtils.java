@@ -14,4 +14,26 @@ public class GlobalUtils {
             return String.format("%04d/%04d", currentYear, 1);
         }
     }
+
+    public static String formatReference(int year, long number) {
+        return String.format("%04d/%04d", year, number);
+    }
+
+    /**
+     * Extracts the sequence number of a {@code YYYY/NNNN} reference issued in the given year.
+     * @return the number, or 0 when the reference is missing, malformed or belongs to another year
+     */
+    public static long parseReferenceNumber(String reference, int year) {
+        if (reference == null || reference.length() < 6 || reference.charAt(4) != '/') {
+            return 0L;
+        }
+        try {
+            if (Integer.parseInt(reference.substring(0, 4)) != year) {
+                return 0L;
+            }
+            return Long.parseLong(reference.substring(5));
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
 }
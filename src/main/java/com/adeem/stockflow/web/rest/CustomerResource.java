@@ -204,6 +204,26 @@ public class CustomerResource {
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /customers/autocomplete} : type-ahead suggestions among the enabled customers, best match first.
+     * <p>
+     * Meant to be called while the user types: clients should wait for {@code application.autocomplete.min-length}
+     * characters (shorter queries are rejected with {@code 400 (Bad Request)}) and debounce keystrokes, about 250 ms.
+     * No count is computed, the suggestions are a ranked list without pagination headers.
+     *
+     * @param query the text typed so far.
+     * @param size the number of suggestions, capped by {@code application.autocomplete.max-results}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the suggestions.
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<CustomerDTO>> autocompleteCustomers(
+        @RequestParam("q") String query,
+        @RequestParam(value = "size", required = false) Integer size
+    ) {
+        LOG.debug("REST request to autocomplete Customers : {}", query);
+        return ResponseEntity.ok(customerService.autocomplete(query, size));
+    }
+
     /**
      * {@code GET  /customers/statistics} : get customer statistics for current company.
      *
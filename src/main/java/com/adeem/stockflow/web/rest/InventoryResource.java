@@ -4,14 +4,19 @@ import com.adeem.stockflow.domain.Inventory;
 import com.adeem.stockflow.domain.enumeration.AdjustmentType;
 import com.adeem.stockflow.repository.InventoryRepository;
 import com.adeem.stockflow.security.SecurityUtils;
+import com.adeem.stockflow.service.DataExportService;
 import com.adeem.stockflow.service.InventoryService;
 import com.adeem.stockflow.service.criteria.InventorySpecification;
 import com.adeem.stockflow.service.criteria.ProductSpecification;
 import com.adeem.stockflow.service.criteria.filter.InventoryCriteria;
 import com.adeem.stockflow.service.dto.*;
 import com.adeem.stockflow.service.exceptions.BadRequestAlertException;
+import com.adeem.stockflow.service.export.ExportFormat;
+import com.adeem.stockflow.web.rest.util.CursorPaginationUtil;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -24,6 +29,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -50,9 +56,16 @@ public class InventoryResource {
 
     private final InventoryRepository inventoryRepository;
 
-    public InventoryResource(InventoryService inventoryService, InventoryRepository inventoryRepository) {
+    private final DataExportService dataExportService;
+
+    public InventoryResource(
+        InventoryService inventoryService,
+        InventoryRepository inventoryRepository,
+        DataExportService dataExportService
+    ) {
         this.inventoryService = inventoryService;
         this.inventoryRepository = inventoryRepository;
+        this.dataExportService = dataExportService;
     }
 
     /**
@@ -115,15 +128,18 @@ public class InventoryResource {
 
     /**
      * {@code GET  /inventory} : get all inventory records for the current client account.
+     * Sending a {@code cursor} (empty for the first page) switches to keyset paging, see {@link CursorPaginationUtil}.
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
+     * @param cursor the cursor returned with the previous page, for keyset paging.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of inventory records in body.
      */
     @GetMapping("")
     public ResponseEntity<List<InventoryWithProductDTO>> getAllInventory(
         InventoryCriteria criteria,
-        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(required = false) String cursor
     ) {
         LOG.debug("REST request to get Inventory by criteria: {}", criteria);
 
@@ -135,6 +151,11 @@ public class InventoryResource {
             InventorySpecification.withClientAccountId(clientAccountId)
         );
 
+        if (cursor != null) {
+            CursorPageDTO<InventoryWithProductDTO> page = inventoryService.scrollWithProduct(specification, cursor, pageable);
+            HttpHeaders headers = CursorPaginationUtil.generateCursorHttpHeaders(page.getNextCursor());
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        }
         Page<InventoryWithProductDTO> page = inventoryService.findAllWithProduct(specification, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
@@ -162,6 +183,36 @@ public class InventoryResource {
         return ResponseEntity.ok().body(count);
     }
 
+    /**
+     * {@code GET  /inventories/export} : export the inventory lines matching the criteria, streamed as they are read.
+     *
+     * @param criteria the criteria which the exported entities should match.
+     * @param format the file format, {@code CSV} (the default) or {@code XLSX}.
+     * @param response the response the file is written to, with status {@code 200 (OK)}.
+     * @throws IOException if the file could not be sent.
+     */
+    @GetMapping("/export")
+    public void exportInventory(
+        InventoryCriteria criteria,
+        @RequestParam(defaultValue = "CSV") ExportFormat format,
+        HttpServletResponse response
+    ) throws IOException {
+        LOG.debug("REST request to export Inventory as {} by criteria: {}", format, criteria);
+
+        Long clientAccountId = SecurityUtils.getCurrentClientAccountId();
+        Specification<Inventory> specification = InventorySpecification.createSpecification(criteria).and(
+            InventorySpecification.withClientAccountId(clientAccountId)
+        );
+
+        response.setContentType(format.getContentType());
+        response.setHeader(
+            HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename("inventory." + format.getExtension()).build().toString()
+        );
+        dataExportService.exportInventory(specification, format, response.getOutputStream());
+        response.flushBuffer();
+    }
+
     /**
      * {@code GET  /inventory/:id} : get the "id" inventory record.
      *
@@ -317,14 +368,18 @@ public class InventoryResource {
     /**
      * {@code GET  /inventory/{id}/history} : get inventory transaction history for a specific inventory item.
      *
+     * Sending a {@code cursor} (empty for the first page) switches to keyset paging, see {@link CursorPaginationUtil}.
+     *
      * @param id the id of the inventory item.
      * @param pageable the pagination information.
+     * @param cursor the cursor returned with the previous page, for keyset paging.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the transaction history in body.
      */
     @GetMapping("/{id}/history")
     public ResponseEntity<List<InventoryTransactionDTO>> getInventoryHistory(
         @PathVariable("id") Long id,
-        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(required = false) String cursor
     ) {
         LOG.debug("REST request to get Inventory history : {}", id);
 
@@ -337,6 +392,11 @@ public class InventoryResource {
             throw new BadRequestAlertException("Inventory not found or access denied", ENTITY_NAME, "notfound");
         }
 
+        if (cursor != null) {
+            CursorPageDTO<InventoryTransactionDTO> page = inventoryService.scrollInventoryHistory(id, cursor, pageable);
+            HttpHeaders headers = CursorPaginationUtil.generateCursorHttpHeaders(page.getNextCursor());
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        }
         Page<InventoryTransactionDTO> page = inventoryService.getInventoryHistory(id, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
@@ -4,16 +4,21 @@ import com.adeem.stockflow.config.Constants;
 import com.adeem.stockflow.domain.Product;
 import com.adeem.stockflow.repository.ProductRepository;
 import com.adeem.stockflow.security.SecurityUtils;
+import com.adeem.stockflow.service.DataExportService;
 import com.adeem.stockflow.service.InventoryService;
 import com.adeem.stockflow.service.ProductService;
 import com.adeem.stockflow.service.criteria.InventorySpecification;
 import com.adeem.stockflow.service.criteria.ProductSpecification;
 import com.adeem.stockflow.service.criteria.filter.ProductCriteria;
 import com.adeem.stockflow.service.dto.BulkOperationResult;
+import com.adeem.stockflow.service.dto.CursorPageDTO;
 import com.adeem.stockflow.service.dto.InventoryDTO;
 import com.adeem.stockflow.service.dto.ProductDTO;
 import com.adeem.stockflow.service.dto.ProductWithInventoryDTO;
 import com.adeem.stockflow.service.exceptions.BadRequestAlertException;
+import com.adeem.stockflow.service.export.ExportFormat;
+import com.adeem.stockflow.web.rest.util.CursorPaginationUtil;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.io.IOException;
@@ -29,6 +34,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -58,9 +64,12 @@ public class ProductResource {
 
     private final InventoryService inventoryService;
 
-    public ProductResource(ProductService productService, InventoryService inventoryService) {
+    private final DataExportService dataExportService;
+
+    public ProductResource(ProductService productService, InventoryService inventoryService, DataExportService dataExportService) {
         this.productService = productService;
         this.inventoryService = inventoryService;
+        this.dataExportService = dataExportService;
     }
 
     /**
@@ -124,15 +133,18 @@ public class ProductResource {
 
     /**
      * {@code GET  /products} : get all the products.
+     * Sending a {@code cursor} (empty for the first page) switches to keyset paging, see {@link CursorPaginationUtil}.
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
+     * @param cursor the cursor returned with the previous page, for keyset paging.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of products in body.
      */
     @GetMapping("")
     public ResponseEntity<List<ProductDTO>> getAllProducts(
         ProductCriteria criteria,
-        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(required = false) String cursor
     ) {
         LOG.debug("REST request to get Products by criteria: {}", criteria);
 
@@ -144,6 +156,11 @@ public class ProductResource {
             ProductSpecification.withClientAccountId(clientAccountId)
         );
 
+        if (cursor != null) {
+            CursorPageDTO<ProductDTO> page = productService.scrollAll(specification, cursor, pageable);
+            HttpHeaders headers = CursorPaginationUtil.generateCursorHttpHeaders(page.getNextCursor());
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        }
         Page<ProductDTO> page = productService.findAll(specification, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
@@ -171,6 +188,36 @@ public class ProductResource {
         return ResponseEntity.ok().body(count);
     }
 
+    /**
+     * {@code GET  /products/export} : export the products matching the criteria, streamed as they are read.
+     *
+     * @param criteria the criteria which the exported entities should match.
+     * @param format the file format, {@code CSV} (the default) or {@code XLSX}.
+     * @param response the response the file is written to, with status {@code 200 (OK)}.
+     * @throws IOException if the file could not be sent.
+     */
+    @GetMapping("/export")
+    public void exportProducts(
+        ProductCriteria criteria,
+        @RequestParam(defaultValue = "CSV") ExportFormat format,
+        HttpServletResponse response
+    ) throws IOException {
+        LOG.debug("REST request to export Products as {} by criteria: {}", format, criteria);
+
+        Long clientAccountId = SecurityUtils.getCurrentClientAccountId();
+        Specification<Product> specification = ProductSpecification.createSpecification(criteria).and(
+            ProductSpecification.withClientAccountId(clientAccountId)
+        );
+
+        response.setContentType(format.getContentType());
+        response.setHeader(
+            HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename("products." + format.getExtension()).build().toString()
+        );
+        dataExportService.exportProducts(specification, format, response.getOutputStream());
+        response.flushBuffer();
+    }
+
     /**
      * {@code GET  /products/:id} : get the "id" product with inventory information.
      *
@@ -5,6 +5,8 @@ import com.adeem.stockflow.service.MarketplaceProductService;
 import com.adeem.stockflow.service.dto.CategoryStatsDTO;
 import com.adeem.stockflow.service.dto.MarketplaceProductDTO;
 import com.adeem.stockflow.service.dto.MarketplaceProductDetailDTO;
+import com.adeem.stockflow.service.dto.MarketplaceSearchResultDTO;
+import com.adeem.stockflow.web.rest.util.CursorPaginationUtil;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
@@ -82,23 +84,26 @@ public class PublicProductResource {
     }
 
     /**
-     * {@code GET  /api/public/products/search} : Search products by text.
-     * Alternative endpoint specifically for search functionality.
+     * {@code GET  /api/public/products/search} : Ranked full-text search over products.
+     * Tolerates prefixes and typos. Paging is keyset based: the {@code X-Next-Cursor} response header holds the
+     * {@code cursor} to send for the next page and is absent on the last page.
      *
      * @param q the search query
-     * @param pageable the pagination information
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of products in body
+     * @param cursor the cursor returned with the previous page
+     * @param size the page size
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of products in body, best match first
      */
     @GetMapping("/search")
     public ResponseEntity<List<MarketplaceProductDTO>> searchProducts(
         @RequestParam String q,
-        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "20") int size
     ) {
         LOG.debug("REST request to search products: {}", q);
 
-        Page<MarketplaceProductDTO> page = marketplaceProductService.searchProducts(q, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        MarketplaceSearchResultDTO result = marketplaceProductService.searchProducts(q, cursor, Math.min(Math.max(size, 1), 100));
+        HttpHeaders headers = CursorPaginationUtil.generateCursorHttpHeaders(result.getNextCursor());
+        return ResponseEntity.ok().headers(headers).body(result.getProducts());
     }
 
     /**
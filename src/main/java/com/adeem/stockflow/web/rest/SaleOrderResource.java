@@ -3,12 +3,18 @@ package com.adeem.stockflow.web.rest;
 import com.adeem.stockflow.domain.SaleOrder;
 import com.adeem.stockflow.repository.SaleOrderRepository;
 import com.adeem.stockflow.security.AuthoritiesConstants;
+import com.adeem.stockflow.security.SecurityUtils;
+import com.adeem.stockflow.service.DataExportService;
 import com.adeem.stockflow.service.SaleOrderService;
 import com.adeem.stockflow.service.criteria.SaleOrderSpecification;
 import com.adeem.stockflow.service.criteria.filter.SaleOrderCriteria;
 import com.adeem.stockflow.service.dto.*;
 import com.adeem.stockflow.service.exceptions.BadRequestAlertException;
+import com.adeem.stockflow.service.export.ExportFormat;
+import com.adeem.stockflow.web.rest.util.CursorPaginationUtil;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -20,6 +26,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -47,10 +54,16 @@ public class SaleOrderResource {
 
     private final SaleOrderService saleOrderService;
     private final SaleOrderRepository saleOrderRepository;
+    private final DataExportService dataExportService;
 
-    public SaleOrderResource(SaleOrderService saleOrderService, SaleOrderRepository saleOrderRepository) {
+    public SaleOrderResource(
+        SaleOrderService saleOrderService,
+        SaleOrderRepository saleOrderRepository,
+        DataExportService dataExportService
+    ) {
         this.saleOrderService = saleOrderService;
         this.saleOrderRepository = saleOrderRepository;
+        this.dataExportService = dataExportService;
     }
 
     /**
@@ -108,24 +121,62 @@ public class SaleOrderResource {
 
     /**
      * {@code GET  /sale-orders} : get all the saleOrders.
+     * Sending a {@code cursor} (empty for the first page) switches to keyset paging, see {@link CursorPaginationUtil}.
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
+     * @param cursor the cursor returned with the previous page, for keyset paging.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of saleOrders in body.
      */
     @GetMapping("")
     public ResponseEntity<List<SaleOrderDTO>> getAllSaleOrders(
         @org.springdoc.core.annotations.ParameterObject Pageable pageable,
-        SaleOrderCriteria criteria
+        SaleOrderCriteria criteria,
+        @RequestParam(required = false) String cursor
     ) {
         LOG.debug("REST request to get SaleOrders by criteria: {}", criteria);
 
         Specification<SaleOrder> specification = new SaleOrderSpecification().createSpecification(criteria);
+        if (cursor != null) {
+            CursorPageDTO<SaleOrderDTO> page = saleOrderService.scrollWithCriteria(pageable, cursor, specification);
+            HttpHeaders headers = CursorPaginationUtil.generateCursorHttpHeaders(page.getNextCursor());
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        }
         Page<SaleOrderDTO> page = saleOrderService.findAllWithCriteria(pageable, specification);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /sale-orders/export} : export the saleOrders matching the criteria, streamed as they are read.
+     *
+     * @param criteria the criteria which the exported entities should match.
+     * @param format the file format, {@code CSV} (the default) or {@code XLSX}.
+     * @param response the response the file is written to, with status {@code 200 (OK)}.
+     * @throws IOException if the file could not be sent.
+     */
+    @GetMapping("/export")
+    public void exportSaleOrders(
+        SaleOrderCriteria criteria,
+        @RequestParam(defaultValue = "CSV") ExportFormat format,
+        HttpServletResponse response
+    ) throws IOException {
+        LOG.debug("REST request to export SaleOrders as {} by criteria: {}", format, criteria);
+
+        Long clientAccountId = SecurityUtils.getCurrentClientAccountId();
+        Specification<SaleOrder> specification = new SaleOrderSpecification()
+            .createSpecification(criteria)
+            .and(SaleOrderSpecification.withClientAccountId(clientAccountId));
+
+        response.setContentType(format.getContentType());
+        response.setHeader(
+            HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename("sale-orders." + format.getExtension()).build().toString()
+        );
+        dataExportService.exportSaleOrders(specification, format, response.getOutputStream());
+        response.flushBuffer();
+    }
+
     /**
      * {@code GET  /sale-orders/:id} : get the "id" saleOrder.
      *
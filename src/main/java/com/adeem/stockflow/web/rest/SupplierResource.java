@@ -280,6 +280,30 @@ public class SupplierResource {
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /suppliers/autocomplete} : type-ahead suggestions among the active suppliers, best match first.
+     * <p>
+     * Meant to be called while the user types: clients should wait for {@code application.autocomplete.min-length}
+     * characters (shorter queries are rejected with {@code 400 (Bad Request)}) and debounce keystrokes, about 250 ms.
+     * No count is computed, the suggestions are a ranked list without pagination headers.
+     *
+     * @param query the text typed so far
+     * @param size the number of suggestions, capped by {@code application.autocomplete.max-results}
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the suggestions in body.
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<SupplierDTO>> autocompleteSuppliers(
+        @RequestParam("q") String query,
+        @RequestParam(value = "size", required = false) Integer size
+    ) {
+        LOG.debug("REST request to autocomplete Suppliers with query: {}", query);
+
+        // Get current client account ID
+        Long clientAccountId = SecurityUtils.getCurrentClientAccountId();
+
+        return ResponseEntity.ok(supplierService.autocompleteSuppliers(query, size, clientAccountId));
+    }
+
     /**
      * {@code GET  /suppliers/statistics} : get supplier statistics.
      *
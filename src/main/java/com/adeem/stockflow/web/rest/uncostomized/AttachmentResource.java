@@ -1,11 +1,20 @@
 package com.adeem.stockflow.web.rest.uncostomized;
 
+import com.adeem.stockflow.domain.enumeration.ImageSize;
 import com.adeem.stockflow.repository.AttachmentRepository;
 import com.adeem.stockflow.service.AttachmentService;
+import com.adeem.stockflow.service.AttachmentService.AttachmentContent;
+import com.adeem.stockflow.service.BlobStorageService;
 import com.adeem.stockflow.service.dto.AttachmentDTO;
 import com.adeem.stockflow.service.exceptions.BadRequestAlertException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -14,9 +23,14 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -40,9 +54,16 @@ public class AttachmentResource {
 
     private final AttachmentRepository attachmentRepository;
 
-    public AttachmentResource(AttachmentService attachmentService, AttachmentRepository attachmentRepository) {
+    private final BlobStorageService blobStorageService;
+
+    public AttachmentResource(
+        AttachmentService attachmentService,
+        AttachmentRepository attachmentRepository,
+        BlobStorageService blobStorageService
+    ) {
         this.attachmentService = attachmentService;
         this.attachmentRepository = attachmentRepository;
+        this.blobStorageService = blobStorageService;
     }
 
     /**
@@ -160,6 +181,95 @@ public class AttachmentResource {
         return ResponseUtil.wrapOrNotFound(attachmentDTO);
     }
 
+    /**
+     * {@code GET  /attachments/:id/download} : get the content of the "id" attachment.
+     * A single byte range can be requested with the {@code Range} header, several ranges get the whole content.
+     * URLs carrying the current content version are cached for good, the others are revalidated with the ETag.
+     *
+     * @param id the id of the attachment.
+     * @param size the image size, {@code thumbnail}, {@code medium} or {@code original} (the default).
+     * @param version the content version the URL was built for, if any.
+     * @param range the {@code Range} header, if any.
+     * @param request the request, to check its {@code If-None-Match} header.
+     * @param response the response the content is copied to, with status {@code 200 (OK)}, {@code 206 (Partial Content)},
+     * {@code 304 (Not Modified)}, {@code 404 (Not Found)} or {@code 416 (Range Not Satisfiable)}.
+     * @throws IOException if the content could not be read or sent.
+     */
+    @GetMapping("/{id}/download")
+    public void downloadAttachment(
+        @PathVariable("id") Long id,
+        @RequestParam(value = "size", required = false) String size,
+        @RequestParam(value = "v", required = false) String version,
+        @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+        HttpServletRequest request,
+        HttpServletResponse response
+    ) throws IOException {
+        LOG.debug("REST request to download Attachment : {}, size {}", id, size);
+        ImageSize imageSize;
+        try {
+            imageSize = ImageSize.fromValue(size);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid image size", ENTITY_NAME, "sizeinvalid");
+        }
+        Optional<AttachmentContent> found = attachmentService.findContent(id, imageSize);
+        if (found.isEmpty() || found.get().size() == null) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        AttachmentContent content = found.get();
+
+        response.setHeader(
+            HttpHeaders.CACHE_CONTROL,
+            content.version() != null && content.version().equals(version) ? "private, max-age=31536000, immutable" : "private, no-cache"
+        );
+        // The content of a blob never changes, its key is a strong validator
+        if (new ServletWebRequest(request, response).checkNotModified("\"" + content.blobKey() + "\"")) {
+            return;
+        }
+
+        long contentSize = content.size();
+
+        long start = 0;
+        long end = contentSize - 1;
+        List<HttpRange> ranges = List.of();
+        try {
+            ranges = HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            LOG.debug("Ignoring invalid range {} for Attachment {}", range, id);
+        }
+        if (ranges.size() == 1) {
+            HttpRange httpRange = ranges.get(0);
+            try {
+                start = httpRange.getRangeStart(contentSize);
+                end = httpRange.getRangeEnd(contentSize);
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + contentSize);
+                response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + contentSize);
+        } else {
+            response.setStatus(HttpStatus.OK.value());
+        }
+
+        long length = end - start + 1;
+        response.setContentType(content.contentType() != null ? content.contentType() : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setContentLengthLong(length);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (content.fileName() != null) {
+            response.setHeader(
+                HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.inline().filename(content.fileName(), StandardCharsets.UTF_8).build().toString()
+            );
+        }
+
+        // Copied through the response stream's buffer, the servlet container does not get to send the file itself
+        WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+        blobStorageService.transferTo(content.blobKey(), start, length, target);
+        response.flushBuffer();
+    }
+
     /**
      * {@code DELETE  /attachments/:id} : delete the "id" attachment.
      *
@@ -0,0 +1,30 @@
+package com.adeem.stockflow.web.rest.util;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Utility class for handling keyset pagination.
+ * <p>
+ * The {@code X-Next-Cursor} response header holds the {@code cursor} to send for the next page and is absent on the
+ * last page. Keyset paged responses carry no total count.
+ */
+public final class CursorPaginationUtil {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private CursorPaginationUtil() {}
+
+    /**
+     * Generate the pagination headers of a keyset paged response.
+     *
+     * @param nextCursor the cursor of the next page, {@code null} on the last page
+     * @return the {@link HttpHeaders}
+     */
+    public static HttpHeaders generateCursorHttpHeaders(String nextCursor) {
+        HttpHeaders headers = new HttpHeaders();
+        if (nextCursor != null) {
+            headers.add(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Rest layer utilities.
+ */
+package com.adeem.stockflow.web.rest.util;
@@ -0,0 +1,120 @@
+package com.adeem.stockflow.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.adeem.stockflow.config.ApplicationProperties;
+import com.adeem.stockflow.domain.EntityAuditEvent;
+import com.adeem.stockflow.domain.Product;
+import com.adeem.stockflow.domain.enumeration.EntityAuditAction;
+import com.adeem.stockflow.repository.EntityAuditEventRepository;
+import com.adeem.stockflow.repository.projection.EntityAuditVersionProjection;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+/**
+ * Test class for the {@link BatchingEntityAuditEventWriter}.
+ */
+class BatchingEntityAuditEventWriterTest {
+
+    private EntityAuditEventRepository auditingEntityRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private ApplicationProperties applicationProperties;
+
+    private final List<EntityAuditEvent> savedEvents = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        auditingEntityRepository = mock(EntityAuditEventRepository.class);
+        when(auditingEntityRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<EntityAuditEvent> events = invocation.getArgument(0);
+            savedEvents.addAll(events);
+            return events;
+        });
+
+        meterRegistry = new SimpleMeterRegistry();
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getAudit().setOfferTimeoutMs(0);
+        applicationProperties.getAudit().setFlushIntervalMs(10);
+    }
+
+    @Test
+    void commitVersionsAreSeededOncePerEntityType() {
+        EntityAuditVersionProjection lastVersion = mock(EntityAuditVersionProjection.class);
+        when(lastVersion.getEntityId()).thenReturn("1");
+        when(lastVersion.getCommitVersion()).thenReturn(3);
+        when(auditingEntityRepository.findMaxCommitVersions(eq(Product.class.getName()), anyCollection())).thenReturn(List.of(lastVersion));
+
+        BatchingEntityAuditEventWriter writer = createWriter();
+        writer.writeAuditEvent(product(1L), EntityAuditAction.UPDATE);
+        writer.writeAuditEvent(product(2L), EntityAuditAction.CREATE);
+        writer.writeAuditEvent(product(2L), EntityAuditAction.UPDATE);
+        writer.writeAuditEvent(product(1L), EntityAuditAction.DELETE);
+        writer.stop();
+
+        assertThat(savedEvents)
+            .extracting(EntityAuditEvent::getEntityId, EntityAuditEvent::getCommitVersion)
+            .containsExactly(tuple("1", 4), tuple("2", 1), tuple("2", 2), tuple("1", 5));
+        verify(auditingEntityRepository, times(1)).findMaxCommitVersions(anyString(), anyCollection());
+        verify(auditingEntityRepository, never()).findMaxCommitVersion(anyString(), anyString());
+        assertThat(meterRegistry.get("audit.events.written").counter().count()).isEqualTo(4);
+    }
+
+    @Test
+    void eventsAreDroppedWhenTheBufferStaysFull() {
+        applicationProperties.getAudit().setBufferSize(1);
+
+        BatchingEntityAuditEventWriter writer = createWriter();
+        writer.writeAuditEvent(product(1L), EntityAuditAction.CREATE);
+        writer.writeAuditEvent(product(2L), EntityAuditAction.CREATE);
+
+        assertThat(meterRegistry.get("audit.events.waits").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("audit.events.dropped").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("audit.events.queued").gauge().value()).isEqualTo(1);
+
+        writer.stop();
+        assertThat(savedEvents).extracting(EntityAuditEvent::getEntityId).containsExactly("1");
+    }
+
+    @Test
+    void eventsAfterStopAreWrittenRightAway() {
+        BatchingEntityAuditEventWriter writer = createWriter();
+        writer.start();
+        writer.stop();
+
+        writer.writeAuditEvent(product(1L), EntityAuditAction.CREATE);
+
+        assertThat(savedEvents).extracting(EntityAuditEvent::getEntityId).containsExactly("1");
+    }
+
+    private BatchingEntityAuditEventWriter createWriter() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        return new BatchingEntityAuditEventWriter(
+            auditingEntityRepository,
+            new ObjectMapper().registerModule(new JavaTimeModule()),
+            new DefaultConversionService(),
+            transactionManager,
+            meterRegistry,
+            applicationProperties
+        );
+    }
+
+    private static Product product(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Audited product " + id);
+        return product;
+    }
+}
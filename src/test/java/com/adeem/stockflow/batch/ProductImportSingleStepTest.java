@@ -0,0 +1,10 @@
+package com.adeem.stockflow.batch;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * The {@link ProductImportBatchTest} cases run through a single chunk step instead of partitions, which must import
+ * and reject the same rows.
+ */
+@TestPropertySource(properties = "application.import.partitions=1")
+class ProductImportSingleStepTest extends ProductImportBatchTest {}
@@ -8,12 +8,18 @@ import com.adeem.stockflow.domain.enumeration.*;
 import com.adeem.stockflow.repository.*;
 import com.adeem.stockflow.security.TestSecurityContextHelper;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.time.Instant;
+import java.time.ZonedDateTime;
 import java.util.*;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.assertj.core.groups.Tuple;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -37,6 +43,7 @@ import org.springframework.test.context.TestPropertySource;
     properties = {
         "spring.batch.job.enabled=false",
         "application.import.chunk-size=5",
+        "application.import.partitions=4",
         "application.import.file-storage.temp-directory=${java.io.tmpdir}/stockflow-imports",
     }
 )
@@ -73,7 +80,21 @@ class ProductImportBatchTest {
     @Autowired
     private ClientAccountRepository clientAccountRepository;
 
+    @Autowired
+    private QuotaRepository quotaRepository;
+
+    @Autowired
+    private PlanFormulaRepository planFormulaRepository;
+
+    @Autowired
+    private ResourceLimitRepository resourceLimitRepository;
+
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+
     private ClientAccount clientAccount;
+    private ResourceLimit productLimit;
+    private Subscription subscription;
     private ProductImportJob importJob;
     private Path batchFilePath;
 
@@ -118,6 +139,14 @@ class ProductImportBatchTest {
         }
 
         cleanupTestData();
+
+        if (subscription != null) {
+            subscriptionRepository.delete(subscription);
+            resourceLimitRepository.delete(productLimit);
+            planFormulaRepository.delete(subscription.getPlanFormula());
+            subscription = null;
+            productLimit = null;
+        }
     }
 
     private void cleanupTestData() {
@@ -207,6 +236,187 @@ class ProductImportBatchTest {
         }
     }
 
+    @Test
+    void testDuplicateCodesAndFamiliesAcrossChunks() throws Exception {
+        ProductFamily tools = new ProductFamily();
+        tools.setName("Tools");
+        tools.setClientAccount(clientAccount);
+        tools = productFamilyRepository.saveAndFlush(tools);
+
+        Product existing = new Product();
+        existing.setName("Existing product");
+        existing.setCode("EXIST-1");
+        existing.applyTva(false);
+        existing.setCategory(ProductCategory.MISC);
+        existing.setClientAccount(clientAccount);
+        productRepository.saveAndFlush(existing);
+
+        // Partitioned, three partitions of three rows: the repeated "A1" and "A2" land in other partitions than the first ones
+        String fileName = "duplicates-import.xlsx";
+        batchFilePath = createBatchTempDirectory().resolve(fileName);
+        writeWorkbook(
+            batchFilePath,
+            new String[][] {
+                { "A1", "Hammer", "10", "Tools" },
+                { "A2", "Saw", "5", "tools" },
+                { "A3", "Shovel", "3", "Garden" },
+                { "A1", "Hammer again", "1", "Tools" },
+                { "EXIST-1", "Clash", "1", "" },
+                { "A4", "Pliers", "0", "TOOLS" },
+                { "A2", "Saw again", "2", "Tools" },
+                { "A5", "Rake", "7", "garden" },
+                { "A6", "Lamp", "1", "Lighting" },
+            }
+        );
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(createJobParameters(fileName));
+        assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+
+        List<Product> products = productRepository.findAll();
+        assertThat(products).extracting(Product::getCode).containsExactlyInAnyOrder("EXIST-1", "A1", "A2", "A3", "A4", "A5", "A6");
+        assertThat(products).filteredOn(p -> p.getCode().equals("A1")).extracting(Product::getName).containsExactly("Hammer");
+        for (Product product : products) {
+            if (!product.getCode().equals("EXIST-1")) {
+                assertThat(inventoryRepository.findByProductId(product.getId())).hasSize(1);
+                assertThat(inventoryTransactionRepository.findByProductId(product.getId())).hasSize(1);
+            }
+        }
+
+        List<ProductFamily> families = productFamilyRepository.findAll();
+        assertThat(families).extracting(ProductFamily::getName).containsExactlyInAnyOrder("Tools", "Garden", "Lighting");
+        Long toolsId = tools.getId();
+        assertThat(productRepository.findAll())
+            .filteredOn(p -> Set.of("A1", "A2", "A4").contains(p.getCode()))
+            .allSatisfy(p -> assertThat(p.getProductFamily().getId()).isEqualTo(toolsId));
+
+        assertThat(importErrorRepository.findAll())
+            .extracting(ProductImportError::getErrorType, ProductImportError::getFieldValue)
+            .containsExactlyInAnyOrder(
+                Tuple.tuple(ImportErrorType.DUPLICATE, "A1"),
+                Tuple.tuple(ImportErrorType.DUPLICATE, "EXIST-1"),
+                Tuple.tuple(ImportErrorType.DUPLICATE, "A2")
+            );
+
+        // Counted once per row, whichever partition wrote it
+        ProductImportJob finishedJob = importJobRepository.findById(importJob.getId()).orElseThrow();
+        assertThat(finishedJob.getTotalRows()).isEqualTo(9);
+        assertThat(finishedJob.getSuccessfulRows()).isEqualTo(6);
+        assertThat(finishedJob.getFailedRows()).isEqualTo(3);
+    }
+
+    @Test
+    void codeBelongsToItsFirstRowEvenWhenThatRowIsInvalid() throws Exception {
+        // Partitioned, the invalid "B1" and its valid repeat land in different partitions
+        String fileName = "invalid-owner-import.xlsx";
+        batchFilePath = createBatchTempDirectory().resolve(fileName);
+        writeWorkbook(
+            batchFilePath,
+            new String[][] {
+                { "B1", "", "1", "" },
+                { "B2", "Brush", "4", "" },
+                { "B3", "Bucket", "2", "" },
+                { "B4", "Broom", "6", "" },
+                { "B1", "Bin", "3", "" },
+            }
+        );
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(createJobParameters(fileName));
+        assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+
+        assertThat(productRepository.findAll()).extracting(Product::getCode).containsExactlyInAnyOrder("B2", "B3", "B4");
+        assertThat(importErrorRepository.findAll())
+            .extracting(ProductImportError::getErrorType, ProductImportError::getDataRowNumber)
+            .containsExactlyInAnyOrder(Tuple.tuple(ImportErrorType.VALIDATION, 1), Tuple.tuple(ImportErrorType.DUPLICATE, 5));
+    }
+
+    @Test
+    void importStopsAtThePlanProductLimit() throws Exception {
+        limitProducts(7);
+
+        String fileName = "quota-import.xlsx";
+        batchFilePath = createBatchTempDirectory().resolve(fileName);
+        String[][] rows = new String[10][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new String[] { "Q" + i, "Product " + i, "1", "" };
+        }
+        writeWorkbook(batchFilePath, rows);
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(createJobParameters(fileName));
+        assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+
+        // Whole chunks are rejected, so fewer than the limit may be imported but never more
+        List<Product> products = productRepository.findAll();
+        assertThat(products).isNotEmpty().hasSizeLessThanOrEqualTo(7);
+        List<ProductImportError> errors = importErrorRepository.findAll();
+        assertThat(errors).isNotEmpty().allSatisfy(error -> assertThat(error.getErrorType()).isEqualTo(ImportErrorType.BUSINESS_RULE));
+        assertThat(products.size() + errors.size()).isEqualTo(rows.length);
+
+        ProductImportJob finishedJob = importJobRepository.findById(importJob.getId()).orElseThrow();
+        assertThat(finishedJob.getSuccessfulRows()).isEqualTo(products.size());
+        assertThat(finishedJob.getFailedRows()).isEqualTo(errors.size());
+    }
+
+    /**
+     * Meter the test client account and subscribe it to a plan allowing the given number of products.
+     */
+    private void limitProducts(int maxProducts) {
+        Quota quota = quotaRepository.saveAndFlush(
+            new Quota()
+                .users(0)
+                .products(0)
+                .productFamilies(0)
+                .showcasedProducts(0)
+                .saleOrders(0)
+                .purchaseOrders(0)
+                .customers(0)
+                .suppliers(0)
+                .shipments(0)
+                .resetDate(ZonedDateTime.now().plusMonths(1))
+        );
+        clientAccount.setQuota(quota);
+        clientAccount = clientAccountRepository.saveAndFlush(clientAccount);
+
+        PlanFormula plan = planFormulaRepository.saveAndFlush(
+            new PlanFormula().name("Limited").basePrice(BigDecimal.ZERO).billingCycle(BillingCycle.MONTHLY).isActive(true)
+        );
+        productLimit = resourceLimitRepository.saveAndFlush(
+            new ResourceLimit().resourceType("products").maxAmount(maxProducts).isUnlimited(false).planFormula(plan)
+        );
+        subscription = subscriptionRepository.saveAndFlush(
+            new Subscription()
+                .startDate(ZonedDateTime.now().minusDays(1))
+                .endDate(ZonedDateTime.now().plusMonths(1))
+                .status(SubscriptionStatus.ACTIVE)
+                .paymentMethod("CASH")
+                .actualPrice(BigDecimal.ZERO)
+                .planFormula(plan)
+                .clientAccount(clientAccount)
+        );
+    }
+
+    private void writeWorkbook(Path file, String[][] rows) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = workbook.createSheet("Products");
+            String[] headers = { "Code", "Name", "Quantity", "Family" };
+            Row header = sheet.createRow(0);
+            for (int c = 0; c < headers.length; c++) {
+                header.createCell(c).setCellValue(headers[c]);
+            }
+            for (int r = 0; r < rows.length; r++) {
+                Row row = sheet.createRow(r + 1);
+                row.createCell(0).setCellValue(rows[r][0]);
+                if (!rows[r][1].isEmpty()) {
+                    row.createCell(1).setCellValue(rows[r][1]);
+                }
+                row.createCell(2).setCellValue(Double.parseDouble(rows[r][2]));
+                if (!rows[r][3].isEmpty()) {
+                    row.createCell(3).setCellValue(rows[r][3]);
+                }
+            }
+            workbook.write(out);
+        }
+    }
+
     private Path createBatchTempDirectory() throws IOException {
         Path batchTempDir = Path.of(System.getProperty("java.io.tmpdir"), "stockflow-imports");
         if (!Files.exists(batchTempDir)) {
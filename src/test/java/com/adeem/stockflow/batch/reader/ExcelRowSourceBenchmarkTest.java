@@ -0,0 +1,111 @@
+package com.adeem.stockflow.batch.reader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Peak heap and throughput of the streaming .xlsx row source against the workbook-based one.
+ * <p>
+ * Opt-in, since it writes and reads a large catalog:
+ * {@code ./mvnw test -Dtest=ExcelRowSourceBenchmarkTest -Dbenchmark=true [-Dbenchmark.rows=200000]}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ExcelRowSourceBenchmarkTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExcelRowSourceBenchmarkTest.class);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void streamingKeepsHeapFlat() throws Exception {
+        int rows = Integer.getInteger("benchmark.rows", 200_000);
+        Path file = writeCatalog(rows);
+        LOG.info("Wrote {} rows, {} MB", rows, Files.size(file) / (1024 * 1024));
+
+        Measurement workbook = measure(file, false);
+        Measurement streaming = measure(file, true);
+
+        LOG.info("Workbook reader: {} rows/s, peak heap {} MB", workbook.rowsPerSecond(), workbook.peakHeapMb());
+        LOG.info("Streaming reader: {} rows/s, peak heap {} MB", streaming.rowsPerSecond(), streaming.peakHeapMb());
+        assertThat(streaming.rows()).isEqualTo(workbook.rows()).isEqualTo(rows + 1);
+        assertThat(streaming.peakHeapMb()).isLessThan(workbook.peakHeapMb());
+    }
+
+    private Path writeCatalog(int rows) throws IOException {
+        Path file = tempDir.resolve("catalog.xlsx");
+        // Shared strings, as Excel itself writes them
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(null, 100, true, true); OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = workbook.createSheet("Products");
+            Row header = sheet.createRow(0);
+            String[] columns = { "Code", "Name", "Quantity", "Family", "Price", "Description" };
+            for (int c = 0; c < columns.length; c++) {
+                header.createCell(c).setCellValue(columns[c]);
+            }
+            for (int r = 1; r <= rows; r++) {
+                Row row = sheet.createRow(r);
+                row.createCell(0).setCellValue("SKU-" + r);
+                row.createCell(1).setCellValue("Product " + r);
+                row.createCell(2).setCellValue(r % 500);
+                row.createCell(3).setCellValue("Family " + (r % 40));
+                row.createCell(4).setCellValue(10 + (r % 1000) / 100.0);
+                row.createCell(5).setCellValue("Description of product number " + r);
+            }
+            workbook.write(out);
+            workbook.dispose();
+        }
+        return file;
+    }
+
+    private Measurement measure(Path file, boolean streaming) throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+
+        AtomicLong peak = new AtomicLong(baseline);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread sampler = new Thread(() -> {
+            while (running.get()) {
+                peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        });
+        sampler.start();
+
+        long start = System.nanoTime();
+        int count = 0;
+        try (ExcelRowSource source = ExcelRowSource.open(file, streaming)) {
+            while (source.nextRow() != null) {
+                count++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        running.set(false);
+        sampler.join();
+        return new Measurement(count, count * 1_000_000_000L / Math.max(elapsed, 1), (peak.get() - baseline) / (1024 * 1024));
+    }
+
+    private record Measurement(int rows, long rowsPerSecond, long peakHeapMb) {}
+}
@@ -0,0 +1,98 @@
+package com.adeem.stockflow.batch.reader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.adeem.stockflow.service.dto.batch.ExcelRow;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * The streaming .xlsx row source must read exactly what the workbook-based one reads.
+ */
+class ExcelRowSourceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void streamingMatchesWorkbookOnSampleImport() throws IOException {
+        Path file = tempDir.resolve("valid-import.xlsx");
+        try (InputStream in = new ClassPathResource("import-samples/valid-import.xlsx").getInputStream()) {
+            Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        List<ExcelRow> streamed = readAll(file, true);
+
+        assertThat(streamed).isNotEmpty();
+        assertThat(streamed).isEqualTo(readAll(file, false));
+    }
+
+    @Test
+    void streamingMatchesWorkbookOnEveryCellType() throws IOException {
+        Path file = tempDir.resolve("cell-types.xlsx");
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd"));
+
+            Sheet sheet = workbook.createSheet("Products");
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("Code");
+            header.createCell(1).setCellValue("Name");
+            header.createCell(2).setCellValue("Quantity");
+
+            // Row 2 is left out on purpose, and column B is skipped on the last row
+            Row shared = sheet.createRow(2);
+            shared.createCell(0).setCellValue("SKU-1");
+            shared.createCell(1).setCellValue(new XSSFRichTextString("Café crème"));
+            shared.createCell(2).setCellValue(12);
+            shared.createCell(3).setCellValue(12.5);
+            shared.createCell(4).setCellValue(true);
+            shared.createCell(5).setCellFormula("C3*2");
+            shared.createCell(6).setCellValue(LocalDate.of(2025, 7, 5));
+            shared.getCell(6).setCellStyle(dateStyle);
+
+            Row sparse = sheet.createRow(3);
+            sparse.createCell(0).setCellValue(4711);
+            sparse.createCell(2).setCellValue("SKU-1");
+
+            workbook.getCreationHelper().createFormulaEvaluator().evaluateAll();
+            workbook.write(out);
+        }
+
+        List<ExcelRow> streamed = readAll(file, true);
+
+        assertThat(streamed).extracting(ExcelRow::rowIndex).containsExactly(0, 2, 3);
+        assertThat(streamed.get(1).getCell(1)).isEqualTo("Café crème");
+        assertThat(streamed.get(1).getCell(2)).isEqualTo("12");
+        assertThat(streamed.get(1).getCell(3)).isEqualTo("12.5");
+        assertThat(streamed.get(1).getCell(4)).isEqualTo("true");
+        assertThat(streamed.get(2).cells()).containsOnlyKeys(0, 2);
+        assertThat(streamed).isEqualTo(readAll(file, false));
+    }
+
+    private List<ExcelRow> readAll(Path file, boolean streaming) throws IOException {
+        List<ExcelRow> rows = new ArrayList<>();
+        try (ExcelRowSource source = ExcelRowSource.open(file, streaming)) {
+            ExcelRow row;
+            while ((row = source.nextRow()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
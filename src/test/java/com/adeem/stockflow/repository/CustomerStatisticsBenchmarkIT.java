@@ -0,0 +1,144 @@
+package com.adeem.stockflow.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.adeem.stockflow.IntegrationTest;
+import com.adeem.stockflow.domain.ClientAccount;
+import com.adeem.stockflow.domain.enumeration.AccountStatus;
+import com.adeem.stockflow.repository.projection.CustomerStatsProjection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Latency of the customer statistics as they were read before, one count query per counter and two for the
+ * associations, against the single aggregate {@link CustomerRepository#aggregateStatsByClientAccount}.
+ * <p>
+ * Opt-in, since loading the customers takes a while:
+ * {@code ./mvnw verify -Dit.test=CustomerStatisticsBenchmarkIT -Dbenchmark=true [-Dbenchmark.customers=500000]}
+ */
+@IntegrationTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CustomerStatisticsBenchmarkIT {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CustomerStatisticsBenchmarkIT.class);
+
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 10;
+
+    private static final List<String> LEGACY_QUERIES = List.of(
+        "SELECT COUNT(*) FROM customer c WHERE c.created_by_client_account_id = ?",
+        "SELECT COUNT(*) FROM customer c WHERE c.created_by_client_account_id = ? AND c.enabled = true",
+        "SELECT COUNT(*) FROM customer c WHERE c.created_by_client_account_id = ? AND c.enabled = false",
+        "SELECT COUNT(*) FROM customer c WHERE c.created_by_client_account_id = ? AND c.user_id IS NULL",
+        "SELECT COUNT(*) FROM customer c WHERE c.created_by_client_account_id = ? AND c.user_id IS NOT NULL",
+        "SELECT COUNT(*) FROM customer c WHERE c.created_by_client_account_id = ? AND c.user_id IS NOT NULL",
+        "SELECT COUNT(*) FROM customer c WHERE c.created_by_client_account_id = ? AND c.user_id IS NULL",
+        "SELECT COUNT(*) FROM customer_client_association a WHERE a.client_account_id = ? AND a.status = 'ACTIVE'",
+        "SELECT a.association_type, COUNT(*) FROM customer_client_association a " +
+        "WHERE a.client_account_id = ? AND a.status = 'ACTIVE' GROUP BY a.association_type"
+    );
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ClientAccountRepository clientAccountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ClientAccount clientAccount;
+
+    @BeforeEach
+    void loadCustomers() {
+        int customers = Integer.getInteger("benchmark.customers", 500_000);
+
+        clientAccount = new ClientAccount();
+        clientAccount.setCompanyName("Benchmark Company");
+        clientAccount.email("benchmark@company.com");
+        clientAccount.setPhone("0676841400");
+        clientAccount.setStatus(AccountStatus.ENABLED);
+        clientAccount = clientAccountRepository.saveAndFlush(clientAccount);
+
+        long start = System.nanoTime();
+        jdbcTemplate.update(
+            """
+            INSERT INTO customer (id, first_name, last_name, phone, enabled, created_by_client_account_id,
+                created_by, created_date, last_modified_by, last_modified_date)
+            SELECT nextval('sequence_generator'), 'Customer', 'Bench ' || g, '06' || lpad(g::text, 8, '0'), g % 10 <> 0, ?,
+                'benchmark', now(), 'benchmark', now()
+            FROM generate_series(1, ?) AS g
+            """,
+            clientAccount.getId(),
+            customers
+        );
+        // One customer in four follows the company, one in twenty is also a partner
+        jdbcTemplate.update(
+            """
+            INSERT INTO customer_client_association (customer_id, client_account_id, association_type, status, created_by, created_date)
+            SELECT c.id, c.created_by_client_account_id, t.association_type,
+                CASE WHEN c.enabled THEN 'ACTIVE' ELSE 'INACTIVE' END, 'benchmark', now()
+            FROM customer c
+            JOIN (VALUES ('FOLLOWED', 4), ('BUSINESS_PARTNER', 20)) AS t (association_type, step) ON c.id % t.step = 0
+            WHERE c.created_by_client_account_id = ?
+            """,
+            clientAccount.getId()
+        );
+        jdbcTemplate.execute("ANALYZE customer");
+        jdbcTemplate.execute("ANALYZE customer_client_association");
+        LOG.info("Loaded {} customers in {} ms", customers, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @AfterEach
+    void dropCustomers() {
+        jdbcTemplate.update("DELETE FROM customer_client_association WHERE client_account_id = ?", clientAccount.getId());
+        jdbcTemplate.update("DELETE FROM customer WHERE created_by_client_account_id = ?", clientAccount.getId());
+        clientAccountRepository.deleteById(clientAccount.getId());
+    }
+
+    @Test
+    void singleAggregateBeatsOneQueryPerCounter() {
+        Long clientAccountId = clientAccount.getId();
+
+        double legacy = medianMillis(() -> {
+            List<Object> results = new ArrayList<>();
+            for (String query : LEGACY_QUERIES) {
+                results.add(jdbcTemplate.queryForList(query, clientAccountId));
+            }
+            return results;
+        });
+        double aggregate = medianMillis(() -> customerRepository.aggregateStatsByClientAccount(clientAccountId));
+
+        LOG.info("Customer statistics: {} queries {} ms, single aggregate query {} ms", LEGACY_QUERIES.size(), legacy, aggregate);
+        assertThat(aggregate).isLessThan(legacy);
+
+        CustomerStatsProjection stats = customerRepository.aggregateStatsByClientAccount(clientAccountId);
+        assertThat(stats.getTotalCustomers()).isEqualTo(Integer.getInteger("benchmark.customers", 500_000).longValue());
+        assertThat(stats.getEnabledCustomers() + stats.getDisabledCustomers()).isEqualTo(stats.getTotalCustomers());
+        assertThat(stats.getFollowedAssociations() + stats.getBusinessPartnerAssociations()).isEqualTo(stats.getTotalAssociations());
+    }
+
+    private double medianMillis(Supplier<?> query) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            query.get();
+        }
+        List<Double> timings = new ArrayList<>();
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            query.get();
+            timings.add((System.nanoTime() - start) / 1_000_000.0);
+        }
+        Collections.sort(timings);
+        return timings.get(timings.size() / 2);
+    }
+}
@@ -0,0 +1,132 @@
+package com.adeem.stockflow.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.adeem.stockflow.IntegrationTest;
+import com.adeem.stockflow.domain.ClientAccount;
+import com.adeem.stockflow.domain.enumeration.AccountStatus;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Latency of the legacy {@code LIKE '%term%'} product search (forced to a sequential scan, as it ran before the
+ * search indexes) against {@link ProductRepository#searchMarketplace}.
+ * <p>
+ * Opt-in, since loading the catalog takes minutes:
+ * {@code ./mvnw verify -Dit.test=ProductSearchBenchmarkIT -Dbenchmark=true [-Dbenchmark.products=1000000]}
+ */
+@IntegrationTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ProductSearchBenchmarkIT {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductSearchBenchmarkIT.class);
+
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 10;
+    private static final int PAGE_SIZE = 20;
+
+    private static final String LEGACY_SEARCH =
+        "SELECT p.id FROM product p WHERE p.is_visible_to_customers = true " +
+        "AND (lower(p.name) LIKE ? OR lower(p.description) LIKE ?) ORDER BY p.id DESC LIMIT " +
+        PAGE_SIZE;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ClientAccountRepository clientAccountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ClientAccount clientAccount;
+
+    @BeforeEach
+    void loadCatalog() {
+        int products = Integer.getInteger("benchmark.products", 1_000_000);
+
+        clientAccount = new ClientAccount();
+        clientAccount.setCompanyName("Benchmark Company");
+        clientAccount.email("benchmark@company.com");
+        clientAccount.setPhone("0676841400");
+        clientAccount.setStatus(AccountStatus.ENABLED);
+        clientAccount = clientAccountRepository.saveAndFlush(clientAccount);
+
+        long start = System.nanoTime();
+        jdbcTemplate.update(
+            """
+            INSERT INTO product (id, name, code, description, selling_price, category, apply_tva, is_visible_to_customers,
+                client_account_id, created_by, created_date, last_modified_by, last_modified_date)
+            SELECT nextval('sequence_generator'),
+                (ARRAY['Steel', 'Copper', 'Garden', 'Office', 'Kitchen', 'Travel', 'Sport', 'Studio'])[1 + g % 8] || ' ' ||
+                (ARRAY['cable', 'lamp', 'chair', 'bottle', 'drill', 'speaker', 'jacket', 'table', 'router', 'shelf'])[1 + (g / 8) % 10] ||
+                ' ' || g,
+                'BENCH-' || g,
+                md5(g::text) || ' ' || md5((g + 1)::text),
+                10, 'ELECTRONICS', false, true, ?, 'benchmark', now(), 'benchmark', now()
+            FROM generate_series(1, ?) AS g
+            """,
+            clientAccount.getId(),
+            products
+        );
+        jdbcTemplate.execute("ANALYZE product");
+        LOG.info("Loaded {} products in {} ms", products, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @AfterEach
+    void dropCatalog() {
+        jdbcTemplate.update("DELETE FROM product WHERE client_account_id = ?", clientAccount.getId());
+        clientAccountRepository.deleteById(clientAccount.getId());
+    }
+
+    @Test
+    void rankedSearchBeatsSequentialScan() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        for (String term : List.of("drill", "speak", "routr")) {
+            double legacy = medianMillis(() ->
+                transactionTemplate.execute(status -> {
+                    // What the planner had before the trigram indexes existed
+                    jdbcTemplate.execute("SET LOCAL enable_bitmapscan = off");
+                    jdbcTemplate.execute("SET LOCAL enable_indexscan = off");
+                    return jdbcTemplate.queryForList(LEGACY_SEARCH, Long.class, "%" + term + "%", "%" + term + "%");
+                })
+            );
+            double ranked = medianMillis(() ->
+                productRepository.searchMarketplace(term + ":*", term, Double.MAX_VALUE, Long.MAX_VALUE, PAGE_SIZE)
+            );
+
+            LOG.info("Search '{}': sequential LIKE {} ms, ranked full-text {} ms", term, legacy, ranked);
+            assertThat(ranked).isLessThan(legacy);
+        }
+    }
+
+    private double medianMillis(Supplier<?> query) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            query.get();
+        }
+        List<Double> timings = new ArrayList<>();
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            query.get();
+            timings.add((System.nanoTime() - start) / 1_000_000.0);
+        }
+        Collections.sort(timings);
+        return timings.get(timings.size() / 2);
+    }
+}
@@ -0,0 +1,376 @@
+package com.adeem.stockflow.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.adeem.stockflow.IntegrationTest;
+import com.adeem.stockflow.domain.ClientAccount;
+import com.adeem.stockflow.domain.enumeration.AccountStatus;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Guards the access paths of the hot tenant queries: every query below runs under
+ * {@code EXPLAIN (ANALYZE, FORMAT JSON)} against a seeded database, and the test fails when one of them reads a table
+ * it filters on with a sequential scan, which means an index is missing or no longer usable.
+ * <p>
+ * Native queries are read from their repository annotation, so the check follows any change to them; derived and
+ * JPQL queries are mirrored by the SQL Hibernate generates for them. The tenant under test owns one row in a hundred,
+ * the rest belong to a large neighbour, and the data is rolled back after the test. The seeded volume can be raised
+ * with {@code -Dquery-plans.rows=500000}.
+ */
+@IntegrationTest
+@Transactional
+class QueryPlanRegressionIT {
+
+    private static final Logger LOG = LoggerFactory.getLogger(QueryPlanRegressionIT.class);
+
+    private static final String SEEDED_BY = "query-plan";
+    private static final int ROWS = Integer.getInteger("query-plans.rows", 50_000);
+    private static final int TENANT_SHARE = 100;
+    private static final int PAGE_SIZE = 20;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private ClientAccountRepository clientAccountRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private Long tenantId;
+    private Long productId;
+    private String productCode;
+    private List<Long> productIds;
+    private List<Long> orderIds;
+
+    @BeforeEach
+    void seed() {
+        tenantId = createClientAccount("plans@company.com").getId();
+        Long neighbourId = createClientAccount("plans-neighbour@company.com").getId();
+        Map<String, Object> params = Map.of(
+            "rows",
+            ROWS,
+            "tenant",
+            tenantId,
+            "neighbour",
+            neighbourId,
+            "share",
+            TENANT_SHARE,
+            "seededBy",
+            SEEDED_BY
+        );
+
+        long start = System.nanoTime();
+        jdbcTemplate.update(
+            """
+            INSERT INTO product (id, name, code, description, selling_price, minimum_stock_level, category, apply_tva,
+                is_visible_to_customers, client_account_id, created_by, created_date, last_modified_by, last_modified_date)
+            SELECT nextval('sequence_generator'), 'Plan product ' || g, 'PLAN-' || g, md5(g::text), 10 + g % 90, 5,
+                'ELECTRONICS', false, true, CASE WHEN g % :share = 0 THEN :tenant ELSE :neighbour END,
+                :seededBy, now(), :seededBy, now()
+            FROM generate_series(1, :rows) AS g
+            """,
+            params
+        );
+        jdbcTemplate.update(
+            """
+            INSERT INTO inventory (id, quantity, available_quantity, status, client_account_id, product_id,
+                created_by, created_date, last_modified_by, last_modified_date)
+            SELECT nextval('sequence_generator'), 100, 90, 'AVAILABLE', p.client_account_id, p.id,
+                :seededBy, now(), :seededBy, now()
+            FROM product p WHERE p.created_by = :seededBy
+            """,
+            params
+        );
+        jdbcTemplate.update(
+            """
+            INSERT INTO inventory_transaction (id, transaction_type, quantity, transaction_date, reference_number,
+                client_account_id, product_id, created_by, created_date, last_modified_by, last_modified_date)
+            SELECT nextval('sequence_generator'), 'INITIAL', 100, now(), 'IT-' || p.id, p.client_account_id, p.id,
+                :seededBy, now(), :seededBy, now()
+            FROM product p WHERE p.created_by = :seededBy
+            """,
+            params
+        );
+        jdbcTemplate.update(
+            """
+            INSERT INTO customer (id, first_name, last_name, phone, enabled, created_by_client_account_id,
+                created_by, created_date, last_modified_by, last_modified_date)
+            SELECT nextval('sequence_generator'), 'Customer', 'Plan ' || g, '05' || lpad(g::text, 8, '0'), true,
+                CASE WHEN g % :share = 0 THEN :tenant ELSE :neighbour END, :seededBy, now(), :seededBy, now()
+            FROM generate_series(1, :rows / 2) AS g
+            """,
+            params
+        );
+        jdbcTemplate.update(
+            """
+            INSERT INTO supplier (id, first_name, last_name, active, phone, client_account_id,
+                created_by, created_date, last_modified_by, last_modified_date)
+            SELECT nextval('sequence_generator'), 'Supplier', 'Plan ' || g, true, '07' || lpad(g::text, 8, '0'),
+                CASE WHEN g % :share = 0 THEN :tenant ELSE :neighbour END, :seededBy, now(), :seededBy, now()
+            FROM generate_series(1, :rows / 4) AS g
+            """,
+            params
+        );
+        // One order in fifty still holds a reservation, half of those have expired
+        jdbcTemplate.update(
+            """
+            INSERT INTO sale_order (id, reference, date, status, order_type, stamp_applied, tva_applied, total,
+                reservation_expires_at, client_account_id, created_by, created_date, last_modified_by, last_modified_date)
+            SELECT nextval('sequence_generator'), 'SO-' || g, now() - g * interval '1 minute',
+                CASE WHEN g % 50 = 0 THEN 'CONFIRMED' ELSE 'COMPLETED' END, 'STORE_PICKUP', false, false, 100,
+                CASE WHEN g % 50 = 0 THEN now() + (g % 100 - 50) * interval '1 minute' END,
+                CASE WHEN g % :share = 0 THEN :tenant ELSE :neighbour END, :seededBy, now(), :seededBy, now()
+            FROM generate_series(1, :rows) AS g
+            """,
+            params
+        );
+        jdbcTemplate.update(
+            """
+            INSERT INTO sale_order_item (id, quantity, unit_price, total, product_id, sale_order_id,
+                created_by, created_date, last_modified_by, last_modified_date)
+            SELECT nextval('sequence_generator'), 1, 10, 10, p.id, so.id, :seededBy, now(), :seededBy, now()
+            FROM (SELECT id, row_number() OVER (ORDER BY id) AS rn FROM sale_order WHERE created_by = :seededBy) so
+            CROSS JOIN (VALUES (0), (1)) AS line (n)
+            JOIN (SELECT id, row_number() OVER (ORDER BY id) AS rn FROM product WHERE created_by = :seededBy) p
+                ON p.rn = (so.rn + line.n - 1) % :rows + 1
+            """,
+            params
+        );
+        Stream.of("product", "inventory", "inventory_transaction", "customer", "supplier", "sale_order", "sale_order_item").forEach(
+            table -> jdbcTemplate.getJdbcOperations().execute("ANALYZE " + table)
+        );
+        LOG.info("Seeded {} rows per table in {} ms", ROWS, (System.nanoTime() - start) / 1_000_000);
+
+        Map<String, Object> tenant = Map.of("tenant", tenantId, "seededBy", SEEDED_BY);
+        productIds = jdbcTemplate.queryForList(
+            "SELECT id FROM product WHERE client_account_id = :tenant AND created_by = :seededBy ORDER BY id LIMIT 3",
+            tenant,
+            Long.class
+        );
+        productId = productIds.get(0);
+        productCode = jdbcTemplate.queryForObject("SELECT code FROM product WHERE id = :id", Map.of("id", productId), String.class);
+        orderIds = jdbcTemplate.queryForList(
+            "SELECT id FROM sale_order WHERE client_account_id = :tenant AND created_by = :seededBy ORDER BY id LIMIT 3",
+            tenant,
+            Long.class
+        );
+    }
+
+    @Test
+    void hotQueriesUseIndexes() throws Exception {
+        String productIdList = productIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        List<PlanCase> cases = List.of(
+            // Native repository queries
+            new PlanCase(
+                "SaleOrderRepository.getLastReference",
+                nativeQuery(SaleOrderRepository.class, "getLastReference"),
+                Map.of("p1", tenantId),
+                "sale_order"
+            ),
+            new PlanCase(
+                "SaleOrderRepository.aggregateStatsByClientAccount",
+                nativeQuery(SaleOrderRepository.class, "aggregateStatsByClientAccount"),
+                Map.of("clientAccountId", tenantId),
+                "sale_order"
+            ),
+            new PlanCase(
+                "SaleOrderRepository.lockExpiredReservations",
+                nativeQuery(SaleOrderRepository.class, "lockExpiredReservations"),
+                Map.of("now", OffsetDateTime.now(), "afterId", 0L, "batchSize", 50),
+                "sale_order"
+            ),
+            new PlanCase(
+                "InventoryTransactionRepository.getLastReference",
+                nativeQuery(InventoryTransactionRepository.class, "getLastReference"),
+                Map.of("p1", tenantId),
+                "inventory_transaction"
+            ),
+            new PlanCase(
+                "InventoryRepository.reserveStock",
+                nativeQuery(InventoryRepository.class, "reserveStock"),
+                Map.of("clientAccountId", tenantId, "productIds", productIdList, "quantities", "1,1,1"),
+                "inventory"
+            ),
+            new PlanCase(
+                "InventoryRepository.releaseOrderReservations",
+                nativeQuery(InventoryRepository.class, "releaseOrderReservations"),
+                Map.of("orderIds", orderIds),
+                "sale_order",
+                "sale_order_item",
+                "inventory"
+            ),
+            new PlanCase(
+                "CustomerRepository.aggregateStatsByClientAccount",
+                nativeQuery(CustomerRepository.class, "aggregateStatsByClientAccount"),
+                Map.of("clientAccountId", tenantId),
+                "customer"
+            ),
+            new PlanCase(
+                "CustomerRepository.autocompleteIds",
+                nativeQuery(CustomerRepository.class, "autocompleteIds"),
+                Map.of("term", "plan 12", "pattern", "%plan 12%", "clientAccountId", tenantId, "limit", 20),
+                "customer"
+            ),
+            new PlanCase(
+                "SupplierRepository.autocompleteIds",
+                nativeQuery(SupplierRepository.class, "autocompleteIds"),
+                Map.of("term", "plan 12", "pattern", "%plan 12%", "clientAccountId", tenantId, "limit", 20),
+                "supplier"
+            ),
+            new PlanCase(
+                "ProductRepository.getCategoryStatsOptimized",
+                nativeQuery(ProductRepository.class, "getCategoryStatsOptimized"),
+                Map.of("clientAccountId", tenantId),
+                "product"
+            ),
+            // Derived and JPQL queries
+            new PlanCase(
+                "ProductRepository.findByCodeAndClientAccountId",
+                "SELECT * FROM product p WHERE p.code = :code AND p.client_account_id = :clientAccountId",
+                Map.of("code", productCode, "clientAccountId", tenantId),
+                "product"
+            ),
+            new PlanCase(
+                "ProductRepository.findExistingCodes",
+                "SELECT p.code FROM product p WHERE p.code IN (:codes) AND p.client_account_id = :clientAccountId",
+                Map.of("codes", List.of(productCode, "PLAN-UNKNOWN"), "clientAccountId", tenantId),
+                "product"
+            ),
+            new PlanCase(
+                "InventoryRepository.findByProductIdAndClientAccountId",
+                "SELECT * FROM inventory i WHERE i.product_id = :productId AND i.client_account_id = :clientAccountId",
+                Map.of("productId", productId, "clientAccountId", tenantId),
+                "inventory"
+            ),
+            new PlanCase(
+                "InventoryRepository.getTotalAvailableQuantityForProducts",
+                "SELECT i.product_id, COALESCE(SUM(i.available_quantity), 0) FROM inventory i " +
+                "WHERE i.product_id IN (:productIds) GROUP BY i.product_id",
+                Map.of("productIds", productIds),
+                "inventory"
+            ),
+            new PlanCase(
+                "SaleOrderItemRepository.findWithProductBySaleOrderIdIn",
+                "SELECT * FROM sale_order_item i JOIN product p ON p.id = i.product_id " +
+                "JOIN sale_order o ON o.id = i.sale_order_id JOIN client_account c ON c.id = o.client_account_id " +
+                "WHERE o.id IN (:orderIds)",
+                Map.of("orderIds", orderIds),
+                "sale_order_item",
+                "sale_order",
+                "product"
+            ),
+            new PlanCase(
+                "GET /api/products",
+                "SELECT * FROM product p WHERE p.client_account_id = :clientAccountId ORDER BY p.id DESC LIMIT " + PAGE_SIZE,
+                Map.of("clientAccountId", tenantId),
+                "product"
+            ),
+            new PlanCase(
+                "GET /api/inventories",
+                "SELECT * FROM inventory i WHERE i.client_account_id = :clientAccountId ORDER BY i.id DESC LIMIT " + PAGE_SIZE,
+                Map.of("clientAccountId", tenantId),
+                "inventory"
+            ),
+            new PlanCase(
+                "GET /api/inventories/{id}/history",
+                "SELECT * FROM inventory_transaction t WHERE t.product_id = :productId ORDER BY t.id DESC LIMIT " + PAGE_SIZE,
+                Map.of("productId", productId),
+                "inventory_transaction"
+            ),
+            new PlanCase(
+                "GET /api/sale-orders",
+                "SELECT * FROM sale_order so WHERE so.client_account_id = :clientAccountId ORDER BY so.id DESC LIMIT " + PAGE_SIZE,
+                Map.of("clientAccountId", tenantId),
+                "sale_order"
+            ),
+            new PlanCase(
+                "CustomerRepository.findAllByCreatedByClientAccountId",
+                "SELECT * FROM customer c WHERE c.created_by_client_account_id = :clientAccountId ORDER BY c.id DESC LIMIT " + PAGE_SIZE,
+                Map.of("clientAccountId", tenantId),
+                "customer"
+            ),
+            new PlanCase(
+                "GET /api/suppliers",
+                "SELECT * FROM supplier s WHERE s.client_account_id = :clientAccountId ORDER BY s.id DESC LIMIT " + PAGE_SIZE,
+                Map.of("clientAccountId", tenantId),
+                "supplier"
+            )
+        );
+
+        List<String> regressions = new ArrayList<>();
+        for (PlanCase planCase : cases) {
+            JsonNode explained = explain(planCase.sql(), planCase.params());
+            Set<String> seqScans = new LinkedHashSet<>();
+            collectSeqScans(explained.path("Plan"), seqScans);
+            LOG.info("{}: {} ms, sequential scans on {}", planCase.name(), explained.path("Execution Time").asDouble(), seqScans);
+
+            seqScans.retainAll(planCase.indexedTables());
+            if (!seqScans.isEmpty()) {
+                regressions.add(planCase.name() + " scans " + seqScans + " sequentially:\n" + explained.toPrettyString());
+            }
+        }
+        assertThat(regressions).as("Hot queries reading a table sequentially").isEmpty();
+    }
+
+    private ClientAccount createClientAccount(String email) {
+        ClientAccount clientAccount = new ClientAccount();
+        clientAccount.setCompanyName("Query Plan Company");
+        clientAccount.email(email);
+        clientAccount.setPhone("0676841400");
+        clientAccount.setStatus(AccountStatus.ENABLED);
+        return clientAccountRepository.saveAndFlush(clientAccount);
+    }
+
+    private JsonNode explain(String sql, Map<String, ?> params) throws Exception {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (ANALYZE, FORMAT JSON) " + sql, params, String.class);
+        return objectMapper.readTree(plan).get(0);
+    }
+
+    private static void collectSeqScans(JsonNode plan, Set<String> relations) {
+        if ("Seq Scan".equals(plan.path("Node Type").asText())) {
+            relations.add(plan.path("Relation Name").asText());
+        }
+        for (JsonNode child : plan.path("Plans")) {
+            collectSeqScans(child, relations);
+        }
+    }
+
+    /**
+     * The SQL of a native repository query, with positional parameters renamed {@code p1}, {@code p2}...
+     */
+    private static String nativeQuery(Class<?> repository, String method) {
+        return Stream.of(repository.getMethods())
+            .filter(candidate -> candidate.getName().equals(method))
+            .map(candidate -> candidate.getAnnotation(Query.class))
+            .filter(query -> query != null && query.nativeQuery())
+            .findFirst()
+            .map(query -> query.value().replaceAll("\\?(\\d+)", ":p$1"))
+            .orElseThrow(() -> new IllegalArgumentException(repository.getSimpleName() + "." + method + " is not a native query"));
+    }
+
+    /**
+     * A query to explain and the tables it must read through an index.
+     */
+    private record PlanCase(String name, String sql, Map<String, ?> params, Set<String> indexedTables) {
+        PlanCase(String name, String sql, Map<String, ?> params, String... indexedTables) {
+            this(name, sql, params, Set.of(indexedTables));
+        }
+    }
+}
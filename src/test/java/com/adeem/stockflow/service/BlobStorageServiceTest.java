@@ -0,0 +1,86 @@
+package com.adeem.stockflow.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.adeem.stockflow.config.ApplicationProperties;
+import com.adeem.stockflow.service.BlobStorageService.StoredBlob;
+import com.adeem.stockflow.service.storage.BlobStore;
+import com.adeem.stockflow.service.storage.FileSystemBlobStore;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for the {@link BlobStorageService} on a {@link FileSystemBlobStore}.
+ */
+class BlobStorageServiceTest {
+
+    @TempDir
+    private Path root;
+
+    private BlobStore blobStore;
+    private BlobStorageService blobStorageService;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getStorage().setDirectory(root.toString());
+        blobStore = spy(new FileSystemBlobStore(root));
+        blobStorageService = new BlobStorageService(blobStore, applicationProperties);
+    }
+
+    @Test
+    void sameContentIsStoredOnce() throws Exception {
+        StoredBlob first = blobStorageService.store(content("hello blob"), "text/plain");
+        StoredBlob second = blobStorageService.store(content("hello blob"), "text/plain");
+
+        assertThat(first).isEqualTo(second);
+        assertThat(first.key()).hasSize(64).matches("[0-9a-f]+");
+        assertThat(first.size()).isEqualTo(10);
+        verify(blobStore, times(1)).put(eq(first.key()), any(), eq(10L), eq("text/plain"));
+        assertThat(storedFiles()).hasSize(1);
+        assertThat(root.resolve("incoming")).isEmptyDirectory();
+    }
+
+    @Test
+    void rangeOfTheContentIsCopied() throws Exception {
+        StoredBlob blob = blobStorageService.store(content("0123456789"), null);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long copied = blobStorageService.transferTo(blob.key(), 3, 4, Channels.newChannel(out));
+
+        assertThat(copied).isEqualTo(4);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("3456");
+    }
+
+    @Test
+    void rangePastTheEndIsTruncated() throws Exception {
+        StoredBlob blob = blobStorageService.store(content("0123456789"), null);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long copied = blobStorageService.transferTo(blob.key(), 8, 10, Channels.newChannel(out));
+
+        assertThat(copied).isEqualTo(2);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("89");
+    }
+
+    private static ByteArrayInputStream content(String value) {
+        return new ByteArrayInputStream(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<Path> storedFiles() throws Exception {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+}
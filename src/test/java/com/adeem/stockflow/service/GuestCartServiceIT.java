@@ -0,0 +1,148 @@
+package com.adeem.stockflow.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.adeem.stockflow.IntegrationTest;
+import com.adeem.stockflow.domain.ClientAccount;
+import com.adeem.stockflow.domain.GuestCartItem;
+import com.adeem.stockflow.domain.Product;
+import com.adeem.stockflow.domain.enumeration.AccountStatus;
+import com.adeem.stockflow.domain.enumeration.ProductCategory;
+import com.adeem.stockflow.repository.ClientAccountRepository;
+import com.adeem.stockflow.repository.GuestCartItemRepository;
+import com.adeem.stockflow.repository.GuestCartRepository;
+import com.adeem.stockflow.repository.ProductRepository;
+import com.adeem.stockflow.service.dto.GuestCartDTO;
+import com.adeem.stockflow.service.dto.GuestCartItemDTO;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Integration tests for {@link GuestCartService} with the carts kept in the {@link GuestCartSessionStore}.
+ * Not transactional: the write-behind commits on its own.
+ */
+@IntegrationTest
+@TestPropertySource(
+    properties = {
+        "application.guest-cart.in-memory=true",
+        "application.guest-cart.maximum-size=2",
+        "application.guest-cart.flush-after-seconds=0",
+    }
+)
+class GuestCartServiceIT {
+
+    @Autowired
+    private GuestCartService guestCartService;
+
+    @Autowired
+    private GuestCartSessionStore sessionStore;
+
+    @Autowired
+    private GuestCartRepository guestCartRepository;
+
+    @Autowired
+    private GuestCartItemRepository guestCartItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ClientAccountRepository clientAccountRepository;
+
+    private ClientAccount clientAccount;
+    private Product product;
+    private final List<String> sessionIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        clientAccount = new ClientAccount();
+        clientAccount.setCompanyName("Guest Cart Company");
+        clientAccount.email("guestcart@company.com");
+        clientAccount.setPhone("0676841477");
+        clientAccount.setStatus(AccountStatus.ENABLED);
+        clientAccount = clientAccountRepository.saveAndFlush(clientAccount);
+
+        product = new Product();
+        product.setName("Guest Cart Product");
+        product.setCode("GUEST-001");
+        product.applyTva(false);
+        product.setSellingPrice(new BigDecimal("25.00"));
+        product.setCostPrice(new BigDecimal("20.00"));
+        product.setCategory(ProductCategory.ELECTRONICS);
+        product.setIsVisibleToCustomers(true);
+        product.setClientAccount(clientAccount);
+        product = productRepository.saveAndFlush(product);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionIds.forEach(guestCartService::deleteGuestCart);
+        productRepository.deleteById(product.getId());
+        clientAccountRepository.deleteById(clientAccount.getId());
+    }
+
+    @Test
+    void guestCartIsOnlyWrittenBehind() {
+        String sessionId = createGuestCart();
+        GuestCartItemDTO item = guestCartService.addItemToGuestCart(sessionId, product.getId(), new BigDecimal("2"));
+        guestCartService.addItemToGuestCart(sessionId, product.getId(), new BigDecimal("1"));
+
+        assertThat(guestCartRepository.findById(sessionId)).isEmpty();
+        assertThat(guestCartItemRepository.findBySessionId(sessionId)).isEmpty();
+        assertThat(guestCartService.countGuestCartItems(sessionId)).isEqualTo(1L);
+
+        sessionStore.flush();
+
+        assertThat(guestCartRepository.findById(sessionId)).isPresent();
+        List<GuestCartItem> rows = guestCartItemRepository.findBySessionId(sessionId);
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).getId()).isEqualTo(item.getId());
+        assertThat(rows.get(0).getQuantity()).isEqualByComparingTo(new BigDecimal("3"));
+    }
+
+    @Test
+    void evictedGuestCartIsWrittenAndLoadedBack() {
+        String evictedSessionId = createGuestCart();
+        GuestCartItemDTO item = guestCartService.addItemToGuestCart(evictedSessionId, product.getId(), new BigDecimal("4"));
+
+        // Two newer carts push the first one out of memory
+        createGuestCart();
+        createGuestCart();
+        assertThat(guestCartRepository.findById(evictedSessionId)).isEmpty();
+
+        sessionStore.flush();
+        assertThat(guestCartRepository.findById(evictedSessionId)).isPresent();
+
+        GuestCartDTO guestCart = guestCartService.findGuestCart(evictedSessionId);
+        assertThat(guestCart.getItems()).hasSize(1);
+        assertThat(guestCart.getItems().get(0).getId()).isEqualTo(item.getId());
+        assertThat(guestCart.getTotalAmount()).isEqualByComparingTo(new BigDecimal("100.00"));
+
+        guestCartService.deleteGuestCart(evictedSessionId);
+        assertThat(guestCartRepository.findById(evictedSessionId)).isEmpty();
+        assertThat(guestCartItemRepository.findBySessionId(evictedSessionId)).isEmpty();
+    }
+
+    @Test
+    void emptyGuestCartIsNeverWritten() {
+        String sessionId = createGuestCart();
+        guestCartService.extendGuestCartExpiration(sessionId);
+
+        sessionStore.flush();
+
+        assertThat(guestCartRepository.findById(sessionId)).isEmpty();
+        assertThat(guestCartService.findGuestCart(sessionId).getTotalItems()).isZero();
+    }
+
+    private String createGuestCart() {
+        String sessionId = guestCartService.createGuestCart();
+        sessionIds.add(sessionId);
+        return sessionId;
+    }
+}
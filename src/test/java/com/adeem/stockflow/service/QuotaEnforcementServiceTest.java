@@ -0,0 +1,193 @@
+package com.adeem.stockflow.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.adeem.stockflow.config.ApplicationProperties;
+import com.adeem.stockflow.domain.Quota;
+import com.adeem.stockflow.domain.ResourceLimit;
+import com.adeem.stockflow.domain.enumeration.MeteredResource;
+import com.adeem.stockflow.domain.enumeration.SubscriptionStatus;
+import com.adeem.stockflow.repository.QuotaRepository;
+import com.adeem.stockflow.repository.ResourceLimitRepository;
+import com.adeem.stockflow.service.exceptions.BadRequestAlertException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Test class for the {@link QuotaEnforcementService}.
+ */
+class QuotaEnforcementServiceTest {
+
+    private static final Long CLIENT_ACCOUNT_ID = 1L;
+    private static final Long QUOTA_ID = 10L;
+
+    private QuotaRepository quotaRepository;
+    private ResourceLimitRepository resourceLimitRepository;
+    private QuotaEnforcementService quotaEnforcementService;
+    private Quota quota;
+
+    @BeforeEach
+    void setUp() {
+        quotaRepository = mock(QuotaRepository.class);
+        resourceLimitRepository = mock(ResourceLimitRepository.class);
+
+        quota = new Quota().id(QUOTA_ID).resetDate(ZonedDateTime.now().plusDays(10));
+        quota.setProducts(2);
+        quota.setSaleOrders(7);
+        when(quotaRepository.findByClientAccountId(CLIENT_ACCOUNT_ID)).thenReturn(Optional.of(quota));
+        when(quotaRepository.findById(QUOTA_ID)).thenReturn(Optional.of(quota));
+        when(resourceLimitRepository.findBySubscription(CLIENT_ACCOUNT_ID, SubscriptionStatus.ACTIVE)).thenReturn(
+            List.of(
+                new ResourceLimit().resourceType("products").maxAmount(3).isUnlimited(false),
+                new ResourceLimit().resourceType("saleOrders").maxAmount(100).isUnlimited(false),
+                new ResourceLimit().resourceType("CUSTOMERS").maxAmount(5).isUnlimited(true)
+            )
+        );
+
+        quotaEnforcementService = new QuotaEnforcementService(
+            quotaRepository,
+            resourceLimitRepository,
+            mock(PlatformTransactionManager.class),
+            new ApplicationProperties()
+        );
+    }
+
+    @Test
+    void acquireStopsAtThePlanLimit() {
+        quotaEnforcementService.acquire(CLIENT_ACCOUNT_ID, MeteredResource.PRODUCTS);
+
+        assertThatThrownBy(() -> quotaEnforcementService.acquire(CLIENT_ACCOUNT_ID, MeteredResource.PRODUCTS)).isInstanceOf(
+            BadRequestAlertException.class
+        );
+        // Seeded once, then counted in memory
+        verify(quotaRepository, times(1)).findByClientAccountId(CLIENT_ACCOUNT_ID);
+    }
+
+    @Test
+    void releasedUnitsCanBeTakenAgain() {
+        quotaEnforcementService.acquire(CLIENT_ACCOUNT_ID, MeteredResource.PRODUCTS);
+        quotaEnforcementService.release(CLIENT_ACCOUNT_ID, MeteredResource.PRODUCTS, 2);
+
+        quotaEnforcementService.acquire(CLIENT_ACCOUNT_ID, MeteredResource.PRODUCTS, 2);
+
+        assertThatThrownBy(() -> quotaEnforcementService.acquire(CLIENT_ACCOUNT_ID, MeteredResource.PRODUCTS)).isInstanceOf(
+            BadRequestAlertException.class
+        );
+    }
+
+    @Test
+    void resourcesWithoutLimitOrNotMeteredAreUnlimited() {
+        for (int i = 0; i < 50; i++) {
+            quotaEnforcementService.acquire(CLIENT_ACCOUNT_ID, MeteredResource.CUSTOMERS);
+            quotaEnforcementService.acquire(CLIENT_ACCOUNT_ID, MeteredResource.SUPPLIERS);
+            // No quota row
+            quotaEnforcementService.acquire(2L, MeteredResource.PRODUCTS);
+        }
+        verify(resourceLimitRepository, never()).findBySubscription(eq(2L), any());
+    }
+
+    @Test
+    void concurrentAcquiresNeverExceedTheLimit() throws Exception {
+        AtomicInteger acquired = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(
+                    executor.submit(() -> {
+                        for (int j = 0; j < 50; j++) {
+                            try {
+                                quotaEnforcementService.acquire(CLIENT_ACCOUNT_ID, MeteredResource.SALE_ORDERS);
+                                acquired.incrementAndGet();
+                            } catch (BadRequestAlertException e) {
+                                // Limit reached
+                            }
+                        }
+                    })
+                );
+            }
+            for (Future<?> result : results) {
+                result.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(acquired).hasValue(100 - 7);
+    }
+
+    @Test
+    void flushWritesTheCountedDeltas() {
+        quotaEnforcementService.acquire(CLIENT_ACCOUNT_ID, MeteredResource.SALE_ORDERS, 3);
+        quotaEnforcementService.release(CLIENT_ACCOUNT_ID, MeteredResource.PRODUCTS, 1);
+
+        quotaEnforcementService.flush();
+        quotaEnforcementService.flush();
+
+        verify(quotaRepository, times(1)).addUsage(QUOTA_ID, 0, -1, 0, 0, 3, 0, 0, 0, 0);
+    }
+
+    @Test
+    void rolledBackAcquiresAreGivenBack() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            quotaEnforcementService.acquire(CLIENT_ACCOUNT_ID, MeteredResource.PRODUCTS);
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        quotaEnforcementService.flush();
+
+        verify(quotaRepository, never()).addUsage(
+            anyLong(),
+            anyInt(),
+            anyInt(),
+            anyInt(),
+            anyInt(),
+            anyInt(),
+            anyInt(),
+            anyInt(),
+            anyInt(),
+            anyInt()
+        );
+        quotaEnforcementService.acquire(CLIENT_ACCOUNT_ID, MeteredResource.PRODUCTS);
+    }
+
+    @Test
+    void periodicCountersAreResetWhenTheResetDateHasPassed() {
+        ZonedDateTime resetDate = ZonedDateTime.now().minusDays(1);
+        quota.setResetDate(resetDate);
+
+        quotaEnforcementService.acquire(CLIENT_ACCOUNT_ID, MeteredResource.SALE_ORDERS);
+
+        verify(quotaRepository, atLeastOnce()).resetPeriodicUsage(eq(QUOTA_ID), any(ZonedDateTime.class), eq(resetDate.plusMonths(1)));
+    }
+
+    @Test
+    void nextResetDateIsTheFirstMonthlyDateAfterNow() {
+        ZonedDateTime now = ZonedDateTime.parse("2025-07-15T10:00:00Z");
+
+        assertThat(QuotaEnforcementService.nextResetDate(ZonedDateTime.parse("2025-05-03T00:00:00Z"), now)).isEqualTo(
+            ZonedDateTime.parse("2025-08-03T00:00:00Z")
+        );
+        assertThat(QuotaEnforcementService.nextResetDate(null, now)).isEqualTo(ZonedDateTime.parse("2025-08-01T00:00:00Z"));
+    }
+}
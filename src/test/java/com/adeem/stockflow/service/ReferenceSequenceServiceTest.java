@@ -0,0 +1,125 @@
+package com.adeem.stockflow.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.adeem.stockflow.config.ApplicationProperties;
+import com.adeem.stockflow.domain.enumeration.ReferenceType;
+import com.adeem.stockflow.repository.InventoryTransactionRepository;
+import com.adeem.stockflow.repository.ReferenceSequenceRepository;
+import com.adeem.stockflow.repository.SaleOrderRepository;
+import com.adeem.stockflow.repository.ShipmentRepository;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link ReferenceSequenceService}.
+ */
+class ReferenceSequenceServiceTest {
+
+    private static final int BLOCK_SIZE = 10;
+
+    private ReferenceSequenceRepository referenceSequenceRepository;
+    private SaleOrderRepository saleOrderRepository;
+    private ReferenceSequenceService referenceSequenceService;
+
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        referenceSequenceRepository = mock(ReferenceSequenceRepository.class);
+        saleOrderRepository = mock(SaleOrderRepository.class);
+        ShipmentRepository shipmentRepository = mock(ShipmentRepository.class);
+        InventoryTransactionRepository inventoryTransactionRepository = mock(InventoryTransactionRepository.class);
+        when(saleOrderRepository.getLastReference(anyLong())).thenReturn(Optional.empty());
+        when(shipmentRepository.getLastReference(anyLong())).thenReturn(Optional.empty());
+        when(inventoryTransactionRepository.getLastReference(anyLong())).thenReturn(Optional.empty());
+
+        // Emulates the counter upsert: seed on first use, then add the block size
+        when(referenceSequenceRepository.allocateBlock(anyLong(), anyString(), anyInt(), anyLong(), anyInt())).thenAnswer(invocation -> {
+            String key = invocation.getArgument(0) + ":" + invocation.getArgument(1) + ":" + invocation.getArgument(2);
+            long seed = invocation.getArgument(3);
+            int blockSize = invocation.getArgument(4);
+            return counters.computeIfAbsent(key, k -> new AtomicLong(seed)).addAndGet(blockSize);
+        });
+
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getReference().setBlockSize(BLOCK_SIZE);
+
+        referenceSequenceService = new ReferenceSequenceService(
+            referenceSequenceRepository,
+            saleOrderRepository,
+            shipmentRepository,
+            inventoryTransactionRepository,
+            applicationProperties
+        );
+    }
+
+    @Test
+    void shouldHandOutSequentialReferencesFromOneBlock() {
+        int year = LocalDate.now().getYear();
+
+        for (int i = 1; i <= BLOCK_SIZE; i++) {
+            assertThat(referenceSequenceService.nextReference(1L, ReferenceType.SALE_ORDER)).isEqualTo(String.format("%04d/%04d", year, i));
+        }
+
+        verify(referenceSequenceRepository, times(1)).allocateBlock(anyLong(), anyString(), anyInt(), anyLong(), anyInt());
+    }
+
+    @Test
+    void shouldContinueFromExistingReferences() {
+        int year = LocalDate.now().getYear();
+        when(saleOrderRepository.getLastReference(2L)).thenReturn(Optional.of(String.format("%04d/%04d", year, 41)));
+
+        assertThat(referenceSequenceService.nextReference(2L, ReferenceType.SALE_ORDER)).isEqualTo(String.format("%04d/%04d", year, 42));
+        assertThat(referenceSequenceService.nextReference(2L, ReferenceType.SHIPMENT)).isEqualTo(String.format("%04d/%04d", year, 1));
+    }
+
+    @Test
+    void shouldNeverHandOutDuplicatesUnderContention() throws Exception {
+        int threads = 16;
+        int perThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<String>>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            long clientAccountId = t % 2;
+            futures.add(
+                executor.submit(() -> {
+                    start.await();
+                    List<String> references = new ArrayList<>();
+                    for (int i = 0; i < perThread; i++) {
+                        references.add(clientAccountId + "-" + referenceSequenceService.nextReference(clientAccountId, ReferenceType.SALE_ORDER));
+                    }
+                    return references;
+                })
+            );
+        }
+        start.countDown();
+
+        Set<String> unique = ConcurrentHashMap.newKeySet();
+        for (Future<List<String>> future : futures) {
+            unique.addAll(future.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        assertThat(unique).hasSize(threads * perThread);
+        verify(referenceSequenceRepository, times(threads * perThread / BLOCK_SIZE)).allocateBlock(
+            anyLong(),
+            anyString(),
+            anyInt(),
+            anyLong(),
+            anyInt()
+        );
+    }
+}
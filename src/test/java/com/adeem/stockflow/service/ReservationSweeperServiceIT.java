@@ -0,0 +1,200 @@
+package com.adeem.stockflow.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.adeem.stockflow.IntegrationTest;
+import com.adeem.stockflow.domain.*;
+import com.adeem.stockflow.domain.enumeration.*;
+import com.adeem.stockflow.repository.*;
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for {@link ReservationSweeperService}.
+ * Not transactional: every batch has to commit on its own for the row locks to matter.
+ */
+@IntegrationTest
+class ReservationSweeperServiceIT {
+
+    private static final BigDecimal INITIAL_STOCK = new BigDecimal("100");
+    private static final BigDecimal RESERVED_QUANTITY = new BigDecimal("5");
+
+    @Autowired
+    private ReservationSweeperService reservationSweeperService;
+
+    @Autowired
+    private ClientAccountRepository clientAccountRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventoryTransactionRepository inventoryTransactionRepository;
+
+    @Autowired
+    private SaleOrderRepository saleOrderRepository;
+
+    private ClientAccount clientAccount;
+    private Product product;
+    private Inventory inventory;
+    private final List<Long> orderIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        clientAccount = new ClientAccount();
+        clientAccount.setCompanyName("Sweeper Company");
+        clientAccount.email("sweeper@company.com");
+        clientAccount.setPhone("0676841498");
+        clientAccount.setStatus(AccountStatus.ENABLED);
+        clientAccount.setReservationTimeoutHours(24);
+        clientAccount.setYalidineEnabled(false);
+        clientAccount = clientAccountRepository.saveAndFlush(clientAccount);
+
+        product = new Product();
+        product.setName("Sweeper Product");
+        product.setCode("SWEEP-001");
+        product.applyTva(false);
+        product.setSellingPrice(new BigDecimal("100.00"));
+        product.setCostPrice(new BigDecimal("80.00"));
+        product.setCategory(ProductCategory.ELECTRONICS);
+        product.setClientAccount(clientAccount);
+        product = productRepository.saveAndFlush(product);
+
+        // Stock as it stands with every confirmed order below holding its reservation
+        inventory = new Inventory();
+        inventory.setProduct(product);
+        inventory.setQuantity(INITIAL_STOCK);
+        inventory.setAvailableQuantity(INITIAL_STOCK);
+        inventory.setStatus(InventoryStatus.AVAILABLE);
+        inventory.setClientAccount(clientAccount);
+        inventory = inventoryRepository.saveAndFlush(inventory);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        inventoryTransactionRepository.deleteAll(inventoryTransactionRepository.findByProductId(product.getId()));
+        saleOrderRepository.deleteAllById(orderIds);
+        inventoryRepository.deleteById(inventory.getId());
+        productRepository.deleteById(product.getId());
+        clientAccountRepository.deleteById(clientAccount.getId());
+    }
+
+    @Test
+    void cancelsOnlyExpiredConfirmedOrders() {
+        ZonedDateTime now = ZonedDateTime.now();
+        Long expired = createOrder(OrderStatus.CONFIRMED, now.minusMinutes(1));
+        Long stillReserved = createOrder(OrderStatus.CONFIRMED, now.plusHours(1));
+        Long drafted = createOrder(OrderStatus.DRAFTED, now.minusMinutes(1));
+        Long alreadyCancelled = createOrder(OrderStatus.CANCELLED, now.minusMinutes(1));
+
+        List<Long> cancelled = reservationSweeperService.cancelExpiredBatch(now, 0L, 50);
+
+        assertThat(cancelled).containsExactly(expired);
+        assertThat(statusOf(expired)).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(saleOrderRepository.findById(expired).orElseThrow().getNotes()).contains("Auto-cancelled");
+        assertThat(statusOf(stillReserved)).isEqualTo(OrderStatus.CONFIRMED);
+        assertThat(statusOf(drafted)).isEqualTo(OrderStatus.DRAFTED);
+        assertThat(statusOf(alreadyCancelled)).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(availableQuantity()).isEqualByComparingTo(INITIAL_STOCK.add(RESERVED_QUANTITY));
+        assertThat(inventoryTransactionRepository.findByProductId(product.getId())).hasSize(1);
+
+        assertThat(reservationSweeperService.cancelExpiredBatch(now, 0L, 50)).isEmpty();
+    }
+
+    @Test
+    void cancellationNoteIsKeptWhenNotesAreFull() {
+        ZonedDateTime now = ZonedDateTime.now();
+        Long expired = createOrder(OrderStatus.CONFIRMED, now.minusMinutes(1));
+        SaleOrder order = saleOrderRepository.findById(expired).orElseThrow();
+        order.setNotes("x".repeat(250));
+        saleOrderRepository.saveAndFlush(order);
+
+        reservationSweeperService.cancelExpiredBatch(now, 0L, 50);
+
+        String notes = saleOrderRepository.findById(expired).orElseThrow().getNotes();
+        assertThat(notes).hasSizeLessThanOrEqualTo(255).startsWith("xxx").contains("Auto-cancelled");
+    }
+
+    @Test
+    void concurrentSweepersReleaseEachReservationOnce() throws Exception {
+        ZonedDateTime now = ZonedDateTime.now();
+        int orders = 12;
+        for (int i = 0; i < orders; i++) {
+            createOrder(OrderStatus.CONFIRMED, now.minusMinutes(1));
+        }
+
+        int sweepers = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(sweepers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Long>>> futures = new ArrayList<>();
+        for (int s = 0; s < sweepers; s++) {
+            futures.add(
+                executor.submit(() -> {
+                    start.await();
+                    List<Long> swept = new ArrayList<>();
+                    List<Long> batch;
+                    long afterId = 0L;
+                    do {
+                        batch = reservationSweeperService.cancelExpiredBatch(now, afterId, 2);
+                        if (!batch.isEmpty()) {
+                            afterId = batch.get(batch.size() - 1);
+                        }
+                        swept.addAll(batch);
+                    } while (batch.size() == 2);
+                    return swept;
+                })
+            );
+        }
+        start.countDown();
+
+        List<Long> swept = new ArrayList<>();
+        for (Future<List<Long>> future : futures) {
+            swept.addAll(future.get(60, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        assertThat(swept).doesNotHaveDuplicates();
+        assertThat(Set.copyOf(swept)).isEqualTo(Set.copyOf(orderIds));
+        assertThat(availableQuantity()).isEqualByComparingTo(INITIAL_STOCK.add(RESERVED_QUANTITY.multiply(BigDecimal.valueOf(orders))));
+    }
+
+    private Long createOrder(OrderStatus status, ZonedDateTime reservationExpiresAt) {
+        SaleOrder order = new SaleOrder();
+        order.setReference("SWEEP-" + orderIds.size());
+        order.setDate(ZonedDateTime.now());
+        order.setStatus(status);
+        order.setOrderType(OrderType.STORE_PICKUP);
+        order.setReservationExpiresAt(reservationExpiresAt);
+        order.setClientAccount(clientAccount);
+
+        SaleOrderItem item = new SaleOrderItem();
+        item.setProduct(product);
+        item.setQuantity(RESERVED_QUANTITY);
+        item.setUnitPrice(product.getSellingPrice());
+        item.setTotal(product.getSellingPrice().multiply(RESERVED_QUANTITY));
+        order.addOrderItem(item);
+
+        Long id = saleOrderRepository.saveAndFlush(order).getId();
+        orderIds.add(id);
+        return id;
+    }
+
+    private OrderStatus statusOf(Long orderId) {
+        return saleOrderRepository.findById(orderId).orElseThrow().getStatus();
+    }
+
+    private BigDecimal availableQuantity() {
+        return inventoryRepository.findById(inventory.getId()).orElseThrow().getAvailableQuantity();
+    }
+}
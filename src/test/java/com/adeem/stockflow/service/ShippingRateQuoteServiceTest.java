@@ -0,0 +1,221 @@
+package com.adeem.stockflow.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.adeem.stockflow.config.ApplicationProperties;
+import com.adeem.stockflow.domain.Address;
+import com.adeem.stockflow.service.exceptions.YalidineApiException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link ShippingRateQuoteService}.
+ */
+class ShippingRateQuoteServiceTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final BigDecimal RATE = new BigDecimal("450");
+
+    private YalidineIntegrationService yalidineIntegrationService;
+    private final List<Runnable> scheduled = new ArrayList<>();
+    private final AtomicLong now = new AtomicLong();
+    private ShippingRateQuoteService shippingRateQuoteService;
+
+    private final Address warehouse = address("Rouiba", "Alger");
+    private final Address customer = address("Bab Ezzouar", "Alger");
+    private final Address otherCustomer = address("Oran", null);
+
+    @BeforeEach
+    void setUp() {
+        yalidineIntegrationService = mock(YalidineIntegrationService.class);
+        when(yalidineIntegrationService.fetchRate(anyString(), anyString(), anyDouble())).thenReturn(RATE);
+
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getShippingRates().setRefreshAfterSeconds(60);
+        applicationProperties.getShippingRates().setExpireAfterSeconds(600);
+        shippingRateQuoteService = newService(applicationProperties);
+    }
+
+    private ShippingRateQuoteService newService(ApplicationProperties applicationProperties) {
+        return new ShippingRateQuoteService(yalidineIntegrationService, scheduled::add, applicationProperties, now::get);
+    }
+
+    private static Address address(String city, String wilaya) {
+        Address address = new Address();
+        address.setCity(city);
+        address.setState(wilaya);
+        return address;
+    }
+
+    private void runScheduled() {
+        List<Runnable> tasks = new ArrayList<>(scheduled);
+        scheduled.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    @Test
+    void quotesAreSharedPerWilayaAndWeightBracket() {
+        assertThat(shippingRateQuoteService.getQuote(warehouse, customer, 0.4)).contains(RATE);
+        assertThat(shippingRateQuoteService.getQuote(address("Cheraga", "ALGER "), customer, null)).contains(RATE);
+        assertThat(shippingRateQuoteService.getQuote(warehouse, customer, 1.5)).contains(RATE);
+        assertThat(shippingRateQuoteService.getQuote(warehouse, otherCustomer, 1.0)).contains(RATE);
+
+        verify(yalidineIntegrationService).fetchRate("Alger", "Alger", 1);
+        verify(yalidineIntegrationService).fetchRate("Alger", "Alger", 2);
+        verify(yalidineIntegrationService).fetchRate("Alger", "Oran", 1);
+        verifyNoMoreInteractions(yalidineIntegrationService);
+    }
+
+    @Test
+    void concurrentQuotesShareOneCarrierCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(yalidineIntegrationService.fetchRate(anyString(), anyString(), anyDouble())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return RATE;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Optional<BigDecimal>>> quotes = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                quotes.add(executor.submit(() -> shippingRateQuoteService.getQuote(warehouse, customer, null)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<Optional<BigDecimal>> quote : quotes) {
+                assertThat(quote.get(5, TimeUnit.SECONDS)).contains(RATE);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(yalidineIntegrationService, times(1)).fetchRate(anyString(), anyString(), anyDouble());
+    }
+
+    @Test
+    void staleQuoteIsServedWhileRefreshedInTheBackground() {
+        shippingRateQuoteService.getQuote(warehouse, customer, null);
+        when(yalidineIntegrationService.fetchRate(anyString(), anyString(), anyDouble())).thenReturn(new BigDecimal("500"));
+        now.set(61 * SECOND);
+
+        assertThat(shippingRateQuoteService.getQuote(warehouse, customer, null)).contains(RATE);
+        assertThat(shippingRateQuoteService.getQuoteIfCached(warehouse, customer, null)).contains(RATE);
+        assertThat(scheduled).hasSize(1);
+
+        runScheduled();
+
+        assertThat(shippingRateQuoteService.getQuote(warehouse, customer, null)).contains(new BigDecimal("500"));
+        verify(yalidineIntegrationService, times(2)).fetchRate(anyString(), anyString(), anyDouble());
+    }
+
+    @Test
+    void failedRefreshKeepsTheQuoteUntilItExpires() {
+        shippingRateQuoteService.getQuote(warehouse, customer, null);
+        when(yalidineIntegrationService.fetchRate(anyString(), anyString(), anyDouble())).thenThrow(new YalidineApiException("down"));
+
+        now.set(61 * SECOND);
+        assertThat(shippingRateQuoteService.getQuote(warehouse, customer, null)).contains(RATE);
+        runScheduled();
+        assertThat(shippingRateQuoteService.getQuote(warehouse, customer, null)).contains(RATE);
+
+        now.set(601 * SECOND);
+        assertThat(shippingRateQuoteService.getQuote(warehouse, customer, null)).isEmpty();
+    }
+
+    @Test
+    void failuresAreCachedBriefly() {
+        when(yalidineIntegrationService.fetchRate(anyString(), anyString(), anyDouble()))
+            .thenThrow(new YalidineApiException("down"))
+            .thenReturn(RATE);
+
+        assertThat(shippingRateQuoteService.getQuote(warehouse, customer, null)).isEmpty();
+        assertThat(shippingRateQuoteService.getQuote(warehouse, customer, null)).isEmpty();
+        assertThat(shippingRateQuoteService.getQuoteIfCached(warehouse, customer, null)).isEmpty();
+        verify(yalidineIntegrationService, times(1)).fetchRate(anyString(), anyString(), anyDouble());
+
+        now.set(61 * SECOND);
+        assertThat(shippingRateQuoteService.getQuote(warehouse, customer, null)).contains(RATE);
+    }
+
+    @Test
+    void cacheKeepsAtMostMaxEntriesQuotes() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getShippingRates().setRefreshAfterSeconds(60);
+        applicationProperties.getShippingRates().setExpireAfterSeconds(600);
+        applicationProperties.getShippingRates().setMaxEntries(2);
+        shippingRateQuoteService = newService(applicationProperties);
+
+        shippingRateQuoteService.getQuote(warehouse, customer, null);
+        shippingRateQuoteService.getQuote(warehouse, otherCustomer, null);
+        // Full, asked without being cached
+        assertThat(shippingRateQuoteService.getQuote(warehouse, address("Blida", "Blida"), null)).contains(RATE);
+        assertThat(shippingRateQuoteService.getQuote(warehouse, address("Blida", "Blida"), null)).contains(RATE);
+        verify(yalidineIntegrationService, times(2)).fetchRate("Alger", "Blida", 1);
+
+        // Expired quotes make room
+        now.set(601 * SECOND);
+        shippingRateQuoteService.getQuote(warehouse, address("Blida", "Blida"), null);
+        now.set(602 * SECOND);
+        assertThat(shippingRateQuoteService.getQuote(warehouse, address("Blida", "Blida"), null)).contains(RATE);
+        verify(yalidineIntegrationService, times(3)).fetchRate("Alger", "Blida", 1);
+    }
+
+    @Test
+    void asyncQuotesAreAskedTogetherAndCached() {
+        CompletableFuture<Optional<BigDecimal>> first = shippingRateQuoteService.getQuoteAsync(warehouse, customer, null);
+        CompletableFuture<Optional<BigDecimal>> second = shippingRateQuoteService.getQuoteAsync(warehouse, otherCustomer, null);
+        assertThat(first).isNotDone();
+        assertThat(second).isNotDone();
+        assertThat(scheduled).hasSize(2);
+
+        runScheduled();
+
+        assertThat(first.join()).contains(RATE);
+        assertThat(second.join()).contains(RATE);
+        assertThat(shippingRateQuoteService.getQuoteIfCached(warehouse, customer, null)).contains(RATE);
+        verify(yalidineIntegrationService, times(2)).fetchRate(anyString(), anyString(), anyDouble());
+    }
+
+    @Test
+    void asyncQuoteGivesUpAfterTheWaitTimeout() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getShippingRates().setWaitTimeoutMs(10);
+        shippingRateQuoteService = newService(applicationProperties);
+
+        // Never run, as if the carrier did not answer
+        assertThat(shippingRateQuoteService.getQuoteAsync(warehouse, customer, null).join()).isEmpty();
+    }
+
+    @Test
+    void cartQuotesNeverWaitForTheCarrier() {
+        assertThat(shippingRateQuoteService.getQuoteIfCached(warehouse, customer, null)).isEmpty();
+        assertThat(shippingRateQuoteService.getQuoteIfCached(warehouse, customer, null)).isEmpty();
+        verifyNoInteractions(yalidineIntegrationService);
+        assertThat(scheduled).hasSize(1);
+
+        runScheduled();
+
+        assertThat(shippingRateQuoteService.getQuoteIfCached(warehouse, customer, null)).contains(RATE);
+        verify(yalidineIntegrationService, times(1)).fetchRate(anyString(), anyString(), anyDouble());
+    }
+
+    @Test
+    void addressesWithoutWilayaAreNotQuoted() {
+        assertThat(shippingRateQuoteService.getQuote(address(null, " "), customer, null)).isEmpty();
+        assertThat(shippingRateQuoteService.getQuote(warehouse, null, null)).isEmpty();
+        verifyNoInteractions(yalidineIntegrationService);
+    }
+}
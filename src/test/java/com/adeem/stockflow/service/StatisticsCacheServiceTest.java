@@ -0,0 +1,146 @@
+package com.adeem.stockflow.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.adeem.stockflow.config.ApplicationProperties;
+import com.adeem.stockflow.service.StatisticsCacheService.StatisticsType;
+import com.adeem.stockflow.service.event.CustomerAssociationsChangedEvent;
+import com.adeem.stockflow.service.event.CustomersChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+/**
+ * Test class for the {@link StatisticsCacheService}.
+ */
+class StatisticsCacheServiceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private StatisticsCacheService statisticsCacheService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(
+            Stream.of(StatisticsType.values()).map(StatisticsType::getCacheName).toArray(String[]::new)
+        );
+        statisticsCacheService = new StatisticsCacheService(cacheManager, meterRegistry, new ApplicationProperties());
+    }
+
+    @Test
+    void statisticsAreComputedOncePerTenant() {
+        AtomicInteger loads = new AtomicInteger();
+
+        String first = statisticsCacheService.get(StatisticsType.CUSTOMER, 1L, () -> "stats-" + loads.incrementAndGet());
+        String second = statisticsCacheService.get(StatisticsType.CUSTOMER, 1L, () -> "stats-" + loads.incrementAndGet());
+        String otherTenant = statisticsCacheService.get(StatisticsType.CUSTOMER, 2L, () -> "stats-" + loads.incrementAndGet());
+
+        assertThat(first).isEqualTo("stats-1").isEqualTo(second);
+        assertThat(otherTenant).isEqualTo("stats-2");
+        assertThat(gets(StatisticsType.CUSTOMER, "hit")).isEqualTo(1);
+        assertThat(gets(StatisticsType.CUSTOMER, "miss")).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentMissesShareOneComputation() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            results.add(
+                executor.submit(() ->
+                    statisticsCacheService.get(StatisticsType.INVENTORY, 1L, () -> {
+                        loading.countDown();
+                        await(release);
+                        return loads.incrementAndGet();
+                    })
+                )
+            );
+            await(loading);
+            for (int i = 0; i < 3; i++) {
+                results.add(executor.submit(() -> statisticsCacheService.get(StatisticsType.INVENTORY, 1L, loads::incrementAndGet)));
+            }
+            while (gets(StatisticsType.INVENTORY, "shared") < 3) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<Integer> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+            }
+            assertThat(loads).hasValue(1);
+            assertThat(gets(StatisticsType.INVENTORY, "miss")).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void statisticsComputedDuringAnEvictionAreNotKept() {
+        AtomicInteger loads = new AtomicInteger();
+
+        statisticsCacheService.get(StatisticsType.SUPPLIER, 1L, () -> {
+            // A change commits while the statistics are being computed
+            statisticsCacheService.evict(StatisticsType.SUPPLIER, 1L);
+            return loads.incrementAndGet();
+        });
+        Integer next = statisticsCacheService.get(StatisticsType.SUPPLIER, 1L, loads::incrementAndGet);
+
+        assertThat(next).isEqualTo(2);
+    }
+
+    @Test
+    void eventsEvictTheChangedTenantOnly() {
+        AtomicInteger loads = new AtomicInteger();
+        statisticsCacheService.get(StatisticsType.CUSTOMER, 1L, loads::incrementAndGet);
+        statisticsCacheService.get(StatisticsType.CUSTOMER, 2L, loads::incrementAndGet);
+        statisticsCacheService.get(StatisticsType.CUSTOMER_ASSOCIATION, 1L, loads::incrementAndGet);
+
+        statisticsCacheService.onCustomersChanged(new CustomersChangedEvent(1L));
+        assertThat(statisticsCacheService.get(StatisticsType.CUSTOMER, 1L, loads::incrementAndGet)).isEqualTo(4);
+        assertThat(statisticsCacheService.get(StatisticsType.CUSTOMER, 2L, loads::incrementAndGet)).isEqualTo(2);
+        assertThat(statisticsCacheService.get(StatisticsType.CUSTOMER_ASSOCIATION, 1L, loads::incrementAndGet)).isEqualTo(3);
+
+        statisticsCacheService.onCustomerAssociationsChanged(new CustomerAssociationsChangedEvent(1L));
+        assertThat(statisticsCacheService.get(StatisticsType.CUSTOMER_ASSOCIATION, 1L, loads::incrementAndGet)).isEqualTo(5);
+        assertThat(statisticsCacheService.get(StatisticsType.CUSTOMER, 1L, loads::incrementAndGet)).isEqualTo(6);
+    }
+
+    @Test
+    void disabledCacheAlwaysComputes() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getStatisticsCache().setEnabled(false);
+        StatisticsCacheService disabled = new StatisticsCacheService(new ConcurrentMapCacheManager(), meterRegistry, applicationProperties);
+        AtomicInteger loads = new AtomicInteger();
+
+        disabled.get(StatisticsType.CUSTOMER, 1L, loads::incrementAndGet);
+        disabled.get(StatisticsType.CUSTOMER, 1L, loads::incrementAndGet);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private double gets(StatisticsType type, String result) {
+        return meterRegistry.get("statistics.cache.gets").tag("type", type.name().toLowerCase()).tag("result", result).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.adeem.stockflow.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.adeem.stockflow.IntegrationTest;
+import com.adeem.stockflow.domain.*;
+import com.adeem.stockflow.domain.enumeration.*;
+import com.adeem.stockflow.repository.*;
+import com.adeem.stockflow.service.dto.InventoryValidationDTO;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link StockReservationService}.
+ * Not transactional: every reservation commits on its own, like concurrent order confirmations do.
+ */
+@IntegrationTest
+class StockReservationServiceIT {
+
+    private static final BigDecimal INITIAL_STOCK = new BigDecimal("100");
+    private static final BigDecimal ORDER_QUANTITY = new BigDecimal("7");
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private ClientAccountRepository clientAccountRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventoryTransactionRepository inventoryTransactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private ClientAccount clientAccount;
+    private Product product;
+    private Inventory inventory;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        clientAccount = new ClientAccount();
+        clientAccount.setCompanyName("Stress Company");
+        clientAccount.email("stress@company.com");
+        clientAccount.setPhone("0676841499");
+        clientAccount.setStatus(AccountStatus.ENABLED);
+        clientAccount.setReservationTimeoutHours(24);
+        clientAccount.setYalidineEnabled(false);
+        clientAccount = clientAccountRepository.saveAndFlush(clientAccount);
+
+        product = new Product();
+        product.setName("Stress Product");
+        product.setCode("STRESS-001");
+        product.applyTva(false);
+        product.setSellingPrice(new BigDecimal("100.00"));
+        product.setCostPrice(new BigDecimal("80.00"));
+        product.setCategory(ProductCategory.ELECTRONICS);
+        product.setClientAccount(clientAccount);
+        product = productRepository.saveAndFlush(product);
+
+        inventory = new Inventory();
+        inventory.setProduct(product);
+        inventory.setQuantity(INITIAL_STOCK);
+        inventory.setAvailableQuantity(INITIAL_STOCK);
+        inventory.setStatus(InventoryStatus.AVAILABLE);
+        inventory.setClientAccount(clientAccount);
+        inventory = inventoryRepository.saveAndFlush(inventory);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        inventoryTransactionRepository.deleteAll(inventoryTransactionRepository.findByProductId(product.getId()));
+        inventoryRepository.deleteById(inventory.getId());
+        productRepository.deleteById(product.getId());
+        clientAccountRepository.deleteById(clientAccount.getId());
+    }
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        int orders = 40;
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger confirmed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < orders; i++) {
+            futures.add(
+                executor.submit(() -> {
+                    start.await();
+                    boolean reserved = transactionTemplate.execute(status -> {
+                        InventoryValidationDTO result = stockReservationService.applyOrderMovement(
+                            createOrder(ORDER_QUANTITY),
+                            TransactionType.RESERVATION
+                        );
+                        if (!result.isValid()) {
+                            status.setRollbackOnly();
+                        }
+                        return result.isValid();
+                    });
+                    (reserved ? confirmed : rejected).incrementAndGet();
+                    return null;
+                })
+            );
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        int expectedConfirmed = INITIAL_STOCK.divide(ORDER_QUANTITY, 0, RoundingMode.DOWN).intValue();
+        Inventory reloaded = inventoryRepository.findById(inventory.getId()).orElseThrow();
+
+        assertThat(confirmed.get()).isEqualTo(expectedConfirmed);
+        assertThat(rejected.get()).isEqualTo(orders - expectedConfirmed);
+        assertThat(reloaded.getAvailableQuantity()).isEqualByComparingTo(
+            INITIAL_STOCK.subtract(ORDER_QUANTITY.multiply(BigDecimal.valueOf(expectedConfirmed)))
+        );
+        assertThat(inventoryTransactionRepository.findByProductId(product.getId())).hasSize(expectedConfirmed);
+    }
+
+    @Test
+    void rejectedLineLeavesOtherLinesUntouched() {
+        Product savedOther = createProduct("STRESS-002");
+
+        // Committed, so a partially applied movement would stay visible
+        InventoryValidationDTO result = transactionTemplate.execute(status -> {
+            SaleOrder order = createOrder(ORDER_QUANTITY);
+            SaleOrderItem missing = new SaleOrderItem();
+            missing.setProduct(savedOther);
+            missing.setQuantity(BigDecimal.ONE);
+            order.addOrderItem(missing);
+            return stockReservationService.applyOrderMovement(order, TransactionType.RESERVATION);
+        });
+        BigDecimal availableQuantity = transactionTemplate.execute(status ->
+            inventoryRepository
+                .findByProductIdAndClientAccountId(product.getId(), clientAccount.getId())
+                .orElseThrow()
+                .getAvailableQuantity()
+        );
+
+        productRepository.deleteById(savedOther.getId());
+
+        assertThat(result.isValid()).isFalse();
+        assertThat(result.getErrors()).hasSize(1);
+        assertThat(result.getErrors().get(0).getProductId()).isEqualTo(savedOther.getId());
+        assertThat(result.getErrors().get(0).getMessage()).contains("not found in inventory");
+        assertThat(availableQuantity).isEqualByComparingTo(INITIAL_STOCK);
+        assertThat(inventoryTransactionRepository.findByProductId(product.getId())).isEmpty();
+    }
+
+    @Test
+    void ordersSharingProductsDoNotDeadlock() throws Exception {
+        Product second = createProduct("STRESS-003");
+        Inventory secondInventory = new Inventory();
+        secondInventory.setProduct(second);
+        secondInventory.setQuantity(INITIAL_STOCK);
+        secondInventory.setAvailableQuantity(INITIAL_STOCK);
+        secondInventory.setStatus(InventoryStatus.AVAILABLE);
+        secondInventory.setClientAccount(clientAccount);
+        secondInventory = inventoryRepository.saveAndFlush(secondInventory);
+
+        int orders = 40;
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < orders; i++) {
+                boolean reversed = i % 2 == 0;
+                futures.add(
+                    executor.submit(() -> {
+                        start.await();
+                        return transactionTemplate.execute(status -> {
+                            SaleOrder order = new SaleOrder();
+                            order.setClientAccount(clientAccount);
+                            for (Product line : reversed ? List.of(second, product) : List.of(product, second)) {
+                                SaleOrderItem item = new SaleOrderItem();
+                                item.setProduct(line);
+                                item.setQuantity(BigDecimal.ONE);
+                                order.addOrderItem(item);
+                            }
+                            return stockReservationService.applyOrderMovement(order, TransactionType.RESERVATION).isValid();
+                        });
+                    })
+                );
+            }
+            start.countDown();
+            for (Future<Boolean> future : futures) {
+                assertThat(future.get(60, TimeUnit.SECONDS)).isTrue();
+            }
+        } finally {
+            executor.shutdown();
+            inventoryTransactionRepository.deleteAll(inventoryTransactionRepository.findByProductId(second.getId()));
+            inventoryRepository.deleteById(secondInventory.getId());
+            productRepository.deleteById(second.getId());
+        }
+    }
+
+    private Product createProduct(String code) {
+        Product other = new Product();
+        other.setName("Other Product " + code);
+        other.setCode(code);
+        other.applyTva(false);
+        other.setSellingPrice(new BigDecimal("10.00"));
+        other.setCategory(ProductCategory.ELECTRONICS);
+        other.setClientAccount(clientAccount);
+        return productRepository.saveAndFlush(other);
+    }
+
+    private SaleOrder createOrder(BigDecimal quantity) {
+        SaleOrder order = new SaleOrder();
+        order.setClientAccount(clientAccount);
+        SaleOrderItem item = new SaleOrderItem();
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        order.addOrderItem(item);
+        return order;
+    }
+}
@@ -0,0 +1,226 @@
+package com.adeem.stockflow.service.carrier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.adeem.stockflow.config.ApplicationProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Test class for the {@link CarrierHttpClient}, against a stub carrier served on a local port.
+ */
+class CarrierHttpClientTest {
+
+    private HttpServer server;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final Queue<Integer> statuses = new ConcurrentLinkedQueue<>();
+    private volatile long delayMs;
+    private volatile CountDownLatch release;
+
+    private ApplicationProperties.Carrier.Client settings;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", this::answer);
+        server.start();
+
+        settings = new ApplicationProperties.Carrier.Client();
+        settings.setBaseUrl("http://localhost:" + server.getAddress().getPort());
+        settings.setReadTimeoutMs(2000);
+        settings.setRetryBackoffMs(1);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private void answer(HttpExchange exchange) throws IOException {
+        hits.incrementAndGet();
+        try {
+            if (release != null) {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            Thread.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Integer status = statuses.poll();
+        byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status != null ? status : 200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String get(RestClient client) {
+        return client.get().uri("/api/v1/packages/{id}/tracking", "YAL-1").retrieve().body(String.class);
+    }
+
+    private static String post(RestClient client) {
+        return client.post().uri("/api/v1/packages").body("{}").retrieve().body(String.class);
+    }
+
+    @Test
+    void idempotentCallsAreRetriedOnOverload() {
+        statuses.add(503);
+        statuses.add(502);
+        try (CarrierHttpClient client = new CarrierHttpClient("stub", settings, RestClient.builder(), meterRegistry)) {
+            assertThat(client.call("tracking", true, CarrierHttpClientTest::get)).isEqualTo("ok");
+        }
+
+        assertThat(hits).hasValue(3);
+        assertThat(meterRegistry.get("carrier.client.requests").tag("outcome", "failure").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("carrier.client.requests").tag("outcome", "success").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void sentCallsThatAreNotIdempotentAreNotRetried() {
+        statuses.add(503);
+        try (CarrierHttpClient client = new CarrierHttpClient("stub", settings, RestClient.builder(), meterRegistry)) {
+            assertThatThrownBy(() -> client.call("create-shipment", false, CarrierHttpClientTest::post)).isInstanceOf(
+                HttpServerErrorException.class
+            );
+        }
+
+        assertThat(hits).hasValue(1);
+    }
+
+    @Test
+    void callsThatCouldNotBeSentAreRetried() throws IOException {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        settings.setBaseUrl("http://localhost:" + closedPort);
+        try (CarrierHttpClient client = new CarrierHttpClient("stub", settings, RestClient.builder(), meterRegistry)) {
+            assertThatThrownBy(() -> client.call("create-shipment", false, CarrierHttpClientTest::post)).isInstanceOf(
+                ResourceAccessException.class
+            );
+        }
+
+        assertThat(meterRegistry.get("carrier.client.requests").tag("outcome", "failure").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void clientErrorsAreNeitherRetriedNorCountedAsFailures() {
+        settings.setFailureThreshold(1);
+        statuses.add(404);
+        try (CarrierHttpClient client = new CarrierHttpClient("stub", settings, RestClient.builder(), meterRegistry)) {
+            assertThatThrownBy(() -> client.call("tracking", true, CarrierHttpClientTest::get)).isInstanceOf(
+                HttpClientErrorException.NotFound.class
+            );
+            assertThat(client.getCircuitState()).isEqualTo(CarrierCircuitBreaker.State.CLOSED);
+        }
+
+        assertThat(hits).hasValue(1);
+    }
+
+    @Test
+    void slowCarrierIsCutByTheReadTimeout() {
+        delayMs = 3000;
+        settings.setReadTimeoutMs(200);
+        settings.setMaxAttempts(1);
+        long start = System.nanoTime();
+        try (CarrierHttpClient client = new CarrierHttpClient("stub", settings, RestClient.builder(), meterRegistry)) {
+            assertThatThrownBy(() -> client.call("tracking", true, CarrierHttpClientTest::get)).isInstanceOf(
+                ResourceAccessException.class
+            );
+        }
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2000);
+    }
+
+    @Test
+    void circuitOpensAfterRepeatedFailures() {
+        settings.setFailureThreshold(2);
+        settings.setMaxAttempts(1);
+        statuses.add(500);
+        statuses.add(500);
+        try (CarrierHttpClient client = new CarrierHttpClient("stub", settings, RestClient.builder(), meterRegistry)) {
+            for (int i = 0; i < 2; i++) {
+                assertThatThrownBy(() -> client.call("tracking", true, CarrierHttpClientTest::get)).isInstanceOf(
+                    HttpServerErrorException.class
+                );
+            }
+
+            assertThatThrownBy(() -> client.call("tracking", true, CarrierHttpClientTest::get)).isInstanceOf(
+                CarrierUnavailableException.class
+            );
+            assertThat(meterRegistry.get("carrier.client.circuit.open").gauge().value()).isEqualTo(1);
+        }
+
+        assertThat(hits).hasValue(2);
+    }
+
+    @Test
+    void callsBeyondTheConcurrencyLimitAreRejected() throws Exception {
+        settings.setMaxConcurrentCalls(1);
+        settings.setAcquireTimeoutMs(50);
+        release = new CountDownLatch(1);
+        try (CarrierHttpClient client = new CarrierHttpClient("stub", settings, RestClient.builder(), meterRegistry)) {
+            CompletableFuture<String> inFlight = CompletableFuture.supplyAsync(
+                () -> client.call("tracking", true, CarrierHttpClientTest::get),
+                Executors.newVirtualThreadPerTaskExecutor()
+            );
+            while (hits.get() == 0) {
+                Thread.onSpinWait();
+            }
+
+            assertThatThrownBy(() -> client.call("tracking", true, CarrierHttpClientTest::get)).isInstanceOf(
+                CarrierUnavailableException.class
+            );
+            release.countDown();
+            assertThat(inFlight.get(5, TimeUnit.SECONDS)).isEqualTo("ok");
+        }
+
+        assertThat(hits).hasValue(1);
+    }
+
+    @Test
+    void openCircuitLetsOneTrialCallThroughAfterTheDelay() {
+        AtomicLong now = new AtomicLong();
+        CarrierCircuitBreaker circuitBreaker = new CarrierCircuitBreaker(1, 1000, now::get);
+
+        circuitBreaker.onFailure();
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+
+        now.set(1000);
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+        circuitBreaker.onFailure();
+        assertThat(circuitBreaker.getState()).isEqualTo(CarrierCircuitBreaker.State.OPEN);
+
+        now.set(2000);
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+        circuitBreaker.onSuccess();
+        assertThat(circuitBreaker.getState()).isEqualTo(CarrierCircuitBreaker.State.CLOSED);
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+    }
+}
@@ -0,0 +1,66 @@
+package com.adeem.stockflow.service.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.adeem.stockflow.domain.enumeration.ProductCategory;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link CsvExportWriter}.
+ */
+class CsvExportWriterTest {
+
+    @Test
+    void writesRowsWithQuotingOnlyWhereNeeded() throws Exception {
+        String csv = write(
+            List.of("Code", "Name"),
+            List.of("P1", "plain"),
+            List.of("P2", "with, comma"),
+            List.of("P3", "with \"quotes\""),
+            List.of("P4", "two\nlines")
+        );
+
+        assertThat(csv).isEqualTo(
+            "\uFEFFCode,Name\r\nP1,plain\r\nP2,\"with, comma\"\r\nP3,\"with \"\"quotes\"\"\"\r\nP4,\"two\nlines\"\r\n"
+        );
+    }
+
+    @Test
+    void formatsValuesForSpreadsheets() throws Exception {
+        String csv = write(
+            Arrays.asList(
+                new BigDecimal("1E+3"),
+                ProductCategory.ELECTRONICS,
+                true,
+                null,
+                ZonedDateTime.of(2025, 1, 2, 3, 4, 5, 0, ZoneOffset.UTC)
+            )
+        );
+
+        assertThat(csv).isEqualTo("\uFEFF1000,ELECTRONICS,true,,2025-01-02T03:04:05Z\r\n");
+    }
+
+    @Test
+    void textStartingLikeAFormulaIsNotEvaluated() throws Exception {
+        String csv = write(List.of("=HYPERLINK(\"http://example.com\")", "+1", "-1", "@SUM(A1)", "a=b"), List.of(BigDecimal.ONE.negate()));
+
+        assertThat(csv).isEqualTo("\uFEFF\"'=HYPERLINK(\"\"http://example.com\"\")\",'+1,'-1,'@SUM(A1),a=b\r\n-1\r\n");
+    }
+
+    private static String write(List<?>... rows) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ExportWriter writer = new CsvExportWriter(out)) {
+            for (List<?> row : rows) {
+                writer.writeRow(row);
+            }
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
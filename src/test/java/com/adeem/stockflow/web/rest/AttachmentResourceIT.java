@@ -10,23 +10,36 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.adeem.stockflow.IntegrationTest;
 import com.adeem.stockflow.domain.Attachment;
 import com.adeem.stockflow.domain.enumeration.AttachmentType;
+import com.adeem.stockflow.domain.enumeration.ImageSize;
 import com.adeem.stockflow.repository.AttachmentRepository;
 import com.adeem.stockflow.repository.UserRepository;
 import com.adeem.stockflow.service.dto.AttachmentDTO;
 import com.adeem.stockflow.service.mapper.AttachmentMapper;
+import com.adeem.stockflow.service.util.AttachmentUrlUtils;
 import com.adeem.stockflow.web.rest.uncostomized.AttachmentResource;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityManager;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import javax.imageio.ImageIO;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -448,6 +461,165 @@ class AttachmentResourceIT {
         assertDecrementedRepositoryCount(databaseSizeBeforeDelete);
     }
 
+    @Test
+    @Transactional
+    void downloadAttachmentContent() throws Exception {
+        AttachmentDTO attachmentDTO = attachmentMapper.toDto(attachment);
+        attachmentDTO.setData("0123456789".getBytes(StandardCharsets.UTF_8));
+        attachmentDTO.setDataContentType(MediaType.TEXT_PLAIN_VALUE);
+
+        AttachmentDTO returnedAttachmentDTO = om.readValue(
+            restAttachmentMockMvc
+                .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(attachmentDTO)))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(),
+            AttachmentDTO.class
+        );
+        assertThat(returnedAttachmentDTO.getData()).isNull();
+        assertThat(returnedAttachmentDTO.getFileSize()).isEqualTo(10L);
+        assertThat(attachmentRepository.findById(returnedAttachmentDTO.getId()).orElseThrow().getBlobKey()).hasSize(64);
+
+        restAttachmentMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/download", returnedAttachmentDTO.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+            .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_PLAIN))
+            .andExpect(content().string("0123456789"));
+
+        restAttachmentMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/download", returnedAttachmentDTO.getId()).header(HttpHeaders.RANGE, "bytes=2-5"))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+            .andExpect(content().string("2345"));
+
+        restAttachmentMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/download", returnedAttachmentDTO.getId()).header(HttpHeaders.RANGE, "bytes=20-"))
+            .andExpect(status().isRequestedRangeNotSatisfiable())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+    }
+
+    @Test
+    @Transactional
+    void downloadImageSizes() throws Exception {
+        AttachmentDTO attachmentDTO = attachmentMapper.toDto(attachment);
+        attachmentDTO.setData(pngImage(1200, 600));
+        attachmentDTO.setDataContentType(MediaType.IMAGE_PNG_VALUE);
+
+        AttachmentDTO returnedAttachmentDTO = om.readValue(
+            restAttachmentMockMvc
+                .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(attachmentDTO)))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(),
+            AttachmentDTO.class
+        );
+        Attachment persistedAttachment = attachmentRepository.findById(returnedAttachmentDTO.getId()).orElseThrow();
+        assertThat(persistedAttachment.getThumbnailBlobKey()).isNotNull().isNotEqualTo(persistedAttachment.getBlobKey());
+        assertThat(persistedAttachment.getMediumBlobKey()).isNotNull().isNotEqualTo(persistedAttachment.getBlobKey());
+
+        String thumbnailUrl = AttachmentUrlUtils.getDownloadUrl(persistedAttachment, ImageSize.THUMBNAIL);
+        MvcResult thumbnailResult = restAttachmentMockMvc
+            .perform(get(thumbnailUrl))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.IMAGE_JPEG))
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, max-age=31536000, immutable"))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + persistedAttachment.getThumbnailBlobKey() + "\""))
+            .andReturn();
+        BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(thumbnailResult.getResponse().getContentAsByteArray()));
+        assertThat(thumbnail.getWidth()).isEqualTo(240);
+        assertThat(thumbnail.getHeight()).isEqualTo(120);
+
+        restAttachmentMockMvc
+            .perform(get(thumbnailUrl).header(HttpHeaders.IF_NONE_MATCH, thumbnailResult.getResponse().getHeader(HttpHeaders.ETAG)))
+            .andExpect(status().isNotModified());
+
+        MvcResult mediumResult = restAttachmentMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/download?size=medium", persistedAttachment.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, no-cache"))
+            .andReturn();
+        BufferedImage medium = ImageIO.read(new ByteArrayInputStream(mediumResult.getResponse().getContentAsByteArray()));
+        assertThat(medium.getWidth()).isEqualTo(960);
+        assertThat(medium.getHeight()).isEqualTo(480);
+
+        restAttachmentMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/download?size=huge", persistedAttachment.getId()))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void undecodableImageIsNotDecodedAgain() throws Exception {
+        // A PNG signature followed by garbage, picked up by the PNG reader which then fails
+        byte[] corrupt = Arrays.copyOf(pngImage(10, 10), 40);
+        Arrays.fill(corrupt, 16, 40, (byte) 0x7f);
+        AttachmentDTO attachmentDTO = attachmentMapper.toDto(attachment);
+        attachmentDTO.setData(corrupt);
+        attachmentDTO.setDataContentType(MediaType.IMAGE_PNG_VALUE);
+
+        AttachmentDTO returnedAttachmentDTO = om.readValue(
+            restAttachmentMockMvc
+                .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(attachmentDTO)))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(),
+            AttachmentDTO.class
+        );
+
+        Attachment persistedAttachment = attachmentRepository.findById(returnedAttachmentDTO.getId()).orElseThrow();
+        assertThat(persistedAttachment.getThumbnailBlobKey()).isEqualTo(persistedAttachment.getBlobKey());
+        assertThat(persistedAttachment.getMediumBlobKey()).isEqualTo(persistedAttachment.getBlobKey());
+
+        restAttachmentMockMvc
+            .perform(get(AttachmentUrlUtils.getDownloadUrl(persistedAttachment, ImageSize.THUMBNAIL)))
+            .andExpect(status().isOk())
+            .andExpect(content().bytes(corrupt));
+    }
+
+    @Test
+    @Transactional
+    void downloadLegacyAttachmentContent() throws Exception {
+        // Content written before the blob store, directly in the data column
+        insertedAttachment = attachmentRepository.saveAndFlush(attachment.fileSize(null));
+        em
+            .createNativeQuery("UPDATE attachment SET data = :data WHERE id = :id")
+            .setParameter("data", "legacy".getBytes(StandardCharsets.UTF_8))
+            .setParameter("id", insertedAttachment.getId())
+            .executeUpdate();
+
+        restAttachmentMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/download", insertedAttachment.getId()).header(HttpHeaders.RANGE, "bytes=-3"))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 3-5/6"))
+            .andExpect(content().string("acy"));
+
+        assertThat(attachmentRepository.findById(insertedAttachment.getId()).orElseThrow().getBlobKey()).hasSize(64);
+        assertThat(attachmentRepository.findLegacyData(insertedAttachment.getId())).isNull();
+    }
+
+    @Test
+    @Transactional
+    void downloadAttachmentWithoutContent() throws Exception {
+        insertedAttachment = attachmentRepository.saveAndFlush(attachment);
+
+        restAttachmentMockMvc.perform(get(ENTITY_API_URL_ID + "/download", insertedAttachment.getId())).andExpect(status().isNotFound());
+    }
+
+    private static byte[] pngImage(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.BLUE);
+        graphics.fillRect(0, 0, width / 2, height);
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
     protected long getRepositoryCount() {
         return attachmentRepository.count();
     }
@@ -338,6 +338,28 @@ class CartResourceIT {
         assertThat(validation.getIssues().get(0).getIssueType()).isEqualTo(CartValidationIssueDTO.IssueType.INSUFFICIENT_STOCK);
     }
 
+    @Test
+    @Transactional
+    void validateCart_WithSeveralItems_ShouldCheckEachProductStock() throws Exception {
+        setSecurityContextWithUserId(user.getId());
+        // Given - Only the second product runs short
+        createCartWithItems();
+        inventory2.setAvailableQuantity(new BigDecimal("1"));
+        inventoryRepository.saveAndFlush(inventory2);
+
+        // When
+        MvcResult result = restCartMockMvc.perform(post(ENTITY_API_URL + "/validate")).andExpect(status().isOk()).andReturn();
+
+        // Then
+        CartValidationResponseDTO validation = om.readValue(result.getResponse().getContentAsString(), CartValidationResponseDTO.class);
+        assertThat(validation.getIsValid()).isFalse();
+        assertThat(validation.getIssues()).hasSize(1);
+        CartValidationIssueDTO issue = validation.getIssues().get(0);
+        assertThat(issue.getIssueType()).isEqualTo(CartValidationIssueDTO.IssueType.INSUFFICIENT_STOCK);
+        assertThat(issue.getProductId()).isEqualTo(product2.getId());
+        assertThat(issue.getAvailableQuantity()).isEqualByComparingTo(new BigDecimal("1"));
+    }
+
     @Test
     @Transactional
     void getCartSummary_ShouldReturnSummary() throws Exception {
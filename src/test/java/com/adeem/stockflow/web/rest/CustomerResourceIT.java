@@ -9,8 +9,11 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.adeem.stockflow.IntegrationTest;
 import com.adeem.stockflow.domain.ClientAccount;
 import com.adeem.stockflow.domain.Customer;
+import com.adeem.stockflow.domain.CustomerClientAssociation;
 import com.adeem.stockflow.domain.User;
 import com.adeem.stockflow.domain.enumeration.AccountStatus;
+import com.adeem.stockflow.domain.enumeration.AssociationStatus;
+import com.adeem.stockflow.domain.enumeration.AssociationType;
 import com.adeem.stockflow.repository.ClientAccountRepository;
 import com.adeem.stockflow.repository.CustomerRepository;
 import com.adeem.stockflow.repository.UserRepository;
@@ -465,21 +468,83 @@ class CustomerResourceIT {
             .andExpect(jsonPath("$.[*].firstName").value(hasItem(DEFAULT_FIRST_NAME)));
     }
 
+    @Test
+    @Transactional
+    void autocompleteCustomers() throws Exception {
+        setSecurityContextWithClientAccountId(clientAccount.getId());
+        customerRepository.saveAndFlush(customer);
+        Customer alice = createEntity(em, clientAccount).firstName("Alice").lastName("Johnson").phone("0555123456");
+        customerRepository.saveAndFlush(alice);
+
+        // Exact word first, then the substring match
+        restCustomerMockMvc
+            .perform(get(ENTITY_API_URL + "/autocomplete?q=JOHN"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$.[0].id").value(customer.getId().intValue()))
+            .andExpect(jsonPath("$.[1].id").value(alice.getId().intValue()));
+
+        // Typo
+        restCustomerMockMvc
+            .perform(get(ENTITY_API_URL + "/autocomplete?q=alicr"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$.[0].firstName").value("Alice"));
+
+        // Phone fragment, capped size
+        restCustomerMockMvc
+            .perform(get(ENTITY_API_URL + "/autocomplete?q=555123&size=1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$.[0].id").value(alice.getId().intValue()));
+
+        // LIKE wildcards are matched literally
+        restCustomerMockMvc
+            .perform(get(ENTITY_API_URL + "/autocomplete?q=%25%25%25"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(0)));
+
+        restCustomerMockMvc.perform(get(ENTITY_API_URL + "/autocomplete?q=jo")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getCustomerStatistics() throws Exception {
         setSecurityContextWithClientAccountId(clientAccount.getId());
         // Initialize the database
         customerRepository.saveAndFlush(customer);
+        Customer disabledCustomer = createUpdatedEntity(em, clientAccount);
+        customerRepository.saveAndFlush(disabledCustomer);
+        em.persist(
+            new CustomerClientAssociation()
+                .customer(customer)
+                .clientAccount(clientAccount)
+                .associationType(AssociationType.FOLLOWED)
+                .status(AssociationStatus.ACTIVE)
+        );
+        em.persist(
+            new CustomerClientAssociation()
+                .customer(disabledCustomer)
+                .clientAccount(clientAccount)
+                .associationType(AssociationType.BUSINESS_PARTNER)
+                .status(AssociationStatus.INACTIVE)
+        );
+        em.flush();
 
         // Get statistics
         restCustomerMockMvc
             .perform(get(ENTITY_API_URL + "/statistics"))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
-            .andExpect(jsonPath("$.totalCustomers").value(greaterThanOrEqualTo(1)))
-            .andExpect(jsonPath("$.enabledCustomers").value(greaterThanOrEqualTo(1)))
-            .andExpect(jsonPath("$.managedCustomers").value(greaterThanOrEqualTo(0)));
+            .andExpect(jsonPath("$.totalCustomers").value(2))
+            .andExpect(jsonPath("$.enabledCustomers").value(1))
+            .andExpect(jsonPath("$.disabledCustomers").value(1))
+            .andExpect(jsonPath("$.managedCustomers").value(2))
+            .andExpect(jsonPath("$.independentCustomers").value(0))
+            .andExpect(jsonPath("$.customersWithoutAccounts").value(2))
+            .andExpect(jsonPath("$.totalAssociations").value(1))
+            .andExpect(jsonPath("$.associationsByType.FOLLOWED").value(1))
+            .andExpect(jsonPath("$.associationsByType.BUSINESS_PARTNER").doesNotExist());
     }
 
     @Test
@@ -16,6 +16,7 @@ import com.adeem.stockflow.domain.enumeration.*;
 import com.adeem.stockflow.repository.*;
 import com.adeem.stockflow.security.TestSecurityContextHelper;
 import com.adeem.stockflow.security.WithMockClientAccount;
+import com.adeem.stockflow.service.InventoryService;
 import com.adeem.stockflow.service.dto.InventoryAdjustmentRequest;
 import com.adeem.stockflow.service.dto.InventoryDTO;
 import com.adeem.stockflow.service.dto.InventoryStatsDTO;
@@ -78,6 +79,9 @@ class InventoryResourceIT {
     @Autowired
     private InventoryTransactionRepository inventoryTransactionRepository;
 
+    @Autowired
+    private InventoryService inventoryService;
+
     @Autowired
     private InventoryMapper inventoryMapper;
 
@@ -330,6 +334,57 @@ class InventoryResourceIT {
             .andExpect(jsonPath("$.healthyStockItems").value(1));
     }
 
+    @Test
+    @Transactional
+    void inventoryStatsFollowStockMovements() throws Exception {
+        setSecurityContextWithClientAccountId(clientAccount.getId());
+
+        // Minimum stock level 1 and cost price 1, 8 available is overstock
+        inventory.setClientAccount(clientAccount);
+        insertedInventory = inventoryRepository.saveAndFlush(inventory);
+
+        restInventoryMockMvc
+            .perform(get(ENTITY_API_URL + "/stats"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalProducts").value(1))
+            .andExpect(jsonPath("$.totalUnits").value(sameNumber(new BigDecimal("10"))))
+            .andExpect(jsonPath("$.totalAvailableQuantity").value(sameNumber(new BigDecimal("8"))))
+            .andExpect(jsonPath("$.totalReservedQuantity").value(sameNumber(new BigDecimal("2"))))
+            .andExpect(jsonPath("$.totalValue").value(sameNumber(new BigDecimal("8"))))
+            .andExpect(jsonPath("$.overstockItems").value(1));
+
+        insertedInventory.setAvailableQuantity(new BigDecimal("4"));
+        inventoryRepository.saveAndFlush(insertedInventory);
+        product.setMinimumStockLevel(new BigDecimal("5"));
+        product.setCostPrice(new BigDecimal("2.50"));
+        productRepository.saveAndFlush(product);
+        // The counters read above are still in the persistence context of the test transaction
+        em.clear();
+
+        restInventoryMockMvc
+            .perform(get(ENTITY_API_URL + "/stats"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalReservedQuantity").value(sameNumber(new BigDecimal("6"))))
+            .andExpect(jsonPath("$.totalValue").value(sameNumber(new BigDecimal("10"))))
+            .andExpect(jsonPath("$.lowStockItems").value(1))
+            .andExpect(jsonPath("$.overstockItems").value(0));
+
+        // Counters changed behind the triggers are put back by the reconciliation
+        em
+            .createNativeQuery("UPDATE inventory_stats SET total_units = 0, low_stock_count = 0 WHERE client_account_id = :id")
+            .setParameter("id", clientAccount.getId())
+            .executeUpdate();
+        assertThat(inventoryService.reconcileInventoryStats(clientAccount.getId())).isTrue();
+        assertThat(inventoryService.reconcileInventoryStats(clientAccount.getId())).isFalse();
+        em.clear();
+
+        restInventoryMockMvc
+            .perform(get(ENTITY_API_URL + "/stats"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalUnits").value(sameNumber(new BigDecimal("10"))))
+            .andExpect(jsonPath("$.lowStockItems").value(1));
+    }
+
     @Test
     @Transactional
     void getLowStockInventory() throws Exception {
@@ -28,7 +28,9 @@ import com.adeem.stockflow.service.dto.ProductWithInventoryDTO;
 import com.adeem.stockflow.service.mapper.ProductMapper;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
@@ -38,6 +40,9 @@ import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -745,6 +750,102 @@ class ProductResourceIT {
         }
     }
 
+    @Test
+    @Transactional
+    void getAllProductsWithCursor() throws Exception {
+        setSecurityContextWithClientAccountId(clientAccount.getId());
+        product.setClientAccount(clientAccount);
+        product.setSellingPrice(new BigDecimal("10"));
+        // Two products with the same price, ordered by id within it
+        Product product2 = createEntity();
+        product2.setCode("CURSOR_CODE_2");
+        product2.setSellingPrice(new BigDecimal("50"));
+        product2.setClientAccount(clientAccount);
+        Product product3 = createEntity();
+        product3.setCode("CURSOR_CODE_3");
+        product3.setSellingPrice(new BigDecimal("50"));
+        product3.setClientAccount(clientAccount);
+
+        // Initialize the database
+        insertedProduct = productRepository.saveAndFlush(product);
+        Product insertedProduct2 = productRepository.saveAndFlush(product2);
+        Product insertedProduct3 = productRepository.saveAndFlush(product3);
+
+        try {
+            String nextCursor = restProductMockMvc
+                .perform(get(ENTITY_API_URL + "?cursor=&size=2&sort=sellingPrice,desc"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andExpect(header().doesNotExist("X-Total-Count"))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$.[0].id").value(insertedProduct3.getId().intValue()))
+                .andExpect(jsonPath("$.[1].id").value(insertedProduct2.getId().intValue()))
+                .andReturn()
+                .getResponse()
+                .getHeader("X-Next-Cursor");
+
+            restProductMockMvc
+                .perform(get(ENTITY_API_URL + "?size=2&sort=sellingPrice,desc&cursor=" + nextCursor))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$.[0].id").value(insertedProduct.getId().intValue()));
+
+            // A cursor only resumes the order it was made for
+            restProductMockMvc
+                .perform(get(ENTITY_API_URL + "?size=2&sort=sellingPrice,asc&cursor=" + nextCursor))
+                .andExpect(status().isBadRequest());
+            restProductMockMvc.perform(get(ENTITY_API_URL + "?cursor=not-a-cursor")).andExpect(status().isBadRequest());
+        } finally {
+            // Cleanup
+            productRepository.delete(insertedProduct2);
+            productRepository.delete(insertedProduct3);
+        }
+    }
+
+    @Test
+    @Transactional
+    void exportProducts() throws Exception {
+        setSecurityContextWithClientAccountId(clientAccount.getId());
+        product.setClientAccount(clientAccount);
+        // Initialize the database
+        insertedProduct = productRepository.saveAndFlush(product);
+
+        String csv = restProductMockMvc
+            .perform(get(ENTITY_API_URL + "/export?code.equals=" + DEFAULT_CODE))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("text/csv;charset=UTF-8"))
+            .andExpect(header().string("Content-Disposition", "attachment; filename=\"products.csv\""))
+            .andReturn()
+            .getResponse()
+            .getContentAsString(StandardCharsets.UTF_8);
+        List<String> lines = csv.lines().toList();
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).startsWith("\uFEFFID,Code,Name,");
+        assertThat(lines.get(1)).startsWith(insertedProduct.getId() + "," + DEFAULT_CODE + "," + DEFAULT_NAME + ",");
+
+        // The criteria apply to the export
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL + "/export?code.equals=" + UPDATED_CODE))
+            .andExpect(status().isOk())
+            .andExpect(content().string("\uFEFF" + lines.get(0) + "\r\n"));
+
+        byte[] xlsx = restProductMockMvc
+            .perform(get(ENTITY_API_URL + "/export?format=XLSX&code.equals=" + DEFAULT_CODE))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Disposition", "attachment; filename=\"products.xlsx\""))
+            .andReturn()
+            .getResponse()
+            .getContentAsByteArray();
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(xlsx))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertThat(sheet.getLastRowNum()).isEqualTo(1);
+            assertThat(sheet.getRow(0).getCell(1).getStringCellValue()).isEqualTo("Code");
+            assertThat(sheet.getRow(1).getCell(0).getNumericCellValue()).isEqualTo(insertedProduct.getId().doubleValue());
+            assertThat(sheet.getRow(1).getCell(1).getStringCellValue()).isEqualTo(DEFAULT_CODE);
+        }
+    }
+
     @Test
     @Transactional
     void getProduct() throws Exception {
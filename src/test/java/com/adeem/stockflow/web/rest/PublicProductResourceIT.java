@@ -1,5 +1,6 @@
 package com.adeem.stockflow.web.rest;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -15,8 +16,10 @@ import com.adeem.stockflow.repository.ClientAccountRepository;
 import com.adeem.stockflow.repository.InventoryRepository;
 import com.adeem.stockflow.repository.ProductRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.BeforeEach;
@@ -126,6 +129,36 @@ class PublicProductResourceIT {
             .andExpect(jsonPath("$.[*].companyName").value(hasItem("Test Company")));
     }
 
+    @Test
+    @Transactional
+    void availableOnlyFollowsInventoryMovements() throws Exception {
+        clientAccountRepository.saveAndFlush(clientAccount);
+        product.setClientAccount(clientAccount);
+        productRepository.saveAndFlush(product);
+
+        inventory.setProduct(product);
+        inventory.setClientAccount(clientAccount);
+        inventory.setQuantity(BigDecimal.TEN);
+        inventory.setAvailableQuantity(BigDecimal.TEN);
+        inventory.setStatus(InventoryStatus.AVAILABLE);
+        inventoryRepository.saveAndFlush(inventory);
+
+        restPublicProductMockMvc
+            .perform(get(ENTITY_API_URL + "?availableOnly=true&sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[?(@.id == %d)].availableQuantity", product.getId()).value(hasItem(10.0)))
+            .andExpect(jsonPath("$.[?(@.id == %d)].isAvailable", product.getId()).value(hasItem(true)));
+
+        // Sell out: the read model must drop the product from the available listing
+        inventory.setAvailableQuantity(BigDecimal.ZERO);
+        inventoryRepository.saveAndFlush(inventory);
+
+        restPublicProductMockMvc
+            .perform(get(ENTITY_API_URL + "?availableOnly=true&sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(product.getId().intValue()))));
+    }
+
     @Test
     @Transactional
     void getMarketplaceProductDetail() throws Exception {
@@ -173,6 +206,50 @@ class PublicProductResourceIT {
             .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME)));
     }
 
+    @Test
+    @Transactional
+    void searchMarketplaceProductsToleratesPrefixesAndTypos() throws Exception {
+        clientAccountRepository.saveAndFlush(clientAccount);
+        product.setClientAccount(clientAccount);
+        productRepository.saveAndFlush(product);
+
+        restPublicProductMockMvc
+            .perform(get(ENTITY_API_URL + "/search?q=prod"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(hasItem(product.getId().intValue())));
+
+        restPublicProductMockMvc
+            .perform(get(ENTITY_API_URL + "/search?q=prodct"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(hasItem(product.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void searchMarketplaceProductsPagesWithCursor() throws Exception {
+        clientAccountRepository.saveAndFlush(clientAccount);
+        for (int i = 1; i <= 3; i++) {
+            productRepository.saveAndFlush(createEntity().name("Keyset Widget " + i).code("KEYSET-" + i).clientAccount(clientAccount));
+        }
+
+        String cursor = restPublicProductMockMvc
+            .perform(get(ENTITY_API_URL + "/search?q=keyset&size=2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(header().exists("X-Next-Cursor"))
+            .andReturn()
+            .getResponse()
+            .getHeader("X-Next-Cursor");
+
+        restPublicProductMockMvc
+            .perform(get(ENTITY_API_URL + "/search?q=keyset&size=2&cursor=" + cursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(header().doesNotExist("X-Next-Cursor"));
+
+        restPublicProductMockMvc.perform(get(ENTITY_API_URL + "/search?q=keyset&cursor=not-a-cursor")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getProductCategories() throws Exception {
@@ -190,6 +267,24 @@ class PublicProductResourceIT {
             .andExpect(jsonPath("$.[*].productCount").exists());
     }
 
+    @Test
+    @Transactional
+    void getProductCategoriesCountsAvailableProducts() throws Exception {
+        clientAccountRepository.saveAndFlush(clientAccount);
+        product.setClientAccount(clientAccount);
+        productRepository.saveAndFlush(product);
+        List<Integer> before = categoryCounts(DEFAULT_CATEGORY);
+
+        inventory.setProduct(product);
+        inventory.setClientAccount(clientAccount);
+        inventory.setQuantity(BigDecimal.TEN);
+        inventory.setAvailableQuantity(BigDecimal.TEN);
+        inventory.setStatus(InventoryStatus.AVAILABLE);
+        inventoryRepository.saveAndFlush(inventory);
+
+        assertThat(categoryCounts(DEFAULT_CATEGORY)).containsExactly(before.get(0), before.get(1) + 1);
+    }
+
     @Test
     @Transactional
     void getProductsByCategory() throws Exception {
@@ -256,4 +351,20 @@ class PublicProductResourceIT {
         // Try to get non-visible product - should return 404
         restPublicProductMockMvc.perform(get(ENTITY_API_URL + "/{id}", product.getId())).andExpect(status().isNotFound());
     }
+
+    /**
+     * The {@code [productCount, availableProductCount]} of a category on the categories endpoint.
+     */
+    private List<Integer> categoryCounts(ProductCategory category) throws Exception {
+        String json = restPublicProductMockMvc
+            .perform(get(ENTITY_API_URL + "/categories"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        String filter = "$[?(@.category == '" + category.name() + "')]";
+        List<Integer> productCounts = JsonPath.read(json, filter + ".productCount");
+        List<Integer> availableCounts = JsonPath.read(json, filter + ".availableProductCount");
+        return List.of(productCounts.get(0), availableCounts.get(0));
+    }
 }
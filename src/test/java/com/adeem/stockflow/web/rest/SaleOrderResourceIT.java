@@ -2,6 +2,7 @@ package com.adeem.stockflow.web.rest;
 
 import static com.adeem.stockflow.security.TestSecurityContextHelper.setSecurityContextWithClientAccountId;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -1729,6 +1730,40 @@ class SaleOrderResourceIT {
             .andExpect(jsonPath("$.pickupOrders").value(greaterThanOrEqualTo(1)));
     }
 
+    @Test
+    @Transactional
+    void getOrderStatistics_CountersFollowStatusTransitions() throws Exception {
+        setupSecurityContext();
+
+        createCompleteTestOrder();
+        saleOrder.setStatus(OrderStatus.DRAFTED);
+        saleOrder.setOrderType(OrderType.STORE_PICKUP);
+        saleOrderRepository.saveAndFlush(saleOrder);
+
+        saleOrder.setStatus(OrderStatus.COMPLETED);
+        saleOrderRepository.saveAndFlush(saleOrder);
+
+        restSaleOrderMockMvc
+            .perform(get(ENTITY_API_URL + "/stats"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalOrders").value(1))
+            .andExpect(jsonPath("$.draftedOrders").value(0))
+            .andExpect(jsonPath("$.completedOrders").value(1))
+            .andExpect(jsonPath("$.pickupOrders").value(1))
+            .andExpect(jsonPath("$.totalRevenue").value(DEFAULT_TOTAL.doubleValue()));
+
+        // The trigger-maintained counters must agree with a fresh aggregation
+        assertThat(saleOrderRepository.findStatsByClientAccount(clientAccount.getId()))
+            .map(row -> tuple(row.getStatus(), row.getOrderType(), row.getOrderCount()))
+            .containsExactlyInAnyOrderElementsOf(
+                saleOrderRepository
+                    .aggregateStatsByClientAccount(clientAccount.getId())
+                    .stream()
+                    .map(row -> tuple(row.getStatus(), row.getOrderType(), row.getOrderCount()))
+                    .toList()
+            );
+    }
+
     @Test
     @Transactional
     void completeOrder_WithValidShippedOrder_ShouldSucceed() throws Exception {
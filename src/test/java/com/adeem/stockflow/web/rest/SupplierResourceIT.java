@@ -527,6 +527,57 @@ class SupplierResourceIT {
         supplierRepository.delete(savedSupplierByCompany);
     }
 
+    @Test
+    @Transactional
+    void autocompleteSuppliers() throws Exception {
+        TestSecurityContextHelper.setSecurityContextWithClientAccountId(clientAccount.getId());
+        insertedSupplier = supplierRepository.saveAndFlush(supplier);
+
+        Supplier techCorp = createEntity();
+        techCorp.setFirstName("Alice");
+        techCorp.setLastName("Martin");
+        techCorp.setCompanyName("TechCorp Solutions");
+        techCorp.setEmail("sales@techcorp.com");
+        techCorp.setPhone("4444444444");
+        techCorp.setClientAccount(clientAccount);
+        Supplier savedTechCorp = supplierRepository.saveAndFlush(techCorp);
+
+        Supplier inactive = createEntity();
+        inactive.setCompanyName("TechCorp Archive");
+        inactive.setEmail("archive@techcorp.com");
+        inactive.setPhone("3333333333");
+        inactive.setActive(false);
+        inactive.setClientAccount(clientAccount);
+        Supplier savedInactive = supplierRepository.saveAndFlush(inactive);
+
+        // Company name, inactive suppliers are left out
+        restSupplierMockMvc
+            .perform(get(ENTITY_API_URL + "/autocomplete?q=techcorp"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$.[0].id").value(savedTechCorp.getId().intValue()));
+
+        // Typo
+        restSupplierMockMvc
+            .perform(get(ENTITY_API_URL + "/autocomplete?q=techcorb"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(hasItem(savedTechCorp.getId().intValue())));
+
+        // Email fragment
+        restSupplierMockMvc
+            .perform(get(ENTITY_API_URL + "/autocomplete?q=acme.com"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$.[0].id").value(insertedSupplier.getId().intValue()));
+
+        restSupplierMockMvc.perform(get(ENTITY_API_URL + "/autocomplete?q=%20a%20")).andExpect(status().isBadRequest());
+
+        // Cleanup
+        supplierRepository.delete(savedTechCorp);
+        supplierRepository.delete(savedInactive);
+    }
+
     @Test
     @Transactional
     void getSupplierStatistics() throws Exception {